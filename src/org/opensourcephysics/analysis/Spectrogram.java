@@ -0,0 +1,291 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.analysis;
+import org.opensourcephysics.display.Dataset;
+import org.opensourcephysics.display2d.ByteRaster;
+import org.opensourcephysics.numerics.FFTReal;
+
+/**
+ * Spectrogram computes a short-time Fourier transform of a stream of evenly spaced samples.
+ *
+ * Samples are collected in a circular buffer. Every hop samples the most recent window of
+ * samples is multiplied by a Hann window and transformed with a real FFT, and the resulting
+ * power spectrum is scrolled into the right-hand column of an optional ByteRaster.
+ * The sample, window, frame and power buffers are allocated once so samples can be appended at audio rates.
+ */
+public class Spectrogram {
+  FFTReal fft;
+  int windowSize, hop;
+  double[] window, samples, frame, power;
+  int next;       // index in samples of the next sample
+  int countdown;  // number of samples until the next frame
+  long frameCount;
+  double norm;    // power normalization for the window
+  double sampleRate = 1;
+  double dbMin = -100, dbMax = 0;
+  ByteRaster raster;
+  byte[][] columns; // raster columns waiting to be scrolled into the raster
+  int pending;
+  double lastX = Double.NaN; // x value of the last sample read from a Dataset
+  double[] xBuffer = new double[1], yBuffer = new double[1024];
+
+  /**
+   * Constructs a Spectrogram.
+   *
+   * @param windowSize the number of samples in each frame (must be even)
+   * @param hop the number of samples between frames
+   */
+  public Spectrogram(int windowSize, int hop) {
+    if((windowSize<2)||(windowSize%2!=0)) {
+      throw new IllegalArgumentException(windowSize+" is not a positive even number"); //$NON-NLS-1$
+    }
+    if(hop<1) {
+      throw new IllegalArgumentException("hop must be positive: "+hop); //$NON-NLS-1$
+    }
+    this.windowSize = windowSize;
+    this.hop = hop;
+    fft = new FFTReal(windowSize);
+    samples = new double[windowSize];
+    frame = new double[windowSize];
+    power = new double[windowSize/2+1];
+    window = new double[windowSize];
+    double sum = 0;
+    for(int i = 0; i<windowSize; i++) {
+      window[i] = 0.5-0.5*Math.cos(2*Math.PI*i/windowSize); // periodic Hann window
+      sum += window[i];
+    }
+    norm = 1/(sum*sum);
+    clear();
+  }
+
+  /**
+   * Clears the samples and frame count.
+   */
+  public void clear() {
+    java.util.Arrays.fill(samples, 0);
+    next = 0;
+    countdown = windowSize;
+    frameCount = 0;
+    pending = 0;
+    lastX = Double.NaN;
+  }
+
+  /**
+   * Sets the sample rate used to compute frequencies.
+   *
+   * @param rate the number of samples per unit time
+   */
+  public void setSampleRate(double rate) {
+    sampleRate = rate;
+  }
+
+  /**
+   * Gets the frequency of a power spectrum bin.
+   *
+   * @param bin the bin index from 0 to windowSize/2
+   * @return the frequency
+   */
+  public double getFrequency(int bin) {
+    return bin*sampleRate/windowSize;
+  }
+
+  /**
+   * Sets the range of power in decibels mapped to raster values 0 to 255.
+   *
+   * @param min the power mapped to 0
+   * @param max the power mapped to 255
+   */
+  public void setDecibelRange(double min, double max) {
+    dbMin = min;
+    dbMax = max;
+  }
+
+  /**
+   * Sets the raster that displays the spectrogram. Each frame becomes a column
+   * with frequency increasing with y. The raster is scaled to show time
+   * in frames on the x axis and frequency on the y axis.
+   *
+   * @param raster the raster (may be null)
+   */
+  public void setRaster(ByteRaster raster) {
+    this.raster = raster;
+    pending = 0;
+    if(raster!=null) {
+      columns = new byte[raster.getNx()][raster.getNy()];
+      raster.setMinMax(0, raster.getNx(), 0, getFrequency(windowSize/2));
+    }
+  }
+
+  /**
+   * Gets the number of frames computed since the last clear.
+   *
+   * @return the frame count
+   */
+  public long getFrameCount() {
+    return frameCount;
+  }
+
+  /**
+   * Gets the power spectrum of the most recent frame. Bins 0 to windowSize/2
+   * run from zero to the Nyquist frequency. The array is reused by later frames.
+   *
+   * @return the power spectrum
+   */
+  public double[] getPowerSpectrum() {
+    return power;
+  }
+
+  /**
+   * Appends a sample.
+   *
+   * @param sample the sample
+   */
+  public void append(double sample) {
+    add(sample);
+    flush();
+  }
+
+  /**
+   * Appends samples from an array.
+   *
+   * @param data the array
+   * @param start the index of the first sample
+   * @param length the number of samples
+   */
+  public void append(double[] data, int start, int length) {
+    for(int i = start, end = start+length; i<end; i++) {
+      add(data[i]);
+    }
+    flush();
+  }
+
+  /**
+   * Appends the y values of points added to a Dataset or Stripchart since the last call.
+   * The x values must increase with each point; the points read are those whose
+   * x values exceed the last x value read.
+   *
+   * @param data the Dataset
+   * @return the number of samples appended
+   */
+  public int append(Dataset data) {
+    int n = data.getIndex();
+    // binary search for the first point after the last one read
+    int lo = 0, hi = n;
+    if(!Double.isNaN(lastX)) {
+      while(lo<hi) {
+        int mid = (lo+hi)>>>1;
+        data.getPoints(mid, xBuffer, null, 1);
+        if(xBuffer[0]<=lastX) {
+          lo = mid+1;
+        } else {
+          hi = mid;
+        }
+      }
+    }
+    int count = n-lo;
+    for(int start = lo; start<n; start += yBuffer.length) {
+      int len = data.getPoints(start, null, yBuffer, yBuffer.length);
+      for(int i = 0; i<len; i++) {
+        add(yBuffer[i]);
+      }
+    }
+    if(count>0) {
+      data.getPoints(n-1, xBuffer, null, 1);
+      lastX = xBuffer[0];
+      flush();
+    }
+    return count;
+  }
+
+  private void add(double sample) {
+    samples[next] = sample;
+    next = (next==windowSize-1) ? 0 : next+1;
+    if(--countdown==0) {
+      countdown = hop;
+      computeFrame();
+    }
+  }
+
+  private void computeFrame() {
+    // unwrap the circular buffer oldest first and apply the window
+    int tail = windowSize-next;
+    for(int i = 0; i<tail; i++) {
+      frame[i] = samples[next+i]*window[i];
+    }
+    for(int i = tail; i<windowSize; i++) {
+      frame[i] = samples[i-tail]*window[i];
+    }
+    fft.transform(frame);
+    // frame holds a[0], a[n/2], then re and im of bins 1 to n/2-1
+    int nh = windowSize/2;
+    power[0] = frame[0]*frame[0]*norm;
+    power[nh] = frame[1]*frame[1]*norm;
+    for(int k = 1; k<nh; k++) {
+      double re = frame[2*k], im = frame[2*k+1];
+      power[k] = 4*(re*re+im*im)*norm; // one-sided
+    }
+    frameCount++;
+    if(raster!=null) {
+      toColumn(columns[pending%columns.length]);
+      pending++;
+    }
+  }
+
+  // maps the power spectrum to raster values
+  private void toColumn(byte[] column) {
+    int ny = column.length, nh = windowSize/2;
+    double scale = 255/(dbMax-dbMin);
+    for(int iy = 0; iy<ny; iy++) {
+      int bin = (ny==1) ? 0 : (int) Math.round(iy*(double) nh/(ny-1));
+      double db = 10*Math.log10(power[bin]+1.0e-30);
+      double level = (db-dbMin)*scale;
+      column[iy] = (byte) ((level<=0) ? 0 : (level>=255) ? 255 : (int) level);
+    }
+  }
+
+  // scrolls pending columns into the raster
+  private void flush() {
+    if((raster==null)||(pending==0)) {
+      return;
+    }
+    int nx = columns.length;
+    int n = Math.min(pending, nx);
+    raster.scrollColumns(n);
+    for(int i = 0; i<n; i++) {
+      // oldest of the last n frames first
+      raster.setCol(nx-n+i, 0, columns[(pending-n+i)%nx]);
+    }
+    pending = 0;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -1705,86 +1705,77 @@ public class XMLControlElement implements XMLControl {
     // trim the outer braces
     String trimmed = arrayString.substring(1, arrayString.length()-1);
     if(componentType.isArray()) {
-      // create and collect the array elements from substrings
+      // create and collect the array elements in one pass; an empty element is null
       ArrayList<Object> list = new ArrayList<Object>();
-      ArrayList<Boolean> isNull = new ArrayList<Boolean>();
       Class<?> arrayType = componentType.getComponentType();
-             
-      int i = trimmed.indexOf("{"); //$NON-NLS-1$
-      int j = indexOfClosingBrace(trimmed, i);
-      int k = trimmed.indexOf(","); //$NON-NLS-1$
-      while(j>0) {
-//        if (k<i) { // first comma is before opening brace
-        if (k>-1 && k<i) { // first comma is before opening brace
-        	isNull.add(true);
-          trimmed = trimmed.substring(k+1);
-        }
-        else {
-	        String nextArray = trimmed.substring(i, j+1);
-	        Object obj = arrayValue(nextArray, arrayType);
-	        list.add(obj);
-        	isNull.add(false);
-	        trimmed = trimmed.substring(j+1);
-	        if (trimmed.startsWith(",")) // comma following closing brace //$NON-NLS-1$
-		        trimmed = trimmed.substring(1);
+      int pos = 0, length = trimmed.length();
+      while(pos<length) {
+        if(trimmed.charAt(pos)=='{') {
+          int j = indexOfClosingBrace(trimmed, pos);
+          if(j<0) {
+            break;
+          }
+          list.add(arrayValue(trimmed.substring(pos, j+1), arrayType));
+          pos = j+1;
+          if((pos<length)&&(trimmed.charAt(pos)==',')) { // comma following closing brace
+            pos++;
+          }
+        } else {
+          list.add(null);
+          int k = trimmed.indexOf(',', pos);
+          if(k<0) {
+            break;
+          }
+          pos = k+1;
         }
-        i = trimmed.indexOf("{"); //$NON-NLS-1$
-//        j = trimmed.indexOf("}"); //$NON-NLS-1$
-        j = indexOfClosingBrace(trimmed, i);
-        k = trimmed.indexOf(","); //$NON-NLS-1$
       }
-      // look for trailing null elements
-      while (k>-1) {
-      	isNull.add(true);
-        trimmed = trimmed.substring(k+1);
-        k = trimmed.indexOf(","); //$NON-NLS-1$
-      }
-      if (trimmed.length()>0) { // last element (after final comma) is null
-      	isNull.add(true);      	
-      }
-      // create the array
-      Object array = Array.newInstance(componentType, isNull.size());
-      // populate the array
-      Boolean[] hasNoElement = isNull.toArray(new Boolean[0]);
-      Iterator<Object> it = list.iterator();
-      for (int n=0; n<hasNoElement.length; n++) {
-        if (!hasNoElement[n] && it.hasNext()) {
-          Object obj = it.next();
-          Array.set(array, n, obj);
+      // create and populate the array
+      Object array = Array.newInstance(componentType, list.size());
+      for(int n = 0; n<list.size(); n++) {
+        if(list.get(n)!=null) {
+          Array.set(array, n, list.get(n));
         }
       }
       return array;
     }
-    // collect element substrings separated by commas
-    ArrayList<String> list = new ArrayList<String>();
-    while(!trimmed.equals("")) {    //$NON-NLS-1$
-      int i = trimmed.indexOf(","); //$NON-NLS-1$
-      if(i>-1) {
-        list.add(trimmed.substring(0, i));
-        trimmed = trimmed.substring(i+1);
-      } else {
-        list.add(trimmed);
-        break;
+    // count the elements separated by commas, ignoring a trailing comma
+    int length = trimmed.length();
+    int n = (length==0) ? 0 : 1;
+    for(int i = trimmed.indexOf(','); i>-1; i = trimmed.indexOf(',', i+1)) {
+      n++;
+    }
+    if((length>0)&&(trimmed.charAt(length-1)==',')) {
+      n--;
+    }
+    // create and populate the array in one pass
+    int[] ints = (componentType==Integer.TYPE) ? new int[n] : null;
+    double[] doubles = (componentType==Double.TYPE) ? new double[n] : null;
+    boolean[] booleans = (componentType==Boolean.TYPE) ? new boolean[n] : null;
+    for(int k = 0, start = 0; k<n; k++) {
+      int end = trimmed.indexOf(',', start);
+      if(end<0) {
+        end = length;
       }
-    }
-    // create the array
-    Object array = Array.newInstance(componentType, list.size());
-    // populate the array
-    Iterator<String> it = list.iterator();
-    int n = 0;
-    while(it.hasNext()) {
-      if(componentType==Integer.TYPE) {
-        int i = Integer.parseInt(it.next());
-        Array.setInt(array, n++, i);
-      } else if(componentType==Double.TYPE) {
-        double x = Double.parseDouble(it.next());
-        Array.setDouble(array, n++, x);
-      } else if(componentType==Boolean.TYPE) {
-        boolean bool = it.next().equals("true"); //$NON-NLS-1$
-        Array.setBoolean(array, n++, bool);
+      String next = trimmed.substring(start, end);
+      if(ints!=null) {
+        ints[k] = Integer.parseInt(next);
+      } else if(doubles!=null) {
+        doubles[k] = Double.parseDouble(next);
+      } else if(booleans!=null) {
+        booleans[k] = next.equals("true"); //$NON-NLS-1$
       }
+      start = end+1;
     }
-    return array;
+    if(ints!=null) {
+      return ints;
+    }
+    if(doubles!=null) {
+      return doubles;
+    }
+    if(booleans!=null) {
+      return booleans;
+    }
+    return Array.newInstance(componentType, n);
   }
 
   /**
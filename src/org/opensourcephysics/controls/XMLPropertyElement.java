@@ -330,6 +330,17 @@ public class XMLPropertyElement implements XMLProperty {
    */
   protected String getArrayString(Object array) {
     StringBuffer sb = new StringBuffer("{"); //$NON-NLS-1$
+    if(array instanceof double[]) { // append values directly rather than boxing them
+      double[] values = (double[]) array;
+      for(int j = 0; j<values.length; j++) {
+        if(j>0) {
+          sb.append(',');
+        }
+        sb.append(values[j]);
+      }
+      sb.append('}');
+      return sb.toString();
+    }
     int length = Array.getLength(array);
     for(int j = 0; j<length; j++) {
       // add separator except for first element
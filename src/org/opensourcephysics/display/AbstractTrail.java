@@ -8,12 +8,18 @@
 package org.opensourcephysics.display;
 import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.Stroke;
+import java.awt.geom.GeneralPath;
 
 /**
  * AbstractTrail defines a trail of pixels on the screen.  This object is often used to
  * show the path of a moving object.
  *
+ * Points are stored in a primitive ring buffer.  The oldest points are discarded if a maximum
+ * number of points is set.  Trails are drawn using path segments of SEGMENT_SIZE points that are
+ * cached in pixel coordinates and rebuilt only when the pixel transformation changes.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
@@ -36,6 +42,22 @@ public abstract class AbstractTrail implements Drawable, Measurable {
   protected int numpts = 0;         // the number of points in the trail
   protected boolean closed = false;
   protected Stroke drawingStroke;
+  protected int maxPoints = 0;         // the maximum number of points; zero if the trail is unbounded
+  protected double decimation = 0;     // the minimum distance in pixels between drawn points
+  static final int SEGMENT_SIZE = 256; // the number of points in a cached path segment
+  static final byte LINE = 0, MOVE = 1, DOT = 2;
+  // ring buffer
+  float[] xpts = new float[0], ypts = new float[0];
+  byte[] types = new byte[0];
+  int mask = -1;                       // capacity-1
+  long first = 0;                      // the absolute index of the oldest point
+  boolean boundsValid = true;
+  // segment cache
+  int segmentMargin = 0;               // the number of preceding points that a segment depends on
+  GeneralPath[] segments = new GeneralPath[0];
+  long[] segmentIds = new long[0];
+  double[] cacheMatrix = new double[6];
+  GeneralPath headPath = new GeneralPath(), tailPath = new GeneralPath();
 
   /**
    * Adds a point to the trail.
@@ -55,6 +77,254 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    */
   public abstract void clear();
 
+  /**
+   * Sets the maximum number of points in the trail.  The oldest points are removed when
+   * new points are added to a full trail.
+   *
+   * @param max the maximum number of points; zero or less for an unbounded trail
+   */
+  public synchronized void setMaximumPoints(int max) {
+    maxPoints = Math.max(0, max);
+    if((maxPoints>0)&&(numpts>maxPoints)) {
+      first += numpts-maxPoints;
+      numpts = maxPoints;
+      boundsValid = false;
+    }
+    int capacity = (maxPoints>0) ? capacityFor(maxPoints) : capacityFor(numpts);
+    if((maxPoints>0)&&(capacity<mask+1)) {
+      resize(capacity);
+    }
+  }
+
+  /**
+   * Gets the maximum number of points in the trail.
+   *
+   * @return the maximum; zero if the trail is unbounded
+   */
+  public int getMaximumPoints() {
+    return maxPoints;
+  }
+
+  /**
+   * Sets the decimation distance.  Points that are closer than this distance in pixels to the
+   * previously drawn point are skipped when the trail is drawn.
+   *
+   * @param pixels the distance; zero draws every point
+   */
+  public synchronized void setDecimation(double pixels) {
+    decimation = Math.max(0, pixels);
+    invalidateCache();
+  }
+
+  /**
+   * Gets the decimation distance in pixels.
+   *
+   * @return the distance
+   */
+  public double getDecimation() {
+    return decimation;
+  }
+
+  /**
+   * Stores a point in the ring buffer, discarding the oldest point if the trail is full.
+   *
+   * @param x double
+   * @param y double
+   * @param type LINE, MOVE or DOT
+   */
+  protected void storePoint(double x, double y, byte type) {
+    if((maxPoints>0)&&(numpts>=maxPoints)) {
+      int i = (int) first&mask;
+      float x0 = xpts[i], y0 = ypts[i];
+      if((x0<=xmin)||(x0>=xmax)||(y0<=ymin)||(y0>=ymax)||(x0<=xminLogscale)||(y0<=yminLogscale)) {
+        boundsValid = false;
+      }
+      first++;
+      numpts--;
+    } else if(numpts>mask) {
+      resize(capacityFor(numpts+1));
+    }
+    int i = (int) (first+numpts)&mask;
+    xpts[i] = (float) x;
+    ypts[i] = (float) y;
+    types[i] = type;
+    numpts++;
+    if(boundsValid) {
+      includeBounds(xpts[i], ypts[i]);
+    }
+  }
+
+  /**
+   * Removes all points from the ring buffer.
+   */
+  protected void clearPoints() {
+    first = 0;
+    numpts = 0;
+    closed = false;
+    boundsValid = true;
+    xmax = xmaxLogscale = -Double.MAX_VALUE;
+    ymax = ymaxLogscale = -Double.MAX_VALUE;
+    xmin = xminLogscale = Double.MAX_VALUE;
+    ymin = yminLogscale = Double.MAX_VALUE;
+    if(mask>=4*SEGMENT_SIZE) {
+      resize(SEGMENT_SIZE); // release the memory used by long trails
+    }
+    invalidateCache();
+  }
+
+  /**
+   * Gets the x value of a point.
+   *
+   * @param index the absolute index of the point
+   * @return double
+   */
+  final float getX(long index) {
+    return xpts[(int) index&mask];
+  }
+
+  /**
+   * Gets the y value of a point.
+   *
+   * @param index the absolute index of the point
+   * @return double
+   */
+  final float getY(long index) {
+    return ypts[(int) index&mask];
+  }
+
+  /**
+   * Gets the type of a point.
+   *
+   * @param index the absolute index of the point
+   * @return LINE, MOVE or DOT
+   */
+  final byte getType(long index) {
+    return types[(int) index&mask];
+  }
+
+  private static int capacityFor(int n) {
+    int capacity = 16;
+    while(capacity<n) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void resize(int capacity) {
+    float[] newX = new float[capacity], newY = new float[capacity];
+    byte[] newTypes = new byte[capacity];
+    for(long j = first, last = first+numpts; j<last; j++) {
+      int i = (int) j&mask, k = (int) j&(capacity-1);
+      newX[k] = xpts[i];
+      newY[k] = ypts[i];
+      newTypes[k] = types[i];
+    }
+    xpts = newX;
+    ypts = newY;
+    types = newTypes;
+    mask = capacity-1;
+    int n = 4;
+    while(n<capacity/SEGMENT_SIZE+2) {
+      n <<= 1;
+    }
+    segments = new GeneralPath[n];
+    segmentIds = new long[n];
+    invalidateCache();
+  }
+
+  private void includeBounds(double x, double y) {
+    xmin = Math.min(xmin, x);
+    xmax = Math.max(xmax, x);
+    if(x>0) {
+      xminLogscale = Math.min(xminLogscale, x);
+      xmaxLogscale = Math.max(xmaxLogscale, x);
+    }
+    ymin = Math.min(ymin, y);
+    ymax = Math.max(ymax, y);
+    if(y>0) {
+      yminLogscale = Math.min(yminLogscale, y);
+      ymaxLogscale = Math.max(ymaxLogscale, y);
+    }
+  }
+
+  /**
+   * Recomputes the bounds after points have been discarded.
+   */
+  synchronized void checkBounds() {
+    if(boundsValid) {
+      return;
+    }
+    xmax = xmaxLogscale = -Double.MAX_VALUE;
+    ymax = ymaxLogscale = -Double.MAX_VALUE;
+    xmin = xminLogscale = Double.MAX_VALUE;
+    ymin = yminLogscale = Double.MAX_VALUE;
+    for(long j = first, last = first+numpts; j<last; j++) {
+      includeBounds(getX(j), getY(j));
+    }
+    boundsValid = true;
+  }
+
+  /**
+   * Discards the cached path segments.
+   */
+  protected void invalidateCache() {
+    java.util.Arrays.fill(segmentIds, -1);
+  }
+
+  /**
+   * Draws the points from start to end as cached path segments.
+   * Segments that contain the first or last points are rebuilt every time they are drawn.
+   *
+   * @param panel the drawing panel
+   * @param g2 the graphics context
+   * @param start the absolute index of the first point
+   * @param end the absolute index of the last point
+   */
+  protected void drawSegments(DrawingPanel panel, Graphics2D g2, long start, long end) {
+    if(end<start) {
+      return;
+    }
+    double[] m = panel.getPixelMatrix();
+    if(!java.util.Arrays.equals(m, cacheMatrix)) {
+      System.arraycopy(m, 0, cacheMatrix, 0, 6);
+      invalidateCache();
+    }
+    long kStart = start/SEGMENT_SIZE;
+    long kEnd = (end>start) ? (end-1)/SEGMENT_SIZE : kStart;
+    int slots = segments.length-1;
+    for(long k = kStart; k<=kEnd; k++) {
+      long a = Math.max(k*SEGMENT_SIZE, start), b = Math.min((k+1)*SEGMENT_SIZE, end);
+      GeneralPath path;
+      if((a==k*SEGMENT_SIZE)&&(b==(k+1)*SEGMENT_SIZE)&&(a-segmentMargin>=first)) {
+        int slot = (int) k&slots;
+        path = segments[slot];
+        if(path==null) {
+          path = segments[slot] = new GeneralPath();
+        }
+        if(segmentIds[slot]!=k) {
+          path.reset();
+          buildPath(path, a, b, cacheMatrix);
+          segmentIds[slot] = k;
+        }
+      } else {
+        path = (k==kStart) ? headPath : tailPath;
+        path.reset();
+        buildPath(path, a, b, cacheMatrix);
+      }
+      g2.draw(path);
+    }
+  }
+
+  /**
+   * Appends the points from start to end to a path in pixel coordinates.
+   *
+   * @param path the path
+   * @param start the absolute index of the first point
+   * @param end the absolute index of the last point
+   * @param m the pixel transformation {m00 m10 m01 m11 m02 m12}
+   */
+  protected abstract void buildPath(GeneralPath path, long start, long end, double[] m);
+
   /**
    * Sets the drawing stroke.
    * @param stroke Stroke
@@ -116,6 +386,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getXMin() {
+    checkBounds();
     return xmin;
   }
 
@@ -124,6 +395,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getXMax() {
+    checkBounds();
     return xmax;
   }
 
@@ -132,6 +404,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getYMin() {
+    checkBounds();
     return ymin;
   }
 
@@ -140,6 +413,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return double
    */
   public double getYMax() {
+    checkBounds();
     return ymax;
   }
 
@@ -148,6 +422,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return minimum
    */
   public double getXMinLogscale() {
+    checkBounds();
     return xminLogscale;
   }
 
@@ -156,6 +431,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return maximum
    */
   public double getXMaxLogscale() {
+    checkBounds();
     return xmaxLogscale;
   }
 
@@ -164,6 +440,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return minimum
    */
   public double getYMinLogscale() {
+    checkBounds();
     return yminLogscale;
   }
 
@@ -172,6 +449,7 @@ public abstract class AbstractTrail implements Drawable, Measurable {
    * @return maximum
    */
   public double getYMaxLogscale() {
+    checkBounds();
     return ymaxLogscale;
   }
 
@@ -7,7 +7,9 @@
 
 package org.opensourcephysics.display;
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -16,6 +18,7 @@ import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.controls.XMLLoader;
 import org.opensourcephysics.numerics.ParsedMultiVarFunction;
 import org.opensourcephysics.numerics.ParserException;
+import org.opensourcephysics.numerics.SuryonoParser;
 import org.opensourcephysics.tools.ToolsRes;
 
 /**
@@ -32,6 +35,11 @@ public class DataFunction extends Dataset {
   String inputString; // recent attempted function string, successful or not
   int varCount;
   ArrayList<double[]> data = new ArrayList<double[]>();
+  int[] inputLength = new int[0];
+  int evaluatedRows; // number of input rows evaluated
+  String[] usedNames = new String[0];
+  boolean[] varUsed = new boolean[0];
+  boolean pathValid = true;
 
   /**
    * Constructs a DataFunction for the specified input data.
@@ -69,9 +77,15 @@ public class DataFunction extends Dataset {
     // set the variable count for refresh purposes
     varCount = getVarCount();
     try {
-      function = new ParsedMultiVarFunction(e, getVarNames());
+      String[] names = getVarNames();
+      function = new ParsedMultiVarFunction(e, names);
       functionString = e;
       inputString = e;
+      usedNames = getUsedNames(e);
+      varUsed = new boolean[names.length];
+      for(int i = 0; i<names.length; i++) {
+        varUsed[i] = dependsOn(names[i]);
+      }
       refreshFunctionData();
     } catch(ParserException ex) {
       setExpression("0"); //$NON-NLS-1$
@@ -115,8 +129,21 @@ public class DataFunction extends Dataset {
    * Refreshes the data points.
    */
   public void refreshFunctionData() {
-    super.clear();
+    refreshFunctionData(null);
+  }
+
+  /**
+   * Refreshes the data points in the specified input rows. Rows appended to or
+   * removed from the end of the inputs since the last refresh are always refreshed.
+   * Reevaluates all rows if rows is null or the existing points no longer
+   * correspond one-to-one with the input rows.
+   *
+   * @param rows the input rows to reevaluate (may be null)
+   */
+  public void refreshFunctionData(int[] rows) {
     if(function==null) {
+      super.clear();
+      evaluatedRows = 0;
       return;
     }
     // watch for change in inputs
@@ -124,35 +151,70 @@ public class DataFunction extends Dataset {
       setExpression(inputString);
       return;
     }
+    boolean aligned = (rows!=null)&&!sorted&&(index==evaluatedRows);
+    if(aligned&&(rows.length==0)&&(getInputRowCount()==evaluatedRows)) {
+      return; // nothing to do
+    }
     double[][] data = getFunctionData();
-    if(data.length==0) {
+    int len = ((data.length==0)||(inputLength[0]<0)) ? 0 : inputLength[0];
+    if(len>getMaximumPoints()) {
+      setMaximumPoints(len);
+    }
+    if(!aligned) {
+      super.clear();
+      pathValid = true;
+      appendRows(data, 0, len);
       return;
     }
+    boolean resetLimits = false;
+    if(len<index) { // input rows removed from the end
+      index = len;
+      resetLimits = true;
+      pathValid = false;
+    }
     double[] fData = new double[data.length];
-    int len = data[0].length;
-    for(int n = 0; n<len; n++) {               // number of data values for each variable
-      for(int i = 0; i<data.length; i++) {     // number of variables
-        if(n<data[i].length) {
-          fData[i] = data[i][n];
-        } else {
-          fData[i] = Double.NaN;
-        }
+    for(int i = 0; i<rows.length; i++) {
+      int row = rows[i];
+      if((row<0)||(row>=index)) {
+        continue;
+      }
+      double x = getInputs(data, row, fData);
+      double y = evaluate(fData);
+      if(Double.isNaN(x)||Double.isInfinite(x)||Double.isInfinite(y)) {
+        // point would be dropped so rows no longer correspond
+        super.clear();
+        pathValid = true;
+        appendRows(data, 0, len);
+        return;
       }
-      double val = Double.NaN;
-      if(!"0".equals(functionString)||"0".equals(inputString)) { //$NON-NLS-1$ //$NON-NLS-2$
-      	val = function.evaluate(fData);
-      	if (function.evaluatedToNaN()) {
-          val = Double.NaN;
-      	}
-//        String[] names = getVarNames();
-//        for(int i = 0; i<names.length; i++) {
-//          if(expressionContainsName(names[i]) && Double.isNaN(fData[i])) {
-//            val = Double.NaN;
-//          }
-//        }
+      resetLimits = resetLimits||isLimit(xpoints[row], ypoints[row]);
+      xpoints[row] = x;
+      ypoints[row] = y;
+      if(!resetLimits) {
+        includeInLimits(x, y);
+      }
+      pathValid = false;
+    }
+    if(resetLimits) {
+      resetXYMinMax();
+    }
+    evaluatedRows = index;
+    appendRows(data, index, len);
+  }
+
+  /**
+   * Determines if the expression refers to the specified variable name.
+   *
+   * @param name the variable name
+   * @return true if the name appears in the expression
+   */
+  public boolean dependsOn(String name) {
+    for(int i = 0; i<usedNames.length; i++) {
+      if(usedNames[i].equals(name)) {
+        return true;
       }
-      super.append(fData[0], val);
     }
+    return false;
   }
 
   /**
@@ -190,39 +252,165 @@ public class DataFunction extends Dataset {
   /** empty block */
   }
 
+  protected void setPoints(double[] x, double[] y) {
+
+  /** empty block */
+  }
+
+  /**
+   * Draws the lines connecting the data points. Overrides Dataset method
+   * to rebuild the path only when drawn after points are replaced.
+   *
+   * @param  drawingPanel
+   * @param  g2
+   */
+  protected void drawLinePlot(DrawingPanel drawingPanel, Graphics2D g2) {
+    checkPath();
+    super.drawLinePlot(drawingPanel, g2);
+  }
+
+  /**
+   * Fills the line connecting the data points. Overrides Dataset method.
+   *
+   * @param  drawingPanel
+   * @param  g2
+   */
+  protected void drawFilledPlot(DrawingPanel drawingPanel, Graphics2D g2) {
+    checkPath();
+    super.drawFilledPlot(drawingPanel, g2);
+  }
+
   //______________________________ private methods ___________________________
+
+  private synchronized void checkPath() {
+    if(!pathValid) {
+      recalculatePath();
+      pathValid = true;
+    }
+  }
+
+  // returns the number of rows in the linked variable
+  private int getInputRowCount() {
+    ArrayList<Dataset> datasets = inputData.getDatasets();
+    for(int i = 0, n = datasets.size(); i<n; i++) {
+      if(datasets.get(i)!=this) {
+        return datasets.get(i).getIndex();
+      }
+    }
+    return 0;
+  }
+
+  // determines if a point lies on the data limits
+  private boolean isLimit(double x, double y) {
+    return (x==xmin)||(x==xmax)||(x==xminLogscale)||(x==xmaxLogscale)
+           ||(y==ymin)||(y==ymax)||(y==yminLogscale)||(y==ymaxLogscale);
+  }
+
+  // extends the data limits to include a point
+  private void includeInLimits(double x, double y) {
+    xmax = Math.max(x, xmax);
+    xmin = Math.min(x, xmin);
+    if(x>0) {
+      xmaxLogscale = Math.max(x, xmaxLogscale);
+      xminLogscale = Math.min(x, xminLogscale);
+    }
+    if(!Double.isNaN(y)) {
+      ymax = Math.max(y, ymax);
+      ymin = Math.min(y, ymin);
+      if(y>0) {
+        ymaxLogscale = Math.max(y, ymaxLogscale);
+        yminLogscale = Math.min(y, yminLogscale);
+      }
+    }
+  }
   
-  // returns arrays of values
+  // returns arrays of values of the variables used in the expression
+  // and sets their lengths in inputLength
   private double[][] getFunctionData() {
-    int length = 0;
     data.clear();
-    Iterator<Dataset> it = inputData.getDatasets().iterator();
-    while(it.hasNext()) {
-      Dataset dataset = it.next();
+    ArrayList<Dataset> datasets = inputData.getDatasets();
+    String[] names = inputData.getConstantNames();
+    if(inputLength.length!=varUsed.length) {
+      inputLength = new int[varUsed.length];
+    }
+    for(int i = 0, n = datasets.size(); i<n; i++) {
+      Dataset dataset = datasets.get(i);
       if(dataset==this) {
         continue;
       }
-      // add linked variable (x-column) first
+      // add linked variable (x-column) first--always needed for x values
       if(data.isEmpty()) {
-        double[] xPoints = dataset.getXPoints();
-        length = xPoints.length;
-        data.add(xPoints);
+        addVariable(dataset.getXPoints());
       }
       // add y-columns
-      data.add(dataset.getYPoints());
+      addVariable(varUsed[data.size()] ? dataset.getYPoints() : null);
     }
-    String[] names = inputData.getConstantNames();
     for(String next: names) {
-      double[] points = new double[length];
-      double val = inputData.getConstantValue(next);
-      for(int i = 0; i<length; i++) {
-        points[i] = val;
-      }
-      data.add(points);
+      inputLength[data.size()] = -1; // constant
+      data.add(new double[] {inputData.getConstantValue(next)});
     }
     return data.toArray(new double[0][0]);
   }
 
+  private void addVariable(double[] points) {
+    inputLength[data.size()] = (points==null) ? 0 : points.length;
+    data.add(points);
+  }
+
+  // fills fData with the input values in a row and returns the x value
+  private double getInputs(double[][] data, int row, double[] fData) {
+    for(int i = 0; i<data.length; i++) {   // number of variables
+      if(inputLength[i]<0) {
+        fData[i] = data[i][0];
+      } else if(row<inputLength[i]) {
+        fData[i] = data[i][row];
+      } else {
+        fData[i] = Double.NaN;
+      }
+    }
+    return fData[0];
+  }
+
+  private double evaluate(double[] fData) {
+    double val = Double.NaN;
+    if(!"0".equals(functionString)||"0".equals(inputString)) { //$NON-NLS-1$ //$NON-NLS-2$
+      val = function.evaluate(fData);
+      if(function.evaluatedToNaN()) {
+        val = Double.NaN;
+      }
+    }
+    return val;
+  }
+
+  // evaluates and appends the input rows from start to end
+  private void appendRows(double[][] data, int start, int end) {
+    if(end>start) {
+      double[] fData = new double[data.length];
+      double[] x = new double[end-start];
+      double[] y = new double[end-start];
+      for(int n = start; n<end; n++) {
+        x[n-start] = getInputs(data, n, fData);
+        y[n-start] = evaluate(fData);
+      }
+      // make room here since Dataset drops old points when its capacity is tight
+      if(index+x.length>xpoints.length) {
+        int capacity = Math.max(index+x.length, 2*xpoints.length);
+        xpoints = Arrays.copyOf(xpoints, capacity);
+        ypoints = Arrays.copyOf(ypoints, capacity);
+      }
+      super.append(x, y);
+    }
+    evaluatedRows = end;
+  }
+
+  private String[] getUsedNames(String expression) {
+    try {
+      return new SuryonoParser(0).parseUnknown(expression);
+    } catch(ParserException ex) {
+      return new String[0];
+    }
+  }
+
   private int getVarCount() {
     ArrayList<Dataset> list = inputData.getDatasets();
     int count = list.contains(this) ? list.size() : list.size()+1;
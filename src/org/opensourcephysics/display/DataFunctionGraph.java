@@ -0,0 +1,160 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * DataFunctionGraph orders the DataFunctions in a DatasetManager by their dependencies
+ * on one another so each function is refreshed after the functions it refers to.
+ * Functions that do not depend on each other are refreshed in parallel.
+ */
+public class DataFunctionGraph {
+  ArrayList<DataFunction[]> levels = new ArrayList<DataFunction[]>();
+  DataFunction[] cycle = new DataFunction[0]; // functions that depend on each other, in list order
+
+  /**
+   * Constructs a DataFunctionGraph for the current data functions in a DatasetManager.
+   *
+   * @param data the DatasetManager
+   */
+  public DataFunctionGraph(DatasetManager data) {
+    ArrayList<DataFunction> remaining = new ArrayList<DataFunction>();
+    for(Dataset next: data.getDatasets()) {
+      if(next instanceof DataFunction) {
+        remaining.add((DataFunction) next);
+      }
+    }
+    while(!remaining.isEmpty()) {
+      // next level: functions that refer to no remaining function
+      ArrayList<DataFunction> level = new ArrayList<DataFunction>();
+      for(DataFunction f: remaining) {
+        boolean ready = true;
+        for(DataFunction g: remaining) {
+          if((g!=f)&&f.dependsOn(getName(g))) {
+            ready = false;
+            break;
+          }
+        }
+        if(ready) {
+          level.add(f);
+        }
+      }
+      if(level.isEmpty()) {
+        cycle = remaining.toArray(new DataFunction[0]);
+        break;
+      }
+      remaining.removeAll(level);
+      levels.add(level.toArray(new DataFunction[0]));
+    }
+  }
+
+  /**
+   * Refreshes all rows of every data function.
+   */
+  public void refresh() {
+    refresh(null, null);
+  }
+
+  /**
+   * Refreshes the data functions affected by changes to the specified columns.
+   * Affected functions, including those that depend on other affected functions,
+   * reevaluate the specified rows. All other functions evaluate only rows appended
+   * to or removed from the end of their inputs.
+   *
+   * @param columnNames the names of the changed columns (null if all changed)
+   * @param rows the changed rows (null if all changed)
+   */
+  public void refresh(Collection<String> columnNames, final int[] rows) {
+    HashSet<String> changed = null;
+    if(columnNames!=null) {
+      changed = new HashSet<String>();
+      for(String name: columnNames) {
+        changed.add(TeXParser.removeSubscripting(name));
+      }
+    }
+    for(int i = 0; i<levels.size(); i++) {
+      final DataFunction[] level = levels.get(i);
+      final boolean[] affected = new boolean[level.length];
+      for(int j = 0; j<level.length; j++) {
+        affected[j] = isAffected(level[j], changed);
+      }
+      ParallelLoop.forRange(level.length, 1, new ParallelLoop.Range() {
+        public void run(int start, int end) {
+          for(int j = start; j<end; j++) {
+            level[j].refreshFunctionData(affected[j] ? rows : new int[0]);
+          }
+        }
+
+      });
+      if(changed!=null) {
+        for(int j = 0; j<level.length; j++) {
+          if(affected[j]) {
+            changed.add(getName(level[j]));
+          }
+        }
+      }
+    }
+    // functions in a cycle are refreshed in order as they always have been
+    for(int i = 0; i<cycle.length; i++) {
+      cycle[i].refreshFunctionData(isAffected(cycle[i], changed) ? rows : new int[0]);
+      if(changed!=null) {
+        changed.add(getName(cycle[i]));
+      }
+    }
+  }
+
+  private boolean isAffected(DataFunction f, HashSet<String> changed) {
+    if(changed==null) {
+      return true;
+    }
+    // every function takes its x values from the linked x column
+    if(changed.contains(TeXParser.removeSubscripting(f.getXColumnName()))) {
+      return true;
+    }
+    for(String name: changed) {
+      if(f.dependsOn(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getName(DataFunction f) {
+    return TeXParser.removeSubscripting(f.getYColumnName());
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
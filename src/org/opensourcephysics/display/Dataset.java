@@ -77,6 +77,9 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
   /** defaultMaxPoints: the default maxPoints */
   private static int defaultMaxPoints = 16*1024;	
 
+  /** BLOCK_SIZE: the number of points read at a time when drawing and scanning */
+  protected static final int BLOCK_SIZE = 1024;
+
   protected double[] xpoints;
   // array of x points
 
@@ -404,6 +407,15 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
     this.maxPoints = maxPoints;
   }
 
+  /**
+   * Gets the maximum number of allowed datapoints.
+   *
+   * @return int
+   */
+  public int getMaximumPoints() {
+    return maxPoints==defaultMaxPoints ? (int) (maxPoints*maxPointsMultiplier) : maxPoints;
+  }
+
   /**
    * Gets the half-width of the data point marker.
    *
@@ -687,6 +699,29 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
     return temp;
   }
 
+  /**
+   * Copies points starting at the given index into the given arrays.
+   *
+   * @param start the index of the first point to copy
+   * @param x array to receive x values (may be null)
+   * @param y array to receive y values (may be null)
+   * @param length the maximum number of points to copy
+   * @return the number of points copied, zero if start is not the index of a point
+   */
+  public int getPoints(int start, double[] x, double[] y, int length) {
+    if((start<0)||(start>=index)||(length<=0)) {
+      return 0;
+    }
+    length = Math.min(length, index-start);
+    if(x!=null) {
+      System.arraycopy(xpoints, start, x, 0, length);
+    }
+    if(y!=null) {
+      System.arraycopy(ypoints, start, y, 0, length);
+    }
+    return length;
+  }
+
   /**
    * Gets an array of valid xpoints.
    * A point is valid if the ypoint for that index is not Double.NaN.
@@ -782,19 +817,18 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
   public Object getValueAt(int rowIndex, int columnIndex) {
     columnIndex = Dataset.convertTableColumnIndex(colVisible, columnIndex);
     rowIndex = rowIndex*stride;
-    double[] xValues = getXPoints();
-    double[] yValues = getYPoints();
+    double[] value = new double[1];
     // conversionFactor added by D Brown Dec 2010
     if(columnIndex==0) {
-    	if (rowIndex<0 || rowIndex>=xValues.length) return null;
-      return new Double(xValues[rowIndex]);
+    	if (rowIndex<0 || getPoints(rowIndex, value, null, 1)<1) return null;
+      return new Double(value[0]);
     }
-  	if (rowIndex<0 || rowIndex>=yValues.length) return null;
+  	if (rowIndex<0 || getPoints(rowIndex, null, value, 1)<1) return null;
     // changed by D.Brown
-    if(Double.isNaN(yValues[rowIndex])) {
+    if(Double.isNaN(value[0])) {
       return null;
     }
-    return new Double(yValues[rowIndex]);
+    return new Double(value[0]);
   }
 
   /**
@@ -941,6 +975,59 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
     }
   }
 
+  /**
+   * Replaces the data with the given arrays of equal length. The limits and path are
+   * computed in a single pass and the arrays are kept as storage without copying, so the
+   * caller must not change them afterwards.
+   *
+   * @param  _xpoints
+   * @param  _ypoints
+   */
+  protected void setPoints(double[] _xpoints, double[] _ypoints) {
+    clear();
+    int n = _xpoints.length;
+    if(n==0) {
+      return;
+    }
+    int first = Math.max(0, n-getMaximumPoints()); // keep the newest points like append
+    int count = 0;
+    for(int i = first; i<n; i++) {
+      double xp = _xpoints[i];
+      double yp = _ypoints[i];
+      if(Double.isNaN(xp)||Double.isInfinite(xp)||Double.isInfinite(yp)) {
+        continue;
+      }
+      _xpoints[count] = xp;
+      _ypoints[count] = yp;
+      xmax = Math.max(xp, xmax);
+      xmin = Math.min(xp, xmin);
+      if(xp>0) {
+        xmaxLogscale = Math.max(xp, xmaxLogscale);
+        xminLogscale = Math.min(xp, xminLogscale);
+      }
+      if(!Double.isNaN(yp)) {
+        ymax = Math.max(yp, ymax);
+        ymin = Math.min(yp, ymin);
+        if(yp>0) {
+          ymaxLogscale = Math.max(yp, ymaxLogscale);
+          yminLogscale = Math.min(yp, yminLogscale);
+        }
+        if(generalPath.getCurrentPoint()==null) {
+          generalPath.moveTo((float) xp, (float) yp);
+        } else {
+          generalPath.lineTo((float) xp, (float) yp);
+        }
+      }
+      count++;
+    }
+    xpoints = _xpoints;
+    ypoints = _ypoints;
+    index = count;
+    if(sorted) {
+      insertionSort();
+    }
+  }
+
   /**
    *    Reads a file and appends the data contained in the file to this
    *    Dataset. The format of the file is x and y coordinates separated by tabs.
@@ -1283,108 +1370,142 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
       this.drawFilledPlot(drawingPanel, g2);
       return;
     }
-    double xp = 0;
-    double yp = 0;
-    Shape shape = null;
-    int size = markerSize*2+1;
     Shape clipShape = g2.getClip();
-    // increase the clip so as to include the entire marker
+    setMarkerClip(drawingPanel, g2, markerSize);
+    drawMarkers(drawingPanel, g2);
+    g2.setClip(clipShape); // restore the original clipping
+  }
+
+  /**
+   *  Increases the clip so as to include entire markers of the given size at the edges
+   *  of the drawing area.
+   *
+   * @param  drawingPanel
+   * @param  g2
+   * @param  markerSize the marker half-width
+   */
+  static void setMarkerClip(DrawingPanel drawingPanel, Graphics2D g2, int markerSize) {
     g2.setClip(drawingPanel.leftGutter-markerSize-1, drawingPanel.topGutter-markerSize-1, drawingPanel.getWidth()-drawingPanel.leftGutter-drawingPanel.rightGutter+2+2*markerSize, drawingPanel.getHeight()-drawingPanel.bottomGutter-drawingPanel.topGutter+2+2*markerSize);
     Rectangle viewRect = drawingPanel.getViewRect();
     if(viewRect!=null) { // decrease the clip if we are in a scroll pane
       g2.clipRect(viewRect.x, viewRect.y, viewRect.x+viewRect.width, viewRect.y+viewRect.height);
     }
-    double[] tempX = getXPoints();
-    double[] tempY = getYPoints();
-    for(int i = 0; i<index; i++) {
-      if(Double.isNaN(tempY[i])) {
-        continue;
-      }
-      if(drawingPanel.isLogScaleX()&&(tempX[i]<=0)) {
-        continue;
-      }
-      if(drawingPanel.isLogScaleY()&&(tempY[i]<=0)) {
-        continue;
-      }
-      xp = drawingPanel.xToPix(tempX[i]);
-      yp = drawingPanel.yToPix(tempY[i]);
-      switch(markerShape) {
-         case BAR :                                      // draw a bar graph.
-           double bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
-           double barHeight = bottom-yp;
-           if(barHeight>0) {
-             shape = new Rectangle2D.Double(xp-markerSize, yp, size, barHeight);
-           } else {
-             shape = new Rectangle2D.Double(xp-markerSize, bottom, size, -barHeight);
-           }
-           g2.setColor(fillColor);
-           g2.fill(shape);
-           if(edgeColor!=fillColor) {
-             g2.setColor(edgeColor);
-             g2.draw(shape);
-           }
-           break;
-         case POST :
-           bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
-           shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
-           g2.setColor(edgeColor);
-           g2.drawLine((int) xp, (int) yp, (int) xp, (int) bottom);
-           g2.setColor(fillColor);
-           g2.fill(shape);
-           if(edgeColor!=fillColor) {
-             g2.setColor(edgeColor);
-             g2.draw(shape);
-           }
-           break;
-         case SQUARE :
-           shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
-           g2.setColor(fillColor);
-           g2.fill(shape);
-           if(edgeColor!=fillColor) {
-             g2.setColor(edgeColor);
-             g2.draw(shape);
-           }
-           break;
-         case CIRCLE :
-           shape = new Ellipse2D.Double(xp-markerSize, yp-markerSize, size, size);
-           g2.setColor(fillColor);
-           g2.fill(shape);
-           if(edgeColor!=fillColor) {
-             g2.setColor(edgeColor);
-             g2.draw(shape);
-           }
-           break;
-         case PIXEL :
-           shape = new Rectangle2D.Double(xp, yp, 1, 1); // this produces a one pixel shape
-           g2.setColor(edgeColor);
-           g2.draw(shape);
-           // draw and center the point
-           break;
-         case CUSTOM :
-           Shape temp = AffineTransform.getTranslateInstance(xp, yp).createTransformedShape(customMarker);
-           g2.setColor(fillColor);
-           g2.fill(temp);
-           if(edgeColor!=fillColor) {
+  }
+
+  /**
+   *  Draws the markers and error bars without changing the clip.
+   *
+   * @param  drawingPanel
+   * @param  g2
+   */
+  void drawMarkers(DrawingPanel drawingPanel, Graphics2D g2) {
+    double xp = 0;
+    double yp = 0;
+    Shape shape = null;
+    int size = markerSize*2+1;
+    double[] tempX = new double[BLOCK_SIZE];
+    double[] tempY = new double[BLOCK_SIZE];
+    for(int start = 0; start<index; start += BLOCK_SIZE) {
+      int n = getPoints(start, tempX, tempY, BLOCK_SIZE);
+      for(int i = 0; i<n; i++) {
+        if(Double.isNaN(tempY[i])) {
+          continue;
+        }
+        if(drawingPanel.isLogScaleX()&&(tempX[i]<=0)) {
+          continue;
+        }
+        if(drawingPanel.isLogScaleY()&&(tempY[i]<=0)) {
+          continue;
+        }
+        xp = drawingPanel.xToPix(tempX[i]);
+        yp = drawingPanel.yToPix(tempY[i]);
+        switch(markerShape) {
+           case BAR :                                      // draw a bar graph.
+             double bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
+             double barHeight = bottom-yp;
+             if(barHeight>0) {
+               shape = new Rectangle2D.Double(xp-markerSize, yp, size, barHeight);
+             } else {
+               shape = new Rectangle2D.Double(xp-markerSize, bottom, size, -barHeight);
+             }
+             g2.setColor(fillColor);
+             g2.fill(shape);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(shape);
+             }
+             break;
+           case POST :
+             bottom = Math.min(drawingPanel.yToPix(0), drawingPanel.yToPix(drawingPanel.getYMin()));
+             shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
              g2.setColor(edgeColor);
-             g2.draw(temp);
-           }
-           break;
-         default :
-           shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
-           g2.setColor(fillColor);
-           g2.fill(shape);
-           if(edgeColor!=fillColor) {
+             g2.drawLine((int) xp, (int) yp, (int) xp, (int) bottom);
+             g2.setColor(fillColor);
+             g2.fill(shape);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(shape);
+             }
+             break;
+           case SQUARE :
+             shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
+             g2.setColor(fillColor);
+             g2.fill(shape);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(shape);
+             }
+             break;
+           case CIRCLE :
+             shape = new Ellipse2D.Double(xp-markerSize, yp-markerSize, size, size);
+             g2.setColor(fillColor);
+             g2.fill(shape);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(shape);
+             }
+             break;
+           case PIXEL :
+             shape = new Rectangle2D.Double(xp, yp, 1, 1); // this produces a one pixel shape
              g2.setColor(edgeColor);
              g2.draw(shape);
-           }
-           break;
+             // draw and center the point
+             break;
+           case CUSTOM :
+             Shape temp = AffineTransform.getTranslateInstance(xp, yp).createTransformedShape(customMarker);
+             g2.setColor(fillColor);
+             g2.fill(temp);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(temp);
+             }
+             break;
+           default :
+             shape = new Rectangle2D.Double(xp-markerSize, yp-markerSize, size, size);
+             g2.setColor(fillColor);
+             g2.fill(shape);
+             if(edgeColor!=fillColor) {
+               g2.setColor(edgeColor);
+               g2.draw(shape);
+             }
+             break;
+        }
       }
     }
     Iterator<ErrorBar> it = errorBars.iterator();
     while(it.hasNext()) { // copy only the obejcts of the correct type
       (it.next()).draw(drawingPanel, g2);
     }
-    g2.setClip(clipShape); // restore the original clipping
+  }
+
+  /**
+   *  Returns true if this dataset can be drawn in a batch by a DatasetManager. Only plain
+   *  Datasets are batched; subclasses may change how points are drawn.
+   *
+   * @return true if batch drawing gives the same picture as draw
+   */
+  protected boolean isBatchDrawable() {
+    return getClass()==Dataset.class;
   }
 
   /**
@@ -1438,31 +1559,34 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
   /**
    *  Reset the minimum and maximum values.
    */
-  private void resetXYMinMax() {
+  protected void resetXYMinMax() {
     xmax = xmaxLogscale = -Double.MAX_VALUE;
     ymax = ymaxLogscale = -Double.MAX_VALUE;
     xmin = xminLogscale = Double.MAX_VALUE;
     ymin = yminLogscale = Double.MAX_VALUE;
-    double[] xValues = getXPoints();
-    double[] yValues = getYPoints();
-    for(int i = 0; i<index; i++) {
-      if(Double.isNaN(xValues[i])||Double.isInfinite(xValues[i])||Double.isInfinite(yValues[i])) {
-        continue;
-      }
-      double xp = xValues[i];
-      xmax = Math.max(xp, xmax);
-      xmin = Math.min(xp, xmin);
-      if(xp>0) {
-        xmaxLogscale = Math.max(xp, xmaxLogscale);
-        xminLogscale = Math.min(xp, xminLogscale);
-      }
-      double yp = yValues[i];
-      if(!Double.isNaN(yp)) {
-        ymax = Math.max(yp, ymax);
-        ymin = Math.min(yp, ymin);
-        if(yp>0) {
-          ymaxLogscale = Math.max(yp, ymaxLogscale);
-          yminLogscale = Math.min(yp, yminLogscale);
+    double[] xValues = new double[BLOCK_SIZE];
+    double[] yValues = new double[BLOCK_SIZE];
+    for(int start = 0; start<index; start += BLOCK_SIZE) {
+      int n = getPoints(start, xValues, yValues, BLOCK_SIZE);
+      for(int i = 0; i<n; i++) {
+        if(Double.isNaN(xValues[i])||Double.isInfinite(xValues[i])||Double.isInfinite(yValues[i])) {
+          continue;
+        }
+        double xp = xValues[i];
+        xmax = Math.max(xp, xmax);
+        xmin = Math.min(xp, xmin);
+        if(xp>0) {
+          xmaxLogscale = Math.max(xp, xmaxLogscale);
+          xminLogscale = Math.min(xp, xminLogscale);
+        }
+        double yp = yValues[i];
+        if(!Double.isNaN(yp)) {
+          ymax = Math.max(yp, ymax);
+          ymin = Math.min(yp, ymin);
+          if(yp>0) {
+            ymaxLogscale = Math.max(yp, ymaxLogscale);
+            yminLogscale = Math.min(yp, yminLogscale);
+          }
         }
       }
     }
@@ -1550,10 +1674,20 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
   protected static class Loader extends XMLLoader {
     public void saveObject(XMLControl control, Object obj) {
       Dataset data = (Dataset) obj;
-      control.setValue("points", data.getPoints());            //$NON-NLS-1$
+      // points are saved as contiguous columns that load in one pass
+      control.setValue("x_points", data.getXPoints());         //$NON-NLS-1$
+      control.setValue("y_points", data.getYPoints());         //$NON-NLS-1$
       control.setValue("index", data.index);                   //$NON-NLS-1$
-      // control.setValue("x_points", data.getXPoints());
-      // control.setValue("y_points", data.getYPoints());
+      saveProperties(control, data);
+    }
+
+    /**
+     * Saves everything but the data points.
+     *
+     * @param control the control
+     * @param data the dataset
+     */
+    protected void saveProperties(XMLControl control, Dataset data) {
       control.setValue("marker_shape", data.getMarkerShape()); //$NON-NLS-1$
       control.setValue("marker_size", data.getMarkerSize());   //$NON-NLS-1$
       control.setValue("sorted", data.isSorted());             //$NON-NLS-1$
@@ -1585,21 +1719,39 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
 
     public Object loadObject(XMLControl control, Object obj) {
       Dataset data = (Dataset) obj;
+      // for backward compatibility
       double[][] points = (double[][]) control.getObject("points"); //$NON-NLS-1$
       if((points!=null)&&(points.length>0)&&(points[0]!=null)) {
-        data.clear();
+        double[] xPoints = new double[points.length];
+        double[] yPoints = new double[points.length];
         for(int i = 0; i<points.length; i++) {
-          data.append(points[i][0], points[i][1]);
+          xPoints[i] = points[i][0];
+          yPoints[i] = points[i][1];
         }
+        data.setPoints(xPoints, yPoints);
       }
-      // for backward compatibility
       double[] xPoints = (double[]) control.getObject("x_points"); //$NON-NLS-1$
       double[] yPoints = (double[]) control.getObject("y_points"); //$NON-NLS-1$
       if((xPoints!=null)&&(yPoints!=null)) {
-        data.clear();
-        data.append(xPoints, yPoints);
+        if(xPoints.length==yPoints.length) {
+          data.setPoints(xPoints, yPoints);
+        } else {
+          data.clear();
+          data.append(xPoints, yPoints);
+        }
       }
-      data.index = control.getInt("index"); //$NON-NLS-1$
+      data.index = Math.min(control.getInt("index"), data.index); //$NON-NLS-1$
+      loadProperties(control, data);
+      return obj;
+    }
+
+    /**
+     * Loads everything but the data points.
+     *
+     * @param control the control
+     * @param data the dataset
+     */
+    protected void loadProperties(XMLControl control, Dataset data) {
       if(control.getPropertyNames().contains("marker_shape")) { //$NON-NLS-1$
         data.setMarkerShape(control.getInt("marker_shape"));    //$NON-NLS-1$
       }
@@ -1634,7 +1786,6 @@ public class Dataset extends AbstractTableModel implements Measurable, LogMeasur
       if(colVisible!=null) {
         data.colVisible = colVisible;
       }
-      return obj;
     }
 
   }
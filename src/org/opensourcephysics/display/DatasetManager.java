@@ -8,7 +8,10 @@
 package org.opensourcephysics.display;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -705,15 +708,114 @@ public class DatasetManager extends AbstractTableModel implements Measurable, Lo
   }
 
   /**
-   *  Draws this Dataset in the drawing panel.
+   *  Draws the Datasets in the drawing panel.
+   *
+   *  Consecutive plain Datasets are drawn as a batch: the pixel transform is computed and the
+   *  marker clip is set once for the largest marker, all markers are drawn before all lines,
+   *  and datasets outside the clip are skipped. Filled (AREA) and other datasets are drawn in
+   *  their list position, after the batch that precedes them.
    *
    * @param  drawingPanel
    * @param  g
    */
   public void draw(DrawingPanel drawingPanel, Graphics g) {
+    Graphics2D g2 = (Graphics2D) g;
+    AffineTransform at = drawingPanel.getPixelTransform();
+    Rectangle clip = g2.getClipBounds();
+    ArrayList<Dataset> batch = new ArrayList<Dataset>();
     for(int i = 0; i<datasets.size(); i++) {
-      (datasets.get(i)).draw(drawingPanel, g);
+      Dataset dataset = datasets.get(i);
+      if(!dataset.isBatchDrawable()||(dataset.getMarkerShape()==Dataset.AREA)) {
+        flushBatch(drawingPanel, g2, at, batch); // keep the list order, fills cover earlier datasets
+        dataset.draw(drawingPanel, g);
+      } else if(dataset.visible&&isInView(dataset, at, clip)) {
+        batch.add(dataset);
+      }
+    }
+    flushBatch(drawingPanel, g2, at, batch);
+  }
+
+  /**
+   *  Draws and empties the pending batch.
+   */
+  private void flushBatch(DrawingPanel drawingPanel, Graphics2D g2, AffineTransform at, ArrayList<Dataset> batch) {
+    if(batch.isEmpty()) {
+      return;
+    }
+    try {
+      drawBatch(drawingPanel, g2, at, batch);
+    } catch(Exception ex) {} // abort drawing if we have bad data
+    batch.clear();
+  }
+
+  /**
+   *  Draws a batch of plain Datasets.
+   *
+   * @param  drawingPanel
+   * @param  g2
+   * @param  at the pixel transform
+   * @param  batch the datasets
+   */
+  private void drawBatch(DrawingPanel drawingPanel, Graphics2D g2, AffineTransform at, ArrayList<Dataset> batch) {
+    int n = batch.size();
+    int markerSize = -1;
+    for(int i = 0; i<n; i++) {
+      Dataset dataset = batch.get(i);
+      if(dataset.getMarkerShape()!=Dataset.NO_MARKER) {
+        markerSize = Math.max(markerSize, dataset.getMarkerSize());
+      }
+    }
+    if(markerSize>=0) { // one clip large enough for the largest marker
+      Shape clipShape = g2.getClip();
+      Dataset.setMarkerClip(drawingPanel, g2, markerSize);
+      for(int i = 0; i<n; i++) {
+        Dataset dataset = batch.get(i);
+        if(dataset.getMarkerShape()!=Dataset.NO_MARKER) {
+          dataset.drawMarkers(drawingPanel, g2);
+        }
+      }
+      g2.setClip(clipShape);
+    }
+    Color color = null;
+    for(int i = 0; i<n; i++) { // lines are stroked in order so overlaps look the same
+      Dataset dataset = batch.get(i);
+      if(dataset.isConnected()) {
+        if(dataset.getLineColor()!=color) {
+          color = dataset.getLineColor();
+          g2.setColor(color);
+        }
+        g2.draw(dataset.generalPath.createTransformedShape(at));
+      }
+    }
+  }
+
+  /**
+   *  Determines whether any part of a dataset may be drawn inside the clip.
+   *
+   * @param  dataset
+   * @param  at the pixel transform
+   * @param  clip the clip bounds, may be null
+   * @return false if the dataset can be skipped
+   */
+  private static boolean isInView(Dataset dataset, AffineTransform at, Rectangle clip) {
+    if((dataset.index==0)||(dataset.ymin>dataset.ymax)) {
+      return false; // nothing to draw
+    }
+    if((clip==null)||!dataset.errorBars.isEmpty()) {
+      return true;
+    }
+    double ymin = dataset.ymin, ymax = dataset.ymax;
+    int shape = dataset.getMarkerShape();
+    if((shape==Dataset.BAR)||(shape==Dataset.POST)) { // bars and posts extend to zero
+      ymin = Math.min(ymin, 0);
+      ymax = Math.max(ymax, 0);
     }
+    double x0 = at.getScaleX()*dataset.xmin+at.getTranslateX();
+    double x1 = at.getScaleX()*dataset.xmax+at.getTranslateX();
+    double y0 = at.getScaleY()*ymin+at.getTranslateY();
+    double y1 = at.getScaleY()*ymax+at.getTranslateY();
+    int pad = dataset.getMarkerSize()+2;
+    return(Math.max(x0, x1)+pad>=clip.x)&&(Math.min(x0, x1)-pad<=clip.x+clip.width)&&(Math.max(y0, y1)+pad>=clip.y)&&(Math.min(y0, y1)-pad<=clip.y+clip.height);
   }
 
   /**
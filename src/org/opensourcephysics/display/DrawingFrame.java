@@ -151,6 +151,32 @@ public class DrawingFrame extends OSPFrame implements ClipboardOwner {
     }
   }
 
+  /**
+   * Renders the drawing panel's offscreen image if the frame is showing and not iconified.
+   */
+  public void renderOffscreen() {
+    if(isIconified()||!isShowing()) {
+      return;
+    }
+    if(drawingPanel!=null) {
+      drawingPanel.renderOffscreen();
+    }
+  }
+
+  /**
+   * Copies the drawing panel's offscreen image onto the screen.
+   */
+  public void present() {
+    if(isIconified()||!isShowing()) {
+      return;
+    }
+    if(drawingPanel!=null) {
+      drawingPanel.present();
+    } else {
+      repaint();
+    }
+  }
+
   /**
    * Invalidates image buffers if a drawing panel buffered.
    */
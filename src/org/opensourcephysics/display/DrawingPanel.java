@@ -35,10 +35,19 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
@@ -72,6 +81,9 @@ import org.opensourcephysics.tools.VideoTool;
  * If ymax>ymin then the coordinate scale increases from bottom to top.
  * If ymax<ymin then the coordinate scale increases from top to bottom.
  *
+ * The drawableList is a final copy-on-write List rather than an ArrayList, so subclasses
+ * can no longer replace it.  Its iterators traverse a snapshot but still support remove.
+ *
  * @author Wolfgang Christian
  * @author Joshua Gould
  * @version 1.0
@@ -120,11 +132,22 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
   protected double yPixPerUnit = 1;                                        // the y scale in pixels per unit
   protected AffineTransform pixelTransform = new AffineTransform();        // transform from world to pixel coodinates.
   protected double[] pixelMatrix = new double[6];                          // 6 values in the 3x3 pixel transformation
-  protected ArrayList<Drawable> drawableList = new ArrayList<Drawable>();  // list of Drawable objects
+  private final DrawableRegistry registry = new DrawableRegistry();        // copy-on-write list of Drawable objects
+  protected final List<Drawable> drawableList = registry;                   // list of Drawable objects
   private volatile boolean validImage = false;                             // true if the current image is valid, false otherwise
   protected BufferedImage offscreenImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
   protected BufferedImage workingImage = offscreenImage;
   private boolean buffered = false;                                        // true will draw this component using an off-screen image
+  private boolean nonBlockingRender = false;                               // true if render publishes frames without waiting for the event thread
+  private final AtomicReference<BufferedImage> pendingImage = new AtomicReference<BufferedImage>(); // completed frame waiting to be painted
+  private final AtomicReference<BufferedImage> spareImage = new AtomicReference<BufferedImage>();   // presented frame returned to the renderer
+  private volatile int presentedFrames, droppedFrames;                     // frame counters for non-blocking rendering
+  private boolean staticLayerEnabled = false;                              // true if static drawables are cached in an image
+  private final HashSet<Drawable> staticDrawables = new HashSet<Drawable>(); // drawables painted into the static layer
+  private BufferedImage staticImage;                                       // cached background, axes, and static drawables
+  private volatile boolean staticLayerValid = false;                       // true if the static image matches the current scale and size
+  private final double[] staticMatrix = new double[6];                     // pixel matrix used to paint the static image
+  private final int[] staticGutters = new int[4];                          // gutters used to paint the static image
   protected TextPanel trMessageBox = new TextPanel();                      // text box in top right hand corner for message
   protected TextPanel tlMessageBox = new TextPanel();                      // text box in top left hand corner for message
   protected TextPanel brMessageBox = new TextPanel();                      // text box in lower right hand corner for message
@@ -574,6 +597,25 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     if(!isShowing()||isIconified()) {
       return offscreenImage; // no need to draw if the frame is not visible
     }
+    BufferedImage image = renderOffscreen();
+    present();
+    return image;
+  }
+
+  /**
+   * Paints all drawables onto the offscreen image buffer without copying the image onto the screen.
+   *
+   * The image is copied onto the screen by the present method.
+   *
+   * @return the image buffer
+   */
+  public BufferedImage renderOffscreen() {
+    if(!isShowing()||isIconified()) {
+      return offscreenImage; // no need to draw if the frame is not visible
+    }
+    if(buffered&&nonBlockingRender) {
+      return renderNonBlocking();
+    }
     if(buffered&&checkWorkingImage()) {
       validImage = true; // drawing into the working image will produce a valid image
       render(workingImage);
@@ -582,6 +624,18 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
       offscreenImage = workingImage;
       workingImage = temp;
     }
+    return offscreenImage;
+  }
+
+  /**
+   * Copies the offscreen image onto the screen and adds it to the video capture tool.
+   *
+   * Unbuffered panels are painted directly onto the screen.
+   */
+  public void present() {
+    if(buffered&&nonBlockingRender) {
+      return; // frames have already been published
+    }
     // always update a Swing component from the event thread
     Runnable doNow = new Runnable() {
       public void run() {
@@ -607,7 +661,108 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
         }
       }
     }
-    return offscreenImage;
+  }
+
+  /**
+   * Paints all drawables onto the working image and publishes it for the event thread without waiting.
+   *
+   * The working image is owned by the calling thread.  A published frame that has not been painted
+   * when the next frame is completed is dropped and its image is reused.
+   *
+   * @return the image that was published
+   */
+  private BufferedImage renderNonBlocking() {
+    if(!workingImage()) {
+      return offscreenImage;
+    }
+    validImage = true; // drawing into the working image will produce a valid image
+    BufferedImage image = render(workingImage);
+    BufferedImage unpainted = pendingImage.getAndSet(image);
+    if(unpainted!=null) { // the event thread did not paint the previous frame
+      droppedFrames++;
+      workingImage = unpainted;
+    } else {
+      workingImage = spareImage.getAndSet(null); // a new image is created if there is no spare
+    }
+    repaint(); // coalesced by the repaint manager
+    if((vidCap!=null)&&vidCap.isRecording()) {
+      vidCap.addFrame(image);
+    }
+    return image;
+  }
+
+  /**
+   * Makes the most recent frame published by a non-blocking render the offscreen image.
+   *
+   * Called from the event dispatch thread.
+   */
+  private void presentPendingImage() {
+    BufferedImage image = pendingImage.getAndSet(null);
+    if(image!=null) {
+      spareImage.set(offscreenImage);
+      offscreenImage = image;
+      presentedFrames++;
+    }
+  }
+
+  /**
+   * Sets the non-blocking render option for buffered panels.
+   *
+   * A non-blocking render publishes the completed image and returns immediately.  The event thread
+   * paints the latest completed image during a coalesced repaint so that a busy event thread drops
+   * frames instead of slowing the calling thread.
+   *
+   * @param nonBlocking
+   */
+  public void setNonBlockingRender(boolean nonBlocking) {
+    if(nonBlockingRender==nonBlocking) {
+      return;
+    }
+    nonBlockingRender = nonBlocking;
+    if(nonBlocking) {
+      setBuffered(true);
+    } else {
+      pendingImage.set(null);
+      spareImage.set(null);
+    }
+    invalidateImage(); // validImage = false;
+  }
+
+  /**
+   * Gets the non-blocking render option.
+   *
+   * @return true if render does not wait for the event thread
+   */
+  public boolean isNonBlockingRender() {
+    return nonBlockingRender;
+  }
+
+  /**
+   * Gets the number of frames painted since the counters were reset.
+   *
+   * Only frames published by a non-blocking render are counted.
+   *
+   * @return the presented frame count
+   */
+  public int getPresentedFrameCount() {
+    return presentedFrames;
+  }
+
+  /**
+   * Gets the number of frames that were replaced by a newer frame before they could be painted.
+   *
+   * @return the dropped frame count
+   */
+  public int getDroppedFrameCount() {
+    return droppedFrames;
+  }
+
+  /**
+   * Resets the presented and dropped frame counters.
+   */
+  public void resetFrameCounts() {
+    presentedFrames = 0;
+    droppedFrames = 0;
   }
 
   /**
@@ -698,6 +853,9 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     }
     viewRect = findViewRect(); // find the clipping rectangle within a scroll pane viewport
     if(buffered) {                                 // paint bufferImage onto screen
+      if(nonBlockingRender) {
+        presentPendingImage();
+      }
       if(!validImage||(getWidth()!=offscreenImage.getWidth())||(getHeight()!=offscreenImage.getHeight())) {
         if((getWidth()!=offscreenImage.getWidth())||(getHeight()!=offscreenImage.getHeight())) {
           g.setColor(Color.WHITE);
@@ -791,7 +949,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     // the following statement has been moved to paintComponent
     // viewRect = findViewRect(); // finds the clipping rectangle within a scroll pane viewport
     computeGutters(); // last chance to set the gutters
-    ArrayList<Drawable> tempList = getDrawables(); // holds a clone of the drawable object list
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     scale(tempList); // sets the world-coordinate scale based on the autoscale values
     setPixelScale(); // sets the pixel scale and the world-to-pixel affine transformation matrix
 	if (!OSPRuntime.isMac()) {  //Rendering hint bug in Mac Snow Leopard 
@@ -818,7 +976,11 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     if(!validImage) {
       return; // abort drawing
     }
-    paintFirst(g); // PlottingPanel uses this method to paint axes
+    if(staticLayerEnabled&&(((Graphics2D) g).getDeviceConfiguration().getDevice().getType()!=GraphicsDevice.TYPE_PRINTER)) {
+      tempList = paintStaticLayer(g, tempList); // paintFirst is included in the static layer
+    } else {
+      paintFirst(g); // PlottingPanel uses this method to paint axes
+    }
     if(!validImage) {
       return; // abort drawing
     }
@@ -832,6 +994,141 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     }
   }
 
+  /**
+   * Copies the static layer into the graphics context, painting the layer first if it is not valid.
+   *
+   * @param g
+   * @param tempList all drawables in drawing order
+   * @return the dynamic drawables
+   */
+  private ArrayList<Drawable> paintStaticLayer(Graphics g, ArrayList<Drawable> tempList) {
+    ArrayList<Drawable> dynamicList = new ArrayList<Drawable>();
+    synchronized(staticDrawables) {
+      ArrayList<Drawable> staticList = new ArrayList<Drawable>();
+      for(Drawable drawable : tempList) {
+        if(staticDrawables.contains(drawable)) {
+          staticList.add(drawable);
+        } else {
+          dynamicList.add(drawable);
+        }
+      }
+      int w = getWidth(), h = getHeight();
+      if(!isStaticLayerCurrent(w, h)) {
+        if((staticImage==null)||(staticImage.getWidth()!=w)||(staticImage.getHeight()!=h)) {
+          staticImage = new BufferedImage(Math.max(w, 1), Math.max(h, 1), BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D sg = staticImage.createGraphics();
+        sg.setRenderingHints(((Graphics2D) g).getRenderingHints());
+        paintFirst(sg);
+        paintDrawableList(sg, staticList);
+        sg.dispose();
+        if(!validImage) {
+          return dynamicList; // static image is incomplete
+        }
+        System.arraycopy(pixelMatrix, 0, staticMatrix, 0, 6);
+        staticGutters[0] = leftGutter;
+        staticGutters[1] = topGutter;
+        staticGutters[2] = rightGutter;
+        staticGutters[3] = bottomGutter;
+        staticLayerValid = true;
+      }
+      g.drawImage(staticImage, 0, 0, null);
+    }
+    return dynamicList;
+  }
+
+  /**
+   * Checks that the static image was painted using the current size, scale, and gutters.
+   */
+  private boolean isStaticLayerCurrent(int w, int h) {
+    if(!staticLayerValid||(staticImage==null)||(staticImage.getWidth()!=w)||(staticImage.getHeight()!=h)) {
+      return false;
+    }
+    for(int i = 0; i<6; i++) {
+      if(staticMatrix[i]!=pixelMatrix[i]) {
+        return false;
+      }
+    }
+    return(staticGutters[0]==leftGutter)&&(staticGutters[1]==topGutter)&&(staticGutters[2]==rightGutter)&&(staticGutters[3]==bottomGutter);
+  }
+
+  /**
+   * Enables a cached static layer.
+   *
+   * The background, the axes painted by paintFirst, and drawables tagged as static are
+   * painted once into an image that is copied under the dynamic drawables on every frame.
+   * The image is repainted when the size, scale, or gutters change or after invalidateStaticLayer.
+   * Static drawables are always painted below dynamic drawables.
+   *
+   * @param enable
+   * @see #setStaticDrawable(Drawable, boolean)
+   */
+  public void setStaticLayerEnabled(boolean enable) {
+    synchronized(staticDrawables) {
+      staticLayerEnabled = enable;
+      staticLayerValid = false;
+      if(!enable) {
+        staticImage = null;
+      }
+    }
+    invalidateImage(); // validImage = false;
+  }
+
+  /**
+   * Gets the static layer option.
+   *
+   * @return true if static drawables are cached
+   */
+  public boolean isStaticLayerEnabled() {
+    return staticLayerEnabled;
+  }
+
+  /**
+   * Tags a drawable as static or dynamic.  Drawables are dynamic unless tagged as static.
+   *
+   * @param drawable
+   * @param isStatic true if the drawable changes only when the scale or size changes
+   */
+  public void setStaticDrawable(Drawable drawable, boolean isStatic) {
+    synchronized(staticDrawables) {
+      boolean changed = isStatic ? staticDrawables.add(drawable) : staticDrawables.remove(drawable);
+      if(changed) {
+        staticLayerValid = false;
+      }
+    }
+  }
+
+  /**
+   * Determines if a drawable has been tagged as static.
+   *
+   * @param drawable
+   * @return true if static
+   */
+  public boolean isStaticDrawable(Drawable drawable) {
+    synchronized(staticDrawables) {
+      return staticDrawables.contains(drawable);
+    }
+  }
+
+  /**
+   * Sets the background color and marks the static layer as dirty.
+   *
+   * @param color
+   */
+  public void setBackground(Color color) {
+    super.setBackground(color);
+    staticLayerValid = false;
+  }
+
+  /**
+   * Marks the static layer as dirty so that it is repainted during the next drawing operation.
+   *
+   * Call this method after a static drawable or the axes change their appearance.
+   */
+  public void invalidateStaticLayer() {
+    staticLayerValid = false;
+  }
+
   /**
    * Autoscale the x axis using min and max values.
    * from measurable objects.
@@ -966,6 +1263,9 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     if(buffered) {             // turn off Java buffering because we are doing our own
       setDoubleBuffered(false);
     } else {                   // small default image is not used
+      nonBlockingRender = false;
+      pendingImage.set(null);
+      spareImage.set(null);
       workingImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
       offscreenImage = workingImage;
       setDoubleBuffered(true); // use Java's buffer
@@ -1598,7 +1898,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
     double ymin = Double.MAX_VALUE;
     double ymax = -Double.MAX_VALUE;
     boolean measurableFound = false;
-    ArrayList<Drawable> tempList = getDrawables(); // this clones the list of drawables
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     Iterator<Drawable> it = tempList.iterator();
     while(it.hasNext()) {
       Object obj = it.next();
@@ -1834,7 +2134,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * Sets axis scales if autoscale is true using the max and min values of the measurable objects.
    */
   public void scale() {
-    ArrayList<Drawable> tempList = getDrawables(); // clone the list of drawables
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     scale(tempList);
   }
 
@@ -1856,7 +2156,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * Autoscale flags are not respected.
    */
   public void measure() {
-    ArrayList<Drawable> tempList = getDrawables(); // this clones the list of drawables
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     scaleX(tempList);
     scaleY(tempList);
     setPixelScale();
@@ -1867,7 +2167,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * Sets the x axis scale based on the max and min values of all measurable objects.  Autoscale flag is not respected.
    */
   protected void scaleX() {
-    ArrayList<Drawable> tempList = getDrawables(); // this clones the list of drawables
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     scaleX(tempList);
   }
 
@@ -1962,7 +2262,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * Sets the y axis scale based on the max and min values of all measurable objects. Autoscale flag is not respected.
    */
   protected void scaleY() {
-    ArrayList<Drawable> tempList = getDrawables(); // this clones the list of drawables
+    ArrayList<Drawable> tempList = getDrawablesToPaint(); // shared snapshot of the drawable list
     scaleY(tempList);
   }
 
@@ -2115,10 +2415,10 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @param drawable
    */
   public void addDrawable(Drawable drawable) {
-    synchronized(drawableList) {
-      if((drawable!=null)&&!drawableList.contains(drawable)) {
-        drawableList.add(drawable);
-        invalidateImage(); // validImage = false;
+    if((drawable!=null)&&registry.addIfAbsent(-1, drawable)) {
+      invalidateImage(); // validImage = false;
+      if(isStaticDrawable(drawable)) {
+        staticLayerValid = false;
       }
     }
     if(drawable instanceof Dimensioned) {
@@ -2128,18 +2428,26 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
 
   /**
    * Adds a collection of drawable objects to the drawable list.
+   *
+   * The list is changed once for the whole collection.
    * @param drawables
    */
   public void addDrawables(Collection<Drawable> drawables) {
-    synchronized(drawableList) {
-      Iterator<Drawable> it = drawables.iterator();
-      while(it.hasNext()) {
-        Object obj = it.next();
-        if(obj instanceof Drawable) {
-          addDrawable((Drawable) obj);
+    if(registry.addAllAbsent(drawables)) {
+      invalidateImage(); // validImage = false;
+      synchronized(staticDrawables) {
+        for(Drawable drawable : drawables) {
+          if(staticDrawables.contains(drawable)) {
+            staticLayerValid = false;
+          }
         }
       }
     }
+    for(Drawable drawable : drawables) {
+      if(drawable instanceof Dimensioned) {
+        dimensionSetter = ((Dimensioned) drawable);
+      }
+    }
   }
 
   /**
@@ -2147,11 +2455,9 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @param drawable
    */
   public void addDrawableAtIndex(int index, Drawable drawable) {
-    synchronized(drawableList) {
-      if((drawable!=null)&&!drawableList.contains(drawable)) {
-        drawableList.add(index, drawable);
-        invalidateImage(); // validImage = false;
-      }
+    if((drawable!=null)&&registry.addIfAbsent(index, drawable)) {
+      invalidateImage(); // validImage = false;
+      staticLayerValid = false; // drawing order may have changed
     }
     if(drawable instanceof Dimensioned) {
       dimensionSetter = ((Dimensioned) drawable);
@@ -2165,16 +2471,15 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @param newDrawable Drawable
    */
   public void replaceDrawable(Drawable oldDrawable, Drawable newDrawable) {
-    synchronized(drawableList) {
-      if((oldDrawable!=null)&&drawableList.contains(oldDrawable)) {
-        int i = drawableList.indexOf(oldDrawable);
-        drawableList.set(i, newDrawable);
-        if(newDrawable instanceof Dimensioned) {
-          dimensionSetter = ((Dimensioned) newDrawable);
-        }
-      } else {
-        addDrawable(newDrawable); // oldDrawable does not exist
+    if((oldDrawable!=null)&&registry.replace(oldDrawable, newDrawable)) {
+      if(isStaticDrawable(oldDrawable)||isStaticDrawable(newDrawable)) {
+        staticLayerValid = false;
+      }
+      if(newDrawable instanceof Dimensioned) {
+        dimensionSetter = ((Dimensioned) newDrawable);
       }
+    } else {
+      addDrawable(newDrawable); // oldDrawable does not exist
     }
   }
 
@@ -2183,14 +2488,33 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @param drawable
    */
   public void removeDrawable(Drawable drawable) {
-    synchronized(drawableList) {
-      drawableList.remove(drawable);
-    }
+    registry.remove(drawable);
+    setStaticDrawable(drawable, false);
     if(drawable instanceof Dimensioned) {
       dimensionSetter = null;
     }
   }
 
+  /**
+   * Removes a collection of drawable objects from the drawable list.
+   *
+   * The list is changed once for the whole collection.
+   * @param drawables
+   */
+  public void removeDrawables(Collection<Drawable> drawables) {
+    registry.removeAll(drawables);
+    synchronized(staticDrawables) {
+      if(staticDrawables.removeAll(drawables)) {
+        staticLayerValid = false;
+      }
+    }
+    for(Drawable drawable : drawables) {
+      if(drawable instanceof Dimensioned) {
+        dimensionSetter = null;
+      }
+    }
+  }
+
   /**
    * Removes all objects of the given class from the drawable list.
    *
@@ -2200,18 +2524,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @see #removeDrawables(Class c)
    */
   public <T extends Drawable> void removeObjectsOfClass(Class<T> c) {
-    synchronized(drawableList) {
-      Iterator<Drawable> it = drawableList.iterator();
-      while(it.hasNext()) {
-        Object element = it.next();
-        if(element.getClass()==c) {
-          it.remove();
-          if(element instanceof Dimensioned) {
-            dimensionSetter = null;
-          }
-        }
-      }
-    }
+    removeDrawables(new ArrayList<Drawable>(getObjectOfClass(c)));
   }
 
   /**
@@ -2222,18 +2535,7 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @see #removeObjectsOfClass(Class c)
    */
   public <T extends Drawable> void removeDrawables(Class<T> c) {
-    synchronized(drawableList) {
-      Iterator<Drawable> it = drawableList.iterator();
-      while(it.hasNext()) {
-        Object element = it.next();
-        if(c.isInstance(element)) {
-          it.remove();
-          if(element instanceof Dimensioned) {
-            dimensionSetter = null;
-          }
-        }
-      }
-    }
+    removeDrawables(new ArrayList<Drawable>(getDrawables(c)));
   }
 
   /**
@@ -2260,8 +2562,10 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * Removes all drawable objects from the drawable list.
    */
   public void clear() {
-    synchronized(drawableList) {
-      drawableList.clear();
+    registry.clear();
+    synchronized(staticDrawables) {
+      staticDrawables.clear();
+      staticLayerValid = false;
     }
     dimensionSetter = null;
   }
@@ -2274,9 +2578,29 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @return cloned list
    */
   public ArrayList<Drawable> getDrawables() {
-    synchronized(drawableList) {
-      return new ArrayList<Drawable>(drawableList);
-    }
+    return new ArrayList<Drawable>(registry.snapshot());
+  }
+
+  /**
+   * Gets an unmodifiable snapshot of the drawable list.
+   *
+   * The snapshot is shared and is not copied until the drawable list changes, so it is
+   * cheaper than getDrawables for callers that only read the list.
+   * @return the snapshot
+   */
+  public List<Drawable> getDrawableSnapshot() {
+    return registry.view();
+  }
+
+  /**
+   * Gets the drawables that are measured, scaled, and painted.
+   *
+   * The default is a snapshot of the drawable list that is shared until the list changes,
+   * so the returned list must not be modified.
+   * @return the list
+   */
+  protected ArrayList<Drawable> getDrawablesToPaint() {
+    return registry.snapshot();
   }
 
   /**
@@ -2293,12 +2617,8 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @see #getObjectOfClass(Class c)
    */
   public <T extends Drawable> ArrayList<T> getDrawables(Class<T> type) {
-    ArrayList<Drawable> all = null;
-    synchronized(drawableList) {
-      all = new ArrayList<Drawable>(drawableList);
-    }
     ArrayList<T> objects = new ArrayList<T>();
-    for(Drawable d : all) {
+    for(Drawable d : registry.array()) {
       if(type.isInstance(d)) {
         objects.add(type.cast(d));
       }
@@ -2318,12 +2638,8 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
    * @see #getDrawables(Class c)
    */
   public <T extends Drawable> ArrayList<T> getObjectOfClass(Class<T> type) {
-    ArrayList<Drawable> all = null;
-    synchronized(drawableList) {
-      all = new ArrayList<Drawable>(drawableList);
-    }
     ArrayList<T> objects = new ArrayList<T>();
-    for(Drawable d : all) {
+    for(Drawable d : registry.array()) {
       if(d.getClass()==type) {
         objects.add(type.cast(d));
       }
@@ -2487,6 +2803,329 @@ public class DrawingPanel extends JPanel implements ActionListener, Renderable {
   	return OSPRuntime.isPopupTrigger(e);
   }
 
+  /**
+   * DrawableRegistry is a copy-on-write list of drawables.
+   *
+   * Every change publishes a new array, so readers iterate a consistent snapshot without
+   * locking and the list handed to the paint methods is copied only after a change.
+   * Iterators traverse the snapshot taken when they were created; their remove, set and add
+   * methods change the current list.
+   */
+  private static class DrawableRegistry extends AbstractList<Drawable> implements RandomAccess {
+    private static final Drawable[] EMPTY = new Drawable[0];
+    private volatile Drawable[] array = EMPTY; // replaced, never modified, by every change
+    private volatile Snapshot snapshot = new Snapshot(EMPTY);
+
+    /**
+     * A list copied from a published array.
+     */
+    private static class Snapshot {
+      final Drawable[] array;
+      final ArrayList<Drawable> list;
+      final List<Drawable> view;
+
+      Snapshot(Drawable[] array) {
+        this.array = array;
+        list = new ArrayList<Drawable>(Arrays.asList(array));
+        view = Collections.unmodifiableList(list);
+      }
+
+    }
+
+    /**
+     * Gets the current array.  The array must not be modified.
+     */
+    Drawable[] array() {
+      return array;
+    }
+
+    /**
+     * Gets a list shared by all readers until the next change.  The list must not be modified.
+     */
+    ArrayList<Drawable> snapshot() {
+      return current().list;
+    }
+
+    /**
+     * Gets an unmodifiable view of the shared list.
+     */
+    List<Drawable> view() {
+      return current().view;
+    }
+
+    private Snapshot current() {
+      Snapshot s = snapshot;
+      Drawable[] a = array;
+      if(s.array!=a) {
+        s = new Snapshot(a);
+        snapshot = s;
+      }
+      return s;
+    }
+
+    public Drawable get(int index) {
+      return array[index];
+    }
+
+    public int size() {
+      return array.length;
+    }
+
+    public int indexOf(Object o) {
+      return indexOf(array, o);
+    }
+
+    public int lastIndexOf(Object o) {
+      Drawable[] a = array;
+      for(int i = a.length-1; i>=0; i--) {
+        if((o==null) ? a[i]==null : o.equals(a[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    public boolean contains(Object o) {
+      return indexOf(array, o)>=0;
+    }
+
+    public Object[] toArray() {
+      Drawable[] a = array;
+      return Arrays.copyOf(a, a.length, Object[].class);
+    }
+
+    public <T> T[] toArray(T[] dest) {
+      return Arrays.asList(array).toArray(dest);
+    }
+
+    public Iterator<Drawable> iterator() {
+      return new SnapshotIterator(array, 0);
+    }
+
+    public ListIterator<Drawable> listIterator(int index) {
+      Drawable[] a = array;
+      if((index<0)||(index>a.length)) {
+        throw new IndexOutOfBoundsException("Index: "+index+", Size: "+a.length); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+      return new SnapshotIterator(a, index);
+    }
+
+    /**
+     * An iterator over the array published when it was created.  Changes made through the
+     * iterator are applied to the current list as copy-on-write changes and are not seen
+     * by the iteration.
+     */
+    private class SnapshotIterator implements ListIterator<Drawable> {
+      final Drawable[] a;
+      int cursor;
+      int last = -1; // index in a of the element returned by the last call to next or previous
+
+      SnapshotIterator(Drawable[] a, int index) {
+        this.a = a;
+        cursor = index;
+      }
+
+      public boolean hasNext() {
+        return cursor<a.length;
+      }
+
+      public Drawable next() {
+        if(cursor>=a.length) {
+          throw new NoSuchElementException();
+        }
+        last = cursor++;
+        return a[last];
+      }
+
+      public boolean hasPrevious() {
+        return cursor>0;
+      }
+
+      public Drawable previous() {
+        if(cursor<=0) {
+          throw new NoSuchElementException();
+        }
+        last = --cursor;
+        return a[last];
+      }
+
+      public int nextIndex() {
+        return cursor;
+      }
+
+      public int previousIndex() {
+        return cursor-1;
+      }
+
+      public void remove() {
+        if(last<0) {
+          throw new IllegalStateException();
+        }
+        DrawableRegistry.this.remove(a[last]);
+        last = -1;
+      }
+
+      public void set(Drawable drawable) {
+        if(last<0) {
+          throw new IllegalStateException();
+        }
+        replace(a[last], drawable);
+      }
+
+      public void add(Drawable drawable) {
+        synchronized(DrawableRegistry.this) {
+          // insert before the element that the next call to next would return
+          int i = (cursor<a.length) ? indexOf(array, a[cursor]) : -1;
+          DrawableRegistry.this.add((i<0) ? array.length : i, drawable);
+        }
+        last = -1;
+      }
+
+    }
+
+    public synchronized boolean add(Drawable drawable) {
+      add(array.length, drawable);
+      return true;
+    }
+
+    public synchronized void add(int index, Drawable drawable) {
+      Drawable[] a = array;
+      if((index<0)||(index>a.length)) {
+        throw new IndexOutOfBoundsException("Index: "+index+", Size: "+a.length); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+      Drawable[] b = new Drawable[a.length+1];
+      System.arraycopy(a, 0, b, 0, index);
+      b[index] = drawable;
+      System.arraycopy(a, index, b, index+1, a.length-index);
+      array = b;
+    }
+
+    public synchronized Drawable set(int index, Drawable drawable) {
+      Drawable[] b = array.clone();
+      Drawable old = b[index];
+      b[index] = drawable;
+      array = b;
+      return old;
+    }
+
+    public synchronized Drawable remove(int index) {
+      Drawable[] a = array;
+      Drawable old = a[index];
+      Drawable[] b = new Drawable[a.length-1];
+      System.arraycopy(a, 0, b, 0, index);
+      System.arraycopy(a, index+1, b, index, a.length-index-1);
+      array = b;
+      return old;
+    }
+
+    public synchronized boolean remove(Object o) {
+      int i = indexOf(array, o);
+      if(i<0) {
+        return false;
+      }
+      remove(i);
+      return true;
+    }
+
+    public synchronized void clear() {
+      array = EMPTY;
+    }
+
+    public boolean removeAll(Collection<?> c) {
+      return filter(c, false);
+    }
+
+    public boolean retainAll(Collection<?> c) {
+      return filter(c, true);
+    }
+
+    /**
+     * Adds a drawable at the given index, or at the end if the index is negative, unless it is
+     * already in the list.
+     *
+     * @return true if added
+     */
+    synchronized boolean addIfAbsent(int index, Drawable drawable) {
+      if(indexOf(array, drawable)>=0) {
+        return false;
+      }
+      add((index<0) ? array.length : index, drawable);
+      return true;
+    }
+
+    /**
+     * Appends the drawables not already in the list in a single change.
+     *
+     * @return true if any were added
+     */
+    synchronized boolean addAllAbsent(Collection<Drawable> drawables) {
+      Drawable[] a = array;
+      HashSet<Drawable> present = new HashSet<Drawable>(Arrays.asList(a));
+      ArrayList<Drawable> added = new ArrayList<Drawable>();
+      for(Drawable drawable : drawables) {
+        if((drawable!=null)&&present.add(drawable)) {
+          added.add(drawable);
+        }
+      }
+      if(added.isEmpty()) {
+        return false;
+      }
+      Drawable[] b = Arrays.copyOf(a, a.length+added.size());
+      for(int i = 0, n = added.size(); i<n; i++) {
+        b[a.length+i] = added.get(i);
+      }
+      array = b;
+      return true;
+    }
+
+    /**
+     * Replaces the first occurrence of a drawable.
+     *
+     * @return false if the old drawable is not in the list
+     */
+    synchronized boolean replace(Drawable oldDrawable, Drawable newDrawable) {
+      int i = indexOf(array, oldDrawable);
+      if(i<0) {
+        return false;
+      }
+      set(i, newDrawable);
+      return true;
+    }
+
+    /**
+     * Keeps or removes the drawables in the given collection in a single change.
+     */
+    private synchronized boolean filter(Collection<?> c, boolean keep) {
+      Drawable[] a = array;
+      if(a.length==0) {
+        return false;
+      }
+      Collection<?> lookup = (c.size()>8) ? new HashSet<Object>(c) : c;
+      Drawable[] b = new Drawable[a.length];
+      int n = 0;
+      for(int i = 0; i<a.length; i++) {
+        if(lookup.contains(a[i])==keep) {
+          b[n++] = a[i];
+        }
+      }
+      if(n==a.length) {
+        return false;
+      }
+      array = Arrays.copyOf(b, n);
+      return true;
+    }
+
+    private static int indexOf(Drawable[] a, Object o) {
+      for(int i = 0; i<a.length; i++) {
+        if((o==null) ? a[i]==null : o.equals(a[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+  }
+
   /**
    * The CMController class handles mouse related events in order to display
    * coordinates in the mouse box.
@@ -19,6 +19,10 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.imageio.ImageIO;
 import javax.swing.JComponent;
@@ -26,12 +30,15 @@ import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenuBar;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
 
 import org.jibble.epsgraphics.EpsGraphics2D;
 import org.opensourcephysics.controls.XML;
+import org.opensourcephysics.js.JSUtil;
 import org.opensourcephysics.media.gif.GIFEncoder;
+import org.opensourcephysics.numerics.ParallelLoop;
 
 public class GUIUtils {
 	
@@ -48,6 +55,9 @@ public class GUIUtils {
   		disabledColor = Color.LIGHT_GRAY;
   }
 
+  private static boolean parallelRendering = false;
+  private static final Map<OSPFrame, RenderStatistics> renderStatistics = new WeakHashMap<OSPFrame, RenderStatistics>();
+
   private GUIUtils() {} // prohibits instantiation
 
   /**
@@ -133,12 +143,24 @@ public class GUIUtils {
    */
   public static void renderAnimatedFrames() {
     Frame[] frames = Frame.getFrames();
+    final ArrayList<OSPFrame> animated = new ArrayList<OSPFrame>();
     for(int i = 0; i<frames.length; i++) {
       if(!frames[i].isDisplayable()||!OSPFrame.class.isInstance(frames[i])) {
         continue;
       }
       if(((OSPFrame) frames[i]).isAnimated()) {
-        ((OSPFrame) frames[i]).render();
+        animated.add((OSPFrame) frames[i]);
+      }
+    }
+    // workers may wait for the event dispatch thread, so never block it on them
+    if(parallelRendering&&!JSUtil.isJS&&(animated.size()>1)&&!SwingUtilities.isEventDispatchThread()) {
+      renderFramesInParallel(animated);
+    } else {
+      for(int i = 0, n = animated.size(); i<n; i++) {
+        OSPFrame frame = animated.get(i);
+        long start = System.nanoTime();
+        frame.render();
+        recordRenderTime(frame, System.nanoTime()-start);
       }
     }
     if((OSPRuntime.applet!=null)&&(OSPRuntime.applet instanceof Renderable)) {
@@ -146,6 +168,151 @@ public class GUIUtils {
     }
   }
 
+  /**
+   * Renders the offscreen images of the given frames concurrently and then presents all frames
+   * in a single pass on the event dispatch thread.
+   *
+   * @param frames the animated frames
+   */
+  private static void renderFramesInParallel(final ArrayList<OSPFrame> frames) {
+    ParallelLoop.forRange(frames.size(), 1, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int i = start; i<end; i++) {
+          OSPFrame frame = frames.get(i);
+          long t0 = System.nanoTime();
+          frame.renderOffscreen();
+          recordRenderTime(frame, System.nanoTime()-t0);
+        }
+      }
+
+    });
+    Runnable presentAll = new Runnable() {
+      public void run() {
+        for(int i = 0, n = frames.size(); i<n; i++) {
+          frames.get(i).present();
+        }
+      }
+
+    };
+    if(SwingUtilities.isEventDispatchThread()) {
+      presentAll.run();
+    } else {
+      try {
+        SwingUtilities.invokeAndWait(presentAll);
+      } catch(InvocationTargetException ex) {}
+      catch(InterruptedException ex) {}
+    }
+  }
+
+  /**
+   * Sets the parallel rendering option.
+   *
+   * When enabled, renderAnimatedFrames draws the offscreen images of all animated frames concurrently
+   * on a bounded thread pool and presents the frames together after every image is complete.
+   * Frames are always rendered in the calling thread in JavaScript and when called on the event dispatch thread.
+   *
+   * @param parallel
+   */
+  public static void setParallelRendering(boolean parallel) {
+    parallelRendering = parallel;
+  }
+
+  /**
+   * Gets the parallel rendering option.
+   *
+   * @return true if animated frames are rendered concurrently
+   */
+  public static boolean isParallelRendering() {
+    return parallelRendering;
+  }
+
+  /**
+   * Gets the render time statistics recorded by renderAnimatedFrames for the given frame.
+   *
+   * @param frame
+   * @return the statistics, or null if the frame has not been rendered
+   */
+  public static RenderStatistics getRenderStatistics(OSPFrame frame) {
+    synchronized(renderStatistics) {
+      return renderStatistics.get(frame);
+    }
+  }
+
+  /**
+   * Clears the render time statistics of all frames.
+   */
+  public static void resetRenderStatistics() {
+    synchronized(renderStatistics) {
+      renderStatistics.clear();
+    }
+  }
+
+  private static void recordRenderTime(OSPFrame frame, long nanos) {
+    synchronized(renderStatistics) {
+      RenderStatistics stats = renderStatistics.get(frame);
+      if(stats==null) {
+        stats = new RenderStatistics();
+        renderStatistics.put(frame, stats);
+      }
+      stats.add(nanos);
+    }
+  }
+
+  /**
+   * Render times of a single frame.
+   *
+   * In parallel mode the time covers drawing the offscreen image; otherwise it also includes
+   * copying the image onto the screen.
+   */
+  public static class RenderStatistics {
+    private int count;
+    private long lastNanos, totalNanos, maxNanos;
+
+    synchronized void add(long nanos) {
+      count++;
+      lastNanos = nanos;
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Gets the number of recorded renders.
+     * @return the count
+     */
+    public synchronized int getCount() {
+      return count;
+    }
+
+    /**
+     * Gets the most recent render time in milliseconds.
+     * @return the time
+     */
+    public synchronized double getLastTime() {
+      return lastNanos/1.0e6;
+    }
+
+    /**
+     * Gets the mean render time in milliseconds.
+     * @return the time
+     */
+    public synchronized double getMeanTime() {
+      return(count==0) ? 0 : totalNanos/1.0e6/count;
+    }
+
+    /**
+     * Gets the longest render time in milliseconds.
+     * @return the time
+     */
+    public synchronized double getMaxTime() {
+      return maxNanos/1.0e6;
+    }
+
+    public synchronized String toString() {
+      return "renders="+count+" last(ms)="+getLastTime()+" mean(ms)="+getMeanTime()+" max(ms)="+getMaxTime(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+  }
+
   /**
    * Repaints all OSPFrames whose animated property is true.
    *
@@ -0,0 +1,135 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.Component;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * HeadlessRenderer renders a DrawingPanel, DrawingPanel3D, or other Renderable component into a
+ * reusable image without showing the component in a window.
+ *
+ * The component is given a fixed size so that it can be used in batch jobs on machines without a display.
+ * Rendered frames can be streamed to an ImageSequenceWriter.
+ */
+public class HeadlessRenderer {
+  Renderable panel;
+  BufferedImage image;
+  ImageSequenceWriter writer;
+
+  /**
+   * Constructs a renderer for the given component.
+   *
+   * @param panel a Renderable Component such as a DrawingPanel or DrawingPanel3D
+   * @param width the image width in pixels
+   * @param height the image height in pixels
+   */
+  public HeadlessRenderer(Renderable panel, int width, int height) {
+    if(!(panel instanceof Component)) {
+      throw new IllegalArgumentException("Renderable must be a Component"); //$NON-NLS-1$
+    }
+    this.panel = panel;
+    setSize(width, height);
+  }
+
+  /**
+   * Sets the size of the component and of the rendered image.
+   *
+   * @param width
+   * @param height
+   */
+  public void setSize(int width, int height) {
+    Component c = (Component) panel;
+    c.setSize(width, height);
+    c.doLayout();
+    if((image==null)||(image.getWidth()!=width)||(image.getHeight()!=height)) {
+      image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+  }
+
+  /**
+   * Sets the writer that receives every rendered frame.
+   *
+   * @param writer the writer, or null to stop streaming frames
+   */
+  public void setImageSequenceWriter(ImageSequenceWriter writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Gets the image sequence writer.
+   *
+   * @return the writer, or null
+   */
+  public ImageSequenceWriter getImageSequenceWriter() {
+    return writer;
+  }
+
+  /**
+   * Gets the image that is reused for every frame.
+   *
+   * @return the image
+   */
+  public BufferedImage getImage() {
+    return image;
+  }
+
+  /**
+   * Renders the component into the image and passes the image to the image sequence writer.
+   *
+   * @return the image
+   * @throws IOException if the writer has failed
+   */
+  public BufferedImage render() throws IOException {
+    if(panel instanceof DrawingPanel) {
+      ((DrawingPanel) panel).validateImage(); // a drawing panel aborts drawing into an invalid image
+    }
+    panel.render(image);
+    if(writer!=null) {
+      writer.addFrame(image);
+    }
+    return image;
+  }
+
+  /**
+   * Closes the image sequence writer after all frames have been encoded.
+   *
+   * @throws IOException if a frame could not be written
+   */
+  public void close() throws IOException {
+    if(writer!=null) {
+      writer.close();
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
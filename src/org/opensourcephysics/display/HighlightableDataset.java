@@ -84,6 +84,17 @@ public class HighlightableDataset extends Dataset implements Interactive {
     adjustCapacity(xpoints.length);
   }
 
+  /**
+   * Replaces the data with the given arrays.
+   *
+   * @param  xarray the x array
+   * @param  yarray the y array
+   */
+  protected void setPoints(double[] xarray, double[] yarray) {
+    super.setPoints(xarray, yarray);
+    adjustCapacity(xpoints.length);
+  }
+
   /**
    * Clear all data from this Dataset.
    */
@@ -91,6 +91,17 @@ public class HistogramDataset extends Dataset {
     }
   }
 
+  /**
+   *  Bins the given data after clearing the histogram.
+   *
+   * @param  xpoints
+   * @param  ypoints
+   */
+  protected void setPoints(double[] xpoints, double[] ypoints) {
+    clear();
+    append(xpoints, ypoints);
+  }
+
   /**
    *  Gets the x world coordinate for the left hand side of the panel.
    *
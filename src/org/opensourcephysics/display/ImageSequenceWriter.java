@@ -0,0 +1,230 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.imageio.ImageIO;
+
+import org.opensourcephysics.js.JSUtil;
+import org.opensourcephysics.media.gif.AnimatedGifEncoder;
+
+/**
+ * ImageSequenceWriter encodes rendered frames as a numbered PNG sequence or as an animated GIF.
+ *
+ * Frames are copied into pooled images and encoded by a background thread so that the calling
+ * thread only waits when the encoder falls more than a fixed number of frames behind.
+ * Frames are encoded in the calling thread in JavaScript.
+ */
+public class ImageSequenceWriter {
+  static final int DEFAULT_CAPACITY = 8;
+  static final BufferedImage END = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+  File directory;                // PNG output directory
+  String prefix;                 // PNG file name prefix
+  AnimatedGifEncoder gifEncoder; // GIF encoder or null for PNG output
+  final BlockingQueue<BufferedImage> pending;
+  final BlockingQueue<BufferedImage> pool;
+  Thread encoderThread;
+  volatile int framesWritten;
+  int framesAdded;
+  volatile IOException error;
+  boolean closed;
+
+  /**
+   * Constructs a writer that saves each frame as prefix00000.png, prefix00001.png, ... in the given directory.
+   *
+   * @param directory the output directory
+   * @param prefix the file name prefix
+   */
+  public ImageSequenceWriter(File directory, String prefix) {
+    this(DEFAULT_CAPACITY);
+    this.directory = directory;
+    this.prefix = prefix;
+    directory.mkdirs();
+  }
+
+  /**
+   * Constructs a writer that saves frames as an animated GIF that loops forever.
+   *
+   * @param gifFile the GIF file
+   * @param delay the delay between frames in ms
+   * @throws IOException if the file cannot be opened
+   */
+  public ImageSequenceWriter(File gifFile, int delay) throws IOException {
+    this(DEFAULT_CAPACITY);
+    gifEncoder = new AnimatedGifEncoder();
+    if(!gifEncoder.start(gifFile.getPath())) {
+      throw new IOException("Cannot write "+gifFile); //$NON-NLS-1$
+    }
+    gifEncoder.setDelay(delay);
+    gifEncoder.setRepeat(0);
+  }
+
+  private ImageSequenceWriter(int capacity) {
+    pending = new ArrayBlockingQueue<BufferedImage>(capacity+1);
+    pool = new ArrayBlockingQueue<BufferedImage>(capacity+1);
+  }
+
+  /**
+   * Queues a copy of the given image for encoding.  The image may be reused as soon as this method returns.
+   *
+   * @param image the frame
+   * @throws IOException if the encoder has failed or the writer is closed
+   */
+  public synchronized void addFrame(BufferedImage image) throws IOException {
+    if(error!=null) {
+      throw error;
+    }
+    if(closed) {
+      throw new IOException("Image sequence writer is closed"); //$NON-NLS-1$
+    }
+    if(JSUtil.isJS) {
+      encode(image, framesAdded++);
+      framesWritten++;
+      return;
+    }
+    BufferedImage copy = pool.poll();
+    if((copy==null)||(copy.getWidth()!=image.getWidth())||(copy.getHeight()!=image.getHeight())) {
+      copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    }
+    copy.getRaster().setRect(image.getRaster());
+    if(encoderThread==null) {
+      startEncoder();
+    }
+    try {
+      pending.put(copy); // waits only if the encoder is far behind
+      framesAdded++;
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Waits for all queued frames to be encoded and closes the output.
+   *
+   * @throws IOException if a frame could not be written
+   */
+  public synchronized void close() throws IOException {
+    if(closed) {
+      return;
+    }
+    closed = true;
+    if(encoderThread!=null) {
+      try {
+        pending.put(END);
+        encoderThread.join();
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if(gifEncoder!=null) {
+      gifEncoder.finish();
+    }
+    if(error!=null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Gets the number of frames that have been encoded.
+   *
+   * @return the number of frames
+   */
+  public int getFramesWritten() {
+    return framesWritten;
+  }
+
+  /**
+   * Gets the number of frames waiting to be encoded.
+   *
+   * @return the number of frames
+   */
+  public int getFramesPending() {
+    return pending.size();
+  }
+
+  private void startEncoder() {
+    encoderThread = new Thread(new Runnable() {
+      public void run() {
+        int index = 0;
+        while(true) {
+          BufferedImage image;
+          try {
+            image = pending.take();
+          } catch(InterruptedException ex) {
+            return;
+          }
+          if(image==END) {
+            return;
+          }
+          if(error==null) { // after a failure, frames are drained so that callers never block
+            try {
+              encode(image, index);
+              framesWritten++;
+            } catch(IOException ex) {
+              error = ex;
+            } catch(Throwable ex) {
+              error = new IOException("Cannot encode frame "+index, ex); //$NON-NLS-1$
+            }
+          }
+          index++;
+          pool.offer(image);
+        }
+      }
+
+    }, "ImageSequenceWriter"); //$NON-NLS-1$
+    encoderThread.setDaemon(true);
+    encoderThread.start();
+  }
+
+  void encode(BufferedImage image, int index) throws IOException {
+    if(gifEncoder!=null) {
+      if(!gifEncoder.addFrame(image)) {
+        throw new IOException("Cannot add GIF frame "+index); //$NON-NLS-1$
+      }
+      return;
+    }
+    String name = String.valueOf(index);
+    while(name.length()<5) {
+      name = "0"+name; //$NON-NLS-1$
+    }
+    File file = new File(directory, prefix+name+".png"); //$NON-NLS-1$
+    if(!ImageIO.write(image, "png", file)) { //$NON-NLS-1$
+      throw new IOException("Cannot write "+file); //$NON-NLS-1$
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
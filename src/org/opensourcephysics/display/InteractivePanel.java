@@ -203,10 +203,7 @@ public class InteractivePanel extends DrawingPanel implements InteractiveMouseHa
       Interactive iad = ((Interactive) iaSelectable).findInteractive(this, mouseEvent.getX(), mouseEvent.getY());
       return iad;
     }
-    Object[] array = null;
-    synchronized(drawableList) {
-      array = drawableList.toArray();
-    }
+    Object[] array = getDrawableSnapshot().toArray();
     for(int i = array.length-1; i>=0; i--) {
       Object obj = array[i];
       if(obj instanceof Interactive) {
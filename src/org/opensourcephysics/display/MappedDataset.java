@@ -0,0 +1,548 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import org.opensourcephysics.controls.OSPLog;
+import org.opensourcephysics.controls.XML;
+import org.opensourcephysics.controls.XMLControl;
+
+/**
+ * MappedDataset is a Dataset whose points are stored in a memory-mapped file rather than
+ * on the heap.
+ *
+ * The file grows in fixed size chunks so that appending never copies existing data, and
+ * the number of points is not limited by the maximum points setting. Reopening the file
+ * restores the points, the data limits and the column names without parsing.
+ *
+ * Mapped datasets are always unsorted.
+ */
+public class MappedDataset extends Dataset {
+  private static final long serialVersionUID = 1L;
+  static final int MAGIC = 0x4F535044; // "OSPD"
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 1024;
+  static final int DEFAULT_CHUNK = 64*1024;
+  static final int COUNT_OFFSET = 16;
+  static final int LIMITS_OFFSET = 24;
+  static final int NAMES_OFFSET = 88;
+  protected File file;
+  transient RandomAccessFile raf;
+  transient FileChannel channel;
+  transient MappedByteBuffer header;
+  int chunk = DEFAULT_CHUNK;
+  transient ArrayList<DoubleBuffer> xChunks = new ArrayList<DoubleBuffer>();
+  transient ArrayList<DoubleBuffer> yChunks = new ArrayList<DoubleBuffer>();
+  transient ArrayList<MappedByteBuffer> maps = new ArrayList<MappedByteBuffer>();
+
+  /**
+   * Constructs a MappedDataset backed by the given file. Points already in the file are kept.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be opened or is not a dataset file
+   */
+  public MappedDataset(File file) throws IOException {
+    this.file = file;
+    raf = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+    channel = raf.getChannel();
+    long length = raf.length();
+    if((length>0)&&(length<HEADER_SIZE)) { // never extend a file that is not a dataset file
+      close();
+      throw new IOException("Not a dataset file: "+file); //$NON-NLS-1$
+    }
+    header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+    if(length==0) {
+      header.putInt(0, MAGIC);
+      header.putInt(4, VERSION);
+      header.putInt(8, chunk);
+      header.putLong(COUNT_OFFSET, 0);
+      writeLimits();
+      writeNames();
+      return;
+    }
+    if((header.getInt(0)!=MAGIC)||(header.getInt(4)!=VERSION)) {
+      close();
+      throw new IOException("Not a dataset file: "+file); //$NON-NLS-1$
+    }
+    chunk = header.getInt(8);
+    int count = (int) header.getLong(COUNT_OFFSET);
+    ensureCapacity(count);
+    index = count;
+    xmin = header.getDouble(LIMITS_OFFSET);
+    xmax = header.getDouble(LIMITS_OFFSET+8);
+    ymin = header.getDouble(LIMITS_OFFSET+16);
+    ymax = header.getDouble(LIMITS_OFFSET+24);
+    xminLogscale = header.getDouble(LIMITS_OFFSET+32);
+    xmaxLogscale = header.getDouble(LIMITS_OFFSET+40);
+    yminLogscale = header.getDouble(LIMITS_OFFSET+48);
+    ymaxLogscale = header.getDouble(LIMITS_OFFSET+56);
+    byte[] bytes = new byte[HEADER_SIZE-NAMES_OFFSET];
+    for(int i = 0; i<bytes.length; i++) {
+      bytes[i] = header.get(NAMES_OFFSET+i);
+    }
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    String x = in.readUTF(), y = in.readUTF(), name = in.readUTF();
+    super.setXYColumnNames(x, y);
+    super.setName(name.length()==0 ? null : name);
+  }
+
+  /**
+   * Gets the backing file.
+   *
+   * @return the file
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Writes any changes to the storage device.
+   */
+  public void force() {
+    header.force();
+    for(int i = 0, n = maps.size(); i<n; i++) {
+      maps.get(i).force();
+    }
+  }
+
+  /**
+   * Closes the backing file. The dataset should not be changed after it is closed.
+   */
+  public void close() {
+    try {
+      channel.close();
+      raf.close();
+    } catch(IOException ex) {
+      OSPLog.warning("Error closing "+file); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Ignored since mapped datasets are always unsorted.
+   *
+   * @param sorted ignored
+   */
+  public void setSorted(boolean sorted) {}
+
+  public void setXYColumnNames(String xColumnName, String yColumnName) {
+    super.setXYColumnNames(xColumnName, yColumnName);
+    writeNames();
+  }
+
+  public void setXYColumnNames(String xColumnName, String yColumnName, String name) {
+    super.setXYColumnNames(xColumnName, yColumnName, name);
+    writeNames();
+  }
+
+  public void setName(String name) {
+    super.setName(name);
+    writeNames();
+  }
+
+  /**
+   * Appends an (x,y) datum to the file.
+   *
+   * @param x
+   * @param y
+   */
+  public void append(double x, double y) {
+    if(appendPoint(x, y)) {
+      header.putLong(COUNT_OFFSET, index);
+      writeLimits();
+    }
+  }
+
+  /**
+   * Appends (x,y) arrays to the file.
+   *
+   * @param _xpoints
+   * @param _ypoints
+   */
+  public void append(double[] _xpoints, double[] _ypoints) {
+    ensureCapacity(index+_xpoints.length);
+    for(int i = 0; i<_xpoints.length; i++) {
+      appendPoint(_xpoints[i], _ypoints[i]);
+    }
+    header.putLong(COUNT_OFFSET, index);
+    writeLimits();
+  }
+
+  /**
+   * Replaces the points in the file with the given arrays.
+   *
+   * @param _xpoints
+   * @param _ypoints
+   */
+  protected void setPoints(double[] _xpoints, double[] _ypoints) {
+    clear();
+    append(_xpoints, _ypoints);
+  }
+
+  public double[] getXPoints() {
+    double[] temp = new double[index];
+    getPoints(0, temp, null, index);
+    return temp;
+  }
+
+  public double[] getYPoints() {
+    double[] temp = new double[index];
+    getPoints(0, null, temp, index);
+    return temp;
+  }
+
+  public int getPoints(int start, double[] x, double[] y, int length) {
+    if((start<0)||(start>=index)||(length<=0)) {
+      return 0;
+    }
+    length = Math.min(length, index-start);
+    for(int done = 0; done<length; ) {
+      int pos = start+done;
+      int k = pos/chunk, offset = pos%chunk;
+      int n = Math.min(length-done, chunk-offset);
+      if(x!=null) {
+        DoubleBuffer buffer = xChunks.get(k).duplicate();
+        buffer.position(offset);
+        buffer.get(x, done, n);
+      }
+      if(y!=null) {
+        DoubleBuffer buffer = yChunks.get(k).duplicate();
+        buffer.position(offset);
+        buffer.get(y, done, n);
+      }
+      done += n;
+    }
+    return length;
+  }
+
+  public double[] getValidXPoints() {
+    return getValidPoints(true);
+  }
+
+  public double[] getValidYPoints() {
+    return getValidPoints(false);
+  }
+
+  /**
+   * Clears the points. The file keeps its size so that it can be refilled without remapping.
+   */
+  public void clear() {
+    super.clear();
+    if(header!=null) {
+      header.putLong(COUNT_OFFSET, 0);
+    }
+  }
+
+  public void write(String outputFile) {
+    try {
+      PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(outputFile)));
+      double[] x = new double[BLOCK_SIZE];
+      double[] y = new double[BLOCK_SIZE];
+      for(int start = 0; start<index; start += BLOCK_SIZE) {
+        int n = getPoints(start, x, y, BLOCK_SIZE);
+        for(int i = 0; i<n; i++) {
+          writer.println(x[i]+"\t"+y[i]); //$NON-NLS-1$
+        }
+      }
+      writer.close();
+    } catch(IOException ex) {
+      System.err.println("Error writing file "+outputFile); //$NON-NLS-1$
+    }
+  }
+
+  public String toString() {
+    if(index==0) {
+      return "No data in dataset."; //$NON-NLS-1$
+    }
+    String eol = "\n"; //$NON-NLS-1$
+    try {
+      eol = System.getProperty("line.separator", "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+    } catch(SecurityException ex) {}
+    StringBuffer b = new StringBuffer();
+    double[] x = new double[BLOCK_SIZE];
+    double[] y = new double[BLOCK_SIZE];
+    for(int start = 0; start<index; start += BLOCK_SIZE) {
+      int n = getPoints(start, x, y, BLOCK_SIZE);
+      for(int i = 0; i<n; i++) {
+        b.append(x[i]).append(" ").append(Double.isNaN(y[i]) ? "null" : String.valueOf(y[i])).append(eol); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+    }
+    return b.toString();
+  }
+
+  protected void resetXYMinMax() {
+    super.resetXYMinMax();
+    if(header!=null) {
+      writeLimits();
+    }
+  }
+
+  /**
+   * Does nothing since lines are built from the file when drawn.
+   */
+  protected void recalculatePath() {}
+
+  protected void drawLinePlot(DrawingPanel drawingPanel, Graphics2D g2) {
+    GeneralPath path = createPixelPath(drawingPanel);
+    if(path!=null) {
+      g2.setColor(getLineColor());
+      g2.draw(path);
+    }
+  }
+
+  protected void drawFilledPlot(DrawingPanel drawingPanel, Graphics2D g2) {
+    GeneralPath path = createPixelPath(drawingPanel);
+    if(path!=null) {
+      g2.setColor(getFillColor());
+      g2.fill(path);
+      g2.setColor(getEdgeColor());
+      g2.draw(path);
+    }
+  }
+
+  /**
+   * Creates the connecting path in pixel coordinates. Points that fall in the same pixel
+   * column are reduced to their first, lowest, highest and last values.
+   *
+   * @param drawingPanel the panel
+   * @return the path, or null if there are no points to connect
+   */
+  protected GeneralPath createPixelPath(DrawingPanel drawingPanel) {
+    AffineTransform at = drawingPanel.getPixelTransform();
+    double sx = at.getScaleX(), tx = at.getTranslateX();
+    double sy = at.getScaleY(), ty = at.getTranslateY();
+    GeneralPath path = null;
+    double[] x = new double[BLOCK_SIZE];
+    double[] y = new double[BLOCK_SIZE];
+    int column = 0, count = 0;
+    float px = 0, low = 0, high = 0, last = 0;
+    for(int start = 0; start<index; start += BLOCK_SIZE) {
+      int n = getPoints(start, x, y, BLOCK_SIZE);
+      for(int i = 0; i<n; i++) {
+        if(Double.isNaN(y[i])) {
+          continue;
+        }
+        float xp = (float) (sx*x[i]+tx), yp = (float) (sy*y[i]+ty);
+        int c = (int) Math.floor(xp);
+        if((path!=null)&&(c==column)) { // same pixel column
+          px = xp;
+          low = Math.min(low, yp);
+          high = Math.max(high, yp);
+          last = yp;
+          count++;
+          continue;
+        }
+        if(path==null) {
+          path = new GeneralPath();
+          path.moveTo(xp, yp);
+        } else {
+          flushColumn(path, count, px, low, high, last);
+          path.lineTo(xp, yp);
+        }
+        column = c;
+        px = xp;
+        low = high = last = yp;
+        count = 1;
+      }
+    }
+    if(path!=null) {
+      flushColumn(path, count, px, low, high, last);
+    }
+    return path;
+  }
+
+  private void flushColumn(GeneralPath path, int count, float px, float low, float high, float last) {
+    if(count>1) {
+      path.lineTo(px, low);
+      path.lineTo(px, high);
+      path.lineTo(px, last);
+    }
+  }
+
+  private boolean appendPoint(double x, double y) {
+    if(Double.isNaN(x)||Double.isInfinite(x)||Double.isInfinite(y)) {
+      return false;
+    }
+    ensureCapacity(index+1);
+    int k = index/chunk, offset = index%chunk;
+    xChunks.get(k).put(offset, x);
+    yChunks.get(k).put(offset, y);
+    if(!Double.isNaN(y)) {
+      ymax = Math.max(y, ymax);
+      ymin = Math.min(y, ymin);
+      if(y>0) {
+        ymaxLogscale = Math.max(y, ymaxLogscale);
+        yminLogscale = Math.min(y, yminLogscale);
+      }
+    }
+    xmax = Math.max(x, xmax);
+    xmin = Math.min(x, xmin);
+    if(x>0) {
+      xmaxLogscale = Math.max(x, xmaxLogscale);
+      xminLogscale = Math.min(x, xminLogscale);
+    }
+    index++;
+    return true;
+  }
+
+  /**
+   * Maps chunks until the file holds at least the given number of points.
+   *
+   * @param capacity the number of points
+   */
+  private void ensureCapacity(int capacity) {
+    try {
+      while((long) xChunks.size()*chunk<capacity) {
+        long position = HEADER_SIZE+(long) xChunks.size()*chunk*16;
+        MappedByteBuffer x = channel.map(FileChannel.MapMode.READ_WRITE, position, chunk*8L);
+        MappedByteBuffer y = channel.map(FileChannel.MapMode.READ_WRITE, position+chunk*8L, chunk*8L);
+        maps.add(x);
+        maps.add(y);
+        xChunks.add(x.asDoubleBuffer());
+        yChunks.add(y.asDoubleBuffer());
+      }
+    } catch(IOException ex) {
+      throw new RuntimeException("Error mapping "+file, ex); //$NON-NLS-1$
+    }
+  }
+
+  private void writeLimits() {
+    header.putDouble(LIMITS_OFFSET, xmin);
+    header.putDouble(LIMITS_OFFSET+8, xmax);
+    header.putDouble(LIMITS_OFFSET+16, ymin);
+    header.putDouble(LIMITS_OFFSET+24, ymax);
+    header.putDouble(LIMITS_OFFSET+32, xminLogscale);
+    header.putDouble(LIMITS_OFFSET+40, xmaxLogscale);
+    header.putDouble(LIMITS_OFFSET+48, yminLogscale);
+    header.putDouble(LIMITS_OFFSET+56, ymaxLogscale);
+  }
+
+  private void writeNames() {
+    if(header==null) {
+      return;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeUTF(getXColumnName());
+      out.writeUTF(getYColumnName());
+      out.writeUTF((getName()==null) ? "" : getName()); //$NON-NLS-1$
+    } catch(IOException ex) {
+      return;
+    }
+    byte[] b = bytes.toByteArray();
+    if(b.length>HEADER_SIZE-NAMES_OFFSET) {
+      OSPLog.warning("Column names too long to save in "+file); //$NON-NLS-1$
+      return;
+    }
+    for(int i = 0; i<b.length; i++) {
+      header.put(NAMES_OFFSET+i, b[i]);
+    }
+  }
+
+  private double[] getValidPoints(boolean xValues) {
+    double[] x = new double[BLOCK_SIZE];
+    double[] y = new double[BLOCK_SIZE];
+    double[] temp = new double[index];
+    int count = 0;
+    for(int start = 0; start<index; start += BLOCK_SIZE) {
+      int n = getPoints(start, x, y, BLOCK_SIZE);
+      for(int i = 0; i<n; i++) {
+        if(!Double.isNaN(y[i])) {
+          temp[count++] = xValues ? x[i] : y[i];
+        }
+      }
+    }
+    if(count==index) {
+      return temp;
+    }
+    double[] valid = new double[count];
+    System.arraycopy(temp, 0, valid, 0, count);
+    return valid;
+  }
+
+  /**
+   * Returns the XML.ObjectLoader for this class.
+   *
+   * @return the object loader
+   */
+  public static XML.ObjectLoader getLoader() {
+    return new Loader();
+  }
+
+  /**
+   * A class to save and load MappedDataset data in an XMLControl. Only the file path
+   * and display properties are saved; the points stay in the file.
+   */
+  protected static class Loader extends Dataset.Loader {
+    public void saveObject(XMLControl control, Object obj) {
+      MappedDataset data = (MappedDataset) obj;
+      data.force();
+      control.setValue("file", data.getFile().getPath()); //$NON-NLS-1$
+      saveProperties(control, data);
+    }
+
+    public Object createObject(XMLControl control) {
+      String path = control.getString("file"); //$NON-NLS-1$
+      if(path!=null) {
+        try {
+          return new MappedDataset(new File(path));
+        } catch(IOException ex) {
+          OSPLog.warning("\""+path+"\" could not be opened"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+      }
+      return null;
+    }
+
+    public Object loadObject(XMLControl control, Object obj) {
+      loadProperties(control, (Dataset) obj);
+      return obj;
+    }
+
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -395,6 +395,21 @@ public class OSPFrame extends JFrame implements Hidable, AppFrame {
    */
   public void render() {}
 
+  /**
+   * Renders the contents of this frame without copying them onto the screen.
+   *
+   * The default renders the entire frame.  Subclasses that separate drawing from presentation
+   * override this method and the present method.
+   */
+  public void renderOffscreen() {
+    render();
+  }
+
+  /**
+   * Copies contents drawn by renderOffscreen onto the screen.
+   */
+  public void present() {}
+
   /**
    * Gets a menu with the given name from the menu bar.  Returns null if menu item does not exist.
    *
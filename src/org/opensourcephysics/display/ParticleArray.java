@@ -0,0 +1,596 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashMap;
+
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * ParticleArray draws a large number of circular markers whose positions are stored in primitive arrays.
+ *
+ * Coordinates are transformed to pixels in a single pass and pre-rendered marker sprites are
+ * copied directly into an image raster that is drawn with a single drawImage call.
+ * Markers may have individual radii in world units and individual colors taken from a palette.
+ *
+ * The position arrays are used without copying so a simulation can update them in place before
+ * every repaint.  A particle can be picked and dragged by the mouse when interactions are enabled.
+ */
+public class ParticleArray implements Interactive {
+  static final int MIN_BAND_HEIGHT = 16;
+  static final int BIN_SIZE = 16;           // pixel size of the hit-testing bins
+  static final int MAX_SPRITE_RADIUS = 64;  // larger particles are filled without a sprite
+  static final int MAX_SPRITES = 256;       // the sprite cache is cleared when it grows past this size
+  static final int MAX_PIXEL_RADIUS = 1<<20;
+  static final int MAX_PIXEL = 1<<28;       // pixel coordinates are clamped so that bounds cannot overflow
+  protected double[] x = new double[0], y = new double[0];
+  protected double[] radius;                // radii in world units or null
+  protected int[] colorIndex;               // palette indices or null
+  protected int n;                          // number of particles
+  protected Color[] palette = {Color.red};
+  protected int pixRadius = 3;              // radius in pixels if radii are not set
+  protected boolean enabled = false;
+  protected boolean measured = true;
+  int selected = -1;                        // index of the particle being dragged
+  private double xmin, xmax, ymin, ymax;
+  private boolean boundsValid = false;
+  // pixel coordinates from the last draw
+  private int[] px = new int[0], py = new int[0], pr = new int[0];
+  private int[][] particleSprite = new int[0][];
+  private int drawnCount;
+  private final HashMap<Long, int[]> sprites = new HashMap<Long, int[]>();
+  // raster
+  private BufferedImage image;
+  private int[] pixels;
+  private int width, height;
+  private int clearMinX, clearMaxX = -1, clearMinY, clearMaxY = -1;
+  // hit-testing bins
+  private boolean binsValid = false;
+  private int binCols, binRows;
+  private int[] binStart = new int[0], binItems = new int[0];
+
+  /**
+   * Constructs an empty ParticleArray.
+   */
+  public ParticleArray() {}
+
+  /**
+   * Constructs a ParticleArray that uses the given position arrays.
+   *
+   * @param x the x coordinates
+   * @param y the y coordinates
+   */
+  public ParticleArray(double[] x, double[] y) {
+    setPositions(x, y, Math.min(x.length, y.length));
+  }
+
+  /**
+   * Sets the position arrays.  The arrays are not copied.
+   *
+   * @param x the x coordinates
+   * @param y the y coordinates
+   * @param n the number of particles
+   */
+  public void setPositions(double[] x, double[] y, int n) {
+    this.x = x;
+    this.y = y;
+    this.n = Math.min(n, Math.min(x.length, y.length));
+    boundsValid = false;
+  }
+
+  /**
+   * Gets the number of particles.
+   *
+   * @return the number of particles
+   */
+  public int getParticleCount() {
+    return n;
+  }
+
+  /**
+   * Gets the x coordinate array.
+   *
+   * @return the array
+   */
+  public double[] getXPositions() {
+    return x;
+  }
+
+  /**
+   * Gets the y coordinate array.
+   *
+   * @return the array
+   */
+  public double[] getYPositions() {
+    return y;
+  }
+
+  /**
+   * Sets the particle radii in world units.  The array is not copied.
+   * If the radii are null, every particle is drawn with the pixel radius.
+   *
+   * @param radius the radii or null
+   */
+  public void setRadii(double[] radius) {
+    this.radius = radius;
+    boundsValid = false;
+  }
+
+  /**
+   * Sets the radius in pixels that is used if the radii are not set.
+   *
+   * @param r the radius
+   */
+  public void setPixRadius(int r) {
+    pixRadius = Math.max(0, r);
+  }
+
+  /**
+   * Gets the radius in pixels that is used if the radii are not set.
+   *
+   * @return the radius
+   */
+  public int getPixRadius() {
+    return pixRadius;
+  }
+
+  /**
+   * Sets the palette indices of the particles.  The array is not copied.
+   * If the indices are null, every particle is drawn with the first palette color.
+   *
+   * @param index the palette indices or null
+   */
+  public void setColorIndices(int[] index) {
+    colorIndex = index;
+  }
+
+  /**
+   * Sets the color palette.
+   *
+   * @param colors the colors
+   */
+  public void setPalette(Color[] colors) {
+    synchronized(sprites) {
+      palette = colors.clone();
+      sprites.clear();
+    }
+  }
+
+  /**
+   * Sets a single color for all particles.
+   *
+   * @param color
+   */
+  public void setColor(Color color) {
+    setPalette(new Color[] {color});
+    colorIndex = null;
+  }
+
+  /**
+   * Finds the particle that is drawn at the given pixel location.
+   *
+   * Particles are binned by pixel location the first time this method is called after a draw.
+   *
+   * @param xpix
+   * @param ypix
+   * @return the particle index or -1 if there is no particle at the location
+   */
+  public synchronized int findParticle(int xpix, int ypix) {
+    if(drawnCount==0) {
+      return -1;
+    }
+    if(!binsValid) {
+      buildBins();
+    }
+    int bx = Math.max(0, Math.min(binCols-1, xpix/BIN_SIZE));
+    int by = Math.max(0, Math.min(binRows-1, ypix/BIN_SIZE));
+    int found = -1;
+    for(int j = Math.max(0, by-1), mj = Math.min(binRows-1, by+1); j<=mj; j++) {
+      for(int i = Math.max(0, bx-1), mi = Math.min(binCols-1, bx+1); i<=mi; i++) {
+        int bin = j*binCols+i;
+        for(int k = binStart[bin], end = binStart[bin+1]; k<end; k++) {
+          int p = binItems[k];
+          int dx = px[p]-xpix, dy = py[p]-ypix, r = Math.max(2, pr[p]);
+          if((p>found)&&(dx*dx+dy*dy<=r*r)) { // particles drawn last are on top
+            found = p;
+          }
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Bins the particle centers using a counting sort.  Large particles are also found from neighboring bins
+   * if their radius is smaller than the bin size.
+   */
+  private void buildBins() {
+    binCols = Math.max(1, (width+BIN_SIZE-1)/BIN_SIZE);
+    binRows = Math.max(1, (height+BIN_SIZE-1)/BIN_SIZE);
+    int nbins = binCols*binRows;
+    if(binStart.length<nbins+1) {
+      binStart = new int[nbins+1];
+    } else {
+      java.util.Arrays.fill(binStart, 0);
+    }
+    if(binItems.length<drawnCount) {
+      binItems = new int[drawnCount];
+    }
+    for(int i = 0; i<drawnCount; i++) {
+      binStart[binOf(i)+1]++;
+    }
+    for(int b = 0; b<nbins; b++) {
+      binStart[b+1] += binStart[b];
+    }
+    int[] next = new int[nbins];
+    System.arraycopy(binStart, 0, next, 0, nbins);
+    for(int i = 0; i<drawnCount; i++) {
+      binItems[next[binOf(i)]++] = i;
+    }
+    binsValid = true;
+  }
+
+  private int binOf(int i) {
+    int bx = Math.max(0, Math.min(binCols-1, px[i]/BIN_SIZE));
+    int by = Math.max(0, Math.min(binRows-1, py[i]/BIN_SIZE));
+    return by*binCols+bx;
+  }
+
+  /**
+   * Draws the particles.
+   *
+   * @param panel
+   * @param g
+   */
+  public synchronized void draw(DrawingPanel panel, Graphics g) {
+    int w = panel.getWidth(), h = panel.getHeight();
+    if((w<=0)||(h<=0)) {
+      return;
+    }
+    if((image==null)||(w!=width)||(h!=height)) {
+      width = w;
+      height = h;
+      image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+      pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      clearMaxX = clearMaxY = -1;
+    }
+    // erase the region drawn in the previous frame
+    for(int iy = Math.max(0, clearMinY), my = Math.min(h-1, clearMaxY); iy<=my; iy++) {
+      java.util.Arrays.fill(pixels, iy*w+Math.max(0, clearMinX), iy*w+Math.min(w-1, clearMaxX)+1, 0);
+    }
+    clearMaxX = clearMaxY = -1;
+    transform(panel);
+    boundsValid = false; // positions may change before the next draw
+    binsValid = false;
+    if(drawnCount==0) {
+      return;
+    }
+    int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+    for(int i = 0; i<drawnCount; i++) {
+      int r = pr[i];
+      minX = Math.min(minX, px[i]-r);
+      maxX = Math.max(maxX, px[i]+r);
+      minY = Math.min(minY, py[i]-r);
+      maxY = Math.max(maxY, py[i]+r);
+    }
+    final int y0 = Math.max(0, minY), y1 = Math.min(h-1, maxY);
+    final int x0 = Math.max(0, minX), x1 = Math.min(w-1, maxX);
+    if((y1<y0)||(x1<x0)) {
+      return;
+    }
+    clearMinX = x0;
+    clearMaxX = x1;
+    clearMinY = y0;
+    clearMaxY = y1;
+    final int bandHeight = Math.max(MIN_BAND_HEIGHT, (y1-y0+1)/(4*ParallelLoop.getThreadCount())+1);
+    int bands = (y1-y0)/bandHeight+1;
+    ParallelLoop.forRange(bands, (drawnCount<2048) ? bands : 1, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int band = start; band<end; band++) {
+          int top = y0+band*bandHeight, bottom = Math.min(y1, top+bandHeight-1);
+          for(int i = 0; i<drawnCount; i++) {
+            if((py[i]+pr[i]>=top)&&(py[i]-pr[i]<=bottom)) {
+              stamp(i, top, bottom);
+            }
+          }
+        }
+      }
+
+    });
+    g.drawImage(image, x0, y0, x1+1, y1+1, x0, y0, x1+1, y1+1, null);
+  }
+
+  /**
+   * Converts the world coordinates to pixels and assigns a sprite to every particle.
+   */
+  private void transform(DrawingPanel panel) {
+    final int count = Math.min(n, Math.min(x.length, y.length));
+    if(px.length<count) {
+      px = new int[count];
+      py = new int[count];
+      pr = new int[count];
+      particleSprite = new int[count][];
+    }
+    final double[] m = panel.getPixelMatrix().clone();
+    final double[] r = radius;
+    final double scale = Math.abs(panel.getXPixPerUnit());
+    final double[] xs = x, ys = y;
+    ParallelLoop.forRange(count, 8192, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int i = start; i<end; i++) {
+          px[i] = (int) Math.max(-MAX_PIXEL, Math.min(MAX_PIXEL, Math.floor(m[0]*xs[i]+m[2]*ys[i]+m[4]+0.5)));
+          py[i] = (int) Math.max(-MAX_PIXEL, Math.min(MAX_PIXEL, Math.floor(m[1]*xs[i]+m[3]*ys[i]+m[5]+0.5)));
+          double ri = ((r==null)||(i>=r.length)) ? pixRadius : r[i]*scale+0.5;
+          pr[i] = (ri>0) ? (int) Math.min(ri, MAX_PIXEL_RADIUS) : 0;
+        }
+      }
+
+    });
+    synchronized(sprites) {
+      int[] index = colorIndex;
+      int lastRadius = -1, lastColor = -1;
+      int[] sprite = null;
+      for(int i = 0; i<count; i++) {
+        int c = ((index==null)||(i>=index.length)) ? 0 : Math.abs(index[i]%palette.length);
+        if(pr[i]>MAX_SPRITE_RADIUS) {
+          particleSprite[i] = null;
+          continue;
+        }
+        if((pr[i]!=lastRadius)||(c!=lastColor)) {
+          lastRadius = pr[i];
+          lastColor = c;
+          sprite = getSprite(lastRadius, c);
+        }
+        particleSprite[i] = sprite;
+      }
+    }
+    drawnCount = count;
+  }
+
+  /**
+   * Gets an anti-aliased circle of the given pixel radius and palette color, creating it if necessary.
+   */
+  private int[] getSprite(int r, int c) {
+    Long key = Long.valueOf(((long) r<<32)|c);
+    int[] sprite = sprites.get(key);
+    if(sprite!=null) {
+      return sprite;
+    }
+    int size = 2*r+1, rgb = palette[c].getRGB()&0xFFFFFF;
+    double rr = (r+0.5)*(r+0.5);
+    sprite = new int[size*size];
+    for(int j = 0; j<size; j++) {
+      for(int i = 0; i<size; i++) {
+        int inside = 0;
+        for(int sj = 0; sj<4; sj++) { // 4x4 supersampling
+          double dy = j-r-0.375+0.25*sj;
+          for(int si = 0; si<4; si++) {
+            double dx = i-r-0.375+0.25*si;
+            if(dx*dx+dy*dy<=rr) {
+              inside++;
+            }
+          }
+        }
+        int alpha = (inside*255+8)/16;
+        sprite[j*size+i] = (alpha==0) ? 0 : ((alpha<<24)|rgb);
+      }
+    }
+    if(sprites.size()>=MAX_SPRITES) {
+      sprites.clear(); // sprites already assigned to particles stay valid
+    }
+    sprites.put(key, sprite);
+    return sprite;
+  }
+
+  /**
+   * Copies the rows top..bottom of a particle's sprite into the raster.
+   */
+  private void stamp(int i, int top, int bottom) {
+    int r = pr[i], size = 2*r+1, cx = px[i], cy = py[i];
+    int[] sprite = particleSprite[i];
+    if(sprite==null) {
+      fill(i, top, bottom);
+      return;
+    }
+    int row0 = Math.max(top, cy-r), row1 = Math.min(bottom, cy+r);
+    int col0 = Math.max(0, cx-r), col1 = Math.min(width-1, cx+r);
+    for(int row = row0; row<=row1; row++) {
+      int s = (row-cy+r)*size+(col0-cx+r), d = row*width+col0;
+      for(int col = col0; col<=col1; col++, s++, d++) {
+        int src = sprite[s];
+        int a = src>>>24;
+        if(a==255) {
+          pixels[d] = src;
+        } else if(a!=0) {
+          int dst = pixels[d];
+          int da = dst>>>24;
+          if(da==0) {
+            pixels[d] = src;
+          } else { // blend the anti-aliased edge over an earlier particle
+            int na = 255-a;
+            int red = (((src>>16)&0xFF)*a+((dst>>16)&0xFF)*na)/255;
+            int green = (((src>>8)&0xFF)*a+((dst>>8)&0xFF)*na)/255;
+            int blue = ((src&0xFF)*a+(dst&0xFF)*na)/255;
+            pixels[d] = (Math.max(a, da)<<24)|(red<<16)|(green<<8)|blue;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Fills the rows top..bottom of a particle that is too large for a sprite.
+   */
+  private void fill(int i, int top, int bottom) {
+    int r = pr[i], cx = px[i], cy = py[i];
+    int[] index = colorIndex;
+    Color[] colors = palette;
+    int c = ((index==null)||(i>=index.length)) ? 0 : Math.abs(index[i]%colors.length);
+    int argb = 0xFF000000|colors[c].getRGB();
+    double rr = (r+0.5)*(r+0.5);
+    for(int row = Math.max(top, cy-r), row1 = Math.min(bottom, cy+r); row<=row1; row++) {
+      double dy = row-cy;
+      int dx = (int) Math.sqrt(rr-dy*dy);
+      int col0 = Math.max(0, cx-dx), col1 = Math.min(width-1, cx+dx);
+      if(col0<=col1) {
+        java.util.Arrays.fill(pixels, row*width+col0, row*width+col1+1, argb);
+      }
+    }
+  }
+
+  private void computeBounds() {
+    double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+    double[] r = radius;
+    for(int i = 0, count = Math.min(n, Math.min(x.length, y.length)); i<count; i++) {
+      double ri = ((r==null)||(i>=r.length)) ? 0 : r[i];
+      x0 = Math.min(x0, x[i]-ri);
+      x1 = Math.max(x1, x[i]+ri);
+      y0 = Math.min(y0, y[i]-ri);
+      y1 = Math.max(y1, y[i]+ri);
+    }
+    xmin = x0;
+    xmax = x1;
+    ymin = y0;
+    ymax = y1;
+    boundsValid = true;
+  }
+
+  /**
+   * Sets the measured flag so that the panel can autoscale to the particles.
+   *
+   * @param measure
+   */
+  public void setMeasured(boolean measure) {
+    measured = measure;
+  }
+
+  public boolean isMeasured() {
+    return measured&&(n>0);
+  }
+
+  public synchronized double getXMin() {
+    if(!boundsValid) {
+      computeBounds();
+    }
+    return xmin;
+  }
+
+  public synchronized double getXMax() {
+    if(!boundsValid) {
+      computeBounds();
+    }
+    return xmax;
+  }
+
+  public synchronized double getYMin() {
+    if(!boundsValid) {
+      computeBounds();
+    }
+    return ymin;
+  }
+
+  public synchronized double getYMax() {
+    if(!boundsValid) {
+      computeBounds();
+    }
+    return ymax;
+  }
+
+  /**
+   * Enables dragging particles with the mouse.
+   *
+   * @param enable
+   */
+  public void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Interactive findInteractive(DrawingPanel panel, int xpix, int ypix) {
+    if(!enabled) {
+      return null;
+    }
+    int index = findParticle(xpix, ypix);
+    if(index<0) {
+      return null;
+    }
+    selected = index;
+    return this;
+  }
+
+  /**
+   * Gets the index of the particle that was last found by findInteractive.
+   *
+   * @return the index or -1
+   */
+  public int getSelectedIndex() {
+    return selected;
+  }
+
+  public void setXY(double _x, double _y) {
+    if((selected>=0)&&(selected<n)) {
+      x[selected] = _x;
+      y[selected] = _y;
+      boundsValid = false;
+    }
+  }
+
+  public void setX(double _x) {
+    if((selected>=0)&&(selected<n)) {
+      x[selected] = _x;
+      boundsValid = false;
+    }
+  }
+
+  public void setY(double _y) {
+    if((selected>=0)&&(selected<n)) {
+      y[selected] = _y;
+      boundsValid = false;
+    }
+  }
+
+  public double getX() {
+    return((selected>=0)&&(selected<n)) ? x[selected] : Double.NaN;
+  }
+
+  public double getY() {
+    return((selected>=0)&&(selected<n)) ? y[selected] : Double.NaN;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
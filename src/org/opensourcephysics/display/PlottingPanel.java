@@ -127,6 +127,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       setClipAtGutter(true);
     }
+    invalidateStaticLayer();
   }
 
   /**
@@ -146,6 +147,7 @@ public class PlottingPanel extends InteractivePanel {
     setTitle(plotTitle);
     setSquareAspect(true);
     setClipAtGutter(true);
+    invalidateStaticLayer();
   }
 
   /**
@@ -164,6 +166,7 @@ public class PlottingPanel extends InteractivePanel {
     axes.setYLabel(yLabel, null);
     axes.setTitle(plotTitle, null);
     setClipAtGutter(true);
+    invalidateStaticLayer();
   }
 
   /**
@@ -173,6 +176,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setXLabel(String label) {
     axes.setXLabel(label, null);
+    invalidateStaticLayer();
   }
 
   /**
@@ -182,6 +186,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setYLabel(String label) {
     axes.setYLabel(label, null);
+    invalidateStaticLayer();
   }
 
   /**
@@ -191,6 +196,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setTitle(String title) {
     axes.setTitle(title, null);
+    invalidateStaticLayer();
   }
 
   /**
@@ -202,6 +208,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setXLabel(String label, String font_name) {
     axes.setXLabel(label, font_name);
+    invalidateStaticLayer();
   }
 
   /**
@@ -213,6 +220,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setYLabel(String label, String font_name) {
     axes.setYLabel(label, font_name);
+    invalidateStaticLayer();
   }
 
   /**
@@ -224,6 +232,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setTitle(String title, String font_name) {
     axes.setTitle(title, font_name);
+    invalidateStaticLayer();
   }
 
   /**
@@ -234,6 +243,7 @@ public class PlottingPanel extends InteractivePanel {
    */
   public void setAxesVisible(boolean isVisible) {
     axes.setVisible(isVisible);
+    invalidateStaticLayer();
   }
 
   /**
@@ -254,6 +264,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleY = false;
     }
+    invalidateStaticLayer();
   }
 
   /**
@@ -267,6 +278,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleX = false;
     }
+    invalidateStaticLayer();
   }
 
   /**
@@ -280,6 +292,7 @@ public class PlottingPanel extends InteractivePanel {
     } else {
       logScaleY = false;
     }
+    invalidateStaticLayer();
   }
 
   /**
@@ -100,6 +100,17 @@ public class Stripchart extends Dataset {
     trim();
   }
 
+  /**
+   *  Replaces the data so that it is trimmed like appended data.
+   *
+   * @param  _xpoints
+   * @param  _ypoints
+   */
+  protected void setPoints(double[] _xpoints, double[] _ypoints) {
+    clear();
+    append(_xpoints, _ypoints);
+  }
+
   /**
    *  Clears all data from this Dataset.
    */
@@ -9,9 +9,9 @@ package org.opensourcephysics.display;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
 import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.controls.XMLControl;
 import org.opensourcephysics.controls.XMLLoader;
@@ -21,12 +21,16 @@ import org.opensourcephysics.controls.XMLLoader;
  * Description:  A trail of pixels on the screen.  This object is often used to
  * show the path of a moving object.
  *
+ * Points are kept in a ring buffer rather than in the protected generalPath field, which
+ * has been removed.  Subclasses that read the field should call getPath, and subclasses
+ * that assigned it should call setPath.
+ *
  * @author       Wolfgang Christian
  * @version 1.0
  */
 public class Trail extends AbstractTrail implements LogMeasurable {
-  protected GeneralPath generalPath = new GeneralPath();
   boolean connected = true;
+  long subpathStart = 0; // the absolute index of the point that starts the current subpath
 
   /**
    * Adds a point to the trail.
@@ -38,22 +42,11 @@ public class Trail extends AbstractTrail implements LogMeasurable {
       throw new IllegalStateException("Cannot add points to a closed trail."); //$NON-NLS-1$
     }
     if(!connected||(numpts==0)) {
-      generalPath.moveTo((float) x, (float) y);
-    }
-    generalPath.lineTo((float) x, (float) y);
-    xmin = Math.min(xmin, x);
-    xmax = Math.max(xmax, x);
-    if(x>0) {
-      xminLogscale = Math.min(xminLogscale, x);
-      xmaxLogscale = Math.max(xmaxLogscale, x);
-    }
-    ymin = Math.min(ymin, y);
-    ymax = Math.max(ymax, y);
-    if(y>0) {
-      yminLogscale = Math.min(yminLogscale, y);
-      ymaxLogscale = Math.max(ymaxLogscale, y);
+      subpathStart = first+numpts;
+      storePoint(x, y, DOT);
+    } else {
+      storePoint(x, y, LINE);
     }
-    numpts++;
   }
 
   /**
@@ -62,20 +55,8 @@ public class Trail extends AbstractTrail implements LogMeasurable {
    * @param y double
    */
   public synchronized void moveToPoint(double x, double y) {
-    generalPath.moveTo((float) x, (float) y);
-    xmin = Math.min(xmin, x);
-    xmax = Math.max(xmax, x);
-    if(x>0) {
-      xminLogscale = Math.min(xminLogscale, x);
-      xmaxLogscale = Math.max(xmaxLogscale, x);
-    }
-    ymin = Math.min(ymin, y);
-    ymax = Math.max(ymax, y);
-    if(y>0) {
-      yminLogscale = Math.min(yminLogscale, y);
-      ymaxLogscale = Math.max(ymaxLogscale, y);
-    }
-    numpts++;
+    subpathStart = first+numpts;
+    storePoint(x, y, MOVE);
   }
 
   /**
@@ -84,7 +65,6 @@ public class Trail extends AbstractTrail implements LogMeasurable {
    */
   public void closeTrail() {
     closed = true;
-    generalPath.closePath();
   }
 
   /**
@@ -112,34 +92,129 @@ public class Trail extends AbstractTrail implements LogMeasurable {
    * Clears all points from the trail.
    */
   public synchronized void clear() {
-    closed = false;
-    numpts = 0;
-    xmax = xmaxLogscale = -Double.MAX_VALUE;
-    ymax = ymaxLogscale = -Double.MAX_VALUE;
-    xmin = xminLogscale = Double.MAX_VALUE;
-    ymin = yminLogscale = Double.MAX_VALUE;
-    generalPath.reset();
+    clearPoints();
+    subpathStart = 0;
+  }
+
+  /**
+   * Gets the trail as a path in world coordinates.
+   *
+   * @return the path
+   */
+  public synchronized GeneralPath getPath() {
+    GeneralPath path = new GeneralPath(GeneralPath.WIND_NON_ZERO, numpts+1);
+    for(long j = first, last = first+numpts; j<last; j++) {
+      byte type = getType(j);
+      float x = getX(j), y = getY(j);
+      if((type!=LINE)||(j==first)) {
+        path.moveTo(x, y);
+      }
+      if(type!=MOVE) {
+        path.lineTo(x, y);
+      }
+    }
+    if(closed&&(numpts>0)) {
+      path.closePath();
+    }
+    return path;
+  }
+
+  /**
+   * Replaces the points in this trail with the points in a path.
+   *
+   * @param path the path in world coordinates
+   */
+  protected synchronized void setPath(GeneralPath path) {
+    clear();
+    float[] coords = new float[6];
+    boolean moved = false;
+    float mx = 0, my = 0;
+    for(PathIterator it = path.getPathIterator(null); !it.isDone(); it.next()) {
+      switch(it.currentSegment(coords)) {
+         case PathIterator.SEG_MOVETO :
+           if(moved) {
+             storePoint(mx, my, MOVE);
+           }
+           mx = coords[0];
+           my = coords[1];
+           moved = true;
+           break;
+         case PathIterator.SEG_LINETO :
+           if(moved) {
+             subpathStart = first+numpts;
+             if((coords[0]==mx)&&(coords[1]==my)) {
+               storePoint(mx, my, DOT);
+               moved = false;
+               break;
+             }
+             storePoint(mx, my, MOVE);
+             moved = false;
+           }
+           storePoint(coords[0], coords[1], LINE);
+           break;
+         case PathIterator.SEG_CLOSE :
+           closed = true;
+           break;
+      }
+    }
+    if(moved) {
+      subpathStart = first+numpts;
+      storePoint(mx, my, MOVE);
+    }
   }
 
   /**
    * Draws the trail on the panel.
    * @param g
    */
-  public void draw(DrawingPanel panel, Graphics g) {
+  public synchronized void draw(DrawingPanel panel, Graphics g) {
     if(numpts==0) {
       return;
     }
     Graphics2D g2 = (Graphics2D) g;
     g2.setColor(color);
-    // transform from world to pixel coordinates
-    Shape s = generalPath.createTransformedShape(panel.getPixelTransform());
+    Stroke stroke = g2.getStroke();
     if(drawingStroke!=null) {
-      Stroke stroke = g2.getStroke();
       g2.setStroke(drawingStroke);
-      g2.draw(s);
-      g2.setStroke(stroke);
-    } else {
-      g2.draw(s);
+    }
+    long last = first+numpts-1;
+    drawSegments(panel, g2, first, last);
+    if(closed&&(numpts>1)) { // connect the last point to the start of the subpath
+      long j = Math.max(first, subpathStart);
+      double[] m = panel.getPixelMatrix();
+      tailPath.reset();
+      tailPath.moveTo((float) (m[0]*getX(last)+m[2]*getY(last)+m[4]), (float) (m[1]*getX(last)+m[3]*getY(last)+m[5]));
+      tailPath.lineTo((float) (m[0]*getX(j)+m[2]*getY(j)+m[4]), (float) (m[1]*getX(j)+m[3]*getY(j)+m[5]));
+      g2.draw(tailPath);
+    }
+    g2.setStroke(stroke);
+  }
+
+  /**
+   * Appends points to a path in pixel coordinates.  Points are skipped if they are closer
+   * than the decimation distance to the previously drawn point.
+   */
+  protected void buildPath(GeneralPath path, long start, long end, double[] m) {
+    double d2 = decimation*decimation;
+    float px = 0, py = 0; // the last point in the path
+    for(long j = start; j<=end; j++) {
+      double x = getX(j), y = getY(j);
+      float sx = (float) (m[0]*x+m[2]*y+m[4]), sy = (float) (m[1]*x+m[3]*y+m[5]);
+      byte type = getType(j);
+      if((j==start)||(type!=LINE)) {
+        path.moveTo(sx, sy);
+        if(type==DOT) {
+          path.lineTo(sx, sy);
+        }
+      } else {
+        float dx = sx-px, dy = sy-py;
+        if((dx*dx+dy*dy<d2)&&(j<end)&&(getType(j+1)==LINE)) {
+          continue; // decimate
+        }
+        path.lineTo(sx, sy);
+      }
+      px = sx;
+      py = sy;
     }
   }
 
@@ -161,7 +236,7 @@ public class Trail extends AbstractTrail implements LogMeasurable {
       control.setValue("connected", trail.connected);      //$NON-NLS-1$
       control.setValue("color", trail.color);              //$NON-NLS-1$
       control.setValue("number of pts", trail.numpts);     //$NON-NLS-1$
-      control.setValue("general path", trail.generalPath); //$NON-NLS-1$
+      control.setValue("general path", trail.getPath());   //$NON-NLS-1$
     }
 
     public Object createObject(XMLControl control) {
@@ -172,8 +247,10 @@ public class Trail extends AbstractTrail implements LogMeasurable {
       Trail trail = (Trail) obj;
       trail.connected = control.getBoolean("connected");                   //$NON-NLS-1$
       trail.color = (Color) control.getObject("color");                    //$NON-NLS-1$
-      trail.numpts = control.getInt("number of pts");                      //$NON-NLS-1$
-      trail.generalPath = (GeneralPath) control.getObject("general path"); //$NON-NLS-1$
+      GeneralPath path = (GeneralPath) control.getObject("general path");  //$NON-NLS-1$
+      if(path!=null) {
+        trail.setPath(path);
+      }
       return obj;
     }
 
@@ -9,7 +9,6 @@ package org.opensourcephysics.display;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.geom.GeneralPath;
 import org.opensourcephysics.controls.XML;
@@ -24,14 +23,15 @@ import org.opensourcephysics.controls.XMLLoader;
  * @version 1.0
  */
 public class TrailBezier extends AbstractTrail {
-  GeneralPath path = new GeneralPath();
-  GeneralPath pathStart = new GeneralPath();
   GeneralPath pathEnd = new GeneralPath();
-  float x0, y0, x1, y1, x2, y2;
-  float[] endPts = new float[4];
-  float dxEstimate = 0, dyEstimate = 0;
   float slack = (float) 0.15;
-  float dx2, dy2;
+
+  /**
+   * Constructs a TrailBezier.
+   */
+  public TrailBezier() {
+    segmentMargin = 1; // the control points of a curve depend on the preceding point
+  }
 
   /**
    * Adds a point to the trail.
@@ -42,174 +42,146 @@ public class TrailBezier extends AbstractTrail {
     if(closed) {
       throw new IllegalStateException("Cannot add points to a closed trail."); //$NON-NLS-1$
     }
-    xmin = Math.min(xmin, x);
-    xmax = Math.max(xmax, x);
-    ymin = Math.min(ymin, y);
-    ymax = Math.max(ymax, y);
-    if(numpts==0) {
-      pathStart.moveTo((float) x, (float) y);
-      endPts[0] = x0 = (float) x;
-      endPts[1] = y0 = (float) y;
-    } else if(numpts==1) {
-      endPts[2] = x1 = (float) x;
-      endPts[3] = y1 = (float) y;
-      path.moveTo(x1, y1);
-    } else if(numpts==2) {
-      x2 = (float) x;
-      y2 = (float) y;
-      dx2 = x2-endPts[0];
-      dy2 = y2-endPts[1];
-      float dx1 = -2*x2-4*endPts[0]+6*endPts[2];
-      float dy1 = -2*y2-4*endPts[1]+6*endPts[3];
-      pathStart.curveTo(endPts[0]+slack*dx1, endPts[1]+slack*dy1, endPts[2]-slack*dx2, endPts[3]-slack*dy2, endPts[2], endPts[3]);
-      endPts[0] = endPts[2];
-      endPts[1] = endPts[3];
-      endPts[2] = x2;
-      endPts[3] = y2;
-    } else {
-      float dx1 = dx2, dy1 = dy2;
-      float fx = (float) x;
-      float fy = (float) y;
-      dx2 = fx-endPts[0];
-      dy2 = fy-endPts[1];
-      path.curveTo(endPts[0]+slack*dx1, endPts[1]+slack*dy1, endPts[2]-slack*dx2, endPts[3]-slack*dy2, endPts[2], endPts[3]);
-      dxEstimate = 2*endPts[0]+4*fx-6*endPts[2];
-      dyEstimate = 2*endPts[1]+4*fy-6*endPts[3];
-      endPts[0] = endPts[2];
-      endPts[1] = endPts[3];
-      endPts[2] = fx;
-      endPts[3] = fy;
-    }
-    numpts++;
+    storePoint(x, y, LINE);
   }
 
   /**
    * Sets the slack which determines the position of the control points.
    * @param slack double
    */
-  public void setSlack(double slack) {
+  public synchronized void setSlack(double slack) {
     this.slack = (float) slack;
+    invalidateCache();
   }
 
   /**
    * Closes the trail by connecting the first point to the last point.
    */
-  public void closeTrail() {
+  public synchronized void closeTrail() {
+    if(numpts<3) {
+      closed = true;
+      return;
+    }
+    float x0 = getX(first), y0 = getY(first);
+    float x1 = getX(first+1), y1 = getY(first+1);
+    float x2 = getX(first+2), y2 = getY(first+2);
     addPoint(x0, y0);
     addPoint(x1, y1);
     addPoint(x2, y2);
     closed = true;
-    pathStart.reset();
-    pathEnd.reset();
-    path.closePath();
   }
 
   /**
    * Clears all points from the trail.
    */
   public synchronized void clear() {
-    numpts = 0;
-    xmin = Double.MAX_VALUE;
-    xmax = -Double.MAX_VALUE;
-    ymin = Double.MAX_VALUE;
-    ymax = -Double.MAX_VALUE;
-    path.reset();
-    pathStart.reset();
-    pathEnd.reset();
-    closed = false;
+    clearPoints();
   }
 
   /**
    * Draw the trail on the panel.
    * @param g
    */
-  public void draw(DrawingPanel panel, Graphics g) {
-    if(numpts==0) {
+  public synchronized void draw(DrawingPanel panel, Graphics g) {
+    if(numpts<2) {
       return;
     }
     Graphics2D g2 = (Graphics2D) g;
     g2.setColor(color);
-    // transform paths from world to pixel coordinates
-    Shape s = path.createTransformedShape(panel.getPixelTransform());
+    Stroke stroke = g2.getStroke();
     if(drawingStroke!=null) {
-      Stroke stroke = g2.getStroke();
       g2.setStroke(drawingStroke);
-      g2.draw(s);
-      g2.setStroke(stroke);
-    } else {
-      g2.draw(s);
     }
-    if(closed) {
-      return;
-    }
-    s = pathStart.createTransformedShape(panel.getPixelTransform());
-    g2.draw(s);
-    if(numpts>2) {
+    long last = first+numpts-1;
+    if(numpts==2) {
+      drawSegments(panel, g2, first, last);
+    } else if(closed) {
+      drawSegments(panel, g2, first+1, last-1);
+    } else {
+      drawSegments(panel, g2, first, last-1);
       drawPathEnd(panel, g2);
     }
+    g2.setStroke(stroke);
   }
 
   /**
-   * Draws the points that have not yet been added to the spline.
+   * Draws the last curve.  The control point at the last point is estimated because
+   * the next point is not yet known.
    * @param panel DrawingPanel
    * @param g2 Graphics2D
    */
   protected void drawPathEnd(DrawingPanel panel, Graphics2D g2) {
     pathEnd.reset();
-    path.moveTo(endPts[0], endPts[1]); // start the path at the last point
-    path.curveTo(endPts[0]+slack*dx2, endPts[1]+slack*dy2, endPts[2]-slack*dxEstimate, endPts[3]-slack*dyEstimate, endPts[2], endPts[3]);
-    Shape s = pathEnd.createTransformedShape(panel.getPixelTransform());
-    g2.draw(s);
+    long last = first+numpts-1;
+    buildPath(pathEnd, last-1, last, panel.getPixelMatrix());
+    g2.draw(pathEnd);
   }
 
   /**
-   * Returns the XML.ObjectLoader for this class.
-   *
-   * @return the object loader
+   * Appends Bezier curves between successive points to a path in pixel coordinates.
+   * Curves that are shorter than the decimation distance are replaced by straight lines.
    */
-  public static XML.ObjectLoader getLoader() {
-    return new Loader();
-  }
-
-  /**
-   * Determines if this trail scales the drawing panel.
-   *
-   * @return boolean
-   */
-  public boolean isMeasured() {
-    return enableMeasure&&(this.numpts>0);
-  }
-
-  /**
-   * Gets the minimum x value in the trail.
-   * @return double
-   */
-  public double getXMin() {
-    return xmin;
+  protected void buildPath(GeneralPath path, long start, long end, double[] m) {
+    double d2 = decimation*decimation;
+    float x = getX(start), y = getY(start);
+    float sx = (float) (m[0]*x+m[2]*y+m[4]), sy = (float) (m[1]*x+m[3]*y+m[5]);
+    path.moveTo(sx, sy);
+    boolean curves = numpts>2;
+    float tx = curves ? tangentX(start) : 0, ty = curves ? tangentY(start) : 0;
+    for(long j = start+1; j<=end; j++) {
+      float x1 = getX(j), y1 = getY(j);
+      float sx1 = (float) (m[0]*x1+m[2]*y1+m[4]), sy1 = (float) (m[1]*x1+m[3]*y1+m[5]);
+      float dx = sx1-sx, dy = sy1-sy;
+      float tx1 = curves ? tangentX(j) : 0, ty1 = curves ? tangentY(j) : 0;
+      if(!curves||(dx*dx+dy*dy<d2)) {
+        path.lineTo(sx1, sy1);
+      } else {
+        double cx0 = x+slack*tx, cy0 = y+slack*ty;
+        double cx1 = x1-slack*tx1, cy1 = y1-slack*ty1;
+        path.curveTo((float) (m[0]*cx0+m[2]*cy0+m[4]), (float) (m[1]*cx0+m[3]*cy0+m[5]), (float) (m[0]*cx1+m[2]*cy1+m[4]), (float) (m[1]*cx1+m[3]*cy1+m[5]), sx1, sy1);
+      }
+      x = x1;
+      y = y1;
+      sx = sx1;
+      sy = sy1;
+      tx = tx1;
+      ty = ty1;
+    }
   }
 
   /**
-   * Gets the maximum x value in the trail.
-   * @return double
+   * Gets the x component of the tangent that positions the control points at a point.
    */
-  public double getXMax() {
-    return xmax;
+  private float tangentX(long j) {
+    long last = first+numpts-1;
+    if(j==first) {
+      return 6*getX(j+1)-4*getX(j)-2*getX(j+2);
+    } else if(j==last) {
+      return 4*getX(j)-6*getX(j-1)+2*getX(j-2);
+    }
+    return getX(j+1)-getX(j-1);
   }
 
   /**
-   * Gets the minimum y value in the trail.
-   * @return double
+   * Gets the y component of the tangent that positions the control points at a point.
    */
-  public double getYMin() {
-    return ymin;
+  private float tangentY(long j) {
+    long last = first+numpts-1;
+    if(j==first) {
+      return 6*getY(j+1)-4*getY(j)-2*getY(j+2);
+    } else if(j==last) {
+      return 4*getY(j)-6*getY(j-1)+2*getY(j-2);
+    }
+    return getY(j+1)-getY(j-1);
   }
 
   /**
-   * Gets the maximum y value in the trail.
-   * @return double
+   * Returns the XML.ObjectLoader for this class.
+   *
+   * @return the object loader
    */
-  public double getYMax() {
-    return ymax;
+  public static XML.ObjectLoader getLoader() {
+    return new Loader();
   }
 
   /**
@@ -221,7 +193,13 @@ public class TrailBezier extends AbstractTrail {
       control.setValue("closed", trail.closed);        //$NON-NLS-1$
       control.setValue("color", trail.color);          //$NON-NLS-1$
       control.setValue("number of pts", trail.numpts); //$NON-NLS-1$
-      //control.setValue("general path", trail.generalPath);
+      double[] x = new double[trail.numpts], y = new double[trail.numpts];
+      for(int i = 0; i<trail.numpts; i++) {
+        x[i] = trail.getX(trail.first+i);
+        y[i] = trail.getY(trail.first+i);
+      }
+      control.setValue("x points", x);                 //$NON-NLS-1$
+      control.setValue("y points", y);                 //$NON-NLS-1$
     }
 
     public Object createObject(XMLControl control) {
@@ -230,10 +208,18 @@ public class TrailBezier extends AbstractTrail {
 
     public Object loadObject(XMLControl control, Object obj) {
       TrailBezier trail = (TrailBezier) obj;
-      trail.closed = control.getBoolean("closed");      //$NON-NLS-1$
       trail.color = (Color) control.getObject("color"); //$NON-NLS-1$
-      trail.numpts = control.getInt("number of pts");   //$NON-NLS-1$
-      //trail.generalPath = (GeneralPath) control.getObject("general path");
+      double[] x = (double[]) control.getObject("x points"); //$NON-NLS-1$
+      double[] y = (double[]) control.getObject("y points"); //$NON-NLS-1$
+      synchronized(trail) {
+        trail.clearPoints(); // points are restored through the ring buffer
+        if((x!=null)&&(y!=null)) {
+          for(int i = 0, n = Math.min(x.length, y.length); i<n; i++) {
+            trail.storePoint(x[i], y[i], LINE);
+          }
+        }
+        trail.closed = control.getBoolean("closed");    //$NON-NLS-1$
+      }
       return obj;
     }
 
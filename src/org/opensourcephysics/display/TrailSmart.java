@@ -7,7 +7,6 @@
 
 package org.opensourcephysics.display;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 
 /**
  * TrailSmart adds points to a Bezier trail only if the new point deviates from a straight line.
@@ -17,7 +16,7 @@ import java.awt.Shape;
  * @version 1.0
  */
 public class TrailSmart extends TrailBezier {
-  double x1, y1, x2, y2; // shadows superclass fields
+  double x1, y1, x2, y2; // the last two points that were submitted
   double dx1, dy1, ds1;
   double max_error = 0.001;
 
@@ -35,14 +34,16 @@ public class TrailSmart extends TrailBezier {
    * @param y double
    */
   public synchronized void addPoint(double x, double y) {
-    double dx2 = x-endPts[2];
-    double dy2 = y-endPts[3];
+    double xLast = (numpts>0) ? getX(first+numpts-1) : 0;
+    double yLast = (numpts>0) ? getY(first+numpts-1) : 0;
+    double dx2 = x-xLast;
+    double dy2 = y-yLast;
     double ds2 = Math.sqrt(dy2*dy2+dx2*dx2);
     if((numpts>1)&&(ds2==0)) {
       return; // do not add the same point
     }
-    double xx = endPts[2]+ds2*dx1/ds1;
-    double yy = endPts[3]+ds2*dy1/ds1;
+    double xx = xLast+ds2*dx1/ds1;
+    double yy = yLast+ds2*dy1/ds1;
     double err = Math.sqrt((x-xx)*(x-xx)+(y-yy)*(y-yy));
     double cos = (dx1*dx2+dy1*dy2)/ds1/ds2;
     if((numpts<3)||(err>max_error)||(cos<0.99)||Double.isNaN(cos)) {
@@ -58,18 +59,19 @@ public class TrailSmart extends TrailBezier {
   }
 
   /**
-* Draws the points that have not yet been added to the Bezier spline.
-* @param panel DrawingPanel
-* @param g2 Graphics2D
-*/
+   * Draws the points that have not yet been added to the Bezier spline.
+   * @param panel DrawingPanel
+   * @param g2 Graphics2D
+   */
   protected void drawPathEnd(DrawingPanel panel, Graphics2D g2) {
     pathEnd.reset();
-    path.moveTo(endPts[0], endPts[1]); // start the path at the last point
-    path.lineTo(endPts[2], endPts[3]);
-    path.lineTo((float) x1, (float) y1);
-    path.lineTo((float) x2, (float) y2);
-    Shape s = pathEnd.createTransformedShape(panel.getPixelTransform());
-    g2.draw(s);
+    double[] m = panel.getPixelMatrix();
+    long last = first+numpts-1;
+    pathEnd.moveTo((float) (m[0]*getX(last-1)+m[2]*getY(last-1)+m[4]), (float) (m[1]*getX(last-1)+m[3]*getY(last-1)+m[5])); // start the path at the last point
+    pathEnd.lineTo((float) (m[0]*getX(last)+m[2]*getY(last)+m[4]), (float) (m[1]*getX(last)+m[3]*getY(last)+m[5]));
+    pathEnd.lineTo((float) (m[0]*x1+m[2]*y1+m[4]), (float) (m[1]*x1+m[3]*y1+m[5]));
+    pathEnd.lineTo((float) (m[0]*x2+m[2]*y2+m[4]), (float) (m[1]*x2+m[3]*y2+m[5]));
+    g2.draw(pathEnd);
   }
 
   /**
@@ -77,7 +79,7 @@ public class TrailSmart extends TrailBezier {
    * @return double
    */
   public double getXMin() {
-    return Math.min(x2, xmin);
+    return Math.min(x2, super.getXMin());
   }
 
   /**
@@ -85,7 +87,7 @@ public class TrailSmart extends TrailBezier {
    * @return double
    */
   public double getXMax() {
-    return Math.max(x2, xmax);
+    return Math.max(x2, super.getXMax());
   }
 
   /**
@@ -93,7 +95,7 @@ public class TrailSmart extends TrailBezier {
    * @return double
    */
   public double getYMin() {
-    return Math.min(y2, ymin);
+    return Math.min(y2, super.getYMin());
   }
 
   /**
@@ -101,7 +103,7 @@ public class TrailSmart extends TrailBezier {
    * @return double
    */
   public double getYMax() {
-    return Math.max(y2, ymax);
+    return Math.max(y2, super.getYMax());
   }
 
 }
@@ -40,6 +40,16 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
   int ny, nx;
   boolean visible = true;
   Color zeroColor = Color.red, oneColor = Color.blue;
+  long[] words;                                      // optional bit store with 64 cells per long
+  int wordsPerRow;
+  int dirtyRow0 = Integer.MAX_VALUE, dirtyRow1 = -1; // rows changed in the bit store
+  static final int[] REVERSED_BITS = new int[256];   // the bits of a byte in reverse order
+
+  static {
+    for(int i = 0; i<256; i++) {
+      REVERSED_BITS[i] = Integer.reverse(i)>>>24;
+    }
+  }
 
   /**
    * Constructs a binary lattice with the given size.
@@ -80,6 +90,9 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
   public void resizeLattice(int _nx, int _ny) {
     ny = _ny;
     nx = _nx;
+    words = null;
+    dirtyRow0 = Integer.MAX_VALUE;
+    dirtyRow1 = -1;
     int len = ((nx+7)/8)*ny; // each row starts on a byte boundary
     packedData = new byte[len];
     DataBuffer databuffer = new DataBufferByte(packedData, len);
@@ -119,6 +132,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
   public void randomize() {
     Random random = new Random();
     random.nextBytes(packedData);
+    copyToWords(0, ny-1);
   }
 
   /**
@@ -130,6 +144,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if(!visible) {
       return;
     }
+    flushWords();
     if (!OSPRuntime.isMac()) {  //Rendering hint bug in Mac Snow Leopard 
       Graphics2D g2 = ((Graphics2D) g);
       g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
@@ -207,6 +222,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((x_offset<0)||(x_offset+val.length>nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setBlock."); //$NON-NLS-1$
     }
+    flushWords();
     for(int iy = y_offset, my = val[0].length+y_offset; iy<my; iy++) {
       for(int ix = x_offset, mx = val.length+x_offset; ix<mx; ix++) {
         int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
@@ -220,6 +236,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
         packedData[arrayIndex] = packedcell;
       }
     }
+    copyToWords(y_offset, y_offset+val[0].length-1);
   }
 
   /**
@@ -238,6 +255,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((ix_offset<0)||(ix_offset+val.length>nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setBlock."); //$NON-NLS-1$
     }
+    flushWords();
     for(int iy = iy_offset, my = val[0].length+iy_offset; iy<my; iy++) {
       for(int ix = ix_offset, mx = val.length+ix_offset; ix<mx; ix++) {
         int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
@@ -251,6 +269,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
         packedData[arrayIndex] = packedcell;
       }
     }
+    copyToWords(iy_offset, iy_offset+val[0].length-1);
   }
 
   /**
@@ -278,6 +297,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((ix<0)||(ix>=nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setCol."); //$NON-NLS-1$
     }
+    flushWords();
     for(int iy = iy_offset, nr = val.length+iy_offset; iy<nr; iy++) {
       int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
       byte packedcell = packedData[arrayIndex];
@@ -289,6 +309,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
       }
       packedData[arrayIndex] = packedcell;
     }
+    copyToWords(iy_offset, iy_offset+val.length-1);
   }
 
   /**
@@ -307,6 +328,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((ix<0)||(ix>=nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setCol."); //$NON-NLS-1$
     }
+    flushWords();
     for(int iy = iy_offset, nr = val.length+iy_offset; iy<nr; iy++) {
       int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
       byte packedcell = packedData[arrayIndex];
@@ -318,6 +340,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
       }
       packedData[arrayIndex] = packedcell;
     }
+    copyToWords(iy_offset, iy_offset+val.length-1);
   }
 
   /**
@@ -336,6 +359,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((ix_offset<0)||(ix_offset+val.length>nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setRow."); //$NON-NLS-1$
     }
+    flushWords();
     for(int ix = ix_offset, nc = val.length+ix_offset; ix<nc; ix++) {
       int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
       byte packedcell = packedData[arrayIndex];
@@ -347,6 +371,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
       }
       packedData[arrayIndex] = packedcell;
     }
+    copyToWords(iy, iy);
   }
 
   /**
@@ -365,6 +390,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((ix_offset<0)||(ix_offset+val.length>nx)) {
       throw new IllegalArgumentException("Column index out of range in binary lattice setRow."); //$NON-NLS-1$
     }
+    flushWords();
     for(int ix = ix_offset, nc = val.length+ix_offset; ix<nc; ix++) {
       int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
       byte packedcell = packedData[arrayIndex];
@@ -376,6 +402,7 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
       }
       packedData[arrayIndex] = packedcell;
     }
+    copyToWords(iy, iy);
   }
 
   /**
@@ -390,6 +417,15 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     if((iy<0)||(iy>=ny)||(ix<0)||(ix>=nx)) {
       throw new IllegalArgumentException("Cell row or column index out of range.  row="+iy+"  col="+ix); //$NON-NLS-1$ //$NON-NLS-2$
     }
+    if(words!=null) {
+      flushWords();
+      int wordIndex = iy*wordsPerRow+(ix>>6);
+      if(val<=0) {
+        words[wordIndex] &= ~(1L<<(ix&63));
+      } else {
+        words[wordIndex] |= 1L<<(ix&63);
+      }
+    }
     int arrayIndex = (ny-iy-1)*((nx+7)/8)+ix/8; // each row starts on a byte boundary
     byte packedcell = packedData[arrayIndex];
     int mask = 0x80>>>(ix%8);                   // start with 0x10000000 and shift right
@@ -415,6 +451,9 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
    * @return the cell value.
    */
   public byte getValue(int ix, int iy) {
+    if(dirtyRow1>=0) {
+      flushWords();
+    }
     byte packedcell = packedData[(ny-iy-1)*((nx+7)/8)+ix/8]; // each row starts on a byte boundary
     int mask = 0x80>>>(ix%8);                                // start with 0x10000000 and shift right
     if((packedcell&mask)>0) {
@@ -423,6 +462,88 @@ public class BinaryLattice extends MeasuredImage implements ByteLattice {
     return 0;
   }
 
+  /**
+   * Gets a bit-packed store of the cell values with 64 cells per long.
+   *
+   * Cell (ix, iy) is bit ix%64 of words[iy*getWordsPerRow()+ix/64].  The store is created from the
+   * current values when it is first requested and is kept up to date by the set methods.
+   * Values may be written directly into the store; the changes are copied into the image after the
+   * changed region is marked using setDirty. The store is discarded when the lattice is resized.
+   *
+   * @return the bit store
+   */
+  public synchronized long[] getWords() {
+    if(words==null) {
+      wordsPerRow = (nx+63)/64;
+      words = new long[wordsPerRow*ny];
+      copyToWords(0, ny-1);
+    }
+    return words;
+  }
+
+  /**
+   * Gets the number of longs used by each row of the bit store.
+   *
+   * @return the number of words per row
+   */
+  public int getWordsPerRow() {
+    return (nx+63)/64;
+  }
+
+  /**
+   * Marks a block of cells whose values have been changed in the bit store.
+   *
+   * @param ix the x index of the first cell
+   * @param iy the y index of the first cell
+   * @param width the number of cells in the x direction
+   * @param height the number of cells in the y direction
+   */
+  public synchronized void setDirty(int ix, int iy, int width, int height) {
+    if((words==null)||(width<=0)||(height<=0)) {
+      return;
+    }
+    dirtyRow0 = Math.max(0, Math.min(dirtyRow0, iy));
+    dirtyRow1 = Math.min(ny-1, Math.max(dirtyRow1, iy+height-1));
+  }
+
+  /**
+   * Copies the dirty rows of the bit store into the image raster.
+   */
+  synchronized void flushWords() {
+    if((words==null)||(dirtyRow1<0)) {
+      return;
+    }
+    int bytesPerRow = (nx+7)/8;
+    for(int iy = dirtyRow0; iy<=dirtyRow1; iy++) {
+      int w0 = iy*wordsPerRow, b0 = (ny-iy-1)*bytesPerRow; // image rows are stored top down
+      for(int ib = 0; ib<bytesPerRow; ib++) {
+        int bits = (int) (words[w0+(ib>>3)]>>>((ib&7)<<3))&0xFF;
+        packedData[b0+ib] = (byte) REVERSED_BITS[bits];    // the first cell is the high bit of an image byte
+      }
+    }
+    dirtyRow0 = Integer.MAX_VALUE;
+    dirtyRow1 = -1;
+  }
+
+  /**
+   * Copies rows of the image raster into the bit store.
+   */
+  synchronized void copyToWords(int iy0, int iy1) {
+    if(words==null) {
+      return;
+    }
+    int bytesPerRow = (nx+7)/8;
+    for(int iy = iy0; iy<=iy1; iy++) {
+      int w0 = iy*wordsPerRow, b0 = (ny-iy-1)*bytesPerRow;
+      for(int iw = 0; iw<wordsPerRow; iw++) {
+        words[w0+iw] = 0;
+      }
+      for(int ib = 0; ib<bytesPerRow; ib++) {
+        words[w0+(ib>>3)] |= ((long) REVERSED_BITS[packedData[b0+ib]&0xFF])<<((ib&7)<<3);
+      }
+    }
+  }
+
   /**
    * Gets the number of x entries.
    * @return nx
@@ -321,6 +321,21 @@ public class ByteRaster extends MeasuredImage implements Dimensioned, ByteLattic
     }
   }
 
+  /**
+   * Shifts every row of cells toward smaller x by the given number of columns.
+   * The last n columns keep their previous values and can then be replaced with setCol.
+   *
+   * @param n the number of columns
+   */
+  public void scrollColumns(int n) {
+    if((n<=0)||(n>=nx)) {
+      return;
+    }
+    for(int row = 0, offset = 0; row<ny; row++, offset += nx) {
+      System.arraycopy(packedData, offset+n, packedData, offset, nx-n);
+    }
+  }
+
   /**
    * Sets a pixel at the given location to a new value.
    *
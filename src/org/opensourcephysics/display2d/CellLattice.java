@@ -112,6 +112,37 @@ public class CellLattice implements ByteLattice {
     lattice.setValue(ix, iy, val);
   }
 
+  /**
+   * Gets the array that stores the cell values as data[ix][iy].
+   *
+   * Values may be written directly into this array.  The changes are shown after the
+   * changed region is marked using setDirty. The array is replaced when the lattice is resized.
+   *
+   * @return the cell values
+   */
+  public byte[][] getData() {
+    if(lattice instanceof CellLatticePC) {
+      return((CellLatticePC) lattice).getData();
+    }
+    return((CellLatticeOSX) lattice).getData();
+  }
+
+  /**
+   * Marks a block of cells whose values have been changed through the data array.
+   *
+   * @param ix the x index of the first cell
+   * @param iy the y index of the first cell
+   * @param width the number of cells in the x direction
+   * @param height the number of cells in the y direction
+   */
+  public void setDirty(int ix, int iy, int width, int height) {
+    if(lattice instanceof CellLatticePC) {
+      ((CellLatticePC) lattice).setDirty(ix, iy, width, height);
+    } else {
+      ((CellLatticeOSX) lattice).setDirty(ix, iy, width, height);
+    }
+  }
+
   public void randomize() {
     lattice.randomize();
   }
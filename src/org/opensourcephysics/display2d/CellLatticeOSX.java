@@ -367,6 +367,29 @@ public class CellLatticeOSX extends Grid implements Measurable, ByteLattice {
     data[ix][iy] = val;
   }
 
+  /**
+   * Gets the array that stores the cell values as data[ix][iy].
+   *
+   * Values may be written directly into this array.  The array is replaced when the lattice is resized.
+   *
+   * @return the cell values
+   */
+  public byte[][] getData() {
+    return data;
+  }
+
+  /**
+   * Marks a block of cells whose values have been changed through the data array.
+   *
+   * This lattice draws every cell from the data array, so no action is needed.
+   *
+   * @param ix the x index of the first cell
+   * @param iy the y index of the first cell
+   * @param width the number of cells in the x direction
+   * @param height the number of cells in the y direction
+   */
+  public void setDirty(int ix, int iy, int width, int height) {}
+
   /**
    *  Gets a lattice site value.
    *
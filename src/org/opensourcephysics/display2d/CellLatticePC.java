@@ -8,7 +8,9 @@
 package org.opensourcephysics.display2d;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.image.WritableRaster;
 import java.util.Random;
 import javax.swing.JFrame;
@@ -43,6 +45,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
   int[][] rgb = new int[256][3];
   byte[][] data;
   private JFrame legendFrame;
+  private Rectangle dirtyRect; // cells changed through the data array; null if none
 
   /**
    * Constructs a cell lattice.
@@ -107,6 +110,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
     ny = _ny;
     nx = _nx;
     data = new byte[nx][ny];
+    dirtyRect = null;
     image = new BufferedImage(nx, ny, BufferedImage.TYPE_INT_RGB);
     raster = image.getRaster();
     Grid oldGrid = grid;
@@ -185,6 +189,7 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
     if(!visible) {
       return;
     }
+    recolorDirtyRegion();
     super.draw(panel, g);
     grid.draw(panel, g);
   }
@@ -324,6 +329,58 @@ public class CellLatticePC extends MeasuredImage implements ByteLattice {
     raster.setPixel(ix, ny-iy-1, rgb[val&0xFF]);
   }
 
+  /**
+   * Gets the array that stores the cell values as data[ix][iy].
+   *
+   * Values may be written directly into this array.  The changes are shown after the
+   * changed region is marked using setDirty. The array is replaced when the lattice is resized.
+   *
+   * @return the cell values
+   */
+  public byte[][] getData() {
+    return data;
+  }
+
+  /**
+   * Marks a block of cells whose values have been changed through the data array.
+   *
+   * Only the marked cells are recolored when the lattice is next drawn.
+   *
+   * @param ix the x index of the first cell
+   * @param iy the y index of the first cell
+   * @param width the number of cells in the x direction
+   * @param height the number of cells in the y direction
+   */
+  public synchronized void setDirty(int ix, int iy, int width, int height) {
+    Rectangle rect = new Rectangle(ix, iy, width, height);
+    dirtyRect = (dirtyRect==null) ? rect : dirtyRect.union(rect);
+  }
+
+  /**
+   * Recolors the image pixels of the dirty cells.
+   */
+  private synchronized void recolorDirtyRegion() {
+    if(dirtyRect==null) {
+      return;
+    }
+    Rectangle rect = dirtyRect.intersection(new Rectangle(0, 0, nx, ny));
+    dirtyRect = null;
+    if(rect.isEmpty()) {
+      return;
+    }
+    int[] palette = new int[256];
+    for(int i = 0; i<256; i++) {
+      palette[i] = (rgb[i][0]<<16)|(rgb[i][1]<<8)|rgb[i][2];
+    }
+    int[] pixels = ((DataBufferInt) raster.getDataBuffer()).getData();
+    for(int ix = rect.x, mx = rect.x+rect.width; ix<mx; ix++) {
+      byte[] col = data[ix];
+      for(int iy = rect.y, my = rect.y+rect.height; iy<my; iy++) {
+        pixels[(ny-iy-1)*nx+ix] = palette[col[iy]&0xFF];
+      }
+    }
+  }
+
   /**
    * Gets a value from the given location.
    *
@@ -53,8 +53,10 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
   //private double color_factor;
   private Point projection;
   private ComplexSurfaceVertex cop;                                // center of projection
-  private ComplexSurfaceVertex[] vertexArray;                      // vertices array
-  private final ComplexSurfaceVertex values1[] = new ComplexSurfaceVertex[4];
+  private final SurfaceRenderer renderer = new SurfaceRenderer();  // vertices, projections and polygon rasterizer
+  private final int quad[] = new int[4];                           // vertex indices of a plane
+  private double[] vertexRe = new double[0];                       // real part at each vertex
+  private double[] vertexIm = new double[0];                       // imaginary part at each vertex
   // private final ComplexSurfaceVertex values2[] = new ComplexSurfaceVertex[4];
   // private double              color;                               // color of surface
 
@@ -63,7 +65,6 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
   private int t_x, t_y, t_z;                                       // determines ticks density
   //private boolean mouseDown = false;
   private int click_x, click_y;                                    // previous mouse cursor position
-  private boolean invalidProjection = true;
   private int iwidth = 0, iheight = 0;                             // the width and height of the last drawing operation
   private double xmin, xmax, ymin, ymax;
   private int ampIndex = 0;                                        // amplitude index
@@ -232,8 +233,10 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     calc_divisions = numRows-1;
     double xfactor = 20/(xmax-xmin);
     double yfactor = 20/(ymax-ymin);
-    if((vertexArray==null)||(vertexArray.length!=numRows*numCols)) {
-      vertexArray = new ComplexSurfaceVertex[numRows*numCols];
+    renderer.setVertexCount(numRows*numCols);
+    if(vertexRe.length!=numRows*numCols) {
+      vertexRe = new double[numRows*numCols];
+      vertexIm = new double[numRows*numCols];
     }
     double dx = Math.abs(griddata.getDx());
     double dy = Math.abs(griddata.getDy());
@@ -247,7 +250,9 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
-        vertexArray[ix*numRows+iy] = new ComplexSurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, redata[ixd][iyd], imdata[ixd][iyd], this);
+        renderer.setVertex(ix*numRows+iy, -10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval);
+        vertexRe[ix*numRows+iy] = redata[ixd][iyd];
+        vertexIm[ix*numRows+iy] = imdata[ixd][iyd];
         y += dy;
       }
       x += dx;
@@ -262,8 +267,10 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     calc_divisions = numRows-1;
     double xfactor = 20/(xmax-xmin);
     double yfactor = 20/(ymax-ymin);
-    if((vertexArray==null)||(vertexArray.length!=numRows*numCols)) {
-      vertexArray = new ComplexSurfaceVertex[numRows*numCols];
+    renderer.setVertexCount(numRows*numCols);
+    if(vertexRe.length!=numRows*numCols) {
+      vertexRe = new double[numRows*numCols];
+      vertexIm = new double[numRows*numCols];
     }
     double dx = Math.abs(griddata.getDx());
     double dy = Math.abs(griddata.getDy());
@@ -278,7 +285,9 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
-        vertexArray[ix*numRows+iy] = new ComplexSurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, data[ix][iy][reIndex], data[ix][iy][imIndex], this);
+        renderer.setVertex(ix*numRows+iy, -10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval);
+        vertexRe[ix*numRows+iy] = data[ix][iy][reIndex];
+        vertexIm[ix*numRows+iy] = data[ix][iy][imIndex];
         y += dy;
       }
       x += dx;
@@ -300,20 +309,6 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     imIndex = indexes[2];
   }
 
-  /**
-   * Method projectVertexArray
-   *
-   */
-  void projectVertexArray() {
-    ComplexSurfaceVertex[] tempArray = vertexArray; // reference to the array so it cannot change.
-    if(tempArray==null) {
-      return;
-    }
-    for(int i = 0, num = tempArray.length; i<num; i++) {
-      tempArray[i].project();
-    }
-  }
-
   /**
    * Sets the colors that will be used between the floor and ceiling values.
    * Not implemented.   Color always maps to phase.
@@ -368,13 +363,8 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
       return;
     }
     projector.setProjectionArea(new Rectangle(0, 0, panel.getBounds().width, panel.getBounds().height));
-    if(invalidProjection||(iwidth!=panel.getWidth())||(iheight!=panel.getHeight())) {
-      master_project_indexV++;
-      invalidProjection = false;
-      projectVertexArray();
-      iwidth = panel.getWidth();
-      iheight = panel.getHeight();
-    }
+    iwidth = panel.getWidth();
+    iheight = panel.getHeight();
     plotSurface(g);
   }
 
@@ -396,11 +386,9 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
    *         <code>false</code> otherwise
    * @param values vertices array of the plane
    */
-  private final boolean plottable(ComplexSurfaceVertex[] values) {
-    try {
-      return(!values[0].isInvalid()&&!values[1].isInvalid()&&!values[2].isInvalid()&&!values[3].isInvalid());
-    } catch(Exception ex) {}
-    return false;
+  private final boolean plottable(int[] values) {
+    double[] z = renderer.z;
+    return !Double.isNaN(z[values[0]])&&!Double.isNaN(z[values[1]])&&!Double.isNaN(z[values[2]])&&!Double.isNaN(z[values[3]]);
   }
 
   /**
@@ -537,7 +525,7 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     if((plot_mode==ColorMapper.DUALSHADE)||(plot_mode==ColorMapper.RED)||(plot_mode==ColorMapper.GREEN)||(plot_mode==ColorMapper.BLUE)) {
       color_factor *= 0.6/0.8;
     }*/
-    if(vertexArray==null) {
+    if(renderer.n==0) {
       drawBoxGridsTicksLabels(g, false);
       drawBoundingBox(g);
       return;
@@ -552,6 +540,8 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     zmaxV = zmax;
     zminV = zmin;
     zfactorV = 20/(zmaxV-zminV);
+    renderer.project(projector, zminV, zfactorV);
+    renderer.clearPolygons();
     // direction test
     double distance = projector.getDistance()*projector.getCosElevationAngle();
     // cop : center of projection
@@ -601,6 +591,7 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
         plotArea(g, calc_divisions, calc_divisions, split_x, split_y, -multiple_factor, -multiple_factor);
       }
     }
+    renderer.render(g, iwidth, iheight);
     if(isBoxed) {
       drawBoundingBox(g);
     }
@@ -612,10 +603,11 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
   /**
    * Plots a single plane
    *
-   * @param vertex vertices array of the plane
+   * @param vertex vertex indices of the plane
    * @param verticescount number of vertices to process
    */
-  private final void plotPlane(Graphics g, ComplexSurfaceVertex[] vertex, int verticescount) {
+  private final void plotPlane(Graphics g, int[] vertex, int verticescount) {
+    double[] vx = renderer.x, vy = renderer.y, vz = renderer.z;
     double[] samples = new double[3];
     int count, loop, index;
     double re, im, result;
@@ -629,12 +621,12 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     re = 0.0f;
     im = 0.0f;
     line_color = Color.black;
-    low1 = (vertex[0].z<zmin);
-    valid1 = !low1&&(vertex[0].z<=zmax);
+    low1 = (vz[vertex[0]]<zmin);
+    valid1 = !low1&&(vz[vertex[0]]<=zmax);
     index = 1;
     for(loop = 0; loop<verticescount; loop++) {
-      low2 = (vertex[index].z<zmin);
-      valid2 = !low2&&(vertex[index].z<=zmax);
+      low2 = (vz[vertex[index]]<zmin);
+      valid2 = !low2&&(vz[vertex[index]]<=zmax);
       if((valid1||valid2)||(low1^low2)) {
         if(!valid1) {
           if(low1) {
@@ -642,9 +634,9 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
           } else {
             result = zmax;
           }
-          double ratio = (result-vertex[index].z)/(vertex[loop].z-vertex[index].z);
-          double new_x = ratio*(vertex[loop].x-vertex[index].x)+vertex[index].x;
-          double new_y = ratio*(vertex[loop].y-vertex[index].y)+vertex[index].y;
+          double ratio = (result-vz[vertex[index]])/(vz[vertex[loop]]-vz[vertex[index]]);
+          double new_x = ratio*(vx[vertex[loop]]-vx[vertex[index]])+vx[vertex[index]];
+          double new_y = ratio*(vy[vertex[loop]]-vy[vertex[index]])+vy[vertex[index]];
           if(low1) {
             projection = projector.project(new_x, new_y, -10);
           } else {
@@ -656,22 +648,21 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
           //z += result;
         }
         if(valid2) {
-          projection = vertex[index].projection();
-          poly_x[count] = projection.x;
-          poly_y[count] = projection.y;
+          poly_x[count] = renderer.px[vertex[index]];
+          poly_y[count] = renderer.py[vertex[index]];
           count++;
-          //z += vertex[index].z;
-          re += vertex[index].re;
-          im += vertex[index].im;
+          //z += vz[vertex[index]];
+          re += vertexRe[vertex[index]];
+          im += vertexIm[vertex[index]];
         } else {
           if(low2) {
             result = zmin;
           } else {
             result = zmax;
           }
-          double ratio = (result-vertex[loop].z)/(vertex[index].z-vertex[loop].z);
-          double new_x = ratio*(vertex[index].x-vertex[loop].x)+vertex[loop].x;
-          double new_y = ratio*(vertex[index].y-vertex[loop].y)+vertex[loop].y;
+          double ratio = (result-vz[vertex[loop]])/(vz[vertex[index]]-vz[vertex[loop]]);
+          double new_x = ratio*(vx[vertex[index]]-vx[vertex[loop]])+vx[vertex[loop]];
+          double new_y = ratio*(vy[vertex[index]]-vy[vertex[loop]])+vy[vertex[loop]];
           if(low2) {
             projection = projector.project(new_x, new_y, -10);
           } else {
@@ -690,24 +681,18 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
       low1 = low2;
     }
     if(count>0) {
+      int fill;
       switch(plot_mode) {
          case ColorMapper.NORENDER :
-           g.setColor(Color.lightGray);
+           fill = Color.lightGray.getRGB();
            break;
          default :
            samples[0] = 0.99;
            samples[1] = re;
            samples[2] = im;
-           g.setColor(colorMap.samplesToColor(samples));
-      }
-      g.fillPolygon(poly_x, poly_y, count);
-      g.setColor(line_color);
-      if(isMesh) {
-        poly_x[count] = poly_x[0];
-        poly_y[count] = poly_y[0];
-        count++;
-        g.drawPolygon(poly_x, poly_y, count);
+           fill = colorMap.samplesToColor(samples).getRGB();
       }
+      renderer.addPolygon(poly_x, poly_y, count, fill, line_color.getRGB(), isMesh);
     }
   }
 
@@ -728,15 +713,15 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     int lx = start_lx;
     int ly = start_ly;
     while(ly!=end_ly) {
-      values1[1] = vertexArray[lx+ly];
-      values1[2] = vertexArray[lx+ly+sy];
+      quad[1] = lx+ly;
+      quad[2] = lx+ly+sy;
       while(lx!=end_lx) {
-        values1[0] = values1[1];
-        values1[1] = vertexArray[lx+sx+ly];
-        values1[3] = values1[2];
-        values1[2] = vertexArray[lx+sx+ly+sy];
-        if(plottable(values1)) {
-          plotPlane(g, values1, 4);
+        quad[0] = quad[1];
+        quad[1] = lx+sx+ly;
+        quad[3] = quad[2];
+        quad[2] = lx+sx+ly+sy;
+        if(plottable(quad)) {
+          plotPlane(g, quad, 4);
         }
         lx += sx;
       }
@@ -1329,8 +1314,7 @@ public class ComplexSurfacePlot implements Plot2D, False3D {
     }
     click_x = x;
     click_y = y;
-    invalidProjection = true;
-    drawingPanel.render();
+    drawingPanel.render(); // the projector detects the change so vertices are reprojected
   }
 
   /**
@@ -0,0 +1,298 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display2d;
+import java.awt.geom.Path2D;
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * ContourEngine computes the filled level polygons and the contour lines of a grid of values
+ * in world coordinates.
+ *
+ * The grid is divided into square blocks of cells. Each block keeps a copy of its values and
+ * caches its geometry, so only blocks whose values or contour levels have changed are
+ * recomputed. Changed blocks are processed in parallel and the geometry of all blocks is
+ * merged into a single path per level.
+ */
+final class ContourEngine {
+  static final int BLOCK_SIZE = 16; // cells per block side
+  private int nx, ny;               // grid points
+  private Block[] blocks = new Block[0];
+  private double left, top, dx, dy;
+  private double zmin, stepz;
+  private int nlevels;
+  private boolean computeFills, computeLines;
+  private Path2D.Double[] levelFills = new Path2D.Double[0];
+  private Path2D.Double lines = new Path2D.Double();
+
+  /**
+   * Updates the contour geometry. Returns true if any block was recomputed.
+   *
+   * @param data the grid values data[ix][iy]
+   * @param left the x coordinate of the first column
+   * @param top the y coordinate of the first row
+   * @param dx the x spacing of the grid
+   * @param dy the y spacing of the grid
+   * @param zmin the first contour level
+   * @param stepz the contour spacing
+   * @param nlevels the number of levels
+   * @param fills true to compute filled level polygons
+   * @param contourLines true to compute contour lines
+   * @return boolean
+   */
+  boolean update(final double[][] data, double left, double top, double dx, double dy, double zmin, double stepz, int nlevels, boolean fills, boolean contourLines) {
+    int nx = data.length, ny = (nx==0) ? 0 : data[0].length;
+    if((nx!=this.nx)||(ny!=this.ny)) {
+      createBlocks(nx, ny);
+    }
+    if((left!=this.left)||(top!=this.top)||(dx!=this.dx)||(dy!=this.dy)||(zmin!=this.zmin)||(stepz!=this.stepz)||(nlevels!=this.nlevels)||(fills!=computeFills)||(contourLines!=computeLines)) {
+      this.left = left;
+      this.top = top;
+      this.dx = dx;
+      this.dy = dy;
+      this.zmin = zmin;
+      this.stepz = stepz;
+      this.nlevels = nlevels;
+      computeFills = fills;
+      computeLines = contourLines;
+      for(int i = 0; i<blocks.length; i++) {
+        blocks[i].valid = false;
+      }
+    }
+    ParallelLoop.forRange(blocks.length, 4, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int i = start; i<end; i++) {
+          Block block = blocks[i];
+          block.recomputed = false;
+          if(!block.copyValues(data)&&block.valid) {
+            continue;
+          }
+          computeBlock(block);
+          block.valid = true;
+          block.recomputed = true;
+        }
+      }
+
+    });
+    boolean changed = (levelFills.length!=nlevels);
+    for(int i = 0; i<blocks.length; i++) {
+      changed = changed||blocks[i].recomputed;
+    }
+    if(changed) {
+      mergeBlocks();
+    }
+    return changed;
+  }
+
+  /**
+   * Gets the filled polygons of the given level. The region where the values are at or above the level is filled.
+   *
+   * @param level the level index
+   * @return the path in world coordinates
+   */
+  Path2D.Double getLevelFill(int level) {
+    return levelFills[level];
+  }
+
+  /**
+   * Gets the number of levels.
+   *
+   * @return int
+   */
+  int getNumberOfLevels() {
+    return levelFills.length;
+  }
+
+  /**
+   * Gets the contour lines of all levels.
+   *
+   * @return the path in world coordinates
+   */
+  Path2D.Double getLines() {
+    return lines;
+  }
+
+  private void createBlocks(int nx, int ny) {
+    this.nx = nx;
+    this.ny = ny;
+    if((nx<2)||(ny<2)) {
+      blocks = new Block[0];
+      return;
+    }
+    int nbx = (nx-2)/BLOCK_SIZE+1, nby = (ny-2)/BLOCK_SIZE+1;
+    blocks = new Block[nbx*nby];
+    for(int bi = 0; bi<nbx; bi++) {
+      for(int bj = 0; bj<nby; bj++) {
+        int i0 = bi*BLOCK_SIZE, j0 = bj*BLOCK_SIZE;
+        blocks[bi*nby+bj] = new Block(i0, j0, Math.min(nx-1, i0+BLOCK_SIZE), Math.min(ny-1, j0+BLOCK_SIZE));
+      }
+    }
+  }
+
+  private void mergeBlocks() {
+    if(levelFills.length!=nlevels) {
+      levelFills = new Path2D.Double[nlevels];
+    }
+    for(int k = 0; k<nlevels; k++) {
+      levelFills[k] = new Path2D.Double();
+      for(int i = 0; i<blocks.length; i++) {
+        if(k<blocks[i].nfills) {
+          levelFills[k].append(blocks[i].fills[k], false);
+        }
+      }
+    }
+    lines = new Path2D.Double();
+    for(int i = 0; i<blocks.length; i++) {
+      lines.append(blocks[i].lines, false);
+    }
+  }
+
+  /**
+   * Computes the geometry of a block using the cell polygons of the Surface Plotter contour algorithm.
+   */
+  private void computeBlock(Block block) {
+    double[] v = new double[4], vx = new double[4], vy = new double[4];
+    double[] px = new double[8], py = new double[8];
+    double[] cx = new double[4], cy = new double[4];
+    boolean[] exit = new boolean[4];
+    if((block.fills==null)||(block.fills.length!=nlevels)) {
+      block.fills = new Path2D.Double[nlevels];
+    }
+    for(int k = 0; k<nlevels; k++) {
+      block.fills[k] = new Path2D.Double();
+    }
+    block.nfills = computeFills ? nlevels : 0;
+    block.lines = new Path2D.Double();
+    int w = block.j1-block.j0+1;
+    for(int i = block.i0; i<block.i1; i++) {
+      double x = left+i*dx;
+      for(int j = block.j0; j<block.j1; j++) {
+        double y = top+j*dy;
+        int index = (i-block.i0)*w+(j-block.j0);
+        v[0] = block.values[index];
+        vx[0] = x;
+        vy[0] = y;
+        v[1] = block.values[index+1];
+        vx[1] = x;
+        vy[1] = y+dy;
+        v[2] = block.values[index+w+1];
+        vx[2] = x+dx;
+        vy[2] = y+dy;
+        v[3] = block.values[index+w];
+        vx[3] = x+dx;
+        vy[3] = y;
+        double z = zmin;
+        for(int k = 0; k<nlevels; k++) {
+          int n = 0, ncross = 0;
+          for(int edge = 0; edge<4; edge++) {
+            int next = (edge+1)&3;
+            boolean below = z>v[edge];
+            if(!below) {
+              px[n] = vx[edge];
+              py[n] = vy[edge];
+              n++;
+            }
+            if(below!=(z>v[next])) {
+              double t = (z-v[edge])/(v[next]-v[edge]);
+              px[n] = cx[ncross] = vx[edge]+t*(vx[next]-vx[edge]);
+              py[n] = cy[ncross] = vy[edge]+t*(vy[next]-vy[edge]);
+              exit[ncross] = !below;
+              n++;
+              ncross++;
+            }
+          }
+          if(computeFills&&(n>=3)) {
+            Path2D.Double path = block.fills[k];
+            path.moveTo(px[0], py[0]);
+            for(int m = 1; m<n; m++) {
+              path.lineTo(px[m], py[m]);
+            }
+            path.closePath();
+          }
+          if(computeLines) {
+            // each line leaves the region above the level and enters it again at the next crossing
+            for(int m = 0; m<ncross; m++) {
+              if(exit[m]) {
+                int next = (m+1)%ncross;
+                block.lines.moveTo(cx[m], cy[m]);
+                block.lines.lineTo(cx[next], cy[next]);
+              }
+            }
+          }
+          if(n<3) { // higher levels are empty
+            break;
+          }
+          z += stepz;
+        }
+      }
+    }
+  }
+
+  /**
+   * A rectangular block of cells and its cached geometry.
+   */
+  private static class Block {
+    final int i0, j0, i1, j1; // cells [i0, i1) x [j0, j1)
+    final double[] values;    // grid values at the corners of the cells
+    boolean valid, recomputed;
+    Path2D.Double[] fills;
+    int nfills;
+    Path2D.Double lines;
+
+    Block(int i0, int j0, int i1, int j1) {
+      this.i0 = i0;
+      this.j0 = j0;
+      this.i1 = i1;
+      this.j1 = j1;
+      values = new double[(i1-i0+1)*(j1-j0+1)];
+    }
+
+    /**
+     * Copies the block's values from the grid and returns true if any value changed.
+     */
+    boolean copyValues(double[][] data) {
+      boolean changed = false;
+      for(int i = i0, index = 0; i<=i1; i++) {
+        double[] col = data[i];
+        for(int j = j0; j<=j1; j++, index++) {
+          if(values[index]!=col[j]) { // NaN values are always recomputed
+            values[index] = col[j];
+            changed = true;
+          }
+        }
+      }
+      return changed;
+    }
+
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
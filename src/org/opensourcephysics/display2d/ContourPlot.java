@@ -8,6 +8,8 @@
 package org.opensourcephysics.display2d;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
 import javax.swing.JFrame;
 import org.opensourcephysics.controls.XML;
 import org.opensourcephysics.controls.XMLControl;
@@ -29,14 +31,7 @@ public class ContourPlot implements Plot2D {
   private boolean showContourLines = true;
   private boolean showColoredLevels = true;       // fill with colors
   private double contour_stepz;                   // contour spacing
-  private int[] xpoints = new int[8];
-  private int[] ypoints = new int[8];
-  private int[] contour_x = new int[8];
-  private int[] contour_y = new int[8];
-  private double[] delta = new double[4];
-  private double[] intersection = new double[4];
-  private double[][] contour_vertex = new double[4][3];
-  private ContourAccumulator accumulator = new ContourAccumulator();
+  private ContourEngine engine = new ContourEngine(); // caches the contour geometry of unchanged blocks
   private double zmin = 0, zmax = 1.0;            // the range for contour levels
   private boolean autoscaleZ = true;
   private boolean symmetricZ=false;
@@ -237,7 +232,6 @@ public class ContourPlot implements Plot2D {
       int h = panel.getHeight()-panel.getTopGutter()-panel.getBottomGutter();
       g.fillRect(panel.getLeftGutter(), panel.getTopGutter(), Math.max(w, 0), Math.max(h, 0));
     }
-    accumulator.clearAccumulator();
     contour_stepz = (zmax-zmin)/(contour_lines+1);
     double z = zmin;
     for(int c = 0; c<contourColors.length; c++) {
@@ -248,31 +242,25 @@ public class ContourPlot implements Plot2D {
       }
       z += contour_stepz;
     }
-    double x = griddata.getLeft(), dx = (griddata.getRight()-griddata.getLeft())/(nx-1);
-    double y = griddata.getTop(), dy = -(griddata.getTop()-griddata.getBottom())/(ny-1);
-    for(int i = 0, mx = internalData.length-1; i<mx; i++) {
-      y = griddata.getTop();
-      for(int j = 0, my = internalData[0].length-1; j<my; j++) {
-        contour_vertex[0][0] = x;
-        contour_vertex[0][1] = y;
-        contour_vertex[0][2] = internalData[i][j];
-        contour_vertex[1][0] = x;
-        contour_vertex[1][1] = y+dy;
-        contour_vertex[1][2] = internalData[i][j+1];
-        contour_vertex[2][0] = x+dx;
-        contour_vertex[2][1] = y+dy;
-        contour_vertex[2][2] = internalData[i+1][j+1];
-        contour_vertex[3][0] = x+dx;
-        contour_vertex[3][1] = y;
-        contour_vertex[3][2] = internalData[i+1][j];
-        createContour(panel, g);
-        y += dy;
+    boolean fill = showColoredLevels&&(colorMap.getPaletteType()!=ColorMapper.WIREFRAME);
+    double dx = (griddata.getRight()-griddata.getLeft())/(nx-1);
+    double dy = -(griddata.getTop()-griddata.getBottom())/(ny-1);
+    engine.update(internalData, griddata.getLeft(), griddata.getTop(), dx, dy, zmin, contour_stepz, contourColors.length, fill, showContourLines);
+    Graphics2D g2 = (Graphics2D) g;
+    AffineTransform pixelTransform = panel.getPixelTransform();
+    pixelTransform.preConcatenate(AffineTransform.getTranslateInstance(1, 1));
+    if(fill) {
+      AffineTransform oldTransform = g2.getTransform();
+      g2.transform(pixelTransform);
+      for(int c = 0, n = engine.getNumberOfLevels(); c<n; c++) {
+        g2.setColor(contourColors[c]);
+        g2.fill(engine.getLevelFill(c));
       }
-      x += dx;
+      g2.setTransform(oldTransform);
     }
     if(showContourLines) {
       g.setColor(lineColor);
-      accumulator.drawAll(g);
+      g2.draw(pixelTransform.createTransformedShape(engine.getLines()));
       int lpix = panel.xToPix(griddata.getLeft());
       int tpix = panel.yToPix(griddata.getTop());
       int rpix = panel.xToPix(griddata.getRight());
@@ -472,116 +460,6 @@ public class ContourPlot implements Plot2D {
     }
   }
 
-  /**
-   * Creates contour plot of a single area division. Called by
-   * <code>draw</code> method
-   *
-   * @see #draw
-   */
-  private final void createContour(DrawingPanel panel, Graphics g) {
-    double z = zmin;
-    xpoints[0] = panel.xToPix(contour_vertex[0][0])+1;
-    xpoints[2] = panel.xToPix(contour_vertex[1][0])+1;
-    xpoints[4] = panel.xToPix(contour_vertex[2][0])+1;
-    xpoints[6] = panel.xToPix(contour_vertex[3][0])+1;
-    xpoints[1] = xpoints[3] = xpoints[5] = xpoints[7] = -1;
-    ypoints[0] = panel.yToPix(contour_vertex[0][1])+1;
-    ypoints[4] = panel.yToPix(contour_vertex[2][1])+1;
-    ypoints[2] = ypoints[3] = panel.yToPix(contour_vertex[1][1])+1;
-    ypoints[6] = ypoints[7] = panel.yToPix(contour_vertex[3][1])+1;
-    int xmin = xpoints[0];
-    int xmax = xpoints[4];
-    for(int counter = 0; counter<=contour_lines+1; counter++) {
-      // Analyzes edges
-      for(int edge = 0; edge<4; edge++) {
-        int index = (edge<<1)+1;
-        int nextedge = (edge+1)&3;
-        if(z>contour_vertex[edge][2]) {
-          xpoints[index-1] = -2;
-          if(z>contour_vertex[nextedge][2]) {
-            xpoints[(index+1)&7] = -2;
-            xpoints[index] = -2;
-          }
-        } else if(z>contour_vertex[nextedge][2]) {
-          xpoints[(index+1)&7] = -2;
-        }
-        if(xpoints[index]!=-2) {
-          if(xpoints[index]!=-1) {
-            intersection[edge] += delta[edge];
-            if((index==1)||(index==5)) {
-              ypoints[index] = panel.yToPix(intersection[edge])+1;
-            } else {
-              xpoints[index] = panel.xToPix(intersection[edge])+1;
-            }
-          } else {
-            if((z>contour_vertex[edge][2])||(z>contour_vertex[nextedge][2])) {
-              switch(index) {
-                 case 1 :
-                   delta[edge] = (contour_vertex[nextedge][1]-contour_vertex[edge][1])*contour_stepz/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   intersection[edge] = (contour_vertex[nextedge][1]*(z-contour_vertex[edge][2])+contour_vertex[edge][1]*(contour_vertex[nextedge][2]-z))/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   xpoints[index] = xmin;
-                   ypoints[index] = panel.yToPix(intersection[edge])+1;
-                   break;
-                 case 3 :
-                   delta[edge] = (contour_vertex[nextedge][0]-contour_vertex[edge][0])*contour_stepz/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   intersection[edge] = (contour_vertex[nextedge][0]*(z-contour_vertex[edge][2])+contour_vertex[edge][0]*(contour_vertex[nextedge][2]-z))/(contour_vertex[nextedge][2]-contour_vertex[edge][2]);
-                   xpoints[index] = panel.xToPix(intersection[edge])+1;
-                   break;
-                 case 5 :
-                   delta[edge] = (contour_vertex[edge][1]-contour_vertex[nextedge][1])*contour_stepz/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   intersection[edge] = (contour_vertex[edge][1]*(z-contour_vertex[nextedge][2])+contour_vertex[nextedge][1]*(contour_vertex[edge][2]-z))/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   xpoints[index] = xmax;
-                   ypoints[index] = panel.yToPix(intersection[edge])+1;
-                   break;
-                 case 7 :
-                   delta[edge] = (contour_vertex[edge][0]-contour_vertex[nextedge][0])*contour_stepz/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   intersection[edge] = (contour_vertex[edge][0]*(z-contour_vertex[nextedge][2])+contour_vertex[nextedge][0]*(contour_vertex[edge][2]-z))/(contour_vertex[edge][2]-contour_vertex[nextedge][2]);
-                   xpoints[index] = panel.xToPix(intersection[edge])+1;
-                   break;
-              }
-            }
-          }
-        }
-      }
-      // Creates polygon
-      int contour_n = 0;
-      for(int index = 0; index<8; index++) {
-        if(xpoints[index]>=0) {
-          contour_x[contour_n] = xpoints[index];
-          contour_y[contour_n] = ypoints[index];
-          contour_n++;
-        }
-      }
-      if(showColoredLevels&&(colorMap.getPaletteType()!=ColorMapper.WIREFRAME)) {
-        g.setColor(contourColors[counter]);
-        if(contour_n>0) {
-          g.fillPolygon(contour_x, contour_y, contour_n);
-        }
-      }
-      // Creates contour lines
-      if(showContourLines) {
-        int x = -1;
-        int y = -1;
-        for(int index = 1; index<8; index += 2) {
-          if(xpoints[index]>=0) {
-            if(x!=-1) {
-              accumulator.addLine(x, y, xpoints[index], ypoints[index]);
-            }
-            x = xpoints[index];
-            y = ypoints[index];
-          }
-        }
-        if((xpoints[1]>0)&&(x!=-1)) {
-          accumulator.addLine(x, y, xpoints[1], ypoints[1]);
-        }
-      }
-      if(contour_n<3) {
-        break;
-      }
-      z += contour_stepz;
-    }
-  }
-
   /**
    * Determines the palette type that will be used.
    *
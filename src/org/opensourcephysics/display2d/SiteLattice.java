@@ -270,6 +270,18 @@ public class SiteLattice extends Grid implements Measurable, ByteLattice {
     data[ix][iy] = val;
   }
 
+  /**
+   * Gets the array that stores the site values as data[ix][iy].
+   *
+   * Values may be written directly into this array; every site is drawn from the array.
+   * The array is replaced when the lattice is resized.
+   *
+   * @return the site values
+   */
+  public byte[][] getData() {
+    return data;
+  }
+
   /**
    *  Gets a lattice site value.
    *
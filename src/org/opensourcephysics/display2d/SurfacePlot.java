@@ -57,15 +57,14 @@ public class SurfacePlot implements Plot2D, False3D {
   private double color_factor;
   private Point projection;
   private SurfaceVertex cop;                                       // center of projection
-  private SurfaceVertex[] vertexArray;                             // vertices array
-  private final SurfaceVertex values1[] = new SurfaceVertex[4];
+  private final SurfaceRenderer renderer = new SurfaceRenderer();  // vertices, projections and polygon rasterizer
+  private final int quad[] = new int[4];                           // vertex indices of a plane
   //private final SurfaceVertex values2[] = new SurfaceVertex[4];
   private Color line_color = Color.black;
   private int factor_x, factor_y;                                  // conversion factors
   private int t_x, t_y, t_z;                                       // determines ticks density
   //private boolean mouseDown = false;
   private int click_x, click_y;                                    // previous mouse cursor position
-  private boolean invalidProjection = true;
   private int iwidth = 0, iheight = 0;                             // the width and height of the last drawing operation
   private double xmin, xmax, ymin, ymax;
   private int ampIndex = 0;                                        // amplitude index
@@ -219,9 +218,7 @@ public class SurfacePlot implements Plot2D, False3D {
     calc_divisions = numRows-1;
     double xfactor = 20/(xmax-xmin);
     double yfactor = 20/(ymax-ymin);
-    if((vertexArray==null)||(vertexArray.length!=numRows*numCols)) {
-      vertexArray = new SurfaceVertex[numRows*numCols];
-    }
+    renderer.setVertexCount(numRows*numCols);
     double dx = Math.abs(griddata.getDx());
     double dy = Math.abs(griddata.getDy());
     double x = xmin; // left;
@@ -234,7 +231,7 @@ public class SurfacePlot implements Plot2D, False3D {
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
-        vertexArray[ix*numRows+iy] = new SurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, this);
+        renderer.setVertex(ix*numRows+iy, -10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval);
         y += dy;
       }
       x += dx;
@@ -252,9 +249,7 @@ public class SurfacePlot implements Plot2D, False3D {
     calc_divisions = numRows-1;
     double xfactor = 20/(xmax-xmin);
     double yfactor = 20/(ymax-ymin);
-    if((vertexArray==null)||(vertexArray.length!=numRows*numCols)) {
-      vertexArray = new SurfaceVertex[numRows*numCols];
-    }
+    renderer.setVertexCount(numRows*numCols);
     double dx = Math.abs(griddata.getDx());
     double dy = Math.abs(griddata.getDy());
     double x = xmin; // left;
@@ -267,7 +262,7 @@ public class SurfacePlot implements Plot2D, False3D {
         if(zMap!=null) {
           zval = zMap.evaluate(zval);
         }
-        vertexArray[ix*numRows+iy] = new SurfaceVertex(-10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval, this);
+        renderer.setVertex(ix*numRows+iy, -10+(x-xmin)*xfactor, -10+(y-ymin)*yfactor, zval);
         y += dy;
       }
       x += dx;
@@ -275,20 +270,6 @@ public class SurfacePlot implements Plot2D, False3D {
     data = null;
   }
 
-  /**
-   * Method projectVertexArray
-   *
-   */
-  void projectVertexArray() {
-    SurfaceVertex[] tempArray = vertexArray; // reference to the array so it cannot change.
-    if(tempArray==null) {
-      return;
-    }
-    for(int i = 0, num = tempArray.length; i<num; i++) {
-      tempArray[i].project();
-    }
-  }
-
   /**
    * Paint the surface.
    * @param panel
@@ -299,13 +280,8 @@ public class SurfacePlot implements Plot2D, False3D {
       return;
     }
     projector.setProjectionArea(new Rectangle(0, 0, panel.getBounds().width, panel.getBounds().height));
-    if(invalidProjection||(iwidth!=panel.getWidth())||(iheight!=panel.getHeight())) {
-      master_project_indexV++;
-      invalidProjection = false;
-      projectVertexArray();
-      iwidth = panel.getWidth();
-      iheight = panel.getHeight();
-    }
+    iwidth = panel.getWidth();
+    iheight = panel.getHeight();
     plotSurface(g);
   }
 
@@ -327,11 +303,9 @@ public class SurfacePlot implements Plot2D, False3D {
    *         <code>false</code> otherwise
    * @param values vertices array of the plane
    */
-  private final boolean plottable(SurfaceVertex[] values) {
-    try {
-      return(!values[0].isInvalid()&&!values[1].isInvalid()&&!values[2].isInvalid()&&!values[3].isInvalid());
-    } catch(Exception ex) {}
-    return false;
+  private final boolean plottable(int[] values) {
+    double[] z = renderer.z;
+    return !Double.isNaN(z[values[0]])&&!Double.isNaN(z[values[1]])&&!Double.isNaN(z[values[2]])&&!Double.isNaN(z[values[3]]);
   }
 
   /**
@@ -467,7 +441,7 @@ public class SurfacePlot implements Plot2D, False3D {
     if((plot_mode==ColorMapper.DUALSHADE)||(plot_mode==ColorMapper.RED)||(plot_mode==ColorMapper.GREEN)||(plot_mode==ColorMapper.BLUE)) {
       color_factor *= 0.6/0.8;
     }
-    if(vertexArray==null) {
+    if(renderer.n==0) {
       drawBoxGridsTicksLabels(g, false);
       drawBoundingBox(g);
       return;
@@ -482,6 +456,8 @@ public class SurfacePlot implements Plot2D, False3D {
     zmaxV = zmax;
     zminV = zmin;
     zfactorV = 20/(zmaxV-zminV);
+    renderer.project(projector, zminV, zfactorV);
+    renderer.clearPolygons();
     // direction test
     double distance = projector.getDistance()*projector.getCosElevationAngle();
     // cop : center of projection
@@ -531,6 +507,7 @@ public class SurfacePlot implements Plot2D, False3D {
         plotArea(g, calc_divisions, calc_divisions, split_x, split_y, -multiple_factor, -multiple_factor);
       }
     }
+    renderer.render(g, iwidth, iheight);
     if(isBoxed) {
       drawBoundingBox(g);
     }
@@ -542,10 +519,11 @@ public class SurfacePlot implements Plot2D, False3D {
   /**
    * Plots a single plane
    *
-   * @param vertex vertices array of the plane
+   * @param vertex vertex indices of the plane
    * @param verticescount number of vertices to process
    */
-  private final void plotPlane(Graphics g, SurfaceVertex[] vertex, int verticescount) {
+  private final void plotPlane(Graphics g, int[] vertex, int verticescount) {
+    double[] vx = renderer.x, vy = renderer.y, vz = renderer.z;
     int count, loop, index;
     double z, result;
     boolean low1, low2;
@@ -556,12 +534,12 @@ public class SurfacePlot implements Plot2D, False3D {
     count = 0;
     z = 0.0f;
     line_color = Color.black;
-    low1 = (vertex[0].z<zmin);
-    valid1 = !low1&&(vertex[0].z<=zmax);
+    low1 = (vz[vertex[0]]<zmin);
+    valid1 = !low1&&(vz[vertex[0]]<=zmax);
     index = 1;
     for(loop = 0; loop<verticescount; loop++) {
-      low2 = (vertex[index].z<zmin);
-      valid2 = !low2&&(vertex[index].z<=zmax);
+      low2 = (vz[vertex[index]]<zmin);
+      valid2 = !low2&&(vz[vertex[index]]<=zmax);
       if((valid1||valid2)||(low1^low2)) {
         if(!valid1) {
           if(low1) {
@@ -569,9 +547,9 @@ public class SurfacePlot implements Plot2D, False3D {
           } else {
             result = zmax;
           }
-          double ratio = (result-vertex[index].z)/(vertex[loop].z-vertex[index].z);
-          double new_x = ratio*(vertex[loop].x-vertex[index].x)+vertex[index].x;
-          double new_y = ratio*(vertex[loop].y-vertex[index].y)+vertex[index].y;
+          double ratio = (result-vz[vertex[index]])/(vz[vertex[loop]]-vz[vertex[index]]);
+          double new_x = ratio*(vx[vertex[loop]]-vx[vertex[index]])+vx[vertex[index]];
+          double new_y = ratio*(vy[vertex[loop]]-vy[vertex[index]])+vy[vertex[index]];
           if(low1) {
             projection = projector.project(new_x, new_y, -10);
           } else {
@@ -583,20 +561,19 @@ public class SurfacePlot implements Plot2D, False3D {
           z += result;
         }
         if(valid2) {
-          projection = vertex[index].projection();
-          poly_x[count] = projection.x;
-          poly_y[count] = projection.y;
+          poly_x[count] = renderer.px[vertex[index]];
+          poly_y[count] = renderer.py[vertex[index]];
           count++;
-          z += vertex[index].z;
+          z += vz[vertex[index]];
         } else {
           if(low2) {
             result = zmin;
           } else {
             result = zmax;
           }
-          double ratio = (result-vertex[loop].z)/(vertex[index].z-vertex[loop].z);
-          double new_x = ratio*(vertex[index].x-vertex[loop].x)+vertex[loop].x;
-          double new_y = ratio*(vertex[index].y-vertex[loop].y)+vertex[loop].y;
+          double ratio = (result-vz[vertex[loop]])/(vz[vertex[index]]-vz[vertex[loop]]);
+          double new_x = ratio*(vx[vertex[index]]-vx[vertex[loop]])+vx[vertex[loop]];
+          double new_y = ratio*(vy[vertex[index]]-vy[vertex[loop]])+vy[vertex[loop]];
           if(low2) {
             projection = projector.project(new_x, new_y, -10);
           } else {
@@ -615,14 +592,15 @@ public class SurfacePlot implements Plot2D, False3D {
       low1 = low2;
     }
     if(count>0) {
+      int fill;
       switch(plot_mode) {
          case ColorMapper.SPECTRUM :
            z = 0.8f-(z/count-zmin)*color_factor;
-           g.setColor(Color.getHSBColor((float) z, 1.0f, 1.0f));
+           fill = Color.HSBtoRGB((float) z, 1.0f, 1.0f);
            break;
          case ColorMapper.GRAYSCALE :
            z = (z/count-zmin)*color_factor;
-           g.setColor(Color.getHSBColor(0, 0, (float) z));
+           fill = Color.HSBtoRGB(0, 0, (float) z);
            if(z<0.3f) {
              line_color = new Color(0.6f, 0.6f, 0.6f);
            }
@@ -630,32 +608,25 @@ public class SurfacePlot implements Plot2D, False3D {
          case ColorMapper.DUALSHADE :
            z = (z/count-zmin)*color_factor+0.4f;
            // g.setColor (Color.getHSBColor (0.2f, 0.7f, (float) z));
-           g.setColor(Color.getHSBColor((float) (1-z), 0.7f, (float) z));
+           fill = Color.HSBtoRGB((float) (1-z), 0.7f, (float) z);
            break;
          case ColorMapper.RED :
            z = (z/count-zmin)*color_factor+0.4f;
-           g.setColor(Color.getHSBColor(0.0f, 0.7f, (float) z));
+           fill = Color.HSBtoRGB(0.0f, 0.7f, (float) z);
            break;
          case ColorMapper.GREEN :
            z = (z/count-zmin)*color_factor+0.4f;
-           g.setColor(Color.getHSBColor(0.3f, 0.7f, (float) z));
+           fill = Color.HSBtoRGB(0.3f, 0.7f, (float) z);
            break;
          case ColorMapper.BLUE :
            z = (z/count-zmin)*color_factor+0.4f;
-           g.setColor(Color.getHSBColor(0.65f, 0.7f, (float) z));
+           fill = Color.HSBtoRGB(0.65f, 0.7f, (float) z);
            break;
          case ColorMapper.NORENDER :
          default :
-           g.setColor(Color.lightGray);
-      }
-      g.fillPolygon(poly_x, poly_y, count);
-      g.setColor(line_color);
-      if(isMesh) {
-        poly_x[count] = poly_x[0];
-        poly_y[count] = poly_y[0];
-        count++;
-        g.drawPolygon(poly_x, poly_y, count);
+           fill = Color.lightGray.getRGB();
       }
+      renderer.addPolygon(poly_x, poly_y, count, fill, line_color.getRGB(), isMesh);
     }
   }
 
@@ -676,15 +647,15 @@ public class SurfacePlot implements Plot2D, False3D {
     int lx = start_lx;
     int ly = start_ly;
     while(ly!=end_ly) {
-      values1[1] = vertexArray[lx+ly];
-      values1[2] = vertexArray[lx+ly+sy];
+      quad[1] = lx+ly;
+      quad[2] = lx+ly+sy;
       while(lx!=end_lx) {
-        values1[0] = values1[1];
-        values1[1] = vertexArray[lx+sx+ly];
-        values1[3] = values1[2];
-        values1[2] = vertexArray[lx+sx+ly+sy];
-        if(plottable(values1)) {
-          plotPlane(g, values1, 4);
+        quad[0] = quad[1];
+        quad[1] = lx+sx+ly;
+        quad[3] = quad[2];
+        quad[2] = lx+sx+ly+sy;
+        if(plottable(quad)) {
+          plotPlane(g, quad, 4);
         }
         lx += sx;
       }
@@ -1293,8 +1264,7 @@ public class SurfacePlot implements Plot2D, False3D {
     }
     click_x = x;
     click_y = y;
-    invalidProjection = true;
-    drawingPanel.render();
+    drawingPanel.render(); // the projector detects the change so vertices are reprojected
   }
 
   /**
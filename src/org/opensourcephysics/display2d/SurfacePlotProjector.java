@@ -44,6 +44,7 @@ public final class SurfacePlotProjector {
   private double sx_cos, sy_cos, sz_cos;
   private double sx_sin, sy_sin, sz_sin;
   private final double DEGTORAD = Math.PI/180;
+  private int version = 0;                     // incremented whenever the projection changes
 
   /**
    * The constructor of <code>Projector</code>.
@@ -63,6 +64,9 @@ public final class SurfacePlotProjector {
    * @param r the projection area
    */
   public void setProjectionArea(Rectangle r) {
+    if((r.x!=x1)||(r.y!=y1)||(r.x+r.width!=x2)||(r.y+r.height!=y2)) {
+      version++;
+    }
     x1 = r.x;
     x2 = x1+r.width;
     y1 = r.y;
@@ -79,6 +83,7 @@ public final class SurfacePlotProjector {
    * @param angle the rotation angle in degrees
    */
   public void setRotationAngle(double angle) {
+    version++;
     rotation = angle;
     sin_rotation = Math.sin(angle*DEGTORAD);
     cos_rotation = Math.cos(angle*DEGTORAD);
@@ -121,6 +126,7 @@ public final class SurfacePlotProjector {
    * @param angle the elevation angle in degrees
    */
   public void setElevationAngle(double angle) {
+    version++;
     elevation = angle;
     sin_elevation = Math.sin(angle*DEGTORAD);
     cos_elevation = Math.cos(angle*DEGTORAD);
@@ -161,6 +167,7 @@ public final class SurfacePlotProjector {
    * @param new_distance the new distance
    */
   public void setDistance(double new_distance) {
+    version++;
     distance = new_distance;
     factor = distance*_2D_scale;
   }
@@ -180,6 +187,7 @@ public final class SurfacePlotProjector {
    * @param scaling the scaling factor
    */
   public void setXScaling(double scaling) {
+    version++;
     scale_x = scaling;
     sx_cos = -scale_x*cos_rotation;
     sx_sin = -scale_x*sin_rotation;
@@ -200,6 +208,7 @@ public final class SurfacePlotProjector {
    * @param scaling the scaling factor
    */
   public void setYScaling(double scaling) {
+    version++;
     scale_y = scaling;
     sy_cos = -scale_y*cos_rotation;
     sy_sin = scale_y*sin_rotation;
@@ -220,6 +229,7 @@ public final class SurfacePlotProjector {
    * @param scaling the scaling factor
    */
   public void setZScaling(double scaling) {
+    version++;
     scale_z = scaling;
     sz_cos = scale_z*cos_elevation;
     sz_sin = scale_z*sin_elevation;
@@ -242,6 +252,7 @@ public final class SurfacePlotProjector {
    * @param z the scaling factor in z direction
    */
   public void setScaling(double x, double y, double z) {
+    version++;
     scale_x = x;
     scale_y = y;
     scale_z = z;
@@ -259,6 +270,7 @@ public final class SurfacePlotProjector {
    * @param scaling the scaling factor
    */
   public void setScaling(double scaling) {
+    version++;
     scale_x = scale_y = scale_z = scaling;
     sx_cos = -scale_x*cos_rotation;
     sx_sin = -scale_x*sin_rotation;
@@ -274,6 +286,7 @@ public final class SurfacePlotProjector {
    * @param scaling the scaling factor
    */
   public void set2DScaling(double scaling) {
+    version++;
     _2D_scale = scaling;
     factor = distance*_2D_scale;
   }
@@ -294,6 +307,7 @@ public final class SurfacePlotProjector {
    * @param y the y translation
    */
   public void set2DTranslation(int x, int y) {
+    version++;
     _2D_trans_x = x;
     _2D_trans_y = y;
     trans_x = center_x+_2D_trans_x;
@@ -306,6 +320,7 @@ public final class SurfacePlotProjector {
    * @param x the x translation
    */
   public void set2D_xTranslation(int x) {
+    version++;
     _2D_trans_x = x;
     trans_x = center_x+_2D_trans_x;
   }
@@ -325,6 +340,7 @@ public final class SurfacePlotProjector {
    * @param y the y translation
    */
   public void set2D_yTranslation(int y) {
+    version++;
     _2D_trans_y = y;
     trans_y = center_y+_2D_trans_y;
   }
@@ -338,6 +354,15 @@ public final class SurfacePlotProjector {
     return _2D_trans_y;
   }
 
+  /**
+   * Gets a counter that changes whenever the projection changes.
+   *
+   * @return the projection version
+   */
+  int getVersion() {
+    return version;
+  }
+
   /**
    * Projects 3D points.
    *
@@ -356,6 +381,25 @@ public final class SurfacePlotProjector {
     return new Point((int) (Math.round(x*temp)+trans_x), (int) (Math.round((y*sin_elevation+z*sz_cos)*-temp)+trans_y));
   }
 
+  /**
+   * Projects a 3D point and stores the result in the given arrays.
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @param z the z coordinate
+   * @param px the array of projected x values
+   * @param py the array of projected y values
+   * @param index the array index
+   */
+  final void project(double x, double y, double z, int[] px, int[] py, int index) {
+    double temp = x;
+    x = x*sx_cos+y*sy_sin;
+    y = temp*sx_sin+y*sy_cos;
+    temp = factor/(y*cos_elevation-z*sz_sin+distance);
+    px[index] = (int) (Math.round(x*temp)+trans_x);
+    py[index] = (int) (Math.round((y*sin_elevation+z*sz_cos)*-temp)+trans_y);
+  }
+
 }
 
 /*
@@ -0,0 +1,313 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.display2d;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * SurfaceRenderer stores the vertices of a surface plot in primitive arrays, caches their
+ * projection, and rasterizes the plot's polygons into an image buffer.
+ *
+ * Vertices are projected in parallel and only when the data, the z scale, or the projector changes.
+ * Polygons are recorded in drawing order and then filled in parallel horizontal bands; every band
+ * processes the polygons in the same order so that the painter's algorithm is preserved.
+ */
+final class SurfaceRenderer {
+  static final int MIN_BAND_HEIGHT = 16;
+  int n;                     // number of vertices
+  double[] x = new double[0], y = new double[0], z = new double[0];
+  int[] px = new int[0], py = new int[0];
+  private boolean projected = false;
+  private int projectorVersion;
+  private double projectedZmin, projectedZfactor;
+  // polygon display list
+  private int npoly, ncoords;
+  private int[] polyStart = new int[64], polyCount = new int[64], polyFill = new int[64], polyLine = new int[64];
+  private int[] polyMinY = new int[64], polyMaxY = new int[64];
+  private int[] coordX = new int[256], coordY = new int[256];
+  private int minX, maxX, minY, maxY; // bounds of the display list
+  // image buffer
+  private BufferedImage image;
+  private int[] pixels;
+  private int width, height;
+  private int clearMinX, clearMaxX = -1, clearMinY, clearMaxY = -1;
+
+  /**
+   * Sets the number of vertices. The arrays are reallocated if needed.
+   *
+   * @param num the number of vertices
+   */
+  void setVertexCount(int num) {
+    if(x.length!=num) {
+      x = new double[num];
+      y = new double[num];
+      z = new double[num];
+      px = new int[num];
+      py = new int[num];
+    }
+    n = num;
+    projected = false;
+  }
+
+  /**
+   * Sets the coordinates of a vertex. The x and y coordinates must be in the range -10 .. +10.
+   *
+   * @param i the vertex index
+   * @param vx the x coordinate
+   * @param vy the y coordinate
+   * @param vz the z value
+   */
+  void setVertex(int i, double vx, double vy, double vz) {
+    x[i] = vx;
+    y[i] = vy;
+    z[i] = vz;
+    projected = false;
+  }
+
+  /**
+   * Projects the vertices unless the vertices, the z scale, and the projector are unchanged
+   * since the last projection.
+   *
+   * @param projector the projector
+   * @param zmin the z value at the bottom of the box
+   * @param zfactor the factor that scales z values to the box
+   */
+  void project(final SurfacePlotProjector projector, final double zmin, final double zfactor) {
+    if(projected&&(projectorVersion==projector.getVersion())&&(projectedZmin==zmin)&&(projectedZfactor==zfactor)) {
+      return;
+    }
+    ParallelLoop.forRange(n, 4096, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int i = start; i<end; i++) {
+          projector.project(x[i], y[i], (z[i]-zmin)*zfactor-10, px, py, i);
+        }
+      }
+
+    });
+    projected = true;
+    projectorVersion = projector.getVersion();
+    projectedZmin = zmin;
+    projectedZfactor = zfactor;
+  }
+
+  /**
+   * Removes all polygons from the display list.
+   */
+  void clearPolygons() {
+    npoly = ncoords = 0;
+    minX = minY = Integer.MAX_VALUE;
+    maxX = maxY = Integer.MIN_VALUE;
+  }
+
+  /**
+   * Adds a polygon to the display list.
+   *
+   * @param xs the x coordinates
+   * @param ys the y coordinates
+   * @param count the number of vertices
+   * @param fill the fill color as an RGB int
+   * @param line the outline color as an RGB int
+   * @param outline true to draw the outline
+   */
+  void addPolygon(int[] xs, int[] ys, int count, int fill, int line, boolean outline) {
+    if(npoly==polyStart.length) {
+      int size = 2*npoly;
+      polyStart = grow(polyStart, size);
+      polyCount = grow(polyCount, size);
+      polyFill = grow(polyFill, size);
+      polyLine = grow(polyLine, size);
+      polyMinY = grow(polyMinY, size);
+      polyMaxY = grow(polyMaxY, size);
+    }
+    if(ncoords+count>coordX.length) {
+      int size = Math.max(2*coordX.length, ncoords+count);
+      coordX = grow(coordX, size);
+      coordY = grow(coordY, size);
+    }
+    int ymin = Integer.MAX_VALUE, ymax = Integer.MIN_VALUE;
+    for(int i = 0; i<count; i++) {
+      coordX[ncoords+i] = xs[i];
+      coordY[ncoords+i] = ys[i];
+      ymin = Math.min(ymin, ys[i]);
+      ymax = Math.max(ymax, ys[i]);
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+    }
+    minY = Math.min(minY, ymin);
+    maxY = Math.max(maxY, ymax);
+    polyStart[npoly] = ncoords;
+    polyCount[npoly] = count;
+    polyFill[npoly] = 0xFF000000|fill;
+    polyLine[npoly] = outline ? (0xFF000000|line) : 0;
+    polyMinY[npoly] = ymin;
+    polyMaxY[npoly] = ymax;
+    npoly++;
+    ncoords += count;
+  }
+
+  /**
+   * Rasterizes the display list and draws the result.
+   *
+   * @param g the graphics context
+   * @param w the width of the drawing area
+   * @param h the height of the drawing area
+   */
+  void render(Graphics g, int w, int h) {
+    if((w<=0)||(h<=0)) {
+      return;
+    }
+    if((image==null)||(w!=width)||(h!=height)) {
+      width = w;
+      height = h;
+      image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+      pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      clearMaxX = clearMaxY = -1;
+    }
+    // erase the region drawn in the previous frame
+    for(int iy = Math.max(0, clearMinY), my = Math.min(h-1, clearMaxY); iy<=my; iy++) {
+      java.util.Arrays.fill(pixels, iy*w+Math.max(0, clearMinX), iy*w+Math.min(w-1, clearMaxX)+1, 0);
+    }
+    clearMinX = minX;
+    clearMaxX = maxX;
+    clearMinY = minY;
+    clearMaxY = maxY;
+    if(npoly==0) {
+      return;
+    }
+    final int y0 = Math.max(0, minY), y1 = Math.min(h-1, maxY);
+    if(y1<y0) {
+      return;
+    }
+    final int bandHeight = Math.max(MIN_BAND_HEIGHT, (y1-y0+1)/(4*ParallelLoop.getThreadCount())+1);
+    int bands = (y1-y0)/bandHeight+1;
+    ParallelLoop.forRange(bands, 1, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        double[] crossings = new double[16];
+        for(int band = start; band<end; band++) {
+          int top = y0+band*bandHeight, bottom = Math.min(y1, top+bandHeight-1);
+          for(int i = 0; i<npoly; i++) {
+            if((polyMaxY[i]<top)||(polyMinY[i]>bottom)) {
+              continue;
+            }
+            fillPolygon(i, top, bottom, crossings);
+            if(polyLine[i]!=0) {
+              drawOutline(i, top, bottom);
+            }
+          }
+        }
+      }
+
+    });
+    int x0 = Math.max(0, minX), x1 = Math.min(w-1, maxX);
+    if(x1>=x0) {
+      g.drawImage(image, x0, y0, x1+1, y1+1, x0, y0, x1+1, y1+1, null);
+    }
+  }
+
+  /**
+   * Fills the rows top..bottom of a polygon using the even-odd rule at pixel centers.
+   */
+  private void fillPolygon(int poly, int top, int bottom, double[] crossings) {
+    int start = polyStart[poly], count = polyCount[poly], color = polyFill[poly];
+    top = Math.max(top, polyMinY[poly]);
+    bottom = Math.min(bottom, polyMaxY[poly]);
+    for(int row = top; row<=bottom; row++) {
+      double yc = row+0.5;
+      int nc = 0;
+      for(int i = 0, j = count-1; i<count; j = i++) {
+        double yi = coordY[start+i], yj = coordY[start+j];
+        if((yi<=yc)!=(yj<=yc)) {
+          double xi = coordX[start+i], xj = coordX[start+j];
+          double xc = xi+(yc-yi)*(xj-xi)/(yj-yi);
+          int k = nc++;
+          while((k>0)&&(crossings[k-1]>xc)) { // insertion sort; there are few crossings
+            crossings[k] = crossings[k-1];
+            k--;
+          }
+          crossings[k] = xc;
+        }
+      }
+      int offset = row*width;
+      for(int k = 0; k+1<nc; k += 2) {
+        int xa = Math.max(0, (int) Math.ceil(crossings[k]-0.5));
+        int xb = Math.min(width, (int) Math.ceil(crossings[k+1]-0.5));
+        for(int xp = xa; xp<xb; xp++) {
+          pixels[offset+xp] = color;
+        }
+      }
+    }
+  }
+
+  /**
+   * Draws the rows top..bottom of a polygon's outline.
+   */
+  private void drawOutline(int poly, int top, int bottom) {
+    int start = polyStart[poly], count = polyCount[poly], color = polyLine[poly];
+    for(int i = 0, j = count-1; i<count; j = i++) {
+      int xa = coordX[start+j], ya = coordY[start+j], xb = coordX[start+i], yb = coordY[start+i];
+      if((Math.max(ya, yb)<top)||(Math.min(ya, yb)>bottom)) {
+        continue;
+      }
+      // Bresenham's line algorithm
+      int dx = Math.abs(xb-xa), dy = -Math.abs(yb-ya);
+      int sx = (xa<xb) ? 1 : -1, sy = (ya<yb) ? 1 : -1;
+      int err = dx+dy;
+      while(true) {
+        if((ya>=top)&&(ya<=bottom)&&(xa>=0)&&(xa<width)) {
+          pixels[ya*width+xa] = color;
+        }
+        if((xa==xb)&&(ya==yb)) {
+          break;
+        }
+        int e2 = 2*err;
+        if(e2>=dy) {
+          err += dy;
+          xa += sx;
+        }
+        if(e2<=dx) {
+          err += dx;
+          ya += sy;
+        }
+      }
+    }
+  }
+
+  private static int[] grow(int[] array, int size) {
+    int[] newArray = new int[size];
+    System.arraycopy(array, 0, newArray, 0, Math.min(array.length, size));
+    return newArray;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -6,6 +6,7 @@
  */
 
 package org.opensourcephysics.display2d;
+import org.opensourcephysics.numerics.Convolution2D;
 
 /**
  * Utility class for two dimensional visualizations.
@@ -230,6 +231,39 @@ public class Util2D {
     return output;
   }
 
+  /**
+   * Applies a convolution to one component of grid data, leaving the result in the grid.
+   *
+   * ArrayData components are convolved in place.  Other grid data are copied into
+   * a temporary array.
+   *
+   * @param data the grid data
+   * @param component the component
+   * @param convolution a convolution with the same dimensions as the grid
+   */
+  public static void convolve(GridData data, int component, Convolution2D convolution) {
+    int nx = data.getNx(), ny = data.getNy();
+    if((convolution.getNx()!=nx)||(convolution.getNy()!=ny)) {
+      throw new IllegalArgumentException("The convolution is not "+nx+"x"+ny); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    if(data instanceof ArrayData) {
+      convolution.convolve(data.getData()[component]);
+      return;
+    }
+    double[][] values = new double[nx][ny];
+    for(int i = 0; i<nx; i++) {
+      for(int j = 0; j<ny; j++) {
+        values[i][j] = data.getValue(i, j, component);
+      }
+    }
+    convolution.convolve(values);
+    for(int i = 0; i<nx; i++) {
+      for(int j = 0; j<ny; j++) {
+        data.setValue(i, j, component, values[i][j]);
+      }
+    }
+  }
+
 }
 
 /*
@@ -57,6 +57,18 @@ public class GroupControl {
   private Vector<ControlElement> elementList = new Vector<ControlElement>();
   private Vector<ControlElement> updateList = new Vector<ControlElement>();
   GroupVariable methodTriggerVariable = null; // AMAVP (See Note in ControlElement)
+  private boolean deferredUpdate = false;
+  private Vector<GroupVariable> dirtyList = new Vector<GroupVariable>();
+  private boolean updatePending = false;
+  private Runnable updateRunner = new Runnable() {
+    public void run() {
+      synchronized(this) {
+        updatePending = false;
+      }
+      doUpdate();
+    }
+
+  };
 
   /**
    * The default constructor.
@@ -251,6 +263,14 @@ public class GroupControl {
       variable = new GroupVariable(_name, _value);
       variableTable.put(_name, variable);
       // if ((debugLevel & DEBUG_SET_AND_GET)>0) System.out.println("Created <"+_name+"> with value <"+_value+">");
+    } else if(deferredUpdate) {
+      variable.setValue(_value);
+      synchronized(dirtyList) {
+        if(!variable.dirty) { // propagated once in the next update()
+          variable.dirty = true;
+          dirtyList.add(variable);
+        }
+      }
     } else {
       variable.setValue(_value);
       variable.propagateValue(null);
@@ -258,6 +278,45 @@ public class GroupControl {
     }
   }
 
+  /**
+   * Sets the deferred update mode. In this mode setValue() only stores the value
+   * and marks the variable as changed. The next call to update() propagates each
+   * changed variable once to its registered elements, and the refresh of the
+   * elements is done in a single batch in the event dispatch thread.
+   * @param _deferred boolean
+   */
+  public void setDeferredUpdate(boolean _deferred) {
+    if(deferredUpdate&&!_deferred) {
+      propagateDirtyVariables();
+    }
+    deferredUpdate = _deferred;
+  }
+
+  /**
+   * Whether setValue() defers the propagation of values until update().
+   * @return boolean
+   */
+  public boolean isDeferredUpdate() {
+    return deferredUpdate;
+  }
+
+  private void propagateDirtyVariables() {
+    GroupVariable[] changed;
+    synchronized(dirtyList) {
+      if(dirtyList.isEmpty()) {
+        return;
+      }
+      changed = dirtyList.toArray(new GroupVariable[dirtyList.size()]);
+      for(int i = 0; i<changed.length; i++) {
+        changed[i].dirty = false;
+      }
+      dirtyList.clear();
+    }
+    for(int i = 0; i<changed.length; i++) {
+      changed[i].propagateValue(null);
+    }
+  }
+
   /**
    * Returns the group value of a variable.
    * @return the <code>Value</code> object of the variable. If the
@@ -663,6 +722,21 @@ public class GroupControl {
    * Refresh all elements
    */
   public void update() {
+    if(!deferredUpdate||javax.swing.SwingUtilities.isEventDispatchThread()) {
+      doUpdate();
+      return;
+    }
+    synchronized(updateRunner) { // coalesces all updates requested before the event thread gets to them
+      if(updatePending) {
+        return;
+      }
+      updatePending = true;
+    }
+    javax.swing.SwingUtilities.invokeLater(updateRunner);
+  }
+
+  private void doUpdate() {
+    propagateDirtyVariables();
     methodTriggerVariable.propagateValue(null); // AMAVP (See Note in ControlElement)
     // setValue (ControlElement.METHOD_TRIGGER,true);
     // for (Enumeration e=elementList.elements(); e.hasMoreElements(); ) ((ControlElement) e.nextElement()).update();
@@ -685,13 +759,16 @@ public class GroupControl {
    */
   public void clearVariables() {
     variableTable.clear();
+    synchronized(dirtyList) {
+      dirtyList.clear();
+    }
   }
 
   /**
    * Destroy all elements
    */
   public void clear() {
-    variableTable.clear();
+    clearVariables();
     setOwnerFrame(null);
     for(Enumeration<ControlElement> e = elementList.elements(); e.hasMoreElements(); ) {
       ControlElement element = e.nextElement();
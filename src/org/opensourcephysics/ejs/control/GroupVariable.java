@@ -21,6 +21,7 @@ public class GroupVariable {
   private Value value;
   private Vector<Item> elementList;
   private Vector<MethodWithOneParameter> methodList;
+  boolean dirty = false; // set by a GroupControl in deferred update mode
 
   // A GroupVariable should be created with a non-null value
   // that matches the type it is going to be used.
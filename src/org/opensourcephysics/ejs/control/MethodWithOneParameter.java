@@ -7,6 +7,8 @@
 
 package org.opensourcephysics.ejs.control;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 import org.opensourcephysics.ejs.control.value.BooleanValue;
 import org.opensourcephysics.ejs.control.value.DoubleValue;
 import org.opensourcephysics.ejs.control.value.IntegerValue;
@@ -17,6 +19,19 @@ import org.opensourcephysics.ejs.control.value.Value;
  * A class to store and invoke methods using reflection.
  */
 public class MethodWithOneParameter {
+  static private final int RETURN_VOID = 0;
+  static private final int RETURN_DOUBLE = 1;
+  static private final int RETURN_INT = 2;
+  static private final int RETURN_BOOLEAN = 3;
+  static private final int RETURN_STRING = 4;
+  // resolved methods, per target class and signature; a null method records that none fits.
+  // ClassValue does not keep the target classes (or their class loaders) from being unloaded.
+  static private final ClassValue<Map<String, Method>> methodCache = new ClassValue<Map<String, Method>>() {
+    protected Map<String, Method> computeValue(Class<?> type) {
+      return new HashMap<String, Method>();
+    }
+
+  };
   private String methodName;
   private int methodType;
   private Object targetObject = null;
@@ -24,6 +39,7 @@ public class MethodWithOneParameter {
   private Method methodToCall;
   private MethodWithOneParameter secondMethod = null;
   private Value returnValue = null; // AMAVP (See Note in ControlElement)
+  private int returnKind = RETURN_VOID;
 
   /**
    * Equivalent to MethodWithOneParameter (_type, _target, _name, null);
@@ -94,13 +110,17 @@ public class MethodWithOneParameter {
       _returnType = _returnType.trim().toLowerCase();
       if(_returnType.equals("double")) {                  //$NON-NLS-1$
         returnValue = new DoubleValue(0.0);
+        returnKind = RETURN_DOUBLE;
         // else if (_returnType.equals("byte"))    returnValue = new IntegerValue(0);
       } else if(_returnType.equals("int")) {              //$NON-NLS-1$
         returnValue = new IntegerValue(0);
+        returnKind = RETURN_INT;
       } else if(_returnType.equals("string")) {           //$NON-NLS-1$
         returnValue = new StringValue("");                //$NON-NLS-1$
+        returnKind = RETURN_STRING;
       } else if(_returnType.equals("boolean")) {          //$NON-NLS-1$
         returnValue = new BooleanValue(false);
+        returnKind = RETURN_BOOLEAN;
       } else {
         returnValue = null;                               // return type is void
       }
@@ -113,16 +133,22 @@ public class MethodWithOneParameter {
     }
     // System.out.println ("Invoking method "+this.methodName+" with Value "+parameterList);
     try {
-      if(returnValue==null) { // void return type
-        methodToCall.invoke(targetObject, parameterList);
-      } else if(returnValue instanceof DoubleValue) {
-        ((DoubleValue) returnValue).value = ((Double) methodToCall.invoke(targetObject, parameterList)).doubleValue();
-      } else if(returnValue instanceof IntegerValue) {
-        ((IntegerValue) returnValue).value = ((Integer) methodToCall.invoke(targetObject, parameterList)).intValue();
-      } else if(returnValue instanceof BooleanValue) {
-        ((BooleanValue) returnValue).value = ((Boolean) methodToCall.invoke(targetObject, parameterList)).booleanValue();
-      } else if(returnValue instanceof StringValue) {
-        ((StringValue) returnValue).value = methodToCall.invoke(targetObject, parameterList).toString();
+      // the return kind is fixed at bind time so no type tests are needed here
+      switch(returnKind) {
+         case RETURN_DOUBLE :
+           ((DoubleValue) returnValue).value = ((Number) methodToCall.invoke(targetObject, parameterList)).doubleValue();
+           break;
+         case RETURN_INT :
+           ((IntegerValue) returnValue).value = ((Number) methodToCall.invoke(targetObject, parameterList)).intValue();
+           break;
+         case RETURN_BOOLEAN :
+           ((BooleanValue) returnValue).value = ((Boolean) methodToCall.invoke(targetObject, parameterList)).booleanValue();
+           break;
+         case RETURN_STRING :
+           ((StringValue) returnValue).value = methodToCall.invoke(targetObject, parameterList).toString();
+           break;
+         default :                                        // void return type
+           methodToCall.invoke(targetObject, parameterList);
       }
       if(secondMethod!=null) {
         secondMethod.invoke(_type, _callingObject);
@@ -148,8 +174,34 @@ public class MethodWithOneParameter {
     return methodName;
   }
 
+  /**
+   * Finds a public method of the target with the given name that accepts the given parameter classes.
+   * Resolved methods are cached per class, so binding many controls to the same model is fast.
+   * @param _target Object
+   * @param _name String
+   * @param _classList Class[]
+   * @return Method the method or null if none fits
+   */
   static public Method resolveMethod(Object _target, String _name, Class<?>[] _classList) {
-    java.lang.reflect.Method[] allMethods = _target.getClass().getMethods();
+    Class<?> targetClass = _target.getClass();
+    StringBuffer key = new StringBuffer(_name);
+    for(int i = 0; i<_classList.length; i++) {
+      key.append(',').append(_classList[i].getName());
+    }
+    String signature = key.toString();
+    Map<String, Method> classMethods = methodCache.get(targetClass);
+    synchronized(classMethods) {
+      if(classMethods.containsKey(signature)) {
+        return classMethods.get(signature);
+      }
+      Method method = findMethod(targetClass, _name, _classList);
+      classMethods.put(signature, method);
+      return method;
+    }
+  }
+
+  static private Method findMethod(Class<?> _targetClass, String _name, Class<?>[] _classList) {
+    java.lang.reflect.Method[] allMethods = _targetClass.getMethods();
     for(int i = 0; i<allMethods.length; i++) {
       if(!allMethods[i].getName().equals(_name)) {
         continue;
@@ -166,6 +218,11 @@ public class MethodWithOneParameter {
         }
       }
       if(fits) {
+        try { // skips the access check on every invocation; also allows public methods of non-public classes
+          allMethods[i].setAccessible(true);
+        } catch(RuntimeException ex) {
+          // not allowed; invoke with access checks
+        }
         return allMethods[i];
       }
     }
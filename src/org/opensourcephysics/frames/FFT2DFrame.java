@@ -29,6 +29,7 @@ import org.opensourcephysics.display2d.GridData;
 import org.opensourcephysics.display2d.Plot2D;
 import org.opensourcephysics.display2d.SurfacePlotMouseController;
 import org.opensourcephysics.numerics.FFT2D;
+import org.opensourcephysics.numerics.FFTReal2D;
 
 /**
  * FFT2DFrame computes a 2D FFT and displays the result as a complex grid plot.
@@ -47,6 +48,8 @@ public class FFT2DFrame extends DrawingFrame {
   GridData gridData;
   FFT2D fft;
   double[] fftData;
+  FFTReal2D realFFT;     // transforms real data
+  double[] realSpectrum; // half spectrum of real data
   Plot2D plot = new ComplexGridPlot(null);
   // Plot2D plot = new ComplexInterpolatedPlot(null);
 
@@ -219,8 +222,9 @@ public class FFT2DFrame extends DrawingFrame {
    * @param ymax double
    */
   private void resizeGrid(int nx, int ny) {
-    fftData = new double[2*nx*ny];
-    fft = new FFT2D(nx, ny);
+    fftData = null; // transforms are created when first used
+    fft = null;
+    realFFT = null;
     gridData = new ArrayData(nx, ny, 3); // a grid with three data components
     plot.setGridData(gridData);
     plot.update();
@@ -300,23 +304,26 @@ public class FFT2DFrame extends DrawingFrame {
     if((data[0].length!=nx)||(data[0][0].length!=ny)) {
       throw new IllegalArgumentException("Grid does not have the correct size."); //$NON-NLS-1$
     }
+    if(fft==null) {
+      fftData = new double[2*nx*ny];
+      fft = new FFT2D(nx, ny);
+    }
     double[][] reData = data[0];
     double[][] imData = data[1];
     int offX = (int) (nx*xmin/(xmax-xmin));
     offX = Math.abs(offX);
     int offY = (int) (ny*ymin/(ymax-ymin));
     offY = Math.abs(offY);
-    for(int i = 0; i<nx; i++) {
+    for(int i = 0; i<nx; i++) { // x rows of ny points
       int ii = (offX+i)%nx;
-      int offset = 2*ii*nx;
+      int offset = 2*ii*ny;
       for(int j = 0; j<ny; j++) {
-        int jj = (offX+j)%ny;
+        int jj = (offY+j)%ny;
         fftData[offset+2*jj] = reData[i][j];
         fftData[offset+2*jj+1] = imData[i][j];
       }
     }
     fft.transform(fftData);
-    fft.toNaturalOrder(fftData);
     // double[] fx= fft.getNaturalOmegaX(xmin,xmax);
     // double[] fy= fft.getNaturalOmegaY(ymin,ymax);
     // gridData.setCellScale(fx[0], fx[nx-1],fy[0], fy[ny-1] );
@@ -340,7 +347,7 @@ public class FFT2DFrame extends DrawingFrame {
          break;
     }
     gridData.setCenteredCellScale(a1, a2, b2, b1);
-    fillGrid(nx, ny, fftData);
+    fillGrid(nx, ny, fftData, false);
     plot.update();
     drawingPanel.invalidateImage();
     drawingPanel.repaint();
@@ -369,14 +376,16 @@ public class FFT2DFrame extends DrawingFrame {
     if(data.length!=2*nx*ny) {
       throw new IllegalArgumentException("Grid does not have the correct size."); //$NON-NLS-1$
     }
+    double[] fftData = new double[2*nx*ny];
+    FFT2D fft = new FFT2D(ny, nx); // y rows of nx points
     int offX = (int) (nx*xmin/(xmax-xmin));
     offX = Math.abs(offX);
     int offY = (int) (ny*ymin/(ymax-ymin));
     offY = Math.abs(offY);
-    for(int j = 0; j<ny; j++) {
+    for(int j = 0; j<ny; j++) { // y rows of nx points
       int jj = (offY+j)%ny;
-      int offset = 2*j*nx;
-      int offset2 = 2*jj*nx;
+      int offset = 2*jj*nx;
+      int offset2 = 2*j*nx;
       for(int i = 0; i<nx; i++) {
         int ii = (offX+i)%nx;
         fftData[offset+2*ii] = data[offset2+2*i];
@@ -384,7 +393,6 @@ public class FFT2DFrame extends DrawingFrame {
       }
     }
     fft.transform(fftData);
-    fft.toNaturalOrder(fftData);
     // double[] fx= fft.getNaturalModes(nx);
     // double[] fy= fft.getNaturalModes(ny);
     // gridData.setCellScale(fx[0], fx[nx-1], fy[ny-1],fy[0] );
@@ -408,7 +416,57 @@ public class FFT2DFrame extends DrawingFrame {
          break;
     }
     gridData.setCenteredCellScale(a1, a2, b2, b1);
-    fillGrid(nx, ny, fftData);
+    fillGrid(nx, ny, fftData, true);
+    plot.update();
+    drawingPanel.invalidateImage();
+    drawingPanel.repaint();
+  }
+
+  /**
+   * Does an FFT of the given real data array and repaints the panel.
+   *
+   * Only half of the spectrum of real data is computed because the other half is
+   * its complex conjugate.
+   *
+   * @param data double[][] real field values, data[nx][ny]
+   * @param xmin double
+   * @param xmax double
+   * @param ymin double
+   * @param ymax double
+   */
+  public void doFFT(double[][] data, double xmin, double xmax, double ymin, double ymax) {
+    int nx = data.length, ny = data[0].length;
+    if((gridData==null)||(gridData.getNx()!=nx)||(gridData.getNy()!=ny)) {
+      resizeGrid(nx, ny);
+    }
+    if(realFFT==null) {
+      realFFT = new FFTReal2D(nx, ny);
+      realSpectrum = new double[realFFT.getSpectrumLength()];
+    }
+    realFFT.transform(data, realSpectrum);
+    double a1 = -nx/2, a2 = (nx+1)/2-1, b1 = -ny/2, b2 = (ny+1)/2-1;
+    switch(domainType) {
+       case MODE :
+         break;
+       case FREQ :
+         a2 = realFFT.getFreqMax(xmin, xmax, nx);
+         a1 = realFFT.getFreqMin(xmin, xmax, nx);
+         b2 = realFFT.getFreqMax(ymin, ymax, ny);
+         b1 = realFFT.getFreqMin(ymin, ymax, ny);
+         break;
+       case OMEGA :
+       case MOMENTUM :
+       case WAVENUMBER :
+         a2 = PI2*realFFT.getFreqMax(xmin, xmax, nx);
+         a1 = PI2*realFFT.getFreqMin(xmin, xmax, nx);
+         b2 = PI2*realFFT.getFreqMax(ymin, ymax, ny);
+         b1 = PI2*realFFT.getFreqMin(ymin, ymax, ny);
+         break;
+    }
+    gridData.setCenteredCellScale(a1, a2, b2, b1);
+    int offX = Math.abs((int) (nx*xmin/(xmax-xmin)));
+    int offY = Math.abs((int) (ny*ymin/(ymax-ymin)));
+    fillGrid(nx, ny, realSpectrum, offX, offY);
     plot.update();
     drawingPanel.invalidateImage();
     drawingPanel.repaint();
@@ -449,15 +507,58 @@ public class FFT2DFrame extends DrawingFrame {
     return list;
   }
 
-  private void fillGrid(int nx, int ny, double[] vals) {
+  /**
+   * Fills the grid in natural order from the half spectrum of real data.
+   * The spectrum is shifted so that the origin is offX and offY points from the first data point.
+   */
+  private void fillGrid(int nx, int ny, double[] spectrum, int offX, int offY) {
+    double[][] mag = gridData.getData()[0];
+    double[][] reData = gridData.getData()[1];
+    double[][] imData = gridData.getData()[2];
+    int rowspan = 2*(ny/2+1);
+    double norm = 1.0/((double) nx*ny);
+    for(int i = 0; i<nx; i++) {
+      int p = (i-nx/2+nx)%nx; // wrap-around index
+      for(int j = 0; j<ny; j++) {
+        int q = (j-ny/2+ny)%ny;
+        double re, im;
+        if(2*q<=ny) {
+          re = spectrum[p*rowspan+2*q];
+          im = spectrum[p*rowspan+2*q+1];
+        } else { // conjugate of the stored half
+          int offset = ((nx-p)%nx)*rowspan+2*(ny-q);
+          re = spectrum[offset];
+          im = -spectrum[offset+1];
+        }
+        double phase = -PI2*((double) p*offX/nx+(double) q*offY/ny);
+        double cos = Math.cos(phase), sin = Math.sin(phase);
+        double r = norm*(re*cos-im*sin);
+        im = norm*(re*sin+im*cos);
+        mag[i][j] = Math.sqrt(r*r+im*im);
+        reData[i][j] = r;
+        imData[i][j] = im;
+      }
+    }
+  }
+
+  /**
+   * Fills the grid in natural order from a complex spectrum in wrap-around order.
+   * The grid point [i][j] holds the mode (i-nx/2, j-ny/2) for every transform.
+   *
+   * @param yRows true if the spectrum has ny rows of nx points, false if it has nx rows of ny points
+   */
+  private void fillGrid(int nx, int ny, double[] vals, boolean yRows) {
     double[][] mag = gridData.getData()[0]; // magnitude maps to intensity
     double[][] reData = gridData.getData()[1];
     double[][] imData = gridData.getData()[2];
-    for(int j = 0; j<ny; j++) {
-      int offset = 2*j*nx;
-      for(int i = 0; i<nx; i++) {
-        double re = vals[offset+2*i];
-        double im = vals[offset+2*i+1];
+    double norm = 1.0/((double) nx*ny);
+    for(int i = 0; i<nx; i++) {
+      int p = (i-nx/2+nx)%nx; // wrap-around index
+      for(int j = 0; j<ny; j++) {
+        int q = (j-ny/2+ny)%ny;
+        int offset = yRows ? 2*(q*nx+p) : 2*(p*ny+q);
+        double re = norm*vals[offset];
+        double im = norm*vals[offset+1];
         mag[i][j] = Math.sqrt(re*re+im*im);
         reData[i][j] = re;
         imData[i][j] = im;
@@ -104,7 +104,8 @@ public class PerspectiveFilter extends Filter {
   private double[][] matrix = new double[3][3]; // perspective transform matrix
   private double[][] temp1 = new double[3][3]; // intermediate matrix
   private double[][] temp2 = new double[3][3]; // intermediate matrix
-  private double[] xOut, yOut, xIn, yIn; // pixel positions on input and output images
+  private RemapTable table; // maps output pixels to input pixels
+  private double[] tableMatrix = new double[9]; // the transform used to build the table
   private int interpolation = 2; // neighborhood size for color interpolation
   private Quadrilateral quad;
   private QuadEditor inputEditor, outputEditor;
@@ -402,17 +403,8 @@ public class PerspectiveFilter extends Filter {
     output = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
     pixelsIn = new int[w*h];
     pixelsOut = new int[w*h];    
-    xIn = new double[w*h];
-    yIn = new double[w*h];
-    // output positions are integer pixels
-    xOut = new double[w*h];
-    yOut = new double[w*h];    
-    for (int i=0; i<w; i++) {
-    	for (int j=0; j<h; j++) {
-    		xOut[j*w+i] = i;
-    		yOut[j*w+i] = j;
-    	}
-    }
+    table = new RemapTable(w, h, w, h);
+    tableMatrix[8] = Double.NaN; // forces the table to be built
     if(source.getType()==BufferedImage.TYPE_INT_RGB) {
       input = source;
     } else {
@@ -459,103 +451,40 @@ public class PerspectiveFilter extends Filter {
     // concatenate temp2 to temp1 to obtain transform matrix output->input
     concatenate(temp1, temp2);
     
-    // transform the output (pixel) positions to input positions
-    transform(xOut, yOut, xIn, yIn);
+    // map the output (pixel) positions to input positions if the transform has changed
+    boolean changed = false;
+    for (int i=0; i<9; i++) {
+    	changed = changed || tableMatrix[i]!=matrix[i/3][i%3];
+    	tableMatrix[i] = matrix[i/3][i%3];
+    }
+    if (changed) transform();
     
     // find output pixel values by interpolating input pixels
-    for (int i=0; i<pixelsOut.length; i++) {
-    	pixelsOut[i] = getColor(xIn[i], yIn[i], w, h, pixelsIn);
-    }
+    table.apply(pixelsIn, pixelsOut);
   	output.getRaster().setDataElements(0, 0, w, h, pixelsOut);
   }
   
   /**
-   * Transforms arrays of position coordinates using the current transform matrix.
-   * 
-   * @param xSource array of source x-coordinates
-   * @param ySource array of source y-coordinates
-   * @param xTrans array of transformed x-coordinates
-   * @param yTrans array of transformed y-coordinates
+   * Maps the output pixel positions to input positions in the remap table
+   * using the current transform matrix.
    */
-  private void transform(double[] xSource, double[] ySource, 
-  		double[] xTrans, double[] yTrans) {
-  	int n = xSource.length;
-  	for (int i=0; i<n; i++) {
-	    double w = matrix[2][0]*xSource[i] + matrix[2][1]*ySource[i] + matrix[2][2];
-	    if (w==0) {
-	    	xTrans[i] = xSource[i];
-	    	yTrans[i] = ySource[i];
-	    }
-	    else {
-	    	xTrans[i] = (matrix[0][0]*xSource[i] + matrix[0][1]*ySource[i] + matrix[0][2])/w;
-	    	yTrans[i] = (matrix[1][0]*xSource[i] + matrix[1][1]*ySource[i] + matrix[1][2])/w;
-	    }
-  	}
-  }
-  
-  /**
-   * Get the interpolated color at a non-integer position (between pixels points).
-   * 
-   * @param x the x-coordinate of the position
-   * @param y the y-coordinate of the position
-   * @param w the width of the image
-   * @param h the height of the image
-   * @param pixelValues the color values of the pixels in the image
-   */
-  private int getColor(double x, double y, int w, int h, int[] pixelValues) {
-  	// get base pixel position
-  	int col = (int)Math.floor(x);
-  	int row = (int)Math.floor(y);
-  	
-  	if (col<0 || col>=w || row<0 || row>=h) {
-  		return 0;  // black if not in image
-  	}
-  	if (col+1==w || row+1==h) {
-  		return pixelValues[row*w+col];
-  	}
-  	  	
-		double u = col==0? x: x%col;
-		double v = row==0? y: y%row;
-
-  	if (interpolation==2) {
-    	// get 2x2 neighborhood pixel values
-  		int[] values = new int[] {pixelValues[row*w+col], pixelValues[row*w+col+1], 
-  				pixelValues[(row+1)*w+col], pixelValues[(row+1)*w+col+1]};
-  		
-      int[] rgb = new int[4];
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j]>>16)&0xff; // red
-      }
-      int r = bilinearInterpolation(u, v, rgb);
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j]>>8)&0xff;  // green
-      }
-      int g = bilinearInterpolation(u, v, rgb);
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j])&0xff;     // blue
-      }
-      int b = bilinearInterpolation(u, v, rgb);
-      return (r<<16)|(g<<8)|b;
-  	}
-  	
-		// if not interpolating, return value of nearest neighbor  		
-  	return u<0.5? v<0.5? pixelValues[row*w+col]: pixelValues[(row+1)*w+col]:
-			v<0.5? pixelValues[row*w+col+1]: pixelValues[(row+1)*w+col+1];
-  }
-  
-  /**
-   * Returns a bilinear interpolated pixel color (int value) at a given point relative to (0,0).
-   * 
-   * @param x the x-position relative to 0,0 (0<=x<1)
-   * @param x the y-position relative to 0,0 (0<=y<1)
-   * @param values array of pixels color values [value(0,0), value(1,0), value(0,1), value(1,1)]
-   * @return the interpolated color value 
-   */
-  private int bilinearInterpolation(double x, double y, int[] values) {
-  	return (int)((1-y)*((1-x)*values[0] + x*values[1]) + y*((1-x)*values[2] + x*values[3]));  	
+  private void transform() {
+  	final double[] m = tableMatrix.clone();
+    table.build(new RemapTable.Mapping() {
+    	public void map(int x, int y, double[] source) {
+  	    double w = m[6]*x + m[7]*y + m[8];
+  	    if (w==0) {
+  	    	source[0] = x;
+  	    	source[1] = y;
+  	    }
+  	    else {
+  	    	source[0] = (m[0]*x + m[1]*y + m[2])/w;
+  	    	source[1] = (m[3]*x + m[4]*y + m[5])/w;
+  	    }
+    	}
+    }, interpolation==2);
   }
   
-
   /**
    * Creates a transform matrix to map a unit square onto a quadrilateral.
    *
@@ -107,7 +107,7 @@ public class RadialDistortionFilter extends Filter {
   
   // instance fields
   private int[] pixelsIn, pixelsOut; // pixel color values
-  private double[] xOut, yOut, xIn, yIn; // pixel positions on input and output images
+  private RemapTable table; // maps output pixels to input pixels
   private double pixelsToCorner; // half image diagonal in pixels
   private boolean isValidTransform = false, updatingDisplay = false;
   private double outputFOV;
@@ -320,17 +320,7 @@ public class RadialDistortionFilter extends Filter {
     output = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
     pixelsIn = new int[w*h];
     pixelsOut = new int[w*h];    
-    xIn = new double[w*h];
-    yIn = new double[w*h];
-    // output positions are integer pixel positions
-    xOut = new double[w*h];
-    yOut = new double[w*h];    
-    for (int i=0; i<w; i++) {
-    	for (int j=0; j<h; j++) {
-    		xOut[j*w+i] = i;
-    		yOut[j*w+i] = j;
-    	}
-    }
+    table = new RemapTable(w, h, w, h);
     if(source.getType()==BufferedImage.TYPE_INT_RGB) {
       input = source;
     } else {
@@ -347,41 +337,33 @@ public class RadialDistortionFilter extends Filter {
    */
   private void setOutputToTransformed(BufferedImage image) {
     // if needed, map the output (corrected) pixel positions to input pixel positions
-  	if (!isValidTransform) transform(xOut, yOut, xIn, yIn);    
+  	if (!isValidTransform) transform();    
     
     // find output pixel color values by interpolating input pixel colors
     image.getRaster().getDataElements(0, 0, w, h, pixelsIn);
-    for (int i=0; i<pixelsOut.length; i++) {
-    	pixelsOut[i] = getColor(xIn[i], yIn[i], w, h, pixelsIn);
-    }
+    table.apply(pixelsIn, pixelsOut);
   	output.getRaster().setDataElements(0, 0, w, h, pixelsOut);
   }
   
   /**
-   * Transforms arrays of pixel position coordinates for source to output conversion.
-   * 
-   * @param xSource array of source x-coordinates
-   * @param ySource array of source y-coordinates
-   * @param xTrans array of transformed x-coordinates
-   * @param yTrans array of transformed y-coordinates
+   * Maps the output pixel positions to source positions in the remap table.
    */
-  private void transform(double[] xSource, double[] ySource, 
-  		double[] xTrans, double[] yTrans) {
+  private void transform() {
   	
     refreshScale();
-    double xCenter = w/2.0, yCenter = h/2.0;
-  	
-  	int n = xSource.length;
-  	for (int i=0; i<n; i++) {
-  		double dx = xSource[i]-xCenter;
-  		double dy = ySource[i]-yCenter;
-	  	double r = Math.sqrt(dx*dx + dy*dy);
-	  	
-	  	double stretch = getStretchFactor(r);
-	  	double extra = 0.0001;
-    	xTrans[i] = xCenter + stretch*dx+extra;
-    	yTrans[i] = yCenter + stretch*dy+extra;
-  	}
+    final double xCenter = w/2.0, yCenter = h/2.0;
+    table.build(new RemapTable.Mapping() {
+    	public void map(int x, int y, double[] source) {
+    		double dx = x-xCenter;
+    		double dy = y-yCenter;
+  	  	double r = Math.sqrt(dx*dx + dy*dy);
+  	  	
+  	  	double stretch = getStretchFactor(r);
+  	  	double extra = 0.0001;
+      	source[0] = xCenter + stretch*dx+extra;
+      	source[1] = yCenter + stretch*dy+extra;
+    	}
+    }, interpolation==2);
 
   	isValidTransform = true;
   }
@@ -566,67 +548,6 @@ public class RadialDistortionFilter extends Filter {
   	return rSource/rOut;
   }
   
-  /**
-   * Get the interpolated color at a non-integer position (between pixels points).
-   * 
-   * @param x the x-coordinate of the position
-   * @param y the y-coordinate of the position
-   * @param w the width of the image
-   * @param h the height of the image
-   * @param pixelValues the color values of the pixels in the image
-   */
-  private int getColor(double x, double y, int w, int h, int[] pixelValues) {
-  	// get base pixel position
-  	int col = (int)Math.floor(x);
-  	int row = (int)Math.floor(y);
-  	if (col<0 || col>=w || row<0 || row>=h) {
-  		return 0;  // black if not in image
-  	}
-  	if (col+1==w || row+1==h) {
-  		return pixelValues[row*w+col];
-  	}
-  	  	
-		double u = col==0? x: x%col;
-		double v = row==0? y: y%row;
-
-  	if (interpolation==2) {
-    	// get 2x2 neighborhood pixel values
-  		int[] values = new int[] {pixelValues[row*w+col], pixelValues[row*w+col+1], 
-  				pixelValues[(row+1)*w+col], pixelValues[(row+1)*w+col+1]};
-  		
-      int[] rgb = new int[4];
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j]>>16)&0xff; // red
-      }
-      int r = bilinearInterpolation(u, v, rgb);
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j]>>8)&0xff;  // green
-      }
-      int g = bilinearInterpolation(u, v, rgb);
-      for (int j=0; j<4; j++) {
-      	rgb[j] = (values[j])&0xff;     // blue
-      }
-      int b = bilinearInterpolation(u, v, rgb);
-      return (r<<16)|(g<<8)|b;
-  	}
-  	
-		// if not interpolating, return value of nearest neighbor  		
-		return u<0.5? v<0.5? pixelValues[row*w+col]: pixelValues[(row+1)*w+col]:
-			v<0.5? pixelValues[row*w+col+1]: pixelValues[(row+1)*w+col+1];
-  }
-  
-  /**
-   * Returns a bilinear interpolated pixel color (int value) at a given point relative to (0,0).
-   * 
-   * @param x the x-position relative to 0,0 (0<=x<1)
-   * @param x the y-position relative to 0,0 (0<=y<1)
-   * @param values array of pixels color values [value(0,0), value(1,0), value(0,1), value(1,1)]
-   * @return the interpolated color value 
-   */
-  private int bilinearInterpolation(double x, double y, int[] values) {
-  		return (int)((1-y)*((1-x)*values[0] + x*values[1]) + y*((1-x)*values[2] + x*values[3]));  	
-  }
-  
   /**
    * Inner Inspector class to control filter parameters
    */
@@ -0,0 +1,220 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+/*
+ * The org.opensourcephysics.media.core package defines the Open Source Physics
+ * media framework for working with video and other media.
+ *
+ * Copyright (c) 2019  Douglas Brown and Wolfgang Christian.
+ *
+ * This is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * For additional information and documentation on Open Source Physics,
+ * please see <https://www.compadre.org/osp/>.
+ */
+package org.opensourcephysics.media.core;
+
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * A RemapTable is a precomputed geometric warp shared by the geometric filters.
+ * For every output pixel it stores the index of the source pixel and 8-bit fixed-point
+ * bilinear weights, so a frame is warped by a parallel gather over bands of rows.
+ * The table is rebuilt only when the filter's parameters change.
+ *
+ * Pixels are TYPE_INT_RGB values.  Output pixels that map outside the source are black.
+ *
+ */
+public class RemapTable {
+
+  /**
+   * A Mapping gives the source position of an output pixel.
+   * Mappings are called from several threads and must not change shared state.
+   */
+  public interface Mapping {
+    /**
+     * Maps an output pixel to a source position in pixel units.
+     *
+     * @param x the output column
+     * @param y the output row
+     * @param source array that receives the source x and y
+     */
+    public void map(int x, int y, double[] source);
+
+  }
+
+  private int sourceWidth, sourceHeight, width, height;
+  private int[] index;    // source pixel index or -1
+  private char[] weights; // x weight in the low byte, y weight in the high byte
+
+  /**
+   * Constructs a RemapTable.
+   *
+   * @param sourceWidth the width of the source image
+   * @param sourceHeight the height of the source image
+   * @param width the width of the output image
+   * @param height the height of the output image
+   */
+  public RemapTable(int sourceWidth, int sourceHeight, int width, int height) {
+    this.sourceWidth = sourceWidth;
+    this.sourceHeight = sourceHeight;
+    this.width = width;
+    this.height = height;
+    index = new int[width*height];
+    weights = new char[width*height];
+  }
+
+  /**
+   * Determines if this table has the given dimensions.
+   *
+   * @param sourceWidth the width of the source image
+   * @param sourceHeight the height of the source image
+   * @param width the width of the output image
+   * @param height the height of the output image
+   * @return true if the dimensions match
+   */
+  public boolean matches(int sourceWidth, int sourceHeight, int width, int height) {
+    return (this.sourceWidth==sourceWidth)&&(this.sourceHeight==sourceHeight)&&(this.width==width)&&(this.height==height);
+  }
+
+  /**
+   * Fills the table from a mapping.  Without interpolation the nearest source pixel is used.
+   * Pixels in the last source row or column are never interpolated.
+   *
+   * @param mapping the mapping
+   * @param interpolate true for bilinear interpolation
+   */
+  public void build(final Mapping mapping, final boolean interpolate) {
+    ParallelLoop.forRange(height, 16, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        double[] pt = new double[2];
+        for(int y = start; y<end; y++) {
+          for(int x = 0, i = y*width; x<width; x++, i++) {
+            mapping.map(x, y, pt);
+            set(i, pt[0], pt[1], interpolate);
+          }
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Sets the source of an output pixel.
+   */
+  private void set(int i, double x, double y, boolean interpolate) {
+    weights[i] = 0;
+    if(Double.isNaN(x)||Double.isNaN(y)) {
+      index[i] = -1;
+      return;
+    }
+    double fx = Math.floor(x), fy = Math.floor(y);
+    if((fx<0)||(fx>=sourceWidth)||(fy<0)||(fy>=sourceHeight)) {
+      index[i] = -1; // black if not in image
+      return;
+    }
+    int col = (int) fx, row = (int) fy;
+    if((col+1==sourceWidth)||(row+1==sourceHeight)) {
+      index[i] = row*sourceWidth+col;
+      return;
+    }
+    double u = x-col, v = y-row;
+    if(interpolate) {
+      index[i] = row*sourceWidth+col;
+      weights[i] = (char) (Math.min(255, (int) (u*256))|(Math.min(255, (int) (v*256))<<8));
+    } else { // nearest neighbor
+      index[i] = ((v<0.5) ? row : row+1)*sourceWidth+((u<0.5) ? col : col+1);
+    }
+  }
+
+  /**
+   * Sets an output pixel to an exact copy of a source pixel.
+   *
+   * @param outputIndex the index of the output pixel
+   * @param sourceIndex the index of the source pixel, or -1 for black
+   */
+  public void setSource(int outputIndex, int sourceIndex) {
+    index[outputIndex] = sourceIndex;
+    weights[outputIndex] = 0;
+  }
+
+  /**
+   * Warps source pixels into output pixels.
+   *
+   * @param source the source pixels
+   * @param output the output pixels
+   */
+  public void apply(final int[] source, final int[] output) {
+    ParallelLoop.forRange(height, 16, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        int sw = sourceWidth;
+        for(int i = start*width, last = end*width; i<last; i++) {
+          int k = index[i];
+          if(k<0) {
+            output[i] = 0;
+            continue;
+          }
+          int f = weights[i];
+          if(f==0) {
+            output[i] = source[k];
+            continue;
+          }
+          int fx = f&0xff, fy = f>>8;
+          int p00 = source[k], p01 = source[k+1], p10 = source[k+sw], p11 = source[k+sw+1];
+          // red and blue are blended together, green separately
+          int rb0 = ((p00&0xff00ff)*(256-fx)+(p01&0xff00ff)*fx)>>>8&0xff00ff;
+          int rb1 = ((p10&0xff00ff)*(256-fx)+(p11&0xff00ff)*fx)>>>8&0xff00ff;
+          int g0 = ((p00&0xff00)*(256-fx)+(p01&0xff00)*fx)>>>8&0xff00;
+          int g1 = ((p10&0xff00)*(256-fx)+(p11&0xff00)*fx)>>>8&0xff00;
+          int rb = (rb0*(256-fy)+rb1*fy)>>>8&0xff00ff;
+          int g = (g0*(256-fy)+g1*fy)>>>8&0xff00;
+          output[i] = rb|g;
+        }
+      }
+
+    });
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
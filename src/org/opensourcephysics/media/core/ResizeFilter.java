@@ -33,7 +33,6 @@ package org.opensourcephysics.media.core;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
@@ -43,7 +42,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 import javax.swing.JDialog;
@@ -64,7 +62,8 @@ public class ResizeFilter extends Filter {
   // instance fields
   private double widthFactor = 1.0;
   private double heightFactor = 1.0;
-  private Graphics2D gOut;
+  private int[] pixelsIn, pixelsOut;
+  private RemapTable table; // maps output pixels to input pixels
   // inspector fields
   private Inspector inspector;
   private JLabel widthLabel;
@@ -143,7 +142,9 @@ public class ResizeFilter extends Filter {
     if(sourceImage!=input) {
       gIn.drawImage(source, 0, 0, null);
     }
-    gOut.drawImage(input, 0, 0, null);
+    input.getRaster().getDataElements(0, 0, w, h, pixelsIn);
+    table.apply(pixelsIn, pixelsOut);
+    output.getRaster().setDataElements(0, 0, output.getWidth(), output.getHeight(), pixelsOut);
     return output;
   }
 
@@ -222,9 +223,19 @@ public class ResizeFilter extends Filter {
       gIn = input.createGraphics();
     }
     output = new BufferedImage(wOut, hOut, BufferedImage.TYPE_INT_RGB);
-    AffineTransform transform = AffineTransform.getScaleInstance(widthFactor, heightFactor);
-    gOut = output.createGraphics();
-    gOut.setTransform(transform);
+    pixelsIn = new int[w*h];
+    pixelsOut = new int[wOut*hOut];
+    // nearest neighbor scaling: output pixel centers map to source pixel centers
+    // and ties round down, as when drawing with a scale transform
+    final double xScale = 1/widthFactor, yScale = 1/heightFactor, tie = 1.0E-9;
+    table = new RemapTable(w, h, wOut, hOut);
+    table.build(new RemapTable.Mapping() {
+      public void map(int x, int y, double[] source) {
+        source[0] = Math.max(0, (x+0.5)*xScale-0.5-tie);
+        source[1] = Math.max(0, (y+0.5)*yScale-0.5-tie);
+      }
+
+    }, false);
   }
 
   /**
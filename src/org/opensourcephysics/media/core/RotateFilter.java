@@ -78,6 +78,8 @@ public class RotateFilter extends Filter {
 	
   // instance fields
   private int[] pixelsIn, pixelsOut;
+  private RemapTable table; // maps output pixels to input pixels
+  private int tableKey; // the rotation type and reverse flag used to build the table
   private int rotationType = NONE; // no rotation
   // inspector fields
   private Inspector inspector;
@@ -180,6 +182,7 @@ public class RotateFilter extends Filter {
     h = source.getHeight();
     pixelsIn = new int[w*h];
     pixelsOut = new int[w*h];    
+    table = null;
     if (rotationType==CW_90 || rotationType==CCW_90)
     	output = new BufferedImage(h, w, BufferedImage.TYPE_INT_RGB);
     else
@@ -199,48 +202,13 @@ public class RotateFilter extends Filter {
    */
   private void setOutputToRotate(BufferedImage image) {
     image.getRaster().getDataElements(0, 0, w, h, pixelsIn);
-    int last = w*h-1;
     if (rotationType>NONE || reverse) {
-	    for(int i = 0; i<pixelsIn.length; i++) {
-	    	if (rotationType==NONE) { // no rotation, just reversed
-	    		int row = i/w;
-	    		int col = w-(i%w)-1;
-	    		pixelsOut[w*row+col] = pixelsIn[i];
-		    }
-	    	else if (rotationType==CW_90) {
-	    		if (reverse) {
-		    		int col = h-(i/w)-1;
-		    		int row = w-(i%w)-1;
-		    		pixelsOut[h*row+col] = pixelsIn[i];
-	    		}
-	    		else {
-		    		int col = h-(i/w)-1;
-		    		int row = i%w;
-		    		pixelsOut[h*row+col] = pixelsIn[i];
-	    		}
-	    	}
-	    	else if (rotationType==CCW_90) {
-	    		if (reverse) {
-		    		int col = i/w;
-		    		int row = i%w;
-		    		pixelsOut[h*row+col] = pixelsIn[i];
-	    		}
-	    		else {
-		    		int col = i/w;
-		    		int row = w-(i%w)-1;
-		    		pixelsOut[h*row+col] = pixelsIn[i];
-	    		}
-	    	}
-	    	else { // 180 degrees
-	    		if (reverse) {
-		    		int row = h-(i/w)-1;
-		    		int col = i%w;
-		    		pixelsOut[w*row+col] = pixelsIn[i];
-	    		}
-	    		else
-	    			pixelsOut[last-i] = pixelsIn[i];
-	    	}
-	    }
+    	int key = 2*rotationType+(reverse? 1: 0);
+    	if (table==null || key!=tableKey) {
+    		buildTable();
+    		tableKey = key;
+    	}
+    	table.apply(pixelsIn, pixelsOut);
     }
     if (rotationType==NONE && !reverse)
   		output.getRaster().setDataElements(0, 0, w, h, pixelsIn);
@@ -250,6 +218,57 @@ public class RotateFilter extends Filter {
     	output.getRaster().setDataElements(0, 0, w, h, pixelsOut);
   }
   
+  /**
+   * Builds the remap table that maps each output pixel to its input pixel.
+   */
+  private void buildTable() {
+    if (rotationType==CW_90 || rotationType==CCW_90)
+    	table = new RemapTable(w, h, h, w);
+    else
+    	table = new RemapTable(w, h, w, h);
+    int last = w*h-1;
+    for(int i = 0; i<w*h; i++) {
+    	if (rotationType==NONE) { // no rotation, just reversed
+    		int row = i/w;
+    		int col = w-(i%w)-1;
+    		table.setSource(w*row+col, i);
+	    }
+    	else if (rotationType==CW_90) {
+    		if (reverse) {
+	    		int col = h-(i/w)-1;
+	    		int row = w-(i%w)-1;
+	    		table.setSource(h*row+col, i);
+    		}
+    		else {
+	    		int col = h-(i/w)-1;
+	    		int row = i%w;
+	    		table.setSource(h*row+col, i);
+    		}
+    	}
+    	else if (rotationType==CCW_90) {
+    		if (reverse) {
+	    		int col = i/w;
+	    		int row = i%w;
+	    		table.setSource(h*row+col, i);
+    		}
+    		else {
+	    		int col = i/w;
+	    		int row = w-(i%w)-1;
+	    		table.setSource(h*row+col, i);
+    		}
+    	}
+    	else { // 180 degrees
+    		if (reverse) {
+	    		int row = h-(i/w)-1;
+	    		int col = i%w;
+	    		table.setSource(w*row+col, i);
+    		}
+    		else
+    			table.setSource(last-i, i);
+    	}
+    }
+  }
+  
   /**
    * Inner Inspector class to control filter parameters
    */
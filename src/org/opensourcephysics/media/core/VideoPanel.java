@@ -417,6 +417,25 @@ public class VideoPanel extends InteractivePanel implements PropertyChangeListen
     return list;
   }
 
+  /**
+   * Overrides DrawingPanel getDrawablesToPaint method.
+   *
+   * @return a list of Drawable objects
+   */
+  protected ArrayList<Drawable> getDrawablesToPaint() {
+    ArrayList<Drawable> list = super.getDrawablesToPaint();
+    if(isDrawingInImageSpace()) {
+      ArrayList<Drawable> trackables = new ArrayList<Drawable>();
+      for(Drawable d : list) {
+        if(Trackable.class.isInstance(d)) {
+          trackables.add(d);
+        }
+      }
+      return trackables;
+    }
+    return list;
+  }
+
   /**
    * Adds a drawable object to the drawable list.
    *
@@ -591,9 +610,7 @@ public class VideoPanel extends InteractivePanel implements PropertyChangeListen
         } else {
           video.setCoords(coords);
         }
-        synchronized(drawableList) {
-          drawableList.add(0, video);                             // put video at back
-        }
+        drawableList.add(0, video);                               // put video at back
         BufferedImage vidImage = video.getImage();
         if(vidImage!=null) {
           setImageWidth(vidImage.getWidth());
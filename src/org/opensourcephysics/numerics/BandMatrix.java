@@ -0,0 +1,218 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * BandMatrix is a square matrix whose nonzero entries lie within a band around the diagonal.
+ *
+ * Row i stores the entries from column i-lower to column i+upper.  Linear systems are solved by
+ * Gaussian elimination without pivoting, which is stable for diagonally dominant matrices such as those
+ * of implicit finite difference schemes.  The factorization is computed once and reused until the matrix changes.
+ */
+public class BandMatrix {
+  final int n, lower, upper, width;
+  final double[] data;
+  double[] factor; // LU factors in band storage, null if the matrix has changed
+
+  /**
+   * Constructs an n by n band matrix.
+   *
+   * @param n the dimension
+   * @param lower the number of subdiagonals
+   * @param upper the number of superdiagonals
+   */
+  public BandMatrix(int n, int lower, int upper) {
+    if((n<1)||(lower<0)||(upper<0)) {
+      throw new IllegalArgumentException("Invalid band matrix dimensions."); //$NON-NLS-1$
+    }
+    this.n = n;
+    this.lower = lower;
+    this.upper = upper;
+    width = lower+upper+1;
+    data = new double[n*width];
+  }
+
+  /**
+   * Gets the dimension.
+   *
+   * @return the number of rows and columns
+   */
+  public int getDimension() {
+    return n;
+  }
+
+  /**
+   * Gets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the value, zero outside the band
+   */
+  public double get(int i, int j) {
+    int k = j-i+lower;
+    if((k<0)||(k>=width)) {
+      return 0;
+    }
+    return data[i*width+k];
+  }
+
+  /**
+   * Sets an entry within the band.
+   *
+   * @param i the row
+   * @param j the column
+   * @param value the value
+   */
+  public void set(int i, int j, double value) {
+    data[index(i, j)] = value;
+    factor = null;
+  }
+
+  /**
+   * Adds a value to an entry within the band.
+   *
+   * @param i the row
+   * @param j the column
+   * @param value the value
+   */
+  public void add(int i, int j, double value) {
+    data[index(i, j)] += value;
+    factor = null;
+  }
+
+  private int index(int i, int j) {
+    int k = j-i+lower;
+    if((i<0)||(i>=n)||(j<0)||(j>=n)||(k<0)||(k>=width)) {
+      throw new IndexOutOfBoundsException("Index outside of band: "+i+","+j); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    return i*width+k;
+  }
+
+  /**
+   * Computes the product y = A x.
+   *
+   * @param x the vector
+   * @param y the product
+   */
+  public void multiply(final double[] x, final double[] y) {
+    ParallelLoop.forRange(n, SparseMatrix.MIN_ROWS_PER_THREAD, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        for(int i = start; i<end; i++) {
+          int j0 = Math.max(0, i-lower), j1 = Math.min(n-1, i+upper);
+          int offset = i*width-i+lower;
+          double sum = 0;
+          for(int j = j0; j<=j1; j++) {
+            sum += data[offset+j]*x[j];
+          }
+          y[i] = sum;
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Solves A x = b.
+   *
+   * @param b the right hand side
+   * @param x the solution, may be the same array as b
+   */
+  public void solve(double[] b, double[] x) {
+    if(factor==null) {
+      factorize();
+    }
+    if(x!=b) {
+      System.arraycopy(b, 0, x, 0, n);
+    }
+    // forward substitution with the unit lower triangle
+    for(int i = 0; i<n; i++) {
+      double sum = x[i];
+      int offset = i*width-i+lower;
+      for(int j = Math.max(0, i-lower); j<i; j++) {
+        sum -= factor[offset+j]*x[j];
+      }
+      x[i] = sum;
+    }
+    // back substitution with the upper triangle
+    for(int i = n-1; i>=0; i--) {
+      double sum = x[i];
+      int offset = i*width-i+lower;
+      for(int j = i+1, j1 = Math.min(n-1, i+upper); j<=j1; j++) {
+        sum -= factor[offset+j]*x[j];
+      }
+      x[i] = sum/factor[offset+i];
+    }
+  }
+
+  /**
+   * Computes the LU factorization without pivoting in band storage.
+   */
+  void factorize() {
+    double[] lu = data.clone();
+    for(int k = 0; k<n; k++) {
+      double pivot = lu[k*width+lower];
+      if(pivot==0) {
+        throw new NumericMethodException("Zero pivot in band matrix.", k, 0); //$NON-NLS-1$
+      }
+      for(int i = k+1, i1 = Math.min(n-1, k+lower); i<=i1; i++) {
+        int rowOffset = i*width-i+lower;
+        double m = lu[rowOffset+k]/pivot;
+        lu[rowOffset+k] = m;
+        int kOffset = k*width-k+lower;
+        for(int j = k+1, j1 = Math.min(n-1, k+upper); j<=j1; j++) {
+          lu[rowOffset+j] -= m*lu[kOffset+j];
+        }
+      }
+    }
+    factor = lu;
+  }
+
+  /**
+   * Converts this matrix to a compressed sparse row matrix.
+   *
+   * @return the sparse matrix
+   */
+  public SparseMatrix toSparseMatrix() {
+    SparseMatrix a = new SparseMatrix(n, n);
+    for(int i = 0; i<n; i++) {
+      for(int j = Math.max(0, i-lower), j1 = Math.min(n-1, i+upper); j<=j1; j++) {
+        double v = data[i*width-i+lower+j];
+        if(v!=0) {
+          a.set(i, j, v);
+        }
+      }
+    }
+    return a;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
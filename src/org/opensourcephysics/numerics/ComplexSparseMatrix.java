@@ -0,0 +1,186 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * ComplexSparseMatrix is a complex matrix that stores its nonzero entries in compressed sparse row format.
+ *
+ * Complex vectors are represented by 2 double values in sequence, the real and imaginary parts, as in the FFT class.
+ * Thus a vector with n complex elements is stored in a double array dimensioned to 2*n.
+ */
+public class ComplexSparseMatrix extends CompressedRowStorage {
+  /**
+   * Constructs a rows by cols matrix with no entries.
+   *
+   * @param rows the number of rows
+   * @param cols the number of columns
+   */
+  public ComplexSparseMatrix(int rows, int cols) {
+    super(rows, cols, 2);
+  }
+
+  /**
+   * Sets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param re the real part
+   * @param im the imaginary part
+   */
+  public void set(int i, int j, double re, double im) {
+    addEntry(i, j, re, im, true);
+  }
+
+  /**
+   * Sets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param z the value
+   */
+  public void set(int i, int j, Complex z) {
+    addEntry(i, j, z.re(), z.im(), true);
+  }
+
+  /**
+   * Adds a value to an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param re the real part
+   * @param im the imaginary part
+   */
+  public void add(int i, int j, double re, double im) {
+    addEntry(i, j, re, im, false);
+  }
+
+  /**
+   * Adds a value to an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param z the value
+   */
+  public void add(int i, int j, Complex z) {
+    addEntry(i, j, z.re(), z.im(), false);
+  }
+
+  /**
+   * Gets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the value, zero if the entry is not stored
+   */
+  public Complex get(int i, int j) {
+    compress();
+    int p = find(i, j);
+    return(p<0) ? new Complex() : new Complex(values[2*p], values[2*p+1]);
+  }
+
+  /**
+   * Gets the values of the stored entries in compressed row order with interleaved real and imaginary parts.
+   *
+   * @return the array
+   */
+  public double[] getValues() {
+    compress();
+    return values;
+  }
+
+  /**
+   * Gets the diagonal as interleaved real and imaginary parts.
+   *
+   * @return the diagonal entries
+   */
+  public double[] getDiagonal() {
+    int[] diag = diagonalPositions();
+    double[] d = new double[2*diag.length];
+    for(int i = 0; i<diag.length; i++) {
+      if(diag[i]>=0) {
+        d[2*i] = values[2*diag[i]];
+        d[2*i+1] = values[2*diag[i]+1];
+      }
+    }
+    return d;
+  }
+
+  /**
+   * Computes the product y = A x of interleaved complex vectors.
+   *
+   * @param x the vector
+   * @param y the product
+   */
+  public void multiply(final double[] x, final double[] y) {
+    compress();
+    final int[] start = rowStart, col = colIndex;
+    final double[] val = values;
+    ParallelLoop.forRange(rows, SparseMatrix.MIN_ROWS_PER_THREAD, new ParallelLoop.Range() {
+      public void run(int first, int end) {
+        for(int i = first; i<end; i++) {
+          double re = 0, im = 0;
+          for(int p = start[i], last = start[i+1]; p<last; p++) {
+            double ar = val[2*p], ai = val[2*p+1];
+            double xr = x[2*col[p]], xi = x[2*col[p]+1];
+            re += ar*xr-ai*xi;
+            im += ar*xi+ai*xr;
+          }
+          y[2*i] = re;
+          y[2*i+1] = im;
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Computes the product A x.
+   *
+   * @param x the vector
+   * @return the product
+   */
+  public Complex[] multiply(Complex[] x) {
+    double[] xs = new double[2*x.length], ys = new double[2*rows];
+    for(int i = 0; i<x.length; i++) {
+      xs[2*i] = x[i].re();
+      xs[2*i+1] = x[i].im();
+    }
+    multiply(xs, ys);
+    Complex[] y = new Complex[rows];
+    for(int i = 0; i<rows; i++) {
+      y[i] = new Complex(ys[2*i], ys[2*i+1]);
+    }
+    return y;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
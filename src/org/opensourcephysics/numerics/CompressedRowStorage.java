@@ -0,0 +1,253 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.HashMap;
+
+/**
+ * CompressedRowStorage stores the nonzero entries of a sparse matrix in compressed sparse row (CSR) format.
+ *
+ * Entries are collected as triplets while the matrix is assembled and are compressed into sorted rows
+ * the first time the compressed arrays are needed.  Entries that already exist in the compressed
+ * rows are updated in place.  Each entry holds stride values: one for real and two for complex matrices.
+ */
+abstract class CompressedRowStorage {
+  final int rows, cols, stride;
+  int[] rowStart, colIndex = new int[0];
+  double[] values = new double[0];
+  // assembly triplets
+  int ntriplets;
+  int[] tripletRow = new int[16], tripletCol = new int[16];
+  double[] tripletValue;
+  HashMap<Long, Integer> tripletIndex = new HashMap<Long, Integer>();
+
+  CompressedRowStorage(int rows, int cols, int stride) {
+    if((rows<1)||(cols<1)) {
+      throw new IllegalArgumentException("Matrix dimensions must be positive."); //$NON-NLS-1$
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.stride = stride;
+    rowStart = new int[rows+1];
+    tripletValue = new double[16*stride];
+  }
+
+  /**
+   * Gets the number of rows.
+   *
+   * @return the number of rows
+   */
+  public int getRowCount() {
+    return rows;
+  }
+
+  /**
+   * Gets the number of columns.
+   *
+   * @return the number of columns
+   */
+  public int getColumnCount() {
+    return cols;
+  }
+
+  /**
+   * Gets the number of stored entries.
+   *
+   * @return the number of entries
+   */
+  public int getNonZeroCount() {
+    compress();
+    return rowStart[rows];
+  }
+
+  /**
+   * Gets the compressed row start array.  Row i is stored at positions rowStart[i] to rowStart[i+1]-1.
+   *
+   * @return the array
+   */
+  public int[] getRowStart() {
+    compress();
+    return rowStart;
+  }
+
+  /**
+   * Gets the column indices of the stored entries.
+   *
+   * @return the array
+   */
+  public int[] getColumnIndices() {
+    compress();
+    return colIndex;
+  }
+
+  /**
+   * Adds or replaces the value of an entry.
+   */
+  void addEntry(int i, int j, double re, double im, boolean replace) {
+    if((i<0)||(i>=rows)||(j<0)||(j>=cols)) {
+      throw new IndexOutOfBoundsException("Matrix index out of bounds: "+i+","+j); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    int p = find(i, j);
+    double[] array = values;
+    if(p<0) {
+      Long key = Long.valueOf((long) i*cols+j);
+      Integer t = tripletIndex.get(key);
+      if(t==null) {
+        if(ntriplets==tripletRow.length) {
+          int size = 2*ntriplets;
+          tripletRow = grow(tripletRow, size);
+          tripletCol = grow(tripletCol, size);
+          double[] grown = new double[size*stride];
+          System.arraycopy(tripletValue, 0, grown, 0, tripletValue.length);
+          tripletValue = grown;
+        }
+        tripletRow[ntriplets] = i;
+        tripletCol[ntriplets] = j;
+        tripletValue[ntriplets*stride] = 0;
+        if(stride==2) {
+          tripletValue[ntriplets*stride+1] = 0;
+        }
+        t = Integer.valueOf(ntriplets++);
+        tripletIndex.put(key, t);
+      }
+      p = t.intValue();
+      array = tripletValue;
+    }
+    if(replace) {
+      array[p*stride] = re;
+    } else {
+      array[p*stride] += re;
+    }
+    if(stride==2) {
+      if(replace) {
+        array[p*stride+1] = im;
+      } else {
+        array[p*stride+1] += im;
+      }
+    }
+  }
+
+  /**
+   * Finds the position of an entry in the compressed rows.
+   *
+   * @return the position or -1 if the entry is not in the compressed rows
+   */
+  int find(int i, int j) {
+    int lo = rowStart[i], hi = rowStart[i+1]-1;
+    while(lo<=hi) {
+      int mid = (lo+hi)>>>1;
+      int c = colIndex[mid];
+      if(c<j) {
+        lo = mid+1;
+      } else if(c>j) {
+        hi = mid-1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Merges the assembly triplets into the compressed rows.
+   */
+  void compress() {
+    if(ntriplets==0) {
+      return;
+    }
+    int nnz = rowStart[rows]+ntriplets;
+    int[] newStart = new int[rows+1];
+    for(int i = 0; i<rows; i++) {
+      newStart[i+1] = rowStart[i+1]-rowStart[i];
+    }
+    for(int t = 0; t<ntriplets; t++) {
+      newStart[tripletRow[t]+1]++;
+    }
+    for(int i = 0; i<rows; i++) {
+      newStart[i+1] += newStart[i];
+    }
+    int[] newCol = new int[nnz];
+    double[] newValues = new double[nnz*stride];
+    int[] next = new int[rows];
+    for(int i = 0; i<rows; i++) {
+      next[i] = newStart[i];
+      for(int p = rowStart[i]; p<rowStart[i+1]; p++) {
+        insert(newCol, newValues, newStart[i], next[i]++, colIndex[p], values, p);
+      }
+    }
+    for(int t = 0; t<ntriplets; t++) {
+      int i = tripletRow[t];
+      insert(newCol, newValues, newStart[i], next[i]++, tripletCol[t], tripletValue, t);
+    }
+    rowStart = newStart;
+    colIndex = newCol;
+    values = newValues;
+    ntriplets = 0;
+    tripletIndex.clear();
+  }
+
+  /**
+   * Inserts an entry into a row keeping the columns sorted.
+   */
+  private void insert(int[] col, double[] val, int start, int end, int c, double[] src, int srcPos) {
+    int k = end;
+    while((k>start)&&(col[k-1]>c)) {
+      col[k] = col[k-1];
+      System.arraycopy(val, (k-1)*stride, val, k*stride, stride);
+      k--;
+    }
+    col[k] = c;
+    System.arraycopy(src, srcPos*stride, val, k*stride, stride);
+  }
+
+  /**
+   * Gets the positions of the diagonal entries.
+   *
+   * @return the positions, -1 for missing entries
+   */
+  int[] diagonalPositions() {
+    compress();
+    int n = Math.min(rows, cols);
+    int[] diag = new int[n];
+    for(int i = 0; i<n; i++) {
+      diag[i] = find(i, i);
+    }
+    return diag;
+  }
+
+  static int[] grow(int[] array, int size) {
+    int[] newArray = new int[size];
+    System.arraycopy(array, 0, newArray, 0, Math.min(array.length, size));
+    return newArray;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -0,0 +1,395 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Convolution2D applies a stencil to two dimensional real data using fast Fourier transforms.
+ *
+ * The stencil is applied at every grid point:
+ * <PRE>
+ *    out[i][j] = Sum (a,b) kernel[a][b] * in[i+a-kx/2][j+b-ky/2]
+ * </PRE>
+ * where kx and ky are the kernel dimensions. Points outside the grid are zero unless the
+ * boundaries are periodic.
+ *
+ * The transform plans and the kernel spectrum are computed once and reused, so a
+ * Convolution2D should be created once and applied at every step of a model.
+ * Real rows are transformed two at a time as the real and imaginary parts of a complex row,
+ * and the row and column transforms run in parallel.  Stencils with no more than
+ * DIRECT_MAX weights are applied directly because they are faster than the transforms.
+ */
+public class Convolution2D {
+  static final int MIN_CHUNK = 8; // smallest number of rows or columns handed to a thread
+  static final int DIRECT_MAX = 9; // largest stencil applied without transforms
+  int nx, ny;                     // grid dimensions
+  int px, py;                     // transform dimensions
+  int nk;                         // number of stored column frequencies, py/2+1
+  int rowspan;                    // doubles per row of the spectrum, 2*nk
+  boolean periodic;
+  double[][] kernel;
+  double[] kernelSpectrum;        // normalized kernel spectrum
+  double[] spectrum;              // work array for the data spectrum
+  double[][] copy;                // copy of the source when a stencil is applied in place
+  final ArrayList<Workspace> workspaces = new ArrayList<Workspace>();
+
+  /**
+   * Constructs a convolution for nx by ny data.
+   *
+   * @param nx the number of x entries
+   * @param ny the number of y entries
+   * @param kernel the stencil weights
+   * @param periodic true if the data are periodic in both directions
+   */
+  public Convolution2D(int nx, int ny, double[][] kernel, boolean periodic) {
+    if((nx<=0)||(ny<=0)) {
+      throw new IllegalArgumentException("The array dimensions must be positive: "+nx+","+ny); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    this.nx = nx;
+    this.ny = ny;
+    this.periodic = periodic;
+    setKernel(kernel);
+  }
+
+  /**
+   * Sets the stencil weights and computes their spectrum.
+   *
+   * The weight kernel[kx/2][ky/2] is applied to the center point.
+   *
+   * @param kernel the weights
+   */
+  public synchronized void setKernel(double[][] kernel) {
+    if((kernel.length==0)||(kernel[0].length==0)) {
+      throw new IllegalArgumentException("The kernel is empty."); //$NON-NLS-1$
+    }
+    int kx = kernel.length, ky = kernel[0].length;
+    int mx = periodic ? nx : goodSize(nx+kx-1);
+    int my = periodic ? ny : goodSize(ny+ky-1);
+    if((mx!=px)||(my!=py)) {
+      px = mx;
+      py = my;
+      nk = py/2+1;
+      rowspan = 2*nk;
+      spectrum = new double[px*rowspan];
+      kernelSpectrum = new double[px*rowspan];
+      synchronized(workspaces) {
+        workspaces.clear();
+      }
+    }
+    this.kernel = kernel;
+    if(kx*ky<=DIRECT_MAX) {
+      return;
+    }
+    // wrap the reflected stencil so that its center is at the origin
+    final double[][] grid = new double[px][py];
+    int cx = kx/2, cy = ky/2;
+    for(int a = 0; a<kx; a++) {
+      int ix = ((cx-a)%px+px)%px;
+      for(int b = 0; b<ky; b++) {
+        int iy = ((cy-b)%py+py)%py;
+        grid[ix][iy] += kernel[a][b];
+      }
+    }
+    forwardRows(grid, px, py, kernelSpectrum);
+    ParallelLoop.forRange(nk, MIN_CHUNK, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        Workspace w = getWorkspace();
+        for(int k = start; k<end; k++) {
+          w.colFFT.transform_internal(kernelSpectrum, 2*k, rowspan, FFT.FORWARD);
+        }
+        releaseWorkspace(w);
+      }
+
+    });
+    double norm = 1.0/((double) px*py); // normalizes the backward transforms
+    for(int i = 0, n = kernelSpectrum.length; i<n; i++) {
+      kernelSpectrum[i] *= norm;
+    }
+  }
+
+  /**
+   * Gets the stencil weights.
+   *
+   * @return the kernel
+   */
+  public double[][] getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Gets the number of x entries.
+   *
+   * @return nx
+   */
+  public int getNx() {
+    return nx;
+  }
+
+  /**
+   * Gets the number of y entries.
+   *
+   * @return ny
+   */
+  public int getNy() {
+    return ny;
+  }
+
+  /**
+   * Determines if the boundaries are periodic.
+   *
+   * @return true if periodic
+   */
+  public boolean isPeriodic() {
+    return periodic;
+  }
+
+  /**
+   * Applies the stencil to the data, leaving the result in data.
+   *
+   * @param data the data, data[nx][ny]
+   */
+  public void convolve(double[][] data) {
+    convolve(data, data);
+  }
+
+  /**
+   * Applies the stencil to the source data and stores the result in the destination.
+   * The source and destination may be the same array.
+   *
+   * @param src the data, src[nx][ny]
+   * @param dest the result, dest[nx][ny]
+   */
+  public synchronized void convolve(double[][] src, final double[][] dest) {
+    if((src.length<nx)||(src[0].length<ny)||(dest.length<nx)||(dest[0].length<ny)) {
+      throw new IllegalArgumentException("The data arrays must be at least "+nx+"x"+ny); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    if(kernel.length*kernel[0].length<=DIRECT_MAX) {
+      applyStencil(src, dest);
+      return;
+    }
+    forwardRows(src, nx, ny, spectrum);
+    Arrays.fill(spectrum, nx*rowspan, spectrum.length, 0); // zero padding
+    ParallelLoop.forRange(nk, MIN_CHUNK, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        Workspace w = getWorkspace();
+        double[] s = spectrum, ks = kernelSpectrum;
+        for(int k = start; k<end; k++) {
+          w.colFFT.transform_internal(s, 2*k, rowspan, FFT.FORWARD);
+          for(int i = 0, j = 2*k; i<px; i++, j += rowspan) {
+            double re = s[j], im = s[j+1];
+            s[j] = re*ks[j]-im*ks[j+1];
+            s[j+1] = re*ks[j+1]+im*ks[j];
+          }
+          w.colFFT.transform_internal(s, 2*k, rowspan, FFT.BACKWARD);
+        }
+        releaseWorkspace(w);
+      }
+
+    });
+    ParallelLoop.forRange((nx+1)/2, MIN_CHUNK/2, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        Workspace w = getWorkspace();
+        for(int p = start; p<end; p++) {
+          backwardRowPair(w, 2*p, dest);
+        }
+        releaseWorkspace(w);
+      }
+
+    });
+  }
+
+  /**
+   * Applies the stencil point by point.
+   */
+  void applyStencil(double[][] src, final double[][] dest) {
+    if(src==dest) {
+      if(copy==null) {
+        copy = new double[nx][ny];
+      }
+      for(int i = 0; i<nx; i++) {
+        System.arraycopy(src[i], 0, copy[i], 0, ny);
+      }
+      src = copy;
+    }
+    final double[][] in = src;
+    ParallelLoop.forRange(nx, MIN_CHUNK, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        int kx = kernel.length, ky = kernel[0].length, cx = kx/2, cy = ky/2;
+        for(int i = start; i<end; i++) {
+          double[] out = dest[i];
+          Arrays.fill(out, 0, ny, 0);
+          for(int a = 0; a<kx; a++) {
+            int ii = i+a-cx;
+            if(periodic) {
+              ii = (ii%nx+nx)%nx;
+            } else if((ii<0)||(ii>=nx)) {
+              continue;
+            }
+            double[] row = in[ii];
+            for(int b = 0; b<ky; b++) {
+              double w = kernel[a][b];
+              if(w==0) {
+                continue;
+              }
+              int shift = b-cy;
+              int j0 = Math.max(0, -shift), j1 = Math.min(ny, ny-shift);
+              for(int j = j0; j<j1; j++) {
+                out[j] += w*row[j+shift];
+              }
+              if(periodic) { // wrapped ends
+                for(int j = 0, n = Math.min(j0, ny); j<n; j++) {
+                  out[j] += w*row[((j+shift)%ny+ny)%ny];
+                }
+                for(int j = Math.max(j1, 0); j<ny; j++) {
+                  out[j] += w*row[((j+shift)%ny+ny)%ny];
+                }
+              }
+            }
+          }
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Transforms rows of real data into the spectrum, two rows at a time.
+   */
+  void forwardRows(final double[][] data, int rows, final int ncols, final double[] spec) {
+    final int nrows = rows;
+    ParallelLoop.forRange((nrows+1)/2, MIN_CHUNK/2, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        Workspace w = getWorkspace();
+        for(int p = start; p<end; p++) {
+          forwardRowPair(w, data, 2*p, nrows, ncols, spec);
+        }
+        releaseWorkspace(w);
+      }
+
+    });
+  }
+
+  /**
+   * Transforms rows i and i+1 as the real and imaginary parts of one complex row and
+   * separates their half spectra.
+   */
+  void forwardRowPair(Workspace w, double[][] data, int i, int nrows, int ncols, double[] spec) {
+    boolean pair = i+1<nrows;
+    FFTReal2D.forwardPair(w.rowFFT, w.row, data[i], 0, pair ? data[i+1] : null, 0, ncols, spec, i*rowspan, (i+1<px) ? (i+1)*rowspan : -1);
+  }
+
+  /**
+   * Rebuilds the full spectra of rows i and i+1 from their half spectra and transforms them back
+   * into the destination.
+   */
+  void backwardRowPair(Workspace w, int i, double[][] dest) {
+    boolean pair = i+1<nx;
+    FFTReal2D.backwardPair(w.rowFFT, w.row, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1, dest[i], 0, pair ? dest[i+1] : null, 0, ny);
+  }
+
+  Workspace getWorkspace() {
+    synchronized(workspaces) {
+      int n = workspaces.size();
+      if(n>0) {
+        return workspaces.remove(n-1);
+      }
+    }
+    return new Workspace();
+  }
+
+  void releaseWorkspace(Workspace w) {
+    synchronized(workspaces) {
+      if((w.rowFFT.getN()==py)&&(w.colFFT.getN()==px)) {
+        workspaces.add(w);
+      }
+    }
+  }
+
+  /**
+   * Gets the smallest transform length that is at least n and has no prime factors larger than 5.
+   *
+   * @param n the minimum length
+   * @return the length
+   */
+  public static int goodSize(int n) {
+    for(int m = Math.max(n, 1);; m++) {
+      int r = m;
+      for(int f = 2; f<=5; f++) {
+        while(r%f==0) {
+          r /= f;
+        }
+      }
+      if(r==1) {
+        return m;
+      }
+    }
+  }
+
+  /**
+   * Creates a normalized Gaussian smoothing kernel that extends to three standard deviations.
+   *
+   * @param sigmaX the x standard deviation in grid units
+   * @param sigmaY the y standard deviation in grid units
+   * @return the kernel
+   */
+  public static double[][] gaussianKernel(double sigmaX, double sigmaY) {
+    int rx = (int) Math.ceil(3*sigmaX), ry = (int) Math.ceil(3*sigmaY);
+    double[][] k = new double[2*rx+1][2*ry+1];
+    double sum = 0;
+    for(int a = -rx; a<=rx; a++) {
+      double gx = (sigmaX>0) ? Math.exp(-0.5*a*a/(sigmaX*sigmaX)) : 1;
+      for(int b = -ry; b<=ry; b++) {
+        double gy = (sigmaY>0) ? Math.exp(-0.5*b*b/(sigmaY*sigmaY)) : 1;
+        sum += k[a+rx][b+ry] = gx*gy;
+      }
+    }
+    for(int a = 0; a<k.length; a++) {
+      for(int b = 0; b<k[a].length; b++) {
+        k[a][b] /= sum;
+      }
+    }
+    return k;
+  }
+
+  /**
+   * Transforms and buffers used by one thread.
+   */
+  class Workspace {
+    FFT rowFFT = new FFT(py);
+    FFT colFFT = new FFT(px);
+    double[] row = new double[2*py];
+
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
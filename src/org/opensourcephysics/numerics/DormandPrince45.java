@@ -14,7 +14,7 @@ package org.opensourcephysics.numerics;
  * @author       F. Esquembre
  * @version 1.0
  */
-public class DormandPrince45 implements ODEAdaptiveSolver {
+public class DormandPrince45 implements ODEDenseOutputSolver {
   int error_code = ODEAdaptiveSolver.NO_ERROR;
   // embedding constants Dormand-Prince 4th and 5th order
   static final double[][] a = {
@@ -34,6 +34,8 @@ public class DormandPrince45 implements ODEAdaptiveSolver {
   private ODE ode;
   protected double tol = 1.0e-6;
   protected boolean enableExceptions = false;
+  HermiteInterpolant interpolant; // dense output for the last step
+  boolean keepKnots = false;      // true if steps are appended to the interpolant
 
   /**
    * Constructs the DormandPrince45 ODESolver for a system of ordinary  differential equations.
@@ -42,6 +44,7 @@ public class DormandPrince45 implements ODEAdaptiveSolver {
    */
   public DormandPrince45(ODE _ode) {
     ode = _ode;
+    interpolant = new HermiteInterpolant(ode);
     initialize(stepSize);
   }
 
@@ -119,10 +122,16 @@ public class DormandPrince45 implements ODEAdaptiveSolver {
     } while((error>tol)&&(iterations>0));
     // advance the state
     for(int i = 0; i<numEqn; i++) {
+      temp_state[i] = state[i];
       for(int s = 0; s<numStages; s++) {
-        state[i] += currentStep*b5[s]*k[s][i];
+        temp_state[i] += currentStep*b5[s]*k[s][i];
       }
     }
+    if(!keepKnots) {
+      interpolant.reset();
+    }
+    interpolant.addStep(currentStep, state, k[0], temp_state);
+    System.arraycopy(temp_state, 0, state, 0, numEqn);
     if(iterations==0) {
       error_code = ODEAdaptiveSolver.DID_NOT_CONVERGE;
       if(enableExceptions) {
@@ -132,6 +141,28 @@ public class DormandPrince45 implements ODEAdaptiveSolver {
     return currentStep; // the value of the step actually taken.
   }
 
+  /**
+   * Gets the size of the last step.  The interpolant covers the interval from the beginning to the end of this step.
+   *
+   * @return the step size
+   */
+  public double getLastStepSize() {
+    return interpolant.getStepSize();
+  }
+
+  /**
+   * Computes the state at a time within the last step using cubic Hermite dense output.
+   *
+   * No additional rates are computed except the rate at the end of the step, which is computed once.
+   *
+   * @param dt the time measured from the beginning of the last step
+   * @param state the array that receives the state, or null
+   * @return the state
+   */
+  public double[] interpolate(double dt, double[] state) {
+    return interpolant.interpolate(dt, state);
+  }
+
   /**
    * Enables runtime exceptions if the solver does not converge.
    * @param enable boolean
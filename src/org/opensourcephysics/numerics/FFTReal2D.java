@@ -0,0 +1,449 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * FFTReal2D computes the FFT of 2 dimensional real, double precision data.
+ *
+ * The data d[i,j] are stored in row-major order, data[i*ncols + j], or in an array data[i][j].
+ * Because the spectrum of real data is Hermitian, only the columns 0 to ncols/2 are stored:
+ * <PRE>
+ *    Re(D[i,j]) = spectrum[i*rowspan + 2*j]
+ *    Im(D[i,j]) = spectrum[i*rowspan + 2*j + 1]
+ * </PRE>
+ * where rowspan = 2*(ncols/2+1).  The remaining columns are D[i,j] = conj(D[(nrows-i)%nrows, ncols-j]).
+ * The spectrum is in wrap-around order along the rows and uses the same sign convention as FFT2D.
+ *
+ * Rows are transformed two at a time as the real and imaginary parts of one complex row,
+ * so the transform takes about half the time and memory of an FFT2D transform.
+ */
+public class FFTReal2D {
+  int nrows;
+  int ncols;
+  int rowspan;      // doubles per row of the spectrum
+  FFT2D fft2d;      // complex transforms and frequencies
+  double[] row;     // one complex row
+
+  /**
+   * Create an FFT for transforming nrows*ncols points of real, double precision data.
+   *
+   * @param nrows
+   * @param ncols
+   */
+  public FFTReal2D(int nrows, int ncols) {
+    fft2d = new FFT2D(nrows, ncols);
+    this.nrows = nrows;
+    this.ncols = ncols;
+    rowspan = 2*(ncols/2+1);
+    row = new double[2*ncols];
+  }
+
+  /**
+   * Gets the number of doubles in the half spectrum.
+   *
+   * @return 2*nrows*(ncols/2+1)
+   */
+  public int getSpectrumLength() {
+    return nrows*rowspan;
+  }
+
+  /**
+   * Computes the FFT of row-major data.
+   *
+   * @param data the data, at least nrows*ncols values
+   * @param spectrum the half spectrum; a new array is created if null
+   * @return the half spectrum
+   */
+  public double[] transform(double[] data, double[] spectrum) {
+    if(data.length<nrows*ncols) {
+      throw new IllegalArgumentException("The data array is too small for "+nrows+"x"+ncols+" data.length="+data.length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    spectrum = checkSpectrum(spectrum);
+    for(int i = 0; i<nrows; i += 2) {
+      boolean pair = i+1<nrows;
+      forwardPair(fft2d.rowFFT, row, data, i*ncols, pair ? data : null, (i+1)*ncols, ncols, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1);
+    }
+    transformColumns(spectrum, FFT.FORWARD);
+    return spectrum;
+  }
+
+  /**
+   * Computes the FFT of data[nrows][ncols].
+   *
+   * @param data the data
+   * @param spectrum the half spectrum; a new array is created if null
+   * @return the half spectrum
+   */
+  public double[] transform(double[][] data, double[] spectrum) {
+    if((data.length<nrows)||(data[0].length<ncols)) {
+      throw new IllegalArgumentException("The data array must be at least "+nrows+"x"+ncols); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    spectrum = checkSpectrum(spectrum);
+    for(int i = 0; i<nrows; i += 2) {
+      boolean pair = i+1<nrows;
+      forwardPair(fft2d.rowFFT, row, data[i], 0, pair ? data[i+1] : null, 0, ncols, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1);
+    }
+    transformColumns(spectrum, FFT.FORWARD);
+    return spectrum;
+  }
+
+  /**
+   * Computes the (unnormalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the row-major data; a new array is created if null
+   * @return the data
+   */
+  public double[] backtransform(double[] spectrum, double[] data) {
+    checkSpectrum(spectrum);
+    if((data==null)||(data.length<nrows*ncols)) {
+      data = new double[nrows*ncols];
+    }
+    transformColumns(spectrum, FFT.BACKWARD);
+    for(int i = 0; i<nrows; i += 2) {
+      boolean pair = i+1<nrows;
+      backwardPair(fft2d.rowFFT, row, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1, data, i*ncols, pair ? data : null, (i+1)*ncols, ncols);
+    }
+    return data;
+  }
+
+  /**
+   * Computes the (unnormalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the data[nrows][ncols]; a new array is created if null
+   * @return the data
+   */
+  public double[][] backtransform(double[] spectrum, double[][] data) {
+    checkSpectrum(spectrum);
+    if((data==null)||(data.length<nrows)||(data[0].length<ncols)) {
+      data = new double[nrows][ncols];
+    }
+    transformColumns(spectrum, FFT.BACKWARD);
+    for(int i = 0; i<nrows; i += 2) {
+      boolean pair = i+1<nrows;
+      backwardPair(fft2d.rowFFT, row, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1, data[i], 0, pair ? data[i+1] : null, 0, ncols);
+    }
+    return data;
+  }
+
+  /**
+   * Computes the (normalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the row-major data; a new array is created if null
+   * @return the data
+   */
+  public double[] inverse(double[] spectrum, double[] data) {
+    data = backtransform(spectrum, data);
+    double norm = 1.0/((double) nrows*ncols);
+    for(int i = 0, n = nrows*ncols; i<n; i++) {
+      data[i] *= norm;
+    }
+    return data;
+  }
+
+  /**
+   * Computes the (normalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the data[nrows][ncols]; a new array is created if null
+   * @return the data
+   */
+  public double[][] inverse(double[] spectrum, double[][] data) {
+    data = backtransform(spectrum, data);
+    double norm = 1.0/((double) nrows*ncols);
+    for(int i = 0; i<nrows; i++) {
+      double[] r = data[i];
+      for(int j = 0; j<ncols; j++) {
+        r[j] *= norm;
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Expands a half spectrum into the complex wrap-around layout produced by FFT2D.
+   *
+   * @param spectrum the half spectrum
+   * @param full the complex spectrum, 2*nrows*ncols values; a new array is created if null
+   * @return the complex spectrum
+   */
+  public double[] toFullSpectrum(double[] spectrum, double[] full) {
+    if((full==null)||(full.length<2*nrows*ncols)) {
+      full = new double[2*nrows*ncols];
+    }
+    int nk = rowspan/2;
+    for(int i = 0; i<nrows; i++) {
+      int src = i*rowspan, dest = 2*i*ncols;
+      System.arraycopy(spectrum, src, full, dest, Math.min(rowspan, 2*ncols));
+      int conj = ((nrows-i)%nrows)*rowspan;
+      for(int j = nk; j<ncols; j++) {
+        full[dest+2*j] = spectrum[conj+2*(ncols-j)];
+        full[dest+2*j+1] = -spectrum[conj+2*(ncols-j)+1];
+      }
+    }
+    return full;
+  }
+
+  /**
+   * Gets an array containing the frequencies in natural order.
+   * Data are separated by delta.
+   *
+   * @param delta
+   * @return the array of frequencies
+   */
+  public double[] getNaturalFreqX(double delta) {
+    return fft2d.getNaturalFreqX(delta);
+  }
+
+  /**
+   * Gets an array containing the frequencies in natural order.
+   * The first data point is at xmin and the last data point is at xmax.
+   *
+   * @param xmin
+   * @param xmax
+   * @return the array of frequencies
+   */
+  public double[] getNaturalFreqX(double xmin, double xmax) {
+    return fft2d.getNaturalFreqX(xmin, xmax);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in natural order.
+   * Data are separated by delta.
+   *
+   * @param delta
+   * @return the array of frequencies
+   */
+  public double[] getNaturalOmegaX(double delta) {
+    return fft2d.getNaturalOmegaX(delta);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in natural order.
+   * The first data point is at xmin and the last data point is at xmax.
+   *
+   * @param xmin
+   * @param xmax
+   * @return the array of frequencies
+   */
+  public double[] getNaturalOmegaX(double xmin, double xmax) {
+    return fft2d.getNaturalOmegaX(xmin, xmax);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) of the spectrum rows
+   * in wrap-around order.
+   * The first data point is at xmin and the last data point is at xmax.
+   *
+   * @param xmin
+   * @param xmax
+   * @return the array of frequencies
+   */
+  public double[] getWrappedOmegaX(double xmin, double xmax) {
+    return fft2d.getWrappedOmegaX(xmin, xmax);
+  }
+
+  /**
+   * Gets an array containing the nonnegative frequencies of the spectrum columns.
+   * Data are separated by delta in y.
+   *
+   * @param delta
+   * @return the array of ncols/2+1 frequencies
+   */
+  public double[] getFreqY(double delta) {
+    double[] freq = new double[rowspan/2];
+    double df = 1/(delta*(ncols-ncols%2));
+    for(int j = 0; j<freq.length; j++) {
+      freq[j] = j*df;
+    }
+    return freq;
+  }
+
+  /**
+   * Gets an array containing the nonnegative angular frequencies (wavenumbers) of the spectrum columns.
+   * The first data point is at ymin and the last data point is at ymax.
+   *
+   * @param ymin
+   * @param ymax
+   * @return the array of ncols/2+1 frequencies
+   */
+  public double[] getOmegaY(double ymin, double ymax) {
+    return getFreqY((ymax-ymin)/(ncols-ncols%2)/FFT2D.PI2);
+  }
+
+  /**
+   * Gets an array containing the frequencies in natural order if samples in the orginal data are
+   * separated by delta in y.
+   *
+   * @param delta
+   * @return the array of frequencies
+   */
+  public double[] getNaturalFreqY(double delta) {
+    return fft2d.getNaturalFreqY(delta);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in natural order.
+   * The first data point is at ymin and the last data point is at ymax.
+   *
+   * @param ymin
+   * @param ymax
+   * @return the array of frequencies
+   */
+  public double[] getNaturalOmegaY(double ymin, double ymax) {
+    return fft2d.getNaturalOmegaY(ymin, ymax);
+  }
+
+  /**
+   * Gets the minimum frequency given the domain and the number of points.
+   *
+   * @param min double
+   * @param max double
+   * @param n int
+   * @return double
+   */
+  public double getFreqMin(double min, double max, int n) {
+    return fft2d.getFreqMin(min, max, n);
+  }
+
+  /**
+   * Gets the maximum frequency given the domain and the number of points.
+   *
+   * @param min double
+   * @param max double
+   * @param n int
+   * @return double
+   */
+  public double getFreqMax(double min, double max, int n) {
+    return fft2d.getFreqMax(min, max, n);
+  }
+
+  double[] checkSpectrum(double[] spectrum) {
+    if(spectrum==null) {
+      return new double[nrows*rowspan];
+    }
+    if(spectrum.length<nrows*rowspan) {
+      throw new IllegalArgumentException("The spectrum array is too small for "+nrows+"x"+rowspan+" spectrum.length="+spectrum.length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    return spectrum;
+  }
+
+  void transformColumns(double[] spectrum, int sign) {
+    for(int j = 0, nk = rowspan/2; j<nk; j++) {
+      fft2d.colFFT.transform_internal(spectrum, 2*j, rowspan, sign);
+    }
+  }
+
+  /**
+   * Transforms two real rows as the real and imaginary parts of one complex row and stores
+   * their half spectra.  Values beyond n are zero.
+   *
+   * @param fft the complex transform
+   * @param z work array for one complex row
+   * @param a the first row
+   * @param aOff the offset of the first row
+   * @param b the second row, or null if zero
+   * @param bOff the offset of the second row
+   * @param n the number of values in each row
+   * @param spec the spectrum
+   * @param o0 the offset of the first half spectrum
+   * @param o1 the offset of the second half spectrum, or -1 to discard it
+   */
+  static void forwardPair(FFT fft, double[] z, double[] a, int aOff, double[] b, int bOff, int n, double[] spec, int o0, int o1) {
+    int len = fft.getN();
+    for(int j = 0; j<n; j++) {
+      z[2*j] = a[aOff+j];
+      z[2*j+1] = (b==null) ? 0 : b[bOff+j];
+    }
+    for(int j = 2*n; j<2*len; j++) {
+      z[j] = 0;
+    }
+    fft.transform_internal(z, 0, 2, FFT.FORWARD);
+    for(int k = 0, nk = len/2+1; k<nk; k++) {
+      int m = (k==0) ? 0 : len-k;
+      double zr = z[2*k], zi = z[2*k+1], mr = z[2*m], mi = z[2*m+1];
+      spec[o0+2*k] = 0.5*(zr+mr);
+      spec[o0+2*k+1] = 0.5*(zi-mi);
+      if(o1>=0) {
+        spec[o1+2*k] = 0.5*(zi+mi);
+        spec[o1+2*k+1] = 0.5*(mr-zr);
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the full spectra of two real rows from their half spectra and transforms them
+   * back as the real and imaginary parts of one complex row.
+   *
+   * @param fft the complex transform
+   * @param z work array for one complex row
+   * @param spec the spectrum
+   * @param o0 the offset of the first half spectrum
+   * @param o1 the offset of the second half spectrum, or -1 if zero
+   * @param a the first row
+   * @param aOff the offset of the first row
+   * @param b the second row, or null to discard it
+   * @param bOff the offset of the second row
+   * @param n the number of values stored in each row
+   */
+  static void backwardPair(FFT fft, double[] z, double[] spec, int o0, int o1, double[] a, int aOff, double[] b, int bOff, int n) {
+    int len = fft.getN();
+    for(int k = 0, nk = len/2+1; k<nk; k++) {
+      double xr = spec[o0+2*k], xi = spec[o0+2*k+1];
+      double yr = 0, yi = 0;
+      if(o1>=0) {
+        yr = spec[o1+2*k];
+        yi = spec[o1+2*k+1];
+      }
+      z[2*k] = xr-yi;
+      z[2*k+1] = xi+yr;
+      if((k>0)&&(2*k<len)) { // conjugate-symmetric partner
+        int m = len-k;
+        z[2*m] = xr+yi;
+        z[2*m+1] = yr-xi;
+      }
+    }
+    fft.transform_internal(z, 0, 2, FFT.BACKWARD);
+    for(int j = 0; j<n; j++) {
+      a[aOff+j] = z[2*j];
+    }
+    if(b!=null) {
+      for(int j = 0; j<n; j++) {
+        b[bOff+j] = z[2*j+1];
+      }
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -0,0 +1,257 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * FFTReal3D computes the FFT of 3 dimensional real, double precision data.
+ *
+ * The data d[i,j,k] are stored in row-major order, data[(i*ny + j)*nz + k].
+ * Because the spectrum of real data is Hermitian, only the z frequencies 0 to nz/2 are stored:
+ * <PRE>
+ *    Re(D[i,j,k]) = spectrum[(i*ny + j)*rowspan + 2*k]
+ *    Im(D[i,j,k]) = spectrum[(i*ny + j)*rowspan + 2*k + 1]
+ * </PRE>
+ * where rowspan = 2*(nz/2+1).  The spectrum is in wrap-around order along x and y.
+ *
+ * @see FFTReal2D
+ */
+public class FFTReal3D {
+  int nx, ny, nz;
+  int rowspan;      // doubles per z row of the spectrum
+  FFT2D fft2d;      // x and y transforms and frequencies
+  FFT zFFT;
+  double[] row;     // one complex z row
+
+  /**
+   * Create an FFT for transforming nx*ny*nz points of real, double precision data.
+   *
+   * @param nx
+   * @param ny
+   * @param nz
+   */
+  public FFTReal3D(int nx, int ny, int nz) {
+    if(nz<=0) {
+      throw new IllegalArgumentException("The array dimensions >=0 : "+nx+","+ny+","+nz); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+    fft2d = new FFT2D(nx, ny);
+    zFFT = new FFT(nz);
+    this.nx = nx;
+    this.ny = ny;
+    this.nz = nz;
+    rowspan = 2*(nz/2+1);
+    row = new double[2*nz];
+  }
+
+  /**
+   * Gets the number of doubles in the half spectrum.
+   *
+   * @return 2*nx*ny*(nz/2+1)
+   */
+  public int getSpectrumLength() {
+    return nx*ny*rowspan;
+  }
+
+  /**
+   * Computes the FFT of row-major data.
+   *
+   * @param data the data, at least nx*ny*nz values
+   * @param spectrum the half spectrum; a new array is created if null
+   * @return the half spectrum
+   */
+  public double[] transform(double[] data, double[] spectrum) {
+    int lines = nx*ny;
+    if(data.length<lines*nz) {
+      throw new IllegalArgumentException("The data array is too small for "+nx+"x"+ny+"x"+nz+" data.length="+data.length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+    spectrum = checkSpectrum(spectrum);
+    for(int i = 0; i<lines; i += 2) {
+      boolean pair = i+1<lines;
+      FFTReal2D.forwardPair(zFFT, row, data, i*nz, pair ? data : null, (i+1)*nz, nz, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1);
+    }
+    transformXY(spectrum, FFT.FORWARD);
+    return spectrum;
+  }
+
+  /**
+   * Computes the (unnormalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the row-major data; a new array is created if null
+   * @return the data
+   */
+  public double[] backtransform(double[] spectrum, double[] data) {
+    int lines = nx*ny;
+    checkSpectrum(spectrum);
+    if((data==null)||(data.length<lines*nz)) {
+      data = new double[lines*nz];
+    }
+    transformXY(spectrum, FFT.BACKWARD);
+    for(int i = 0; i<lines; i += 2) {
+      boolean pair = i+1<lines;
+      FFTReal2D.backwardPair(zFFT, row, spectrum, i*rowspan, pair ? (i+1)*rowspan : -1, data, i*nz, pair ? data : null, (i+1)*nz, nz);
+    }
+    return data;
+  }
+
+  /**
+   * Computes the (normalized) inverse FFT of a half spectrum.  The spectrum is overwritten.
+   *
+   * @param spectrum the half spectrum
+   * @param data the row-major data; a new array is created if null
+   * @return the data
+   */
+  public double[] inverse(double[] spectrum, double[] data) {
+    data = backtransform(spectrum, data);
+    double norm = 1.0/((double) nx*ny*nz);
+    for(int i = 0, n = nx*ny*nz; i<n; i++) {
+      data[i] *= norm;
+    }
+    return data;
+  }
+
+  /**
+   * Expands a half spectrum into the complex wrap-around layout with index (i*ny+j)*nz+k.
+   *
+   * @param spectrum the half spectrum
+   * @param full the complex spectrum, 2*nx*ny*nz values; a new array is created if null
+   * @return the complex spectrum
+   */
+  public double[] toFullSpectrum(double[] spectrum, double[] full) {
+    if((full==null)||(full.length<2*nx*ny*nz)) {
+      full = new double[2*nx*ny*nz];
+    }
+    int nk = rowspan/2;
+    for(int i = 0; i<nx; i++) {
+      for(int j = 0; j<ny; j++) {
+        int src = (i*ny+j)*rowspan, dest = 2*(i*ny+j)*nz;
+        System.arraycopy(spectrum, src, full, dest, Math.min(rowspan, 2*nz));
+        int conj = (((nx-i)%nx)*ny+(ny-j)%ny)*rowspan;
+        for(int k = nk; k<nz; k++) {
+          full[dest+2*k] = spectrum[conj+2*(nz-k)];
+          full[dest+2*k+1] = -spectrum[conj+2*(nz-k)+1];
+        }
+      }
+    }
+    return full;
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in natural order.
+   * The first data point is at xmin and the last data point is at xmax.
+   *
+   * @param xmin
+   * @param xmax
+   * @return the array of frequencies
+   */
+  public double[] getNaturalOmegaX(double xmin, double xmax) {
+    return fft2d.getNaturalOmegaX(xmin, xmax);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in wrap-around order.
+   * The first data point is at xmin and the last data point is at xmax.
+   *
+   * @param xmin
+   * @param xmax
+   * @return the array of frequencies
+   */
+  public double[] getWrappedOmegaX(double xmin, double xmax) {
+    return fft2d.getWrappedOmegaX(xmin, xmax);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in natural order.
+   * The first data point is at ymin and the last data point is at ymax.
+   *
+   * @param ymin
+   * @param ymax
+   * @return the array of frequencies
+   */
+  public double[] getNaturalOmegaY(double ymin, double ymax) {
+    return fft2d.getNaturalOmegaY(ymin, ymax);
+  }
+
+  /**
+   * Gets an array containing the angular frequencies (wavenumbers) in wrap-around order.
+   * The first data point is at ymin and the last data point is at ymax.
+   *
+   * @param ymin
+   * @param ymax
+   * @return the array of frequencies
+   */
+  public double[] getWrappedOmegaY(double ymin, double ymax) {
+    return fft2d.getWrappedOmegaY(ymin, ymax);
+  }
+
+  /**
+   * Gets an array containing the nonnegative angular frequencies (wavenumbers) of the stored z frequencies.
+   * The first data point is at zmin and the last data point is at zmax.
+   *
+   * @param zmin
+   * @param zmax
+   * @return the array of nz/2+1 frequencies
+   */
+  public double[] getOmegaZ(double zmin, double zmax) {
+    double[] omega = new double[rowspan/2];
+    double dw = FFT2D.PI2/(zmax-zmin);
+    for(int k = 0; k<omega.length; k++) {
+      omega[k] = k*dw;
+    }
+    return omega;
+  }
+
+  double[] checkSpectrum(double[] spectrum) {
+    if(spectrum==null) {
+      return new double[nx*ny*rowspan];
+    }
+    if(spectrum.length<nx*ny*rowspan) {
+      throw new IllegalArgumentException("The spectrum array is too small: spectrum.length="+spectrum.length); //$NON-NLS-1$
+    }
+    return spectrum;
+  }
+
+  void transformXY(double[] spectrum, int sign) {
+    int nk = rowspan/2, plane = ny*rowspan;
+    for(int i = 0; i<nx; i++) {    // y transforms
+      for(int k = 0; k<nk; k++) {
+        fft2d.rowFFT.transform_internal(spectrum, i*plane+2*k, rowspan, sign);
+      }
+    }
+    for(int j = 0; j<ny; j++) {    // x transforms
+      for(int k = 0; k<nk; k++) {
+        fft2d.colFFT.transform_internal(spectrum, j*rowspan+2*k, plane, sign);
+      }
+    }
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -0,0 +1,161 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * HermiteInterpolant provides continuous (dense) output for one-step ODE solvers.
+ *
+ * The solution is stored at the knots of one or more consecutive steps together with the rates at
+ * the knots.  The state between knots is computed with cubic Hermite polynomials.  The rate at the
+ * last knot is computed only when the interpolant is first evaluated in the last segment.
+ */
+class HermiteInterpolant {
+  ODE ode;
+  int n;          // number of equations
+  int count;      // number of knots
+  double[] t = new double[4];
+  double[][] y = new double[4][], f = new double[4][];
+  boolean lastRateValid;
+  double[] temp;
+
+  HermiteInterpolant(ODE ode) {
+    this.ode = ode;
+  }
+
+  /**
+   * Removes all knots.
+   */
+  void reset() {
+    count = 0;
+  }
+
+  /**
+   * Adds a step to the interpolant.
+   *
+   * @param h the step size
+   * @param y0 the state at the beginning of the step
+   * @param f0 the rate at the beginning of the step
+   * @param y1 the state at the end of the step
+   */
+  void addStep(double h, double[] y0, double[] f0, double[] y1) {
+    int size = y0.length;
+    if(size!=n) {
+      n = size;
+      count = 0;
+      y = new double[t.length][];
+      f = new double[t.length][];
+      temp = new double[n];
+    }
+    if(count==0) {
+      setKnot(0, 0, y0);
+      count = 1;
+    }
+    System.arraycopy(f0, 0, f[count-1], 0, n); // the rate at the previous end point is now known
+    if(count==t.length) {
+      double[] newT = new double[2*count];
+      double[][] newY = new double[2*count][], newF = new double[2*count][];
+      System.arraycopy(t, 0, newT, 0, count);
+      System.arraycopy(y, 0, newY, 0, count);
+      System.arraycopy(f, 0, newF, 0, count);
+      t = newT;
+      y = newY;
+      f = newF;
+    }
+    setKnot(count, t[count-1]+h, y1);
+    count++;
+    lastRateValid = false;
+  }
+
+  private void setKnot(int k, double time, double[] state) {
+    if(y[k]==null) {
+      y[k] = new double[n];
+      f[k] = new double[n];
+    }
+    t[k] = time;
+    System.arraycopy(state, 0, y[k], 0, n);
+  }
+
+  /**
+   * Gets the time from the first to the last knot.
+   *
+   * @return the total step size
+   */
+  double getStepSize() {
+    return(count<2) ? 0 : t[count-1];
+  }
+
+  /**
+   * Computes the state at the given time measured from the first knot.
+   *
+   * @param dt the time
+   * @param state the array that receives the state, or null
+   * @return the state
+   */
+  double[] interpolate(double dt, double[] state) {
+    if(state==null) {
+      state = new double[n];
+    }
+    if(count<2) {
+      if(count==1) {
+        System.arraycopy(y[0], 0, state, 0, n);
+      }
+      return state;
+    }
+    // find the segment
+    int k = 0, hi = count-2;
+    boolean forward = t[count-1]>0;
+    while(k<hi) {
+      int mid = (k+hi+1)>>>1;
+      if(forward ? (t[mid]<=dt) : (t[mid]>=dt)) {
+        k = mid;
+      } else {
+        hi = mid-1;
+      }
+    }
+    if((k==count-2)&&!lastRateValid) {
+      System.arraycopy(y[count-1], 0, temp, 0, n); // the ODE may not modify the stored state
+      ode.getRate(temp, f[count-1]);
+      lastRateValid = true;
+    }
+    double h = t[k+1]-t[k];
+    double s = (h==0) ? 0 : (dt-t[k])/h;
+    double s2 = s*s, s3 = s2*s;
+    double h00 = 2*s3-3*s2+1, h10 = s3-2*s2+s, h01 = -2*s3+3*s2, h11 = s3-s2;
+    double[] ya = y[k], yb = y[k+1], fa = f[k], fb = f[k+1];
+    for(int i = 0; i<n; i++) {
+      state[i] = h00*ya[i]+h*h10*fa[i]+h01*yb[i]+h*h11*fb[i];
+    }
+    return state;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
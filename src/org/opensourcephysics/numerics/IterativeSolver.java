@@ -0,0 +1,537 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * IterativeSolver solves sparse linear systems A x = b using Krylov subspace methods.
+ *
+ * The conjugate gradient method requires a symmetric positive definite matrix.  BiCGSTAB
+ * handles general nonsymmetric real and complex matrices.  Both methods accept an optional
+ * Jacobi or incomplete LU (ILU(0)) preconditioner.  The initial contents of x are used as the
+ * starting guess so that time stepping schemes can start from the previous solution.
+ *
+ * Complex vectors use interleaved real and imaginary parts as in the FFT class.
+ */
+public class IterativeSolver {
+  /**
+   * A preconditioner approximates the solution z of A z = r.
+   */
+  public interface Preconditioner {
+    /**
+     * Applies the preconditioner.
+     *
+     * @param r the residual
+     * @param z the preconditioned residual
+     */
+    public void apply(double[] r, double[] z);
+
+  }
+
+  double tolerance = 1.0e-10;
+  int maxIterations = 1000;
+  int iterations;
+  double residual;
+
+  /**
+   * Constructs a solver with a relative tolerance of 1e-10 and at most 1000 iterations.
+   */
+  public IterativeSolver() {}
+
+  /**
+   * Constructs a solver.
+   *
+   * @param tolerance the relative residual |b-Ax|/|b| at which iteration stops
+   * @param maxIterations the maximum number of iterations
+   */
+  public IterativeSolver(double tolerance, int maxIterations) {
+    this.tolerance = tolerance;
+    this.maxIterations = maxIterations;
+  }
+
+  /**
+   * Sets the relative tolerance.
+   *
+   * @param tol the tolerance
+   */
+  public void setTolerance(double tol) {
+    tolerance = tol;
+  }
+
+  /**
+   * Gets the relative tolerance.
+   *
+   * @return the tolerance
+   */
+  public double getTolerance() {
+    return tolerance;
+  }
+
+  /**
+   * Sets the maximum number of iterations.
+   *
+   * @param max the maximum
+   */
+  public void setMaxIterations(int max) {
+    maxIterations = max;
+  }
+
+  /**
+   * Gets the number of iterations used by the last solution.
+   *
+   * @return the number of iterations
+   */
+  public int getIterations() {
+    return iterations;
+  }
+
+  /**
+   * Gets the relative residual of the last solution.
+   *
+   * @return the residual
+   */
+  public double getResidual() {
+    return residual;
+  }
+
+  /**
+   * Solves a symmetric positive definite system using the preconditioned conjugate gradient method.
+   *
+   * @param a the matrix
+   * @param b the right hand side
+   * @param x the initial guess and the solution
+   * @param m the preconditioner or null
+   * @return true if the solution converged
+   */
+  public boolean solveCG(SparseMatrix a, double[] b, double[] x, Preconditioner m) {
+    int n = a.getRowCount();
+    double[] r = new double[n], z = new double[n], p = new double[n], q = new double[n];
+    a.multiply(x, q);
+    for(int i = 0; i<n; i++) {
+      r[i] = b[i]-q[i];
+    }
+    double bnorm = norm(b, n);
+    if(bnorm==0) {
+      bnorm = 1;
+    }
+    iterations = 0;
+    residual = norm(r, n)/bnorm;
+    if(residual<=tolerance) {
+      return true;
+    }
+    precondition(m, r, z, n);
+    System.arraycopy(z, 0, p, 0, n);
+    double rz = dot(r, z, n);
+    while(iterations<maxIterations) {
+      iterations++;
+      a.multiply(p, q);
+      double pq = dot(p, q, n);
+      if(pq==0) {
+        break;
+      }
+      double alpha = rz/pq;
+      for(int i = 0; i<n; i++) {
+        x[i] += alpha*p[i];
+        r[i] -= alpha*q[i];
+      }
+      residual = norm(r, n)/bnorm;
+      if(residual<=tolerance) {
+        return true;
+      }
+      precondition(m, r, z, n);
+      double rzNew = dot(r, z, n);
+      double beta = rzNew/rz;
+      rz = rzNew;
+      for(int i = 0; i<n; i++) {
+        p[i] = z[i]+beta*p[i];
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Solves a general real system using the preconditioned BiCGSTAB method.
+   *
+   * @param a the matrix
+   * @param b the right hand side
+   * @param x the initial guess and the solution
+   * @param m the preconditioner or null
+   * @return true if the solution converged
+   */
+  public boolean solveBiCGSTAB(SparseMatrix a, double[] b, double[] x, Preconditioner m) {
+    int n = a.getRowCount();
+    double[] r = new double[n], r0 = new double[n], p = new double[n], v = new double[n];
+    double[] s = new double[n], t = new double[n], ph = new double[n], sh = new double[n];
+    a.multiply(x, v);
+    for(int i = 0; i<n; i++) {
+      r[i] = r0[i] = b[i]-v[i];
+      v[i] = 0;
+    }
+    double bnorm = norm(b, n);
+    if(bnorm==0) {
+      bnorm = 1;
+    }
+    iterations = 0;
+    residual = norm(r, n)/bnorm;
+    double rho = 1, alpha = 1, omega = 1;
+    while((residual>tolerance)&&(iterations<maxIterations)) {
+      iterations++;
+      double rhoNew = dot(r0, r, n);
+      if(rhoNew==0) {
+        return false; // breakdown
+      }
+      double beta = (rhoNew/rho)*(alpha/omega);
+      rho = rhoNew;
+      for(int i = 0; i<n; i++) {
+        p[i] = r[i]+beta*(p[i]-omega*v[i]);
+      }
+      precondition(m, p, ph, n);
+      a.multiply(ph, v);
+      alpha = rho/dot(r0, v, n);
+      for(int i = 0; i<n; i++) {
+        s[i] = r[i]-alpha*v[i];
+      }
+      if(norm(s, n)/bnorm<=tolerance) {
+        for(int i = 0; i<n; i++) {
+          x[i] += alpha*ph[i];
+        }
+        residual = norm(s, n)/bnorm;
+        return true;
+      }
+      precondition(m, s, sh, n);
+      a.multiply(sh, t);
+      double tt = dot(t, t, n);
+      omega = (tt==0) ? 0 : dot(t, s, n)/tt;
+      for(int i = 0; i<n; i++) {
+        x[i] += alpha*ph[i]+omega*sh[i];
+        r[i] = s[i]-omega*t[i];
+      }
+      residual = norm(r, n)/bnorm;
+      if(omega==0) {
+        break;
+      }
+    }
+    return residual<=tolerance;
+  }
+
+  /**
+   * Solves a complex system using the preconditioned BiCGSTAB method.
+   * Vectors contain interleaved real and imaginary parts.
+   *
+   * @param a the matrix
+   * @param b the right hand side
+   * @param x the initial guess and the solution
+   * @param m the preconditioner or null
+   * @return true if the solution converged
+   */
+  public boolean solveBiCGSTAB(ComplexSparseMatrix a, double[] b, double[] x, Preconditioner m) {
+    int n = 2*a.getRowCount();
+    double[] r = new double[n], r0 = new double[n], p = new double[n], v = new double[n];
+    double[] s = new double[n], t = new double[n], ph = new double[n], sh = new double[n];
+    double[] c = new double[2];
+    a.multiply(x, v);
+    for(int i = 0; i<n; i++) {
+      r[i] = r0[i] = b[i]-v[i];
+      v[i] = 0;
+    }
+    double bnorm = norm(b, n);
+    if(bnorm==0) {
+      bnorm = 1;
+    }
+    iterations = 0;
+    residual = norm(r, n)/bnorm;
+    double rhoR = 1, rhoI = 0, alphaR = 1, alphaI = 0, omegaR = 1, omegaI = 0;
+    while((residual>tolerance)&&(iterations<maxIterations)) {
+      iterations++;
+      conjugateDot(r0, r, n, c);
+      double rhoNewR = c[0], rhoNewI = c[1];
+      if((rhoNewR==0)&&(rhoNewI==0)) {
+        return false; // breakdown
+      }
+      // beta = (rhoNew/rho)*(alpha/omega)
+      divide(rhoNewR, rhoNewI, rhoR, rhoI, c);
+      double qr = c[0], qi = c[1];
+      divide(alphaR, alphaI, omegaR, omegaI, c);
+      double betaR = qr*c[0]-qi*c[1], betaI = qr*c[1]+qi*c[0];
+      rhoR = rhoNewR;
+      rhoI = rhoNewI;
+      for(int i = 0; i<n; i += 2) {
+        // p = r+beta*(p-omega*v)
+        double dr = p[i]-(omegaR*v[i]-omegaI*v[i+1]);
+        double di = p[i+1]-(omegaR*v[i+1]+omegaI*v[i]);
+        p[i] = r[i]+betaR*dr-betaI*di;
+        p[i+1] = r[i+1]+betaR*di+betaI*dr;
+      }
+      precondition(m, p, ph, n);
+      a.multiply(ph, v);
+      conjugateDot(r0, v, n, c);
+      divide(rhoR, rhoI, c[0], c[1], c);
+      alphaR = c[0];
+      alphaI = c[1];
+      for(int i = 0; i<n; i += 2) {
+        s[i] = r[i]-(alphaR*v[i]-alphaI*v[i+1]);
+        s[i+1] = r[i+1]-(alphaR*v[i+1]+alphaI*v[i]);
+      }
+      if(norm(s, n)/bnorm<=tolerance) {
+        for(int i = 0; i<n; i += 2) {
+          x[i] += alphaR*ph[i]-alphaI*ph[i+1];
+          x[i+1] += alphaR*ph[i+1]+alphaI*ph[i];
+        }
+        residual = norm(s, n)/bnorm;
+        return true;
+      }
+      precondition(m, s, sh, n);
+      a.multiply(sh, t);
+      double tt = dot(t, t, n);
+      conjugateDot(t, s, n, c);
+      omegaR = (tt==0) ? 0 : c[0]/tt;
+      omegaI = (tt==0) ? 0 : c[1]/tt;
+      for(int i = 0; i<n; i += 2) {
+        x[i] += alphaR*ph[i]-alphaI*ph[i+1]+omegaR*sh[i]-omegaI*sh[i+1];
+        x[i+1] += alphaR*ph[i+1]+alphaI*ph[i]+omegaR*sh[i+1]+omegaI*sh[i];
+        r[i] = s[i]-(omegaR*t[i]-omegaI*t[i+1]);
+        r[i+1] = s[i+1]-(omegaR*t[i+1]+omegaI*t[i]);
+      }
+      residual = norm(r, n)/bnorm;
+      if((omegaR==0)&&(omegaI==0)) {
+        break;
+      }
+    }
+    return residual<=tolerance;
+  }
+
+  /**
+   * Creates a Jacobi (diagonal) preconditioner.
+   *
+   * @param a the matrix
+   * @return the preconditioner
+   */
+  public static Preconditioner jacobi(SparseMatrix a) {
+    final double[] inv = a.getDiagonal();
+    for(int i = 0; i<inv.length; i++) {
+      inv[i] = (inv[i]==0) ? 1 : 1/inv[i];
+    }
+    return new Preconditioner() {
+      public void apply(double[] r, double[] z) {
+        for(int i = 0; i<inv.length; i++) {
+          z[i] = inv[i]*r[i];
+        }
+      }
+
+    };
+  }
+
+  /**
+   * Creates a Jacobi (diagonal) preconditioner for a complex matrix.
+   *
+   * @param a the matrix
+   * @return the preconditioner
+   */
+  public static Preconditioner jacobi(ComplexSparseMatrix a) {
+    final double[] inv = a.getDiagonal();
+    for(int i = 0; i<inv.length; i += 2) {
+      double re = inv[i], im = inv[i+1], den = re*re+im*im;
+      inv[i] = (den==0) ? 1 : re/den;
+      inv[i+1] = (den==0) ? 0 : -im/den;
+    }
+    return new Preconditioner() {
+      public void apply(double[] r, double[] z) {
+        for(int i = 0; i<inv.length; i += 2) {
+          double re = r[i], im = r[i+1];
+          z[i] = inv[i]*re-inv[i+1]*im;
+          z[i+1] = inv[i]*im+inv[i+1]*re;
+        }
+      }
+
+    };
+  }
+
+  /**
+   * Creates an incomplete LU preconditioner with the sparsity pattern of the matrix, ILU(0).
+   *
+   * @param a the square matrix, which must have nonzero diagonal entries
+   * @return the preconditioner
+   */
+  public static Preconditioner ilu(SparseMatrix a) {
+    final int n = a.getRowCount();
+    final int[] start = a.getRowStart(), col = a.getColumnIndices(), diag = a.diagonalPositions();
+    final double[] lu = a.getValues().clone();
+    int[] position = new int[n];
+    java.util.Arrays.fill(position, -1);
+    for(int i = 0; i<n; i++) {
+      if(diag[i]<0) {
+        throw new IllegalArgumentException("ILU requires nonzero diagonal entries."); //$NON-NLS-1$
+      }
+      for(int p = start[i]; p<start[i+1]; p++) {
+        position[col[p]] = p;
+      }
+      for(int p = start[i]; (p<start[i+1])&&(col[p]<i); p++) {
+        int k = col[p];
+        lu[p] /= lu[diag[k]];
+        for(int q = diag[k]+1; q<start[k+1]; q++) {
+          int pos = position[col[q]];
+          if(pos>=0) {
+            lu[pos] -= lu[p]*lu[q];
+          }
+        }
+      }
+      for(int p = start[i]; p<start[i+1]; p++) {
+        position[col[p]] = -1;
+      }
+    }
+    return new Preconditioner() {
+      public void apply(double[] r, double[] z) {
+        for(int i = 0; i<n; i++) { // unit lower triangle
+          double sum = r[i];
+          for(int p = start[i]; p<diag[i]; p++) {
+            sum -= lu[p]*z[col[p]];
+          }
+          z[i] = sum;
+        }
+        for(int i = n-1; i>=0; i--) { // upper triangle
+          double sum = z[i];
+          for(int p = diag[i]+1; p<start[i+1]; p++) {
+            sum -= lu[p]*z[col[p]];
+          }
+          z[i] = sum/lu[diag[i]];
+        }
+      }
+
+    };
+  }
+
+  /**
+   * Creates an incomplete LU preconditioner for a complex matrix, ILU(0).
+   *
+   * @param a the square matrix, which must have nonzero diagonal entries
+   * @return the preconditioner
+   */
+  public static Preconditioner ilu(ComplexSparseMatrix a) {
+    final int n = a.getRowCount();
+    final int[] start = a.getRowStart(), col = a.getColumnIndices(), diag = a.diagonalPositions();
+    final double[] lu = a.getValues().clone();
+    final double[] c = new double[2];
+    int[] position = new int[n];
+    java.util.Arrays.fill(position, -1);
+    for(int i = 0; i<n; i++) {
+      if(diag[i]<0) {
+        throw new IllegalArgumentException("ILU requires nonzero diagonal entries."); //$NON-NLS-1$
+      }
+      for(int p = start[i]; p<start[i+1]; p++) {
+        position[col[p]] = p;
+      }
+      for(int p = start[i]; (p<start[i+1])&&(col[p]<i); p++) {
+        int k = col[p];
+        divide(lu[2*p], lu[2*p+1], lu[2*diag[k]], lu[2*diag[k]+1], c);
+        double mr = lu[2*p] = c[0], mi = lu[2*p+1] = c[1];
+        for(int q = diag[k]+1; q<start[k+1]; q++) {
+          int pos = position[col[q]];
+          if(pos>=0) {
+            lu[2*pos] -= mr*lu[2*q]-mi*lu[2*q+1];
+            lu[2*pos+1] -= mr*lu[2*q+1]+mi*lu[2*q];
+          }
+        }
+      }
+      for(int p = start[i]; p<start[i+1]; p++) {
+        position[col[p]] = -1;
+      }
+    }
+    return new Preconditioner() {
+      public void apply(double[] r, double[] z) {
+        for(int i = 0; i<n; i++) { // unit lower triangle
+          double sr = r[2*i], si = r[2*i+1];
+          for(int p = start[i]; p<diag[i]; p++) {
+            int j = col[p];
+            sr -= lu[2*p]*z[2*j]-lu[2*p+1]*z[2*j+1];
+            si -= lu[2*p]*z[2*j+1]+lu[2*p+1]*z[2*j];
+          }
+          z[2*i] = sr;
+          z[2*i+1] = si;
+        }
+        double[] q = new double[2];
+        for(int i = n-1; i>=0; i--) { // upper triangle
+          double sr = z[2*i], si = z[2*i+1];
+          for(int p = diag[i]+1; p<start[i+1]; p++) {
+            int j = col[p];
+            sr -= lu[2*p]*z[2*j]-lu[2*p+1]*z[2*j+1];
+            si -= lu[2*p]*z[2*j+1]+lu[2*p+1]*z[2*j];
+          }
+          divide(sr, si, lu[2*diag[i]], lu[2*diag[i]+1], q);
+          z[2*i] = q[0];
+          z[2*i+1] = q[1];
+        }
+      }
+
+    };
+  }
+
+  private static void precondition(Preconditioner m, double[] r, double[] z, int n) {
+    if(m==null) {
+      System.arraycopy(r, 0, z, 0, n);
+    } else {
+      m.apply(r, z);
+    }
+  }
+
+  private static double dot(double[] a, double[] b, int n) {
+    double sum = 0;
+    for(int i = 0; i<n; i++) {
+      sum += a[i]*b[i];
+    }
+    return sum;
+  }
+
+  private static double norm(double[] a, int n) {
+    return Math.sqrt(dot(a, a, n));
+  }
+
+  /**
+   * Computes the complex inner product conj(a).b of interleaved vectors.
+   */
+  private static void conjugateDot(double[] a, double[] b, int n, double[] result) {
+    double re = 0, im = 0;
+    for(int i = 0; i<n; i += 2) {
+      re += a[i]*b[i]+a[i+1]*b[i+1];
+      im += a[i]*b[i+1]-a[i+1]*b[i];
+    }
+    result[0] = re;
+    result[1] = im;
+  }
+
+  private static void divide(double ar, double ai, double br, double bi, double[] result) {
+    double den = br*br+bi*bi;
+    double re = (ar*br+ai*bi)/den, im = (ai*br-ar*bi)/den;
+    result[0] = re;
+    result[1] = im;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
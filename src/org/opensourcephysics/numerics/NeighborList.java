@@ -0,0 +1,526 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * NeighborList finds all pairs of particles that are closer than a cutoff distance in a
+ * two or three dimensional box using cell lists and Verlet lists.
+ *
+ * Positions are given as primitive arrays.  Periodic boundaries use the minimum image convention
+ * of the PBC class.  A Verlet list with a skin distance is rebuilt from the cell list only when a
+ * particle has moved more than half the skin since the last build.
+ *
+ * Typical use:
+ * <pre>
+ * NeighborList list = new NeighborList(lx, ly);
+ * list.setCutoff(2.5, 0.3);
+ * list.update(x, y, null, n);
+ * double pe = list.accumulateForces(potential, fx, fy, null);
+ * </pre>
+ */
+public class NeighborList {
+  /**
+   * An action that is invoked for every pair closer than the cutoff.
+   */
+  public interface PairAction {
+    /**
+     * Processes a pair.  The separation is the position of i minus the position of j.
+     *
+     * @param i the first particle, i&lt;j
+     * @param j the second particle
+     * @param dx the x separation
+     * @param dy the y separation
+     * @param dz the z separation, 0 in two dimensions
+     * @param r2 the squared distance
+     */
+    public void pair(int i, int j, double dx, double dy, double dz, double r2);
+
+  }
+
+  /**
+   * A central pair potential.
+   */
+  public interface PairPotential {
+    /**
+     * Gets the force magnitude divided by the distance.  A positive value is repulsive.
+     *
+     * @param r2 the squared distance
+     * @return the force divided by the distance
+     */
+    public double forceOverR(double r2);
+
+    /**
+     * Gets the potential energy of a pair.
+     *
+     * @param r2 the squared distance
+     * @return the energy
+     */
+    public double energy(double r2);
+
+  }
+
+  final int dim;
+  final double lx, ly, lz;
+  boolean periodic = true;
+  double cutoff = 1, skin = 0;
+  // positions
+  double[] x, y, z;
+  int n;
+  // cell list
+  int ncx, ncy, ncz;
+  int[] cellStart = new int[0], cellItems = new int[0], cellOf = new int[0];
+  // Verlet list in compressed rows: neighbors of i are listed in pairStart[i] .. pairStart[i+1]-1
+  boolean useVerlet = true;
+  boolean verletValid = false;
+  int[] pairStart = new int[0], pairList = new int[0];
+  int npairs;
+  double[] x0 = new double[0], y0 = new double[0], z0 = new double[0];
+  int rebuildCount;
+
+  /**
+   * Constructs a two dimensional neighbor list for the box [0,lx)x[0,ly).
+   *
+   * @param lx the box width
+   * @param ly the box height
+   */
+  public NeighborList(double lx, double ly) {
+    this(2, lx, ly, 1);
+  }
+
+  /**
+   * Constructs a three dimensional neighbor list for the box [0,lx)x[0,ly)x[0,lz).
+   *
+   * @param lx the box width
+   * @param ly the box height
+   * @param lz the box depth
+   */
+  public NeighborList(double lx, double ly, double lz) {
+    this(3, lx, ly, lz);
+  }
+
+  private NeighborList(int dim, double lx, double ly, double lz) {
+    this.dim = dim;
+    this.lx = lx;
+    this.ly = ly;
+    this.lz = lz;
+  }
+
+  /**
+   * Sets the cutoff distance and the Verlet skin.
+   *
+   * Pairs within cutoff+skin are stored in the Verlet list.  A zero skin rebuilds the list at every update.
+   *
+   * @param cutoff the interaction range
+   * @param skin the extra range stored in the Verlet list
+   */
+  public void setCutoff(double cutoff, double skin) {
+    this.cutoff = cutoff;
+    this.skin = Math.max(0, skin);
+    verletValid = false;
+  }
+
+  /**
+   * Sets periodic boundary conditions in all directions.  Periodic boundaries are the default.
+   *
+   * Without periodic boundaries particles outside the box are assigned to the nearest edge cell.
+   *
+   * @param periodic
+   */
+  public void setPeriodic(boolean periodic) {
+    this.periodic = periodic;
+    verletValid = false;
+  }
+
+  /**
+   * Enables the Verlet list.  Otherwise pairs are found from the cell list at every call.
+   *
+   * @param enable
+   */
+  public void setVerletListEnabled(boolean enable) {
+    useVerlet = enable;
+    verletValid = false;
+  }
+
+  /**
+   * Sets the particle positions and rebuilds the lists if necessary.  The arrays are not copied.
+   *
+   * @param x the x coordinates
+   * @param y the y coordinates
+   * @param z the z coordinates, ignored in two dimensions
+   * @param n the number of particles
+   */
+  public void update(double[] x, double[] y, double[] z, int n) {
+    if((this.x!=x)||(this.y!=y)||(this.z!=z)||(this.n!=n)) {
+      verletValid = false;
+    }
+    this.x = x;
+    this.y = y;
+    this.z = (dim==3) ? z : null;
+    this.n = n;
+    if(!useVerlet) {
+      buildCells();
+      return;
+    }
+    if(verletValid&&(maxDisplacement2()<0.25*skin*skin)) {
+      return;
+    }
+    buildCells();
+    buildVerletList();
+  }
+
+  /**
+   * Gets the number of times the Verlet list has been built.
+   *
+   * @return the count
+   */
+  public int getRebuildCount() {
+    return rebuildCount;
+  }
+
+  /**
+   * Gets the number of pairs in the Verlet list.  Pairs are within cutoff+skin when the list was built.
+   *
+   * @return the number of pairs
+   */
+  public int getPairCount() {
+    return useVerlet ? npairs : 0;
+  }
+
+  /**
+   * Gets the Verlet list as index pairs i0, j0, i1, j1, ... with i&lt;j.
+   *
+   * @return the pair array
+   */
+  public int[] getPairs() {
+    int[] pairs = new int[2*getPairCount()];
+    for(int i = 0, k = 0; (i<n)&&useVerlet; i++) {
+      for(int p = pairStart[i], end = pairStart[i+1]; p<end; p++) {
+        pairs[k++] = i;
+        pairs[k++] = pairList[p];
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Invokes the action for every pair that is closer than the cutoff.
+   *
+   * @param action the action
+   */
+  public void forEachPair(PairAction action) {
+    if(useVerlet&&verletValid) {
+      forEachVerletPair(0, n, action);
+    } else {
+      forEachCellPair(action);
+    }
+  }
+
+  /**
+   * Accumulates pair forces into the force arrays and returns the potential energy.
+   *
+   * Particles are divided among the ParallelLoop threads.  Each thread accumulates into its own
+   * arrays that are added to the given arrays when the thread has finished.
+   * The force arrays are not cleared.
+   *
+   * @param potential the pair potential
+   * @param fx the x forces
+   * @param fy the y forces
+   * @param fz the z forces, ignored in two dimensions
+   * @return the total potential energy
+   */
+  public double accumulateForces(final PairPotential potential, final double[] fx, final double[] fy, final double[] fz) {
+    if(!(useVerlet&&verletValid)) {
+      final double[] pe = new double[1];
+      forEachCellPair(new PairAction() {
+        public void pair(int i, int j, double dx, double dy, double dz, double r2) {
+          pe[0] += addForce(potential, i, j, dx, dy, dz, r2, fx, fy, fz);
+        }
+
+      });
+      return pe[0];
+    }
+    final double[] total = new double[1];
+    final boolean is3D = (dim==3)&&(fz!=null);
+    ParallelLoop.forRange(n, 1024, new ParallelLoop.Range() {
+      public void run(int start, int end) {
+        final double[] ax = new double[n], ay = new double[n], az = is3D ? new double[n] : null;
+        final double[] pe = new double[1];
+        forEachVerletPair(start, end, new PairAction() {
+          public void pair(int i, int j, double dx, double dy, double dz, double r2) {
+            pe[0] += addForce(potential, i, j, dx, dy, dz, r2, ax, ay, az);
+          }
+
+        });
+        synchronized(total) {
+          total[0] += pe[0];
+          for(int i = 0; i<n; i++) {
+            fx[i] += ax[i];
+            fy[i] += ay[i];
+          }
+          if(is3D) {
+            for(int i = 0; i<n; i++) {
+              fz[i] += az[i];
+            }
+          }
+        }
+      }
+
+    });
+    return total[0];
+  }
+
+  static double addForce(PairPotential potential, int i, int j, double dx, double dy, double dz, double r2, double[] fx, double[] fy, double[] fz) {
+    double f = potential.forceOverR(r2);
+    fx[i] += f*dx;
+    fy[i] += f*dy;
+    fx[j] -= f*dx;
+    fy[j] -= f*dy;
+    if(fz!=null) {
+      fz[i] += f*dz;
+      fz[j] -= f*dz;
+    }
+    return potential.energy(r2);
+  }
+
+  /**
+   * Invokes the action for Verlet list pairs whose first particle is in [start, end) and that are closer than the cutoff.
+   */
+  void forEachVerletPair(int start, int end, PairAction action) {
+    double rc2 = cutoff*cutoff;
+    for(int i = start; i<end; i++) {
+      for(int p = pairStart[i], last = pairStart[i+1]; p<last; p++) {
+        int j = pairList[p];
+        double dx = sep(x[i]-x[j], lx), dy = sep(y[i]-y[j], ly);
+        double dz = (z==null) ? 0 : sep(z[i]-z[j], lz);
+        double r2 = dx*dx+dy*dy+dz*dz;
+        if(r2<rc2) {
+          action.pair(i, j, dx, dy, dz, r2);
+        }
+      }
+    }
+  }
+
+  /**
+   * Invokes the action for every pair closer than the cutoff using the cell list.
+   */
+  void forEachCellPair(final PairAction action) {
+    final double rc2 = cutoff*cutoff;
+    scanCells(cutoff, new PairAction() {
+      public void pair(int i, int j, double dx, double dy, double dz, double r2) {
+        if(r2<rc2) {
+          action.pair(Math.min(i, j), Math.max(i, j), (i<j) ? dx : -dx, (i<j) ? dy : -dy, (i<j) ? dz : -dz, r2);
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Builds the cell list.  Cells are at least cutoff+skin wide.
+   */
+  void buildCells() {
+    double range = cutoff+skin;
+    ncx = Math.max(1, (int) (lx/range));
+    ncy = Math.max(1, (int) (ly/range));
+    ncz = (dim==3) ? Math.max(1, (int) (lz/range)) : 1;
+    int ncells = ncx*ncy*ncz;
+    if(cellStart.length!=ncells+1) {
+      cellStart = new int[ncells+1];
+    } else {
+      java.util.Arrays.fill(cellStart, 0);
+    }
+    if(cellItems.length<n) {
+      cellItems = new int[n];
+      cellOf = new int[n];
+    }
+    for(int i = 0; i<n; i++) {
+      int c = cellIndex(i);
+      cellOf[i] = c;
+      cellStart[c+1]++;
+    }
+    for(int c = 0; c<ncells; c++) {
+      cellStart[c+1] += cellStart[c];
+    }
+    int[] next = new int[ncells];
+    System.arraycopy(cellStart, 0, next, 0, ncells);
+    for(int i = 0; i<n; i++) {
+      cellItems[next[cellOf[i]]++] = i;
+    }
+  }
+
+  private int cellIndex(int i) {
+    int cx = cellCoordinate(x[i], lx, ncx);
+    int cy = cellCoordinate(y[i], ly, ncy);
+    int cz = (z==null) ? 0 : cellCoordinate(z[i], lz, ncz);
+    return(cz*ncy+cy)*ncx+cx;
+  }
+
+  private int cellCoordinate(double r, double size, int cells) {
+    if(periodic) {
+      r = PBC.position(r, size);
+    }
+    int c = (int) (r/size*cells);
+    return(c<0) ? 0 : (c>=cells) ? cells-1 : c;
+  }
+
+  /**
+   * Invokes the action for every pair in neighboring cells that is closer than the range.
+   * Each pair of cells is visited once even if a periodic dimension has fewer than three cells.
+   */
+  private void scanCells(double range, PairAction action) {
+    double range2 = range*range;
+    int[] neighbors = new int[27];
+    for(int cz = 0; cz<ncz; cz++) {
+      for(int cy = 0; cy<ncy; cy++) {
+        for(int cx = 0; cx<ncx; cx++) {
+          int c = (cz*ncy+cy)*ncx+cx;
+          int count = 0;
+          for(int oz = (dim==3) ? -1 : 0; oz<=((dim==3) ? 1 : 0); oz++) {
+            int nz = neighborCoordinate(cz+oz, ncz);
+            for(int oy = -1; (oy<=1)&&(nz>=0); oy++) {
+              int ny = neighborCoordinate(cy+oy, ncy);
+              for(int ox = -1; (ox<=1)&&(ny>=0); ox++) {
+                int nx = neighborCoordinate(cx+ox, ncx);
+                if(nx<0) {
+                  continue;
+                }
+                int nc = (nz*ncy+ny)*ncx+nx;
+                if(nc<c) {
+                  continue; // visited from the other cell
+                }
+                boolean duplicate = false;
+                for(int k = 0; k<count; k++) {
+                  duplicate |= (neighbors[k]==nc);
+                }
+                if(!duplicate) {
+                  neighbors[count++] = nc;
+                }
+              }
+            }
+          }
+          for(int k = 0; k<count; k++) {
+            int nc = neighbors[k];
+            for(int a = cellStart[c], aend = cellStart[c+1]; a<aend; a++) {
+              int i = cellItems[a];
+              for(int b = (nc==c) ? a+1 : cellStart[nc], bend = cellStart[nc+1]; b<bend; b++) {
+                int j = cellItems[b];
+                double dx = sep(x[i]-x[j], lx), dy = sep(y[i]-y[j], ly);
+                double dz = (z==null) ? 0 : sep(z[i]-z[j], lz);
+                double r2 = dx*dx+dy*dy+dz*dz;
+                if(r2<range2) {
+                  action.pair(i, j, dx, dy, dz, r2);
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private int neighborCoordinate(int c, int cells) {
+    if((c>=0)&&(c<cells)) {
+      return c;
+    }
+    if(!periodic) {
+      return -1;
+    }
+    return(c<0) ? c+cells : c-cells;
+  }
+
+  private double sep(double dr, double size) {
+    return periodic ? PBC.separation(dr, size) : dr;
+  }
+
+  /**
+   * Builds the Verlet list from the cell list and saves the reference positions.
+   */
+  void buildVerletList() {
+    final int[] count = new int[n+1];
+    final int[][] buffer = {new int[Math.max(16, 2*pairList.length)]};
+    final int[] size = new int[1];
+    scanCells(cutoff+skin, new PairAction() {
+      public void pair(int i, int j, double dx, double dy, double dz, double r2) {
+        if(2*size[0]+2>buffer[0].length) {
+          int[] grown = new int[2*buffer[0].length];
+          System.arraycopy(buffer[0], 0, grown, 0, 2*size[0]);
+          buffer[0] = grown;
+        }
+        int lo = Math.min(i, j), hi = Math.max(i, j);
+        buffer[0][2*size[0]] = lo;
+        buffer[0][2*size[0]+1] = hi;
+        size[0]++;
+        count[lo+1]++;
+      }
+
+    });
+    npairs = size[0];
+    if(pairStart.length!=n+1) {
+      pairStart = new int[n+1];
+    }
+    for(int i = 0; i<n; i++) {
+      count[i+1] += count[i];
+    }
+    System.arraycopy(count, 0, pairStart, 0, n+1);
+    if(pairList.length<npairs) {
+      pairList = new int[npairs];
+    }
+    int[] pairs = buffer[0];
+    for(int k = 0; k<npairs; k++) {
+      pairList[count[pairs[2*k]]++] = pairs[2*k+1];
+    }
+    if(x0.length<n) {
+      x0 = new double[n];
+      y0 = new double[n];
+      z0 = new double[n];
+    }
+    System.arraycopy(x, 0, x0, 0, n);
+    System.arraycopy(y, 0, y0, 0, n);
+    if(z!=null) {
+      System.arraycopy(z, 0, z0, 0, n);
+    }
+    verletValid = true;
+    rebuildCount++;
+  }
+
+  private double maxDisplacement2() {
+    double max = 0;
+    for(int i = 0; i<n; i++) {
+      double dx = sep(x[i]-x0[i], lx), dy = sep(y[i]-y0[i], ly);
+      double dz = (z==null) ? 0 : sep(z[i]-z0[i], lz);
+      max = Math.max(max, dx*dx+dy*dy+dz*dz);
+    }
+    return max;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
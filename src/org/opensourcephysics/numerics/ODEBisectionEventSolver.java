@@ -23,6 +23,7 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
   /* Implementation variables */
   protected int size;
   protected double[] statea;
+  protected double[] statec; // interpolated state
   protected ODESolver solver;
   protected TriggerODE triggerOde;
   protected Vector<StateEvent> eventList = new Vector<StateEvent>();
@@ -40,9 +41,8 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
    *   Tested with fixed step solvers.
    *   Tested with adaptive algorithms.
    *   Tested with interpolation algorithms. (See the checks for ODEInterpolationSolver!)
-   *     Thought it could probably be improved a bit by changing initialize() to
-   *     a (non-yet-existing) synchronize()...
-   *     Performance is quite good in examples, though.
+   *     Events are located on the dense output of the last step using the Illinois
+   *     (modified regula falsi) method, so the step is not re-integrated.
    *
    *   Fails with Zeno-type problems (as most others :-)
    *
@@ -87,6 +87,7 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
     // Reserve my own space
     size = triggerOde.getState().length;
     statea = new double[size];
+    statec = new double[size];
     solver.initialize(stepSize); // Defer to the real solver
   }
 
@@ -170,6 +171,12 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
           break;                                                                                            // No need to continue
         }
       }
+      if((eventFound==null)&&(solver instanceof ODEDenseOutputSolver)&&(((ODEDenseOutputSolver) solver).getLastStepSize()!=0)) {
+        eventFound = findByInterpolation((ODEDenseOutputSolver) solver);
+        if(eventFound!=null) {
+          t = t+lastRoot;
+        } // otherwise the trigger ODE is still at a and the event is found by subdivision
+      }
       if(eventFound==null) {                                                                                // Now find by subdivision
         // This synchronizes our triggerOde state with the state of the ODEInterpolatorSolver
         if(solver instanceof ODEInterpolationSolver) {
@@ -247,6 +254,64 @@ public class ODEBisectionEventSolver implements ODEEventSolver, ODEAdaptiveSolve
     return t;
   }
 
+  private double lastRoot; // time of the event found by interpolation
+
+  /**
+   * Finds the first event within the last step using the solver's dense output.
+   * The trigger ODE is set to the state at the event.
+   *
+   * @param interpolator the solver
+   * @return the event or null if no root was found
+   */
+  private StateEvent findByInterpolation(ODEDenseOutputSolver interpolator) {
+    double dt = interpolator.getLastStepSize();
+    double[] stateb = interpolator.interpolate(dt, null); // the trigger ODE has been reset to statea
+    StateEvent first = null;
+    double tFirst = 0;
+    for(Enumeration<StateEvent> e = happened.elements(); e.hasMoreElements(); ) {
+      StateEvent evt = e.nextElement();
+      double tol = evt.getTolerance();
+      // Illinois iteration on [a,b] with f(a)>0 and f(b)<0
+      double a = 0, fa = evt.evaluate(statea);
+      double b = dt, fb = evt.evaluate(stateb);
+      double root = Double.NaN;
+      if(fa<=0) {
+        root = 0;
+      }
+      for(int i = 0; (i<MAX)&&Double.isNaN(root); i++) {
+        double c = b-fb*(b-a)/(fb-fa);
+        if((c-a)*(c-b)>0) { // outside the bracket because of roundoff
+          c = 0.5*(a+b);
+        }
+        double fc = evt.evaluate(interpolator.interpolate(c, statec));
+        if(Math.abs(fc)<tol) {
+          root = c;
+        } else if(fc*fb<0) {
+          a = b;
+          fa = fb;
+          b = c;
+          fb = fc;
+        } else {
+          fa *= 0.5;
+          b = c;
+          fb = fc;
+        }
+      }
+      if(!Double.isNaN(root)&&((first==null)||(Math.abs(root)<Math.abs(tFirst)))) {
+        first = evt;
+        tFirst = root;
+      }
+    }
+    if(first==null) {
+      return null;
+    }
+    lastRoot = tFirst;
+    interpolator.interpolate(tFirst, statec);
+    triggerOde.setState(statec);
+    System.arraycopy(statec, 0, statea, 0, size);
+    return first;
+  }
+
   /**
    * Gets the error code.
    * Error codes:
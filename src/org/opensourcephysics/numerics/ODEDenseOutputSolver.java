@@ -0,0 +1,57 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * ODEDenseOutputSolver is an adaptive solver that provides continuous (dense) output within the last step.
+ *
+ * Event solvers use the interpolated state to locate events without re-integrating the step.
+ */
+public interface ODEDenseOutputSolver extends ODEAdaptiveSolver {
+  /**
+   * Gets the size of the last step.  Returns zero if no step has been taken.
+   *
+   * @return the step size
+   */
+  public double getLastStepSize();
+
+  /**
+   * Computes the state at a time within the last step.
+   *
+   * @param dt the time measured from the beginning of the last step
+   * @param state the array that receives the state, or null
+   * @return the state
+   */
+  public double[] interpolate(double dt, double[] state);
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
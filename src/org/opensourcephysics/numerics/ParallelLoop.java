@@ -0,0 +1,152 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import org.opensourcephysics.js.JSUtil;
+
+/**
+ * ParallelLoop splits a counted loop into contiguous ranges and runs the ranges on a shared pool
+ * of daemon threads.
+ *
+ * Loops run in the calling thread in JavaScript, when only one processor is available, when the
+ * loop is too short to split, or when the loop is started from within another parallel loop.
+ */
+public class ParallelLoop {
+  static final int processors = Runtime.getRuntime().availableProcessors();
+  static ExecutorService pool;
+  static final ThreadLocal<Boolean> inPool = new ThreadLocal<Boolean>();
+
+  /**
+   * A task that processes the indices in [start, end).
+   */
+  public interface Range {
+    /**
+     * Processes the indices from start (inclusive) to end (exclusive).
+     *
+     * @param start int
+     * @param end int
+     */
+    public void run(int start, int end);
+
+  }
+
+  private ParallelLoop() {}
+
+  /**
+   * Gets the number of threads used by parallel loops.
+   *
+   * @return the number of threads, 1 if loops always run in the calling thread
+   */
+  public static int getThreadCount() {
+    return JSUtil.isJS ? 1 : processors;
+  }
+
+  /**
+   * Runs the given task over the indices [0, n) using at least minChunk indices per thread.
+   *
+   * Exceptions thrown by the task are rethrown in the calling thread.
+   *
+   * @param n the number of indices
+   * @param minChunk the smallest number of indices worth handing to a thread
+   * @param task the task
+   */
+  public static void forRange(int n, int minChunk, final Range task) {
+    int chunks = Math.min(getThreadCount(), n/Math.max(1, minChunk));
+    if((chunks<2)||(inPool.get()!=null)) {
+      if(n>0) {
+        task.run(0, n);
+      }
+      return;
+    }
+    ExecutorService executor = getPool();
+    ArrayList<Future<?>> futures = new ArrayList<Future<?>>(chunks-1);
+    int chunk = (n+chunks-1)/chunks;
+    for(int start = chunk; start<n; start += chunk) {
+      final int s = start, e = Math.min(n, start+chunk);
+      futures.add(executor.submit(new Runnable() {
+        public void run() {
+          task.run(s, e);
+        }
+
+      }));
+    }
+    RuntimeException error = null;
+    try {
+      task.run(0, Math.min(n, chunk));
+    } catch(RuntimeException ex) {
+      error = ex;
+    }
+    for(int i = 0, m = futures.size(); i<m; i++) {
+      try {
+        futures.get(i).get();
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch(java.util.concurrent.ExecutionException ex) {
+        if((error==null)&&(ex.getCause() instanceof RuntimeException)) {
+          error = (RuntimeException) ex.getCause();
+        } else if(error==null) {
+          error = new RuntimeException(ex.getCause());
+        }
+      }
+    }
+    if(error!=null) {
+      throw error;
+    }
+  }
+
+  static synchronized ExecutorService getPool() {
+    if(pool==null) {
+      pool = Executors.newFixedThreadPool(processors, new ThreadFactory() {
+        int count = 0;
+        public Thread newThread(final Runnable r) {
+          Thread thread = new Thread(new Runnable() {
+            public void run() {
+              inPool.set(Boolean.TRUE);
+              r.run();
+            }
+
+          }, "ParallelLoop-"+(++count)); //$NON-NLS-1$
+          thread.setDaemon(true);
+          return thread;
+        }
+
+      });
+    }
+    return pool;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
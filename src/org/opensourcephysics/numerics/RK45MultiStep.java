@@ -39,10 +39,16 @@ public class RK45MultiStep extends RK45 {
    */
   public double step() {
     error_code = NO_ERROR;
-    if(fixedStepSize>0) {
-      return fixedStepSize-plus();
+    interpolant.reset();
+    keepKnots = true; // the interpolant spans all the internal steps
+    try {
+      if(fixedStepSize>0) {
+        return fixedStepSize-plus();
+      }
+      return fixedStepSize-minus();
+    } finally {
+      keepKnots = false;
     }
-    return fixedStepSize-minus();
   }
 
   /**
@@ -0,0 +1,181 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * SparseMatrix is a real matrix that stores its nonzero entries in compressed sparse row format.
+ *
+ * The matrix is assembled with set and add.  Matrix-vector products are computed in parallel for large matrices.
+ * Use IterativeSolver to solve sparse linear systems.
+ */
+public class SparseMatrix extends CompressedRowStorage {
+  static final int MIN_ROWS_PER_THREAD = 4096;
+
+  /**
+   * Constructs a rows by cols matrix with no entries.
+   *
+   * @param rows the number of rows
+   * @param cols the number of columns
+   */
+  public SparseMatrix(int rows, int cols) {
+    super(rows, cols, 1);
+  }
+
+  /**
+   * Constructs a sparse matrix containing the nonzero elements of a dense matrix.
+   *
+   * @param a the dense matrix
+   */
+  public SparseMatrix(double[][] a) {
+    super(a.length, a[0].length, 1);
+    for(int i = 0; i<rows; i++) {
+      for(int j = 0; j<cols; j++) {
+        if(a[i][j]!=0) {
+          set(i, j, a[i][j]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param value the value
+   */
+  public void set(int i, int j, double value) {
+    addEntry(i, j, value, 0, true);
+  }
+
+  /**
+   * Adds a value to an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @param value the value
+   */
+  public void add(int i, int j, double value) {
+    addEntry(i, j, value, 0, false);
+  }
+
+  /**
+   * Gets an entry.
+   *
+   * @param i the row
+   * @param j the column
+   * @return the value, zero if the entry is not stored
+   */
+  public double get(int i, int j) {
+    compress();
+    int p = find(i, j);
+    return(p<0) ? 0 : values[p];
+  }
+
+  /**
+   * Gets the values of the stored entries in compressed row order.
+   *
+   * @return the array
+   */
+  public double[] getValues() {
+    compress();
+    return values;
+  }
+
+  /**
+   * Gets the diagonal.
+   *
+   * @return the diagonal entries
+   */
+  public double[] getDiagonal() {
+    int[] diag = diagonalPositions();
+    double[] d = new double[diag.length];
+    for(int i = 0; i<d.length; i++) {
+      d[i] = (diag[i]<0) ? 0 : values[diag[i]];
+    }
+    return d;
+  }
+
+  /**
+   * Computes the product y = A x.
+   *
+   * @param x the vector
+   * @param y the product
+   */
+  public void multiply(final double[] x, final double[] y) {
+    compress();
+    final int[] start = rowStart, col = colIndex;
+    final double[] val = values;
+    ParallelLoop.forRange(rows, MIN_ROWS_PER_THREAD, new ParallelLoop.Range() {
+      public void run(int first, int end) {
+        for(int i = first; i<end; i++) {
+          double sum = 0;
+          for(int p = start[i], last = start[i+1]; p<last; p++) {
+            sum += val[p]*x[col[p]];
+          }
+          y[i] = sum;
+        }
+      }
+
+    });
+  }
+
+  /**
+   * Computes the product A x.
+   *
+   * @param x the vector
+   * @return the product
+   */
+  public double[] multiply(double[] x) {
+    double[] y = new double[rows];
+    multiply(x, y);
+    return y;
+  }
+
+  /**
+   * Converts this matrix to a dense matrix.
+   *
+   * @return the dense matrix
+   */
+  public double[][] toArray() {
+    compress();
+    double[][] a = new double[rows][cols];
+    for(int i = 0; i<rows; i++) {
+      for(int p = rowStart[i]; p<rowStart[i+1]; p++) {
+        a[i][colIndex[p]] = values[p];
+      }
+    }
+    return a;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -0,0 +1,154 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.numerics;
+
+/**
+ * TridiagonalSolver solves tridiagonal linear systems using the Thomas algorithm.
+ *
+ * Row i of the system is a[i] x[i-1] + b[i] x[i] + c[i] x[i+1] = d[i]; a[0] and c[n-1] are ignored.
+ * The algorithm does not pivot and requires a diagonally dominant or otherwise well conditioned matrix.
+ * Complex systems use interleaved real and imaginary parts as in the FFT class.
+ */
+public class TridiagonalSolver {
+  private TridiagonalSolver() {} // prohibit instantiation
+
+  /**
+   * Solves a real tridiagonal system.
+   *
+   * @param a the subdiagonal
+   * @param b the diagonal
+   * @param c the superdiagonal
+   * @param d the right hand side
+   * @param x the solution, may be the same array as d
+   */
+  public static void solve(double[] a, double[] b, double[] c, double[] d, double[] x) {
+    int n = b.length;
+    double[] cp = new double[n];
+    double beta = b[0];
+    if(beta==0) {
+      throw new NumericMethodException("Zero pivot in tridiagonal system.", 0, 0); //$NON-NLS-1$
+    }
+    x[0] = d[0]/beta;
+    for(int i = 1; i<n; i++) {
+      cp[i-1] = c[i-1]/beta;
+      beta = b[i]-a[i]*cp[i-1];
+      if(beta==0) {
+        throw new NumericMethodException("Zero pivot in tridiagonal system.", i, 0); //$NON-NLS-1$
+      }
+      x[i] = (d[i]-a[i]*x[i-1])/beta;
+    }
+    for(int i = n-2; i>=0; i--) {
+      x[i] -= cp[i]*x[i+1];
+    }
+  }
+
+  /**
+   * Solves a complex tridiagonal system.  All arrays contain interleaved real and imaginary parts.
+   *
+   * @param a the subdiagonal
+   * @param b the diagonal
+   * @param c the superdiagonal
+   * @param d the right hand side
+   * @param x the solution, may be the same array as d
+   */
+  public static void solveComplex(double[] a, double[] b, double[] c, double[] d, double[] x) {
+    int n = b.length/2;
+    double[] cp = new double[2*n];
+    double br = b[0], bi = b[1];
+    double den = br*br+bi*bi;
+    if(den==0) {
+      throw new NumericMethodException("Zero pivot in tridiagonal system.", 0, 0); //$NON-NLS-1$
+    }
+    double xr = (d[0]*br+d[1]*bi)/den, xi = (d[1]*br-d[0]*bi)/den;
+    x[0] = xr;
+    x[1] = xi;
+    for(int i = 1; i<n; i++) {
+      // cp[i-1] = c[i-1]/beta
+      double cr = c[2*i-2], ci = c[2*i-1];
+      double pr = (cr*br+ci*bi)/den, pi = (ci*br-cr*bi)/den;
+      cp[2*i-2] = pr;
+      cp[2*i-1] = pi;
+      // beta = b[i]-a[i]*cp[i-1]
+      double ar = a[2*i], ai = a[2*i+1];
+      br = b[2*i]-(ar*pr-ai*pi);
+      bi = b[2*i+1]-(ar*pi+ai*pr);
+      den = br*br+bi*bi;
+      if(den==0) {
+        throw new NumericMethodException("Zero pivot in tridiagonal system.", i, 0); //$NON-NLS-1$
+      }
+      // x[i] = (d[i]-a[i]*x[i-1])/beta
+      double nr = d[2*i]-(ar*x[2*i-2]-ai*x[2*i-1]);
+      double ni = d[2*i+1]-(ar*x[2*i-1]+ai*x[2*i-2]);
+      x[2*i] = (nr*br+ni*bi)/den;
+      x[2*i+1] = (ni*br-nr*bi)/den;
+    }
+    for(int i = n-2; i>=0; i--) {
+      double pr = cp[2*i], pi = cp[2*i+1];
+      double nr = x[2*i+2], ni = x[2*i+3];
+      x[2*i] -= pr*nr-pi*ni;
+      x[2*i+1] -= pr*ni+pi*nr;
+    }
+  }
+
+  /**
+   * Solves a complex tridiagonal system.
+   *
+   * @param a the subdiagonal
+   * @param b the diagonal
+   * @param c the superdiagonal
+   * @param d the right hand side
+   * @return the solution
+   */
+  public static Complex[] solve(Complex[] a, Complex[] b, Complex[] c, Complex[] d) {
+    int n = b.length;
+    double[] as = interleave(a), bs = interleave(b), cs = interleave(c), x = interleave(d);
+    solveComplex(as, bs, cs, x, x);
+    Complex[] z = new Complex[n];
+    for(int i = 0; i<n; i++) {
+      z[i] = new Complex(x[2*i], x[2*i+1]);
+    }
+    return z;
+  }
+
+  static double[] interleave(Complex[] z) {
+    double[] array = new double[2*z.length];
+    for(int i = 0; i<z.length; i++) {
+      if(z[i]!=null) {
+        array[2*i] = z[i].re();
+        array[2*i+1] = z[i].im();
+      }
+    }
+    return array;
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -86,6 +86,26 @@ public class DataColumn extends Dataset {
     return temp;
   }
 
+  /**
+   * Copies a block of points, with shift added to the y values if shifted.
+   *
+   * @param start the index of the first point
+   * @param x the array to fill with x values, may be null
+   * @param y the array to fill with y values, may be null
+   * @param length the maximum number of points to copy
+   * @return the number of points copied
+   */
+  @Override
+  public int getPoints(int start, double[] x, double[] y, int length) {
+    length = super.getPoints(start, x, y, length);
+    if((y!=null)&&isShifted()) {
+      for(int i = 0; i<length; i++) {
+        y[i] += shift;
+      }
+    }
+    return length;
+  }
+
   /**
    * Sets the shifted property to shift the values of all elements.
    *
@@ -97,7 +97,7 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
   protected static Dimension dim = new Dimension(800, 540);
   protected static final int defaultButtonHeight = 28;
   protected static int buttonHeight = defaultButtonHeight;
-  protected static String[] delimiters = new String[] {" ", "\t", ",", ";"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+  protected static String[] delimiters = DelimitedDataReader.delimiters;
   protected static TextFrame helpFrame;
   protected static String helpName = "datatool/datatool_help.html";                                 //$NON-NLS-1$
   protected static String helpBase = "https://www.compadre.org/osp/online_help/tools/"; //$NON-NLS-1$
@@ -510,8 +510,8 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
         }
       }
       // if not xml, attempt to import data and add tab
-      else if(res.getString()!=null) {
-        Data data = parseData(res.getString(), fileName);
+      else {
+        Data data = importData(res, fileName);
         if(data!=null) {
         	DataToolTab tab = createTab(data);
           addTab(tab);
@@ -555,8 +555,8 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
         }
       }
       // if not xml, attempt to import data and add tab
-      else if(res.getString()!=null) {
-        Data data = parseData(res.getString(), fileName);
+      else {
+        Data data = importData(res, fileName);
         if(data!=null) {
           tab.addColumns(data, true, true, true);
           return fileName;
@@ -737,60 +737,7 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
    * @return an array of String tokens
    */
   protected static String[] parseStrings(String text, String delimiter) {
-    Collection<String> tokens = new ArrayList<String>();
-    if(text!=null) {
-      // get the first token
-      String next = text;
-      int i = text.indexOf(delimiter);
-      if(i==-1) {   // no delimiter
-        tokens.add(stripQuotes(next));
-        text = null;
-      } else {
-        next = text.substring(0, i);
-        text = text.substring(i+1);
-        while (" ".equals(delimiter)  //$NON-NLS-1$
-        		&& (text.startsWith(" ") || text.startsWith("\t"))) { //$NON-NLS-1$ //$NON-NLS-2$
-        	// treat multiple spaces/tabs as a single delimiter
-        	text = text.substring(1);
-        }
-      }
-      // iterate thru the tokens and add to token list
-      while(text!=null) {
-        tokens.add(stripQuotes(next));
-        i = text.indexOf(delimiter);
-        if(i==-1) { // no delimiter
-          next = text;
-          tokens.add(stripQuotes(next));
-          text = null;
-        } else {
-          next = text.substring(0, i).trim();
-          text = text.substring(i+1);
-          while (" ".equals(delimiter)  //$NON-NLS-1$
-          		&& (text.startsWith(" ") || text.startsWith("\t"))) { //$NON-NLS-1$ //$NON-NLS-2$
-          	// treat multiple spaces/tabs as a single delimiter
-          	text = text.substring(1);
-          }
-        }
-      }
-    }
-    return tokens.toArray(new String[0]);
-  }
-
-  /**
-   * Strips quotation marks around a string.
-   *
-   * @param text the text to strip
-   * @return the stripped string
-   */
-  private static String stripQuotes(String text) {
-    if(text.startsWith("\"")) {       //$NON-NLS-1$
-      String stripped = text.substring(1);
-      int n = stripped.indexOf("\""); //$NON-NLS-1$
-      if(n>-1 && n==stripped.length()-1) {
-        return stripped.substring(0, n);
-      }
-    }
-    return text;
+    return DelimitedDataReader.parseStrings(text, delimiter);
   }
 
   /**
@@ -815,28 +762,7 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
    * @return an array of doubles
    */
   protected static double[] parseDoubles(String[] strings, String delimiter) {
-    double[] doubles = new double[strings.length];
-    for(int i = 0; i<strings.length; i++) {
-      if(strings[i].indexOf("\t")>-1) { //$NON-NLS-1$
-        doubles[i] = Double.NaN;
-      } else {
-        try {
-          doubles[i] = Double.parseDouble(strings[i]);
-        } catch(NumberFormatException e) {
-        	// convert decimal separator commas with periods
-        	if (strings[i].indexOf(",")>-1 && !delimiter.equals(",")) { //$NON-NLS-1$ //$NON-NLS-2$
-        		strings[i] = strings[i].replace(",", "."); //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-              doubles[i] = Double.parseDouble(strings[i]);
-            } catch(NumberFormatException e1) {
-            	doubles[i] = Double.NaN;
-            }        		
-        	}
-        	else doubles[i] = Double.NaN;
-        }
-      }
-    }
-    return doubles;
+    return DelimitedDataReader.parseDoubles(strings, delimiter);
   }
 
   /**
@@ -881,6 +807,33 @@ public class DataTool extends OSPFrame implements Tool, PropertyChangeListener {
     return doubles;
   }
 
+  /**
+   * Imports character-delimited data from a resource.  Files are streamed with a
+   * DelimitedDataReader so they are never held in memory as a String.
+   *
+   * @param res the resource
+   * @param fileName name of file containing the data (may be null)
+   * @return DatasetManager with parsed data, or null if none found
+   */
+  protected static DatasetManager importData(Resource res, String fileName) {
+    File file = res.getFile();
+    if(file!=null) {
+      Reader in = res.openReader();
+      try {
+        return new DelimitedDataReader().read(in, file.length(), fileName);
+      } catch(IOException ex) {
+        OSPLog.fine("failed to read "+fileName+": "+ex); //$NON-NLS-1$ //$NON-NLS-2$
+        return null;
+      } finally {
+        try {
+          in.close();
+        } catch(IOException ex) {}
+      }
+    }
+    String dataString = res.getString();
+    return (dataString==null) ? null : parseData(dataString, fileName);
+  }
+
   /**
    * Parses character-delimited data from a string.
    * This attempts to extract the following information from the string:
@@ -100,6 +100,7 @@ import org.opensourcephysics.controls.XMLControlElement;
 import org.opensourcephysics.controls.XMLProperty;
 import org.opensourcephysics.display.Data;
 import org.opensourcephysics.display.DataFunction;
+import org.opensourcephysics.display.DataFunctionGraph;
 import org.opensourcephysics.display.DataTable;
 import org.opensourcephysics.display.Dataset;
 import org.opensourcephysics.display.DatasetManager;
@@ -4438,12 +4439,7 @@ public class DataToolTab extends JPanel implements Tool, PropertyChangeListener
             tab.dataManager.addDataset(f);
           }
           // refresh dataFunctions
-          ArrayList<Dataset> datasets = tab.dataManager.getDatasets();
-          for(int i = 0; i<datasets.size(); i++) {
-            if(datasets.get(i) instanceof DataFunction) {
-              ((DataFunction) datasets.get(i)).refreshFunctionData();
-            }
-          }
+          new DataFunctionGraph(tab.dataManager).refresh();
           tab.dataTable.refreshTable();
           break;
         }
@@ -59,6 +59,7 @@ import javax.swing.undo.CannotUndoException;
 
 import org.opensourcephysics.controls.OSPLog;
 import org.opensourcephysics.display.DataFunction;
+import org.opensourcephysics.display.DataFunctionGraph;
 import org.opensourcephysics.display.DataTable;
 import org.opensourcephysics.display.Dataset;
 import org.opensourcephysics.display.DatasetManager;
@@ -1509,7 +1510,8 @@ public class DataToolTable extends DataTable {
         insertPoints(next, fillRows, null);
       }
     }
-    refreshDataFunctions();
+    // existing rows are unchanged if cells are inserted at the end
+    refreshDataFunctions(values.keySet(), (rows.length>0)&&(rows[0]>=count) ? rows : null);
     refreshTable();
     setSelectedModelRows(rows);
     setSelectedColumnNames(values.keySet());
@@ -1548,7 +1550,7 @@ public class DataToolTable extends DataTable {
     }
     // trim empty rows
     trimEmptyRows(startFillRow-1);
-    refreshDataFunctions();
+    refreshDataFunctions(values.keySet(), null);
     refreshTable();
     setSelectedColumnNames(values.keySet());
     setSelectedModelRows(rows);
@@ -1578,7 +1580,7 @@ public class DataToolTable extends DataTable {
       replaced.put(colName, pts);
       cols[i++] = convertColumnIndexToView(index+1);
     }
-    refreshDataFunctions();
+    refreshDataFunctions(values.keySet(), rows);
     refreshTable();
     setSelectedModelRows(rows);
     setSelectedColumnNames(values.keySet());
@@ -1908,13 +1910,18 @@ public class DataToolTable extends DataTable {
    * Refreshes the data functions.
    */
   public void refreshDataFunctions() {
-    java.util.Iterator<Dataset> it = dataManager.getDatasets().iterator();
-    while(it.hasNext()) {
-      Dataset next = it.next();
-      if(next instanceof DataFunction) {
-        ((DataFunction) next).refreshFunctionData();
-      }
-    }
+    new DataFunctionGraph(dataManager).refresh();
+  }
+
+  /**
+   * Refreshes the data functions that depend on changed columns. Other data
+   * functions refresh only rows added to or removed from the end of the table.
+   *
+   * @param colNames the names of the changed columns
+   * @param rows the changed model rows, or null if rows were inserted or removed
+   */
+  protected void refreshDataFunctions(Collection<String> colNames, int[] rows) {
+    new DataFunctionGraph(dataManager).refresh(colNames, rows);
   }
   
   /**
@@ -0,0 +1,793 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.tools;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.opensourcephysics.controls.XML;
+import org.opensourcephysics.display.Dataset;
+import org.opensourcephysics.display.DatasetManager;
+import org.opensourcephysics.numerics.ParallelLoop;
+
+/**
+ * DelimitedDataReader imports character-delimited (csv, tsv, space-delimited) data files into a DatasetManager.
+ *
+ * The file is read in chunks of characters. The delimiter, title and column names are found in the
+ * first lines of the file using the same rules as DataTool.parseData, so the columns are named the same way.
+ * The data lines of each chunk are then parsed in parallel directly into primitive column buffers.
+ *
+ * Unlike DataTool.parseData, the datasets are enlarged to hold every row of large files.
+ *
+ * Progress is reported to listeners of the "progress" property as an Integer percentage
+ * if the length of the input is known, and 100 is always reported when the read is finished.
+ * If no header is found in the first HEAD_LINES lines, the whole input is scanned by DataTool.parseData.
+ */
+public class DelimitedDataReader {
+  static String[] delimiters = new String[] {" ", "\t", ",", ";"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+  static final int HEAD_LINES = 1000; // maximum number of lines searched for the header
+  static final double[] POWERS = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+  protected PropertyChangeSupport support = new PropertyChangeSupport(this);
+  int chunkSize = 1<<20;
+  // results
+  String title;
+  String[] columnNames;
+  double[][] columns = new double[0][];
+  int columnCount, rowCount;
+
+  /**
+   * Sets the number of characters read and parsed at a time.
+   *
+   * @param size the chunk size
+   */
+  public void setChunkSize(int size) {
+    chunkSize = Math.max(1024, size);
+  }
+
+  /**
+   * Gets the number of data rows imported by the last read.
+   *
+   * @return the number of rows
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Adds a listener for the "progress" property.
+   *
+   * @param listener the listener
+   */
+  public void addPropertyChangeListener(PropertyChangeListener listener) {
+    support.addPropertyChangeListener(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener
+   */
+  public void removePropertyChangeListener(PropertyChangeListener listener) {
+    support.removePropertyChangeListener(listener);
+  }
+
+  /**
+   * Reads a data file.
+   *
+   * @param file the file
+   * @return DatasetManager with the data, or null if none found
+   * @throws IOException
+   */
+  public DatasetManager read(File file) throws IOException {
+    Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8"); //$NON-NLS-1$
+    try {
+      return read(in, file.length(), file.getPath());
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Reads character-delimited data.
+   *
+   * @param in the reader
+   * @param length the approximate number of characters, or -1 if unknown
+   * @param fileName the name of the file that contains the data (may be null)
+   * @return DatasetManager with the data, or null if none found
+   * @throws IOException
+   */
+  public DatasetManager read(Reader in, long length, String fileName) throws IOException {
+    title = null;
+    columnNames = null;
+    columnCount = rowCount = 0;
+    char[] buf = new char[chunkSize];
+    int n = fill(in, buf, 0);
+    boolean eof = n<buf.length;
+    // find the header in the first lines
+    ArrayList<String> head = new ArrayList<String>();
+    int[] starts = new int[HEAD_LINES+1];
+    boolean complete = true; // true if the head holds every line of the input
+    for(int pos = 0; pos<n; ) {
+      int end = pos;
+      while((end<n)&&(buf[end]!='\n')&&(buf[end]!='\r')) {
+        end++;
+      }
+      if(((end==n)&&!eof)||(head.size()==HEAD_LINES)) {
+        complete = false;                        // incomplete line or too many lines
+        break;
+      }
+      starts[head.size()] = pos;
+      head.add(new String(buf, pos, end-pos));
+      pos = skipTerminator(buf, end, n);
+    }
+    int first = -1;
+    char delimiter = 0;
+    for(int i = 0; (i<delimiters.length)&&(first<0); i++) {
+      first = findHeader(head, delimiters[i]);
+      delimiter = delimiters[i].charAt(0);
+    }
+    if(first<0) {
+      if(complete&&eof) {
+        fireComplete(0);
+        return null;
+      }
+      // no header in the first lines: scan the whole input as DataTool.parseData does
+      StringBuffer text = new StringBuffer(n);
+      text.append(buf, 0, n);
+      for(int count = in.read(buf); count>=0; count = in.read(buf)) {
+        text.append(buf, 0, count);
+      }
+      DatasetManager data = DataTool.parseData(text.toString(), fileName);
+      fireComplete(0);
+      return data;
+    }
+    columnCount = (columnNames==null) ? 0 : columnNames.length;
+    // parse the data in chunks
+    int threads = ParallelLoop.getThreadCount();
+    final Block[] blocks = new Block[threads];
+    for(int i = 0; i<threads; i++) {
+      blocks[i] = new Block(delimiter);
+    }
+    int start = starts[first];
+    long done = 0;
+    int percent = 0;
+    while(true) {
+      int end = eof ? n : lastLineEnd(buf, n);
+      if(end<=start) {                            // a line is longer than the buffer
+        char[] newBuf = new char[2*buf.length];
+        System.arraycopy(buf, 0, newBuf, 0, n);
+        buf = newBuf;
+      } else {
+        parseChunk(buf, start, end, blocks);
+        done += end-start;
+        if(length>0) {
+          int p = (int) Math.min(100, 100*done/length);
+          if(p!=percent) {
+            support.firePropertyChange("progress", percent, p); //$NON-NLS-1$
+            percent = p;
+          }
+        }
+        // move the remaining characters to the start of the buffer
+        System.arraycopy(buf, end, buf, 0, n-end);
+        n -= end;
+        start = 0;
+      }
+      if(eof) {
+        break;
+      }
+      int read = fill(in, buf, n);
+      eof = read<buf.length;
+      n = read;
+    }
+    fireComplete(percent);
+    if(rowCount==0) {
+      return null;
+    }
+    return createDatasetManager(fileName);
+  }
+
+  /**
+   * Reports 100 percent progress when a read is finished.
+   *
+   * @param percent the last percentage reported
+   */
+  private void fireComplete(int percent) {
+    if(percent!=100) {
+      support.firePropertyChange("progress", percent, 100); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Creates the DatasetManager with the same names as DataTool.parseData.
+   */
+  private DatasetManager createDatasetManager(String fileName) {
+    DatasetManager data = new DatasetManager();
+    data.setName((title==null) ? XML.getName(fileName) : title);
+    double[] rowColumn = new double[rowCount];
+    for(int i = 0; i<rowCount; i++) {
+      rowColumn[i] = i;
+    }
+    for(int j = 0; j<columnCount; j++) {
+      Dataset dataset = data.getDataset(j);
+      String yColName = ((columnNames!=null)&&(columnNames.length>j)) ? columnNames[j] : ((j==0)&&(title!=null)) ? title : "?"; //$NON-NLS-1$
+      dataset.setXYColumnNames("row", yColName); //$NON-NLS-1$
+      dataset.setXColumnVisible(false);
+      if(rowCount>dataset.getMaximumPoints()) { // keep every row of large files
+        dataset.setMaximumPoints(rowCount);
+      }
+      double[] column = new double[rowCount];
+      System.arraycopy(columns[j], 0, column, 0, rowCount);
+      columns[j] = null;                          // release the buffer
+      dataset.append(rowColumn, column);
+    }
+    columns = new double[0][];
+    return data;
+  }
+
+  /**
+   * Reads characters until the buffer is full or the end of the stream.
+   *
+   * @return the number of characters in the buffer
+   */
+  private static int fill(Reader in, char[] buf, int n) throws IOException {
+    while(n<buf.length) {
+      int count = in.read(buf, n, buf.length-n);
+      if(count<0) {
+        break;
+      }
+      n += count;
+    }
+    return n;
+  }
+
+  private static int skipTerminator(char[] buf, int end, int n) {
+    if((end<n)&&(buf[end]=='\r')&&(end+1<n)&&(buf[end+1]=='\n')) {
+      return end+2;
+    }
+    return end+1;
+  }
+
+  /**
+   * Gets the index after the last complete line.  A trailing carriage return is left
+   * in the buffer since it may be followed by a line feed.
+   */
+  private static int lastLineEnd(char[] buf, int n) {
+    for(int i = n-1; i>=0; i--) {
+      if((buf[i]=='\n')||((buf[i]=='\r')&&(i<n-1))) {
+        return i+1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Looks for the title, column names and first data line using the rules of DataTool.parseData.
+   *
+   * @return the index of the first data line, or -1 if no data was found
+   */
+  private int findHeader(ArrayList<String> lines, String delimiter) {
+    final String gnuPlotComment = "#"; //$NON-NLS-1$
+    title = null;
+    columnNames = null;
+    int lineCount = 0;
+    for(int index = 0; index<lines.size(); index++) {
+      String textLine = lines.get(index);
+      if(textLine.startsWith("//")) { //$NON-NLS-1$
+        continue;
+      }
+      if(textLine.contains(gnuPlotComment)) {
+        textLine = textLine.trim();
+      }
+      if(textLine.startsWith(gnuPlotComment)) {
+        int k = textLine.indexOf("name:"); //$NON-NLS-1$
+        if(k>-1) {
+          title = textLine.substring(k+5).trim();
+        }
+        k = textLine.indexOf("columnNames:"); //$NON-NLS-1$
+        if(k>-1) {
+          textLine = textLine.substring(k+12).trim();
+        } else {
+          continue;
+        }
+      }
+      if((textLine.indexOf("Vernier Format")>-1)||(textLine.indexOf(".cmbl")>-1)) { //$NON-NLS-1$ //$NON-NLS-2$
+        continue;
+      }
+      String[] strings = parseStrings(textLine, delimiter);
+      double[] rowData = parseDoubles(strings, delimiter);
+      if((strings.length>0)&&(title==null)) {
+        String s = ""; //$NON-NLS-1$
+        for(int k = 0; k<strings.length; k++) {
+          if(Double.isNaN(rowData[k])&&!strings[k].equals("")) { //$NON-NLS-1$
+            if(s.equals("")) {                                   //$NON-NLS-1$
+              s = strings[k];
+            } else {
+              s = "";                                            //$NON-NLS-1$
+              break;
+            }
+          }
+        }
+        if(!s.equals("")) { //$NON-NLS-1$
+          title = s;
+          continue;
+        }
+      }
+      if((strings.length>0)&&(columnNames==null)) {
+        boolean valid = true;
+        for(int k = 0; k<strings.length; k++) {
+          if(!Double.isNaN(rowData[k])) {
+            valid = false;
+            break;
+          }
+        }
+        if(valid) {
+          for(int k = 0; k<strings.length; k++) {
+            if("".equals(strings[k])) { //$NON-NLS-1$
+              strings[k] = "?";         //$NON-NLS-1$
+            }
+          }
+          columnNames = strings;
+          continue;
+        }
+      }
+      if(strings.length>0) {
+        lineCount++;
+        boolean validData = true;
+        boolean emptyData = true;
+        for(int k = 0; k<strings.length; k++) {
+          if(Double.isNaN(rowData[k])&&!strings[k].equals("")) { //$NON-NLS-1$
+            validData = false;
+          }
+          if(!strings[k].equals("")) { //$NON-NLS-1$
+            emptyData = false;
+          }
+        }
+        if(emptyData&&(title==null)&&((columnNames==null)||(columnNames.length!=1))) {
+          validData = false;
+        }
+        if(validData) {
+          return index;
+        }
+      }
+      if(lineCount>10) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Parses the lines in [start, end) in parallel and appends the rows to the columns.
+   */
+  private void parseChunk(final char[] buf, int start, int end, final Block[] blocks) {
+    // divide the chunk at line boundaries
+    int parts = Math.max(1, Math.min(blocks.length, (end-start)/(16*1024)));
+    final int[] bounds = new int[parts+1];
+    bounds[0] = start;
+    bounds[parts] = end;
+    for(int i = 1; i<parts; i++) {
+      int pos = Math.max(bounds[i-1], start+(int) ((long) (end-start)*i/parts));
+      while((pos<end)&&(buf[pos]!='\n')&&(buf[pos]!='\r')) {
+        pos++;
+      }
+      bounds[i] = (pos<end) ? skipTerminator(buf, pos, end) : end;
+    }
+    ParallelLoop.forRange(parts, 1, new ParallelLoop.Range() {
+      public void run(int first, int last) {
+        for(int i = first; i<last; i++) {
+          blocks[i].parse(buf, bounds[i], bounds[i+1]);
+        }
+      }
+
+    });
+    for(int i = 0; i<parts; i++) {
+      append(blocks[i]);
+    }
+  }
+
+  /**
+   * Appends the rows of a block to the columns.
+   */
+  private void append(Block block) {
+    if(block.title!=null) {
+      title = block.title;
+    }
+    int rows = block.rowCount, newCount = Math.max(columnCount, block.columnCount);
+    if(newCount>columns.length) {
+      double[][] newColumns = new double[newCount][];
+      System.arraycopy(columns, 0, newColumns, 0, columns.length);
+      columns = newColumns;
+    }
+    for(int j = 0; j<newCount; j++) {
+      double[] column = columns[j];
+      if(column==null) {
+        column = columns[j] = new double[Math.max(1024, rowCount+rows)];
+        java.util.Arrays.fill(column, 0, rowCount, Double.NaN);
+      } else if(column.length<rowCount+rows) {
+        double[] newColumn = new double[Math.max(2*column.length, rowCount+rows)];
+        System.arraycopy(column, 0, newColumn, 0, rowCount);
+        column = columns[j] = newColumn;
+      }
+      if(j<block.columnCount) {
+        System.arraycopy(block.columns[j], 0, column, rowCount, rows);
+      } else {
+        java.util.Arrays.fill(column, rowCount, rowCount+rows, Double.NaN);
+      }
+    }
+    columnCount = newCount;
+    rowCount += rows;
+    block.rowCount = 0;
+    block.columnCount = 0;
+    block.title = null;
+  }
+
+  /**
+   * Parses a String into tokens separated by a specified delimiter.
+   * A token may be "".
+   *
+   * @param text the text to parse
+   * @param delimiter the delimiter
+   * @return an array of String tokens
+   */
+  static String[] parseStrings(String text, String delimiter) {
+    Collection<String> tokens = new ArrayList<String>();
+    if(text!=null) {
+      // get the first token
+      String next = text;
+      int i = text.indexOf(delimiter);
+      if(i==-1) {   // no delimiter
+        tokens.add(stripQuotes(next));
+        text = null;
+      } else {
+        next = text.substring(0, i);
+        text = text.substring(i+1);
+        while (" ".equals(delimiter)  //$NON-NLS-1$
+        		&& (text.startsWith(" ") || text.startsWith("\t"))) { //$NON-NLS-1$ //$NON-NLS-2$
+        	// treat multiple spaces/tabs as a single delimiter
+        	text = text.substring(1);
+        }
+      }
+      // iterate thru the tokens and add to token list
+      while(text!=null) {
+        tokens.add(stripQuotes(next));
+        i = text.indexOf(delimiter);
+        if(i==-1) { // no delimiter
+          next = text;
+          tokens.add(stripQuotes(next));
+          text = null;
+        } else {
+          next = text.substring(0, i).trim();
+          text = text.substring(i+1);
+          while (" ".equals(delimiter)  //$NON-NLS-1$
+          		&& (text.startsWith(" ") || text.startsWith("\t"))) { //$NON-NLS-1$ //$NON-NLS-2$
+          	// treat multiple spaces/tabs as a single delimiter
+          	text = text.substring(1);
+          }
+        }
+      }
+    }
+    return tokens.toArray(new String[0]);
+  }
+
+  /**
+   * Strips quotation marks around a string.
+   *
+   * @param text the text to strip
+   * @return the stripped string
+   */
+  private static String stripQuotes(String text) {
+    if(text.startsWith("\"")) {       //$NON-NLS-1$
+      String stripped = text.substring(1);
+      int n = stripped.indexOf("\""); //$NON-NLS-1$
+      if(n>-1 && n==stripped.length()-1) {
+        return stripped.substring(0, n);
+      }
+    }
+    return text;
+  }
+
+  /**
+   * Parses a String array into doubles.
+   * Unparsable strings are set to Double.NaN.
+   *
+   * @param strings the String array to parse
+   * @param delimiter the delimiter that was used to parse the strings
+   * @return an array of doubles
+   */
+  static double[] parseDoubles(String[] strings, String delimiter) {
+    double[] doubles = new double[strings.length];
+    for(int i = 0; i<strings.length; i++) {
+      if(strings[i].indexOf("\t")>-1) { //$NON-NLS-1$
+        doubles[i] = Double.NaN;
+      } else {
+        try {
+          doubles[i] = Double.parseDouble(strings[i]);
+        } catch(NumberFormatException e) {
+        	// convert decimal separator commas with periods
+        	if (strings[i].indexOf(",")>-1 && !delimiter.equals(",")) { //$NON-NLS-1$ //$NON-NLS-2$
+        		strings[i] = strings[i].replace(",", "."); //$NON-NLS-1$ //$NON-NLS-2$
+            try {
+              doubles[i] = Double.parseDouble(strings[i]);
+            } catch(NumberFormatException e1) {
+            	doubles[i] = Double.NaN;
+            }        		
+        	}
+        	else doubles[i] = Double.NaN;
+        }
+      }
+    }
+    return doubles;
+  }
+
+  /**
+   * Parses a double from characters without creating objects.  Returns false if the
+   * characters are not a simple decimal number or the result might not be correctly rounded.
+   */
+  static boolean parseDouble(char[] buf, int start, int end, double[] result, int index) {
+    while((start<end)&&(buf[start]<=' ')) {
+      start++;
+    }
+    while((end>start)&&(buf[end-1]<=' ')) {
+      end--;
+    }
+    if(start==end) {
+      return false;
+    }
+    boolean negative = false;
+    if((buf[start]=='-')||(buf[start]=='+')) {
+      negative = buf[start]=='-';
+      start++;
+    }
+    long mantissa = 0;
+    int digits = 0, exponent = 0, i = start;
+    boolean any = false;
+    for(; (i<end)&&(buf[i]>='0')&&(buf[i]<='9'); i++) {
+      any = true;
+      if(mantissa!=0||buf[i]!='0') {
+        if(++digits>18) {
+          return false;
+        }
+      }
+      mantissa = 10*mantissa+(buf[i]-'0');
+    }
+    if((i<end)&&(buf[i]=='.')) {
+      for(i++; (i<end)&&(buf[i]>='0')&&(buf[i]<='9'); i++) {
+        any = true;
+        if(mantissa!=0||buf[i]!='0') {
+          if(++digits>18) {
+            return false;
+          }
+        }
+        mantissa = 10*mantissa+(buf[i]-'0');
+        exponent--;
+      }
+    }
+    if(!any) {
+      return false;
+    }
+    if((i<end)&&((buf[i]=='e')||(buf[i]=='E'))) {
+      i++;
+      boolean negativeExp = false;
+      if((i<end)&&((buf[i]=='-')||(buf[i]=='+'))) {
+        negativeExp = buf[i]=='-';
+        i++;
+      }
+      if(i==end) {
+        return false;
+      }
+      int exp = 0;
+      for(; (i<end)&&(buf[i]>='0')&&(buf[i]<='9'); i++) {
+        if(exp>10000) {
+          return false;
+        }
+        exp = 10*exp+(buf[i]-'0');
+      }
+      exponent += negativeExp ? -exp : exp;
+    }
+    if((i!=end)||(mantissa>(1L<<53))) {
+      return false;
+    }
+    // exact when both the mantissa and the power of ten are exactly representable
+    double value = mantissa;
+    if(mantissa==0) {
+      value = 0;
+    } else if((exponent>=0)&&(exponent<=22)) {
+      value *= POWERS[exponent];
+    } else if((exponent<0)&&(exponent>=-22)) {
+      value /= POWERS[-exponent];
+    } else {
+      return false;
+    }
+    result[index] = negative ? -value : value;
+    return true;
+  }
+
+  /**
+   * Block holds the rows parsed from one part of a chunk.
+   */
+  static class Block {
+    final char delimiter;
+    double[][] columns = new double[0][];
+    int columnCount, rowCount;
+    double[] values = new double[16];
+    String title;
+
+    Block(char delimiter) {
+      this.delimiter = delimiter;
+    }
+
+    void parse(char[] buf, int start, int end) {
+      int pos = start;
+      while(pos<end) {
+        int lineEnd = pos;
+        while((lineEnd<end)&&(buf[lineEnd]!='\n')&&(buf[lineEnd]!='\r')) {
+          lineEnd++;
+        }
+        parseLine(buf, pos, lineEnd);
+        pos = skipTerminator(buf, lineEnd, end);
+      }
+    }
+
+    /**
+     * Parses a line using the rules of parseStrings and parseDoubles.
+     */
+    void parseLine(char[] buf, int start, int end) {
+      if((end-start>=2)&&(buf[start]=='/')&&(buf[start+1]=='/')) {
+        return; // comment
+      }
+      for(int i = start; i<end; i++) {
+        if(buf[i]=='#') { // comments and lines with comments are not data
+          String line = new String(buf, start, end-start).trim();
+          int k = line.indexOf("name:"); //$NON-NLS-1$
+          if(line.startsWith("#")&&(k>-1)) { //$NON-NLS-1$
+            title = line.substring(k+5).trim();
+          }
+          return;
+        }
+      }
+      int count = 0, pos = start;
+      boolean firstToken = true;
+      while(true) {
+        int i = pos;
+        while((i<end)&&(buf[i]!=delimiter)) {
+          i++;
+        }
+        boolean last = i==end;
+        int s = pos, e = i;
+        if(!firstToken&&!last) { // middle tokens are trimmed
+          while((s<e)&&(buf[s]<=' ')) {
+            s++;
+          }
+          while((e>s)&&(buf[e-1]<=' ')) {
+            e--;
+          }
+        }
+        if(count==values.length) {
+          double[] newValues = new double[2*count];
+          System.arraycopy(values, 0, newValues, 0, count);
+          values = newValues;
+        }
+        if(!parseToken(buf, s, e, count)) {
+          return; // invalid row
+        }
+        count++;
+        if(last) {
+          break;
+        }
+        firstToken = false;
+        pos = i+1;
+        if(delimiter==' ') { // treat multiple spaces/tabs as a single delimiter
+          while((pos<end)&&((buf[pos]==' ')||(buf[pos]=='\t'))) {
+            pos++;
+          }
+        }
+      }
+      addRow(count);
+    }
+
+    /**
+     * Parses a token into values[index].
+     *
+     * @return false if the token is not empty and cannot be parsed
+     */
+    boolean parseToken(char[] buf, int s, int e, int index) {
+      if((e-s>=2)&&(buf[s]=='"')) { // strip quotes
+        int q = s+1;
+        while((q<e)&&(buf[q]!='"')) {
+          q++;
+        }
+        if(q==e-1) {
+          s++;
+          e--;
+        }
+      }
+      if(s==e) {
+        values[index] = Double.NaN;
+        return true;
+      }
+      for(int i = s; i<e; i++) {
+        if(buf[i]=='\t') {
+          return false;
+        }
+      }
+      if(parseDouble(buf, s, e, values, index)) {
+        return true;
+      }
+      String token = new String(buf, s, e-s); // not a simple decimal number
+      double value = Double.NaN;
+      try {
+        value = Double.parseDouble(token);
+      } catch(NumberFormatException ex) {
+        if((token.indexOf(',')>-1)&&(delimiter!=',')) { // decimal separator commas
+          try {
+            value = Double.parseDouble(token.replace(',', '.'));
+          } catch(NumberFormatException ex1) {}
+        }
+      }
+      values[index] = value;
+      return !Double.isNaN(value); // NaN entries other than "" are not valid data
+    }
+
+    void addRow(int count) {
+      if(count>columns.length) {
+        double[][] newColumns = new double[Math.max(count, 2*columns.length)][];
+        System.arraycopy(columns, 0, newColumns, 0, columns.length);
+        columns = newColumns;
+      }
+      int width = Math.max(count, columnCount);
+      for(int j = 0; j<width; j++) {
+        double[] column = columns[j];
+        if(column==null) {
+          column = columns[j] = new double[Math.max(256, 2*rowCount)];
+        } else if(column.length<=rowCount) {
+          double[] newColumn = new double[2*column.length];
+          System.arraycopy(column, 0, newColumn, 0, column.length);
+          column = columns[j] = newColumn;
+        }
+        if(j>=columnCount) {
+          java.util.Arrays.fill(column, 0, rowCount, Double.NaN);
+        }
+        column[rowCount] = (j<count) ? values[j] : Double.NaN;
+      }
+      columnCount = width;
+      rowCount++;
+    }
+
+  }
+
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
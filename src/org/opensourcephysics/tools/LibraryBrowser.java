@@ -18,6 +18,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -1243,14 +1244,10 @@ public class LibraryBrowser extends JPanel {
 				class Searcher extends SwingWorker<LibraryTreePanel, Object> {
 		      @Override
 		      public LibraryTreePanel doInBackground() {
-				  	// search all cache targets except those in the library no_search set
-				  	Set<LibraryResource> searchTargets = getSearchCacheTargets();
-				  	for (Iterator<LibraryResource> it = searchTargets.iterator(); it.hasNext();) {
-				  		LibraryResource next = it.next();
-							if (library.noSearchSet.contains(next.collectionPath))
-								it.remove();
-				  	}
-		      	return searchFor(searchTerm.trim(), searchTargets);
+				  	// search the index of all cache targets except those in the library no_search set
+				  	LibrarySearchIndex index = LibrarySearchIndex.getIndex();
+				  	index.update();
+		      	return searchIndexFor(searchTerm.trim(), index);
 		      }
 
 		      @Override
@@ -2043,6 +2040,112 @@ public class LibraryBrowser extends JPanel {
 		}
 		
 		if (found.isEmpty()) return null;
+		return createSearchResults(searchPhrase, found.keySet(), null);
+	}
+	
+	/**
+	 * Searches the index of cached LibraryResources for resources matching a search phrase.
+	 * Resources in collections in the library no_search set are excluded.
+	 * @param searchPhrase the phrase to match
+	 * @param index the search index
+	 * @return a LibraryTreePanel containing the ranked search results, or null if no nodes found
+	 */
+	protected LibraryTreePanel searchIndexFor(String searchPhrase, LibrarySearchIndex index) {
+  	if (searchPhrase==null || searchPhrase.trim().equals("")) //$NON-NLS-1$
+			return null;
+		Map<LibraryResource, Double> ranks = getRankedMatches(searchPhrase, index);
+		if (ranks.isEmpty()) return null;
+		return createSearchResults(searchPhrase, ranks.keySet(), ranks);
+	}
+	
+	/**
+	 * Returns the indexed resources matching a search phrase that may contain AND and OR requests.
+	 * @param searchPhrase the phrase
+	 * @param index the search index
+	 * @return a map of matching resources to rank
+	 */
+	protected Map<LibraryResource, Double> getRankedMatches(String searchPhrase, LibrarySearchIndex index) {
+  	// deal with AND and OR requests
+  	String[] toAND = searchPhrase.split(AND); 
+  	String[] toOR = searchPhrase.split(OR); 
+  	if (toAND.length>1 && toOR.length==1) {
+  		Map<LibraryResource, Double> results = getRankedMatches(toAND[0], index);
+  		for (int i=1; i<toAND.length; i++) {
+  			results = combineRanks(results, getRankedMatches(toAND[i], index), true);
+  		}
+  		return results;
+  	}
+  	if (toOR.length>1 && toAND.length==1) {
+  		Map<LibraryResource, Double> results = getRankedMatches(toOR[0], index);
+  		for (int i=1; i<toOR.length; i++) {
+  			results = combineRanks(results, getRankedMatches(toOR[i], index), false);
+  		}
+  		return results;
+  	}
+  	if (toOR.length>1 && toAND.length>1) {
+  		// apply operations in left-to-right order but give precedence to parentheses
+  		String[] split = getNextSplit(searchPhrase);
+  		Map<LibraryResource, Double> results = getRankedMatches(split[0], index);
+  		while (split.length>2) {
+  			String operator = split[1];
+	  		String remainder = split[2];
+	  		split = getNextSplit(remainder);
+  			Map<LibraryResource, Double> next = getRankedMatches(split[0], index);
+  			results = combineRanks(results, next, operator.equals(AND));
+  		}
+  		return results;  		
+  	}
+		return index.search(searchPhrase, library.noSearchSet);
+	}
+	
+	/**
+	 * Combines two maps of ranked resources, adding the ranks of resources found in both.
+	 * @param ranks1
+	 * @param ranks2
+	 * @param and true to keep only resources found in both maps, false to keep resources found in either
+	 * @return the combined map
+	 */
+	protected Map<LibraryResource, Double> combineRanks(Map<LibraryResource, Double> ranks1,
+			Map<LibraryResource, Double> ranks2, boolean and) {
+		Map<LibraryResource, Double> combined = new TreeMap<LibraryResource, Double>();
+		for (LibraryResource node: ranks1.keySet()) {
+			Double rank = ranks2.get(node);
+			if (rank!=null) {
+				combined.put(node, rank+ranks1.get(node));
+			}
+			else if (!and) {
+				combined.put(node, ranks1.get(node));
+			}
+		}
+		if (!and) {
+			for (LibraryResource node: ranks2.keySet()) {
+				if (!combined.containsKey(node)) {
+					combined.put(node, ranks2.get(node));
+				}
+			}
+		}
+		return combined;
+	}
+	
+	/**
+	 * Creates a LibraryTreePanel that displays search results organized by category.
+	 * @param searchPhrase the phrase that was matched
+	 * @param found the resources found
+	 * @param ranks map of resource to rank used to order the results (may be null)
+	 * @return the LibraryTreePanel
+	 */
+	protected LibraryTreePanel createSearchResults(String searchPhrase, Set<LibraryResource> found, 
+			final Map<LibraryResource, Double> ranks) {
+		// order by rank, if any, then by resource
+		Comparator<LibraryResource> order = new Comparator<LibraryResource>() {
+			public int compare(LibraryResource res1, LibraryResource res2) {
+				if (ranks!=null) {
+					int result = Double.compare(ranks.get(res2), ranks.get(res1));
+					if (result!=0) return result;
+				}
+				return res1.compareTo(res2);
+			}
+		};
   	// create a LibraryCollection for the search results
   	String title = "'"+searchPhrase+"'"; //$NON-NLS-1$ //$NON-NLS-2$
   	LibraryTreePanel treePanel = createLibraryTreePanel();
@@ -2054,14 +2157,14 @@ public class LibraryBrowser extends JPanel {
   	// organize resources into categories 
   	String[] categories = new String[] {"compadre", "tracker", "shared", "local"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
   	Map<String, Set<LibraryResource>> liblist = new TreeMap<String, Set<LibraryResource>>();
-		for (LibraryResource next: found.keySet()) {
+		for (LibraryResource next: found) {
 			next.collectionPath = next.collectionPath==null? "": next.collectionPath; //$NON-NLS-1$
 			
 			if (next.collectionPath.contains("http")) { // web resources //$NON-NLS-1$
 				if (next.collectionPath.contains("compadre")) { //$NON-NLS-1$
 					Set<LibraryResource> set = liblist.get(categories[0]);
 					if (set==null ) {
-						set = new TreeSet<LibraryResource>();
+						set = new TreeSet<LibraryResource>(order);
 						liblist.put(categories[0], set);
 					}
 					set.add(next);
@@ -2069,7 +2172,7 @@ public class LibraryBrowser extends JPanel {
 				else if (next.collectionPath.contains("physlets.org/tracker")) { //$NON-NLS-1$
 					Set<LibraryResource> set = liblist.get(categories[1]);
 					if (set==null ) {
-						set = new TreeSet<LibraryResource>();
+						set = new TreeSet<LibraryResource>(order);
 						liblist.put(categories[1], set);
 					}
 					set.add(next);
@@ -2077,7 +2180,7 @@ public class LibraryBrowser extends JPanel {
 				else {
 					Set<LibraryResource> set = liblist.get(categories[2]);
 					if (set==null ) {
-						set = new TreeSet<LibraryResource>();
+						set = new TreeSet<LibraryResource>(order);
 						liblist.put(categories[2], set);
 					}
 					set.add(next);
@@ -2086,7 +2189,7 @@ public class LibraryBrowser extends JPanel {
 			else { // local resources
 				Set<LibraryResource> set = liblist.get(categories[3]);
 				if (set==null ) {
-					set = new TreeSet<LibraryResource>();
+					set = new TreeSet<LibraryResource>(order);
 					liblist.put(categories[3], set);
 				}
 				set.add(next);
@@ -0,0 +1,537 @@
+/*
+ * Open Source Physics software is free software as described near the bottom of this code file.
+ *
+ * For additional information and documentation on Open Source Physics please see:
+ * <https://www.compadre.org/osp/>
+ */
+
+package org.opensourcephysics.tools;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.opensourcephysics.controls.OSPLog;
+import org.opensourcephysics.controls.XMLControl;
+import org.opensourcephysics.controls.XMLControlElement;
+import org.opensourcephysics.tools.LibraryResource.Metadata;
+
+/**
+ * An inverted index of the words in the names, types and metadata of the
+ * LibraryResources cached in the OSP search folder. The index is saved in the
+ * search folder and brought up to date by reindexing only cached files that
+ * have been added or changed since it was last saved.
+ *
+ * Search words match indexed words exactly, as prefixes, as substrings or,
+ * failing those, within a small edit distance. Matching resources are ranked
+ * by where and how well their words match.
+ */
+public class LibrarySearchIndex {
+	
+	static final int VERSION = 1;
+	static final String INDEX_FILE_NAME = "search_index.dat"; //$NON-NLS-1$
+	static final int NAME = 0, TYPE = 1, METADATA = 2;
+	static final double[] FIELD_WEIGHTS = {3, 1, 1};
+	static final double EXACT = 1, PREFIX = 0.8, SUBSTRING = 0.5, SIMILAR = 0.3;
+	static final double PHRASE = 10; // bonus for containing the entire search phrase
+	static LibrarySearchIndex index;
+	
+	File cache, indexFile;
+	Map<String, Entry> entries = new TreeMap<String, Entry>(); // cached file path to entry
+	TreeMap<String, Set<Entry>> words = new TreeMap<String, Set<Entry>>(); // word to entries containing it
+	boolean loaded, updating;
+	
+  /**
+   * Gets the shared index of the OSP search folder.
+   *
+   * @return the index
+   */
+	public static synchronized LibrarySearchIndex getIndex() {
+		File cache = ResourceLoader.getSearchCache();
+		if (index==null || !index.cache.equals(cache)) {
+			index = new LibrarySearchIndex(cache);
+		}
+		return index;
+	}
+	
+  /**
+   * Constructor.
+   *
+   * @param cache the search cache folder
+   */
+	public LibrarySearchIndex(File cache) {
+		this.cache = cache;
+		indexFile = new File(cache, INDEX_FILE_NAME);
+	}
+	
+  /**
+   * Brings the index up to date with the cached files and saves it if changed.
+   */
+	public synchronized void update() {
+		if (!loaded) {
+			load();
+		}
+		boolean changed = false;
+		Set<String> found = new HashSet<String>();
+		List<File> files = ResourceLoader.getFiles(cache, new LibraryBrowser.XMLFilter());
+		for (File file: files) {
+			String path = file.getAbsolutePath();
+			found.add(path);
+			Entry entry = entries.get(path);
+			if (entry!=null && entry.modified==file.lastModified() && entry.length==file.length()) 
+				continue;
+			if (entry!=null) {
+				remove(entry);
+			}
+			add(indexFile(file));
+			changed = true;
+		}
+		for (Entry entry: new ArrayList<Entry>(entries.values())) {
+			if (!found.contains(entry.path)) {
+				remove(entry);
+				changed = true;
+			}
+		}
+		if (changed) {
+			save();
+		}
+	}
+	
+  /**
+   * Updates the index in a background thread.
+   */
+	public void updateLater() {
+		synchronized(this) {
+			if (updating) return;
+			updating = true;
+		}
+		Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					update();
+				} finally {
+					synchronized(LibrarySearchIndex.this) {
+						updating = false;
+					}
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+	
+  /**
+   * Finds the resources that match every word in a search phrase. Resources
+   * in collections with excluded paths are ignored.
+   *
+   * @param searchPhrase the phrase
+   * @param excluded a set of collection paths not to search (may be null)
+   * @return map of matching resource to rank
+   */
+	public synchronized Map<LibraryResource, Double> search(String searchPhrase, Set<String> excluded) {
+		Map<LibraryResource, Double> results = new TreeMap<LibraryResource, Double>();
+		String[] toFind = getWords(searchPhrase);
+		if (toFind.length==0) return results;
+		Map<Hit, Double> hits = null;
+		for (String next: toFind) {
+			Map<Hit, Double> found = find(next);
+			if (hits!=null) {
+				// keep hits that match all words
+				for (Hit hit: found.keySet()) {
+					Double rank = hits.get(hit);
+					if (rank!=null) {
+						found.put(hit, rank+found.get(hit));
+					}
+				}
+				found.keySet().retainAll(hits.keySet());
+			}
+			hits = found;
+			if (hits.isEmpty()) return results;
+		}
+		for (Hit hit: hits.keySet()) {
+			if (excluded!=null && excluded.contains(hit.entry.realPath)) continue;
+			LibraryResource[] nodes = hit.entry.getNodes();
+			if (nodes==null || hit.node>=nodes.length) continue;
+			LibraryResource resource = nodes[hit.node];
+			double rank = hits.get(hit);
+			if (containsPhrase(resource, searchPhrase.trim().toLowerCase())) {
+				rank += PHRASE;
+			}
+			Double prev = results.get(resource);
+			results.put(resource, prev==null? rank: Math.max(rank, prev));
+		}
+		return results;
+	}
+	
+	/**
+	 * Determines if a resource name, type or metadata value contains an entire phrase.
+	 * 
+	 * @param resource the resource
+	 * @param phrase the lower case phrase
+	 * @return true if found
+	 */
+	static boolean containsPhrase(LibraryResource resource, String phrase) {
+		if (resource.getName().toLowerCase().contains(phrase)
+				|| resource.getType().toLowerCase().contains(phrase)) return true;
+		Set<Metadata> metadata = resource.getMetadata();
+		if (metadata!=null) {
+			for (Metadata data: metadata) {
+				if (data.getData()[1].toLowerCase().contains(phrase)) return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Splits text into lower case words.
+	 * 
+	 * @param text the text
+	 * @return the words
+	 */
+	static String[] getWords(String text) {
+		ArrayList<String> list = new ArrayList<String>();
+		if (text==null) return new String[0];
+		text = text.toLowerCase();
+		int start = -1;
+		for (int i = 0, n = text.length(); i<=n; i++) {
+			boolean inWord = i<n && Character.isLetterOrDigit(text.charAt(i));
+			if (inWord && start<0) {
+				start = i;
+			}
+			else if (!inWord && start>=0) {
+				list.add(text.substring(start, i));
+				start = -1;
+			}
+		}
+		return list.toArray(new String[list.size()]);
+	}
+	
+	/**
+	 * Finds hits for a single search word.
+	 * 
+	 * @param word the lower case word
+	 * @return map of hit to rank
+	 */
+	private Map<Hit, Double> find(String word) {
+		Map<Hit, Double> hits = new HashMap<Hit, Double>();
+		Set<Entry> exact = words.get(word);
+		if (exact!=null) {
+			addHits(word, EXACT, exact, hits);
+		}
+		SortedMap<String, Set<Entry>> prefixed = words.subMap(word, word+Character.MAX_VALUE);
+		for (String next: prefixed.keySet()) {
+			if (!next.equals(word)) {
+				addHits(next, PREFIX, prefixed.get(next), hits);
+			}
+		}
+		for (String next: words.keySet()) {
+			if (next.length()>word.length() && !next.startsWith(word) && next.contains(word)) {
+				addHits(next, SUBSTRING, words.get(next), hits);
+			}
+		}
+		if (hits.isEmpty() && word.length()>=4) {
+			// tolerate typing errors
+			int maxEdits = word.length()>=8? 2: 1;
+			for (String next: words.keySet()) {
+				if (Math.abs(next.length()-word.length())<=maxEdits 
+						&& getEditDistance(word, next, maxEdits)<=maxEdits) {
+					addHits(next, SIMILAR, words.get(next), hits);
+				}
+			}
+		}
+		return hits;
+	}
+	
+	private void addHits(String word, double weight, Set<Entry> found, Map<Hit, Double> hits) {
+		for (Entry entry: found) {
+			int[] postings = entry.postings.get(word);
+			for (int i = 0; i<postings.length; i++) {
+				Hit hit = new Hit(entry, postings[i]>>2);
+				double rank = weight*FIELD_WEIGHTS[postings[i]&3];
+				Double prev = hits.get(hit);
+				if (prev==null || prev<rank) {
+					hits.put(hit, rank);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the Levenshtein distance between two words, or max+1 if greater than max.
+	 */
+	static int getEditDistance(String s, String t, int max) {
+		int n = s.length(), m = t.length();
+		int[] prev = new int[m+1], cur = new int[m+1];
+		for (int j = 0; j<=m; j++) prev[j] = j;
+		for (int i = 1; i<=n; i++) {
+			cur[0] = i;
+			int rowMin = cur[0];
+			char c = s.charAt(i-1);
+			for (int j = 1; j<=m; j++) {
+				int cost = c==t.charAt(j-1)? 0: 1;
+				cur[j] = Math.min(Math.min(cur[j-1]+1, prev[j]+1), prev[j-1]+cost);
+				rowMin = Math.min(rowMin, cur[j]);
+			}
+			if (rowMin>max) return max+1;
+			int[] temp = prev;
+			prev = cur;
+			cur = temp;
+		}
+		return prev[m];
+	}
+	
+	private void add(Entry entry) {
+		entries.put(entry.path, entry);
+		for (String word: entry.postings.keySet()) {
+			Set<Entry> set = words.get(word);
+			if (set==null) {
+				set = new HashSet<Entry>();
+				words.put(word, set);
+			}
+			set.add(entry);
+		}
+	}
+	
+	private void remove(Entry entry) {
+		entries.remove(entry.path);
+		for (String word: entry.postings.keySet()) {
+			Set<Entry> set = words.get(word);
+			if (set!=null) {
+				set.remove(entry);
+				if (set.isEmpty()) words.remove(word);
+			}
+		}
+	}
+	
+	/**
+	 * Indexes a cached file.
+	 * 
+	 * @param file the file
+	 * @return the entry
+	 */
+	private Entry indexFile(File file) {
+		Entry entry = new Entry(file.getAbsolutePath(), file.lastModified(), file.length());
+		LibraryResource[] nodes = entry.loadNodes();
+		if (nodes==null) return entry;
+		Map<String, ArrayList<Integer>> map = new HashMap<String, ArrayList<Integer>>();
+		for (int i = 0; i<nodes.length; i++) {
+			LibraryResource next = nodes[i];
+			addWords(next.getName(), i, NAME, map);
+			addWords(next.getType(), i, TYPE, map);
+			Set<Metadata> metadata = next.getMetadata();
+			if (metadata!=null) {
+				for (Metadata data: metadata) {
+					addWords(data.getData()[1], i, METADATA, map);
+				}
+			}
+		}
+		for (String word: map.keySet()) {
+			ArrayList<Integer> list = map.get(word);
+			int[] postings = new int[list.size()];
+			for (int i = 0; i<postings.length; i++) {
+				postings[i] = list.get(i);
+			}
+			entry.postings.put(word, postings);
+		}
+		return entry;
+	}
+	
+	private void addWords(String text, int node, int field, Map<String, ArrayList<Integer>> map) {
+		for (String word: getWords(text)) {
+			ArrayList<Integer> list = map.get(word);
+			if (list==null) {
+				list = new ArrayList<Integer>();
+				map.put(word, list);
+			}
+			int posting = (node<<2)|field;
+			if (!list.contains(posting)) list.add(posting);
+		}
+	}
+	
+	/**
+	 * Loads the saved index, if any.
+	 */
+	private void load() {
+		loaded = true;
+		if (!indexFile.exists()) return;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			if (in.readInt()!=VERSION) return;
+			for (int i = 0, n = in.readInt(); i<n; i++) {
+				Entry entry = new Entry(in.readUTF(), in.readLong(), in.readLong());
+				entry.realPath = in.readUTF();
+				for (int j = 0, m = in.readInt(); j<m; j++) {
+					String word = in.readUTF();
+					int[] postings = new int[in.readInt()];
+					for (int k = 0; k<postings.length; k++) {
+						postings[k] = in.readInt();
+					}
+					entry.postings.put(word, postings);
+				}
+				add(entry);
+			}
+		} catch (IOException ex) {
+			OSPLog.fine("failed to read search index: "+ex); //$NON-NLS-1$
+			entries.clear();
+			words.clear();
+		} finally {
+			close(in);
+		}
+	}
+	
+	/**
+	 * Saves the index in the search cache.
+	 */
+	private void save() {
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Entry entry: entries.values()) {
+				out.writeUTF(entry.path);
+				out.writeLong(entry.modified);
+				out.writeLong(entry.length);
+				out.writeUTF(entry.realPath);
+				out.writeInt(entry.postings.size());
+				for (String word: entry.postings.keySet()) {
+					int[] postings = entry.postings.get(word);
+					out.writeUTF(word);
+					out.writeInt(postings.length);
+					for (int k = 0; k<postings.length; k++) {
+						out.writeInt(postings[k]);
+					}
+				}
+			}
+		} catch (IOException ex) {
+			OSPLog.fine("failed to save search index: "+ex); //$NON-NLS-1$
+		} finally {
+			close(out);
+		}
+	}
+	
+	private static void close(java.io.Closeable stream) {
+		if (stream==null) return;
+		try {
+			stream.close();
+		} catch (IOException ex) {
+		}
+	}
+	
+	/**
+	 * An indexed cached file.
+	 */
+	static class Entry {
+		String path, realPath = ""; //$NON-NLS-1$
+		long modified, length;
+		Map<String, int[]> postings = new HashMap<String, int[]>(); // word to (node<<2 | field) 
+		SoftReference<LibraryResource[]> nodes;
+		
+		Entry(String path, long modified, long length) {
+			this.path = path;
+			this.modified = modified;
+			this.length = length;
+		}
+		
+		/**
+		 * Gets the resources in the file in depth-first order, loading them if needed.
+		 * 
+		 * @return the resources, or null if none
+		 */
+		LibraryResource[] getNodes() {
+			LibraryResource[] array = nodes==null? null: nodes.get();
+			return array!=null? array: loadNodes();
+		}
+		
+		LibraryResource[] loadNodes() {
+			XMLControl control = new XMLControlElement(path);
+			if (control.failedToRead() || !LibraryResource.class.isAssignableFrom(control.getObjectClass())) 
+				return null;
+			LibraryResource resource = (LibraryResource)control.loadObject(null);
+			String real = control.getString("real_path"); //$NON-NLS-1$
+			realPath = real==null? "": real; //$NON-NLS-1$
+			ArrayList<LibraryResource> list = new ArrayList<LibraryResource>();
+			addNodes(resource, list);
+			LibraryResource[] array = list.toArray(new LibraryResource[list.size()]);
+			for (LibraryResource next: array) {
+				next.collectionPath = real;
+			}
+			nodes = new SoftReference<LibraryResource[]>(array);
+			return array;
+		}
+		
+		private void addNodes(LibraryResource resource, List<LibraryResource> list) {
+			if (resource==null) return;
+			list.add(resource);
+			if (resource instanceof LibraryCollection) {
+				for (LibraryResource next: ((LibraryCollection)resource).getResources()) {
+					addNodes(next, list);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A resource in an indexed file.
+	 */
+	static class Hit {
+		Entry entry;
+		int node;
+		
+		Hit(Entry entry, int node) {
+			this.entry = entry;
+			this.node = node;
+		}
+		
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Hit)) return false;
+			Hit hit = (Hit)obj;
+			return hit.entry==entry && hit.node==node;
+		}
+		
+		public int hashCode() {
+			return entry.hashCode()*31+node;
+		}
+	}
+	
+}
+
+
+/*
+ * Open Source Physics software is free software; you can redistribute
+ * it and/or modify it under the terms of the GNU General Public License (GPL) as
+ * published by the Free Software Foundation; either version 2 of the License,
+ * or(at your option) any later version.
+
+ * Code that uses any portion of the code in the org.opensourcephysics package
+ * or any subpackage (subdirectory) of this package must must also be be released
+ * under the GNU GPL license.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston MA 02111-1307 USA
+ * or view the license online at http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2019  The Open Source Physics project
+ *                     https://www.compadre.org/osp
+ */
@@ -1519,6 +1519,7 @@ public class LibraryTreePanel extends JPanel {
 		XMLControl control = new XMLControlElement(rootResource);
 		control.setValue("real_path", pathToRoot); //$NON-NLS-1$
 		control.write(cacheFile.getAbsolutePath());
+		LibrarySearchIndex.getIndex().updateLater();
   	
 		return pathToRoot;
   }
@@ -1975,6 +1976,7 @@ public class LibraryTreePanel extends JPanel {
         	  		XMLControl control = new XMLControlElement(rootResource);
         	  		control.setValue("real_path", pathToRoot); //$NON-NLS-1$
         				control.write(cacheFile.getAbsolutePath());
+        				LibrarySearchIndex.getIndex().updateLater();
         				
       	    		setSelectionPath(treePath);
       	    		